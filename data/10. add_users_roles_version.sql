@@ -0,0 +1,11 @@
+-- ============================================
+-- 用戶角色版本號
+-- 開啟 jwt.role-claims 後 token 帶有角色和簽發時的角色版本號，認證時不再查詢 user_roles；
+-- 分配角色、修改或刪除角色、啟用或禁用用戶時版本號加一，使之前簽發的 token 失效
+-- ============================================
+SET NAMES utf8mb4;
+
+ALTER TABLE `users`
+  ADD COLUMN `roles_version` BIGINT NOT NULL DEFAULT 0
+  COMMENT '角色版本號，角色或啟用狀態變更時加一'
+  AFTER `badminton_level`;
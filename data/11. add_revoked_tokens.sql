@@ -0,0 +1,15 @@
+-- ============================================
+-- 已撤銷的 token
+-- 登出時記錄 token 的 jti，認證時拒絕；記錄保留到 token 本身過期後由後台任務清理。
+-- 每個實例在內存中用 Bloom 過濾器 + 精確集合保存未過期的記錄，並定期從本表重新加載
+-- ============================================
+SET NAMES utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `revoked_tokens` (
+  `jti` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT 'token ID（jti claim）',
+  `user_id` bigint(20) DEFAULT NULL COMMENT '用戶ID',
+  `expires_at` datetime NOT NULL COMMENT 'token 過期時間，之後記錄可刪除',
+  `revoked_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '撤銷時間',
+  PRIMARY KEY (`jti`),
+  KEY `idx_revoked_token_expires` (`expires_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='已撤銷的token';
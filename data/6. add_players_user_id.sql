@@ -0,0 +1,28 @@
+-- ============================================
+-- players.user_id: 球員直接關聯用戶
+-- 叫號隊列按 user_id 把球員對應到團隊成員，不再按姓名、手機號碼字符串匹配
+-- 手動添加的球員沒有對應用戶，user_id 為 NULL
+-- ============================================
+SET NAMES utf8mb4;
+
+ALTER TABLE `players`
+  ADD COLUMN `user_id` bigint(20) NULL DEFAULT NULL COMMENT '對應的用戶ID，手動添加的球員為NULL' AFTER `team_id`,
+  ADD KEY `idx_player_team_user` (`team_id`, `user_id`),
+  ADD CONSTRAINT `fk_players_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE SET NULL ON UPDATE CASCADE;
+
+-- 回填：按原有規則，同一球隊內姓名等於成員的 real_name（為空時為 username）
+UPDATE `players` p
+  JOIN `user_teams` ut ON ut.`team_id` = p.`team_id`
+  JOIN `users` u ON u.`id` = ut.`user_id`
+SET p.`user_id` = u.`id`
+WHERE p.`user_id` IS NULL
+  AND p.`name` = COALESCE(u.`real_name`, u.`username`);
+
+-- 回填：姓名匹配不到時，按同一球隊內成員的手機號碼匹配
+UPDATE `players` p
+  JOIN `user_teams` ut ON ut.`team_id` = p.`team_id`
+  JOIN `users` u ON u.`id` = ut.`user_id`
+SET p.`user_id` = u.`id`
+WHERE p.`user_id` IS NULL
+  AND p.`phone_number` IS NOT NULL
+  AND p.`phone_number` = u.`phone_number`;
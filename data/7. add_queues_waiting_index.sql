@@ -0,0 +1,10 @@
+-- ============================================
+-- queues 等待隊列索引
+-- 按 (status, player_id) 查找團隊的 WAITING 隊列，queue_number、created_at 直接從索引讀取；
+-- 新索引以 status 開頭，覆蓋原有的 idx_queue_status
+-- ============================================
+SET NAMES utf8mb4;
+
+ALTER TABLE `queues`
+  ADD KEY `idx_queue_status_player` (`status`, `player_id`, `queue_number`, `created_at`),
+  DROP KEY `idx_queue_status`;
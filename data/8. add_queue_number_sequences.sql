@@ -0,0 +1,28 @@
+-- ============================================
+-- 排隊號碼計數表
+-- 每個場地（COURT）和每個團隊未指定場地的隊列（TEAM）各一行，next_value 為下一個未預留的號碼；
+-- 應用按號段預留號碼，插入隊列時不再查詢最大號碼
+-- ============================================
+SET NAMES utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `queue_number_sequences` (
+  `scope_type` varchar(10) NOT NULL COMMENT '編號範圍: COURT 或 TEAM',
+  `scope_id` bigint NOT NULL COMMENT '場地ID或團隊ID',
+  `next_value` bigint NOT NULL COMMENT '下一個未預留的排隊號碼',
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`scope_type`, `scope_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='排隊號碼計數表';
+
+-- 從現有隊列的最大號碼繼續編號
+INSERT INTO `queue_number_sequences` (`scope_type`, `scope_id`, `next_value`)
+SELECT 'COURT', q.`court_id`, MAX(q.`queue_number`) + 1
+FROM `queues` q
+WHERE q.`court_id` IS NOT NULL AND q.`queue_number` IS NOT NULL
+GROUP BY q.`court_id`;
+
+INSERT INTO `queue_number_sequences` (`scope_type`, `scope_id`, `next_value`)
+SELECT 'TEAM', p.`team_id`, MAX(q.`queue_number`) + 1
+FROM `queues` q
+JOIN `players` p ON p.`id` = q.`player_id`
+WHERE q.`court_id` IS NULL AND q.`queue_number` IS NOT NULL
+GROUP BY p.`team_id`;
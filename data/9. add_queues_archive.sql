@@ -0,0 +1,32 @@
+-- ============================================
+-- queues 歷史歸檔
+-- 已結束（SERVED、CANCELLED）且超過保留時間的隊列記錄由後台任務分批移入 queues_archive，
+-- queues 只保留進行中的場次；queue_archive_progress 記錄本輪歸檔的進度，重啟後從中斷處繼續
+-- ============================================
+SET NAMES utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `queues_archive` (
+  `id` bigint(20) NOT NULL COMMENT '原隊列ID',
+  `player_id` bigint(20) NOT NULL COMMENT '球員ID',
+  `court_id` bigint(20) DEFAULT NULL COMMENT '場地ID',
+  `status` varchar(20) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '隊列狀態：SERVED(已服務), CANCELLED(已取消)',
+  `queue_number` int(11) DEFAULT NULL COMMENT '排隊號碼',
+  `called_at` datetime DEFAULT NULL COMMENT '叫號時間',
+  `served_at` datetime DEFAULT NULL COMMENT '服務時間（上場時間）',
+  `created_at` datetime NOT NULL COMMENT '建立時間',
+  `updated_at` datetime NOT NULL COMMENT '更新時間',
+  `archived_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '歸檔時間',
+  PRIMARY KEY (`id`),
+  KEY `idx_queue_archive_player` (`player_id`),
+  KEY `idx_queue_archive_created` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='叫號隊列歸檔表';
+
+CREATE TABLE IF NOT EXISTS `queue_archive_progress` (
+  `id` tinyint(4) NOT NULL COMMENT '固定為1',
+  `last_queue_id` bigint(20) NOT NULL DEFAULT 0 COMMENT '本輪已掃描到的隊列ID，一輪結束後歸零',
+  `archived_total` bigint(20) NOT NULL DEFAULT 0 COMMENT '累計歸檔數量',
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='隊列歸檔進度';
+
+INSERT IGNORE INTO `queue_archive_progress` (`id`, `last_queue_id`, `archived_total`) VALUES (1, 0, 0);
@@ -66,6 +66,11 @@ export function TeamCallingSystem({ onClearQueueRef, onEndSession }: TeamCalling
   const wsRef = useRef<WebSocket | null>(null)
   // 自動重連計時器（30 秒重試一次）
   const reconnectTimerRef = useRef<ReturnType<typeof setTimeout> | null>(null)
+  // 等待隊列版本與原始數據，用於應用 QUEUE_DELTA 增量更新
+  const queueVersionRef = useRef<number | null>(null)
+  const queueEntriesRef = useRef<any[]>([])
+  // 最後收到的團隊廣播序號，重連時帶上以便後端只補發錯過的消息
+  const lastSeqRef = useRef<{ teamId: number; seq: number } | null>(null)
 
   // 如果 URL 中有 teamId，自動加載
   useEffect(() => {
@@ -212,12 +217,17 @@ export function TeamCallingSystem({ onClearQueueRef, onEndSession }: TeamCalling
       
       // WebSocket URL - 根據實際後端配置調整
       const wsUrl = process.env.NEXT_PUBLIC_WS_URL || "ws://localhost:18080/api/ws"
-      const fullWsUrl = `${wsUrl}?teamId=${currentTeam.id}`
+      const lastSeq = lastSeqRef.current?.teamId === currentTeam.id ? lastSeqRef.current.seq : null
+      const fullWsUrl = `${wsUrl}?teamId=${currentTeam.id}&queueDelta=1${lastSeq !== null ? `&lastSeq=${lastSeq}` : ""}`
       console.log("正在重新連接 WebSocket:", fullWsUrl)
       
       const ws = new WebSocket(fullWsUrl)
 
       ws.onopen = () => {
+        // 帶 lastSeq 重連時保留隊列版本，恢復成功後補發的增量可以直接應用；恢復失敗時後端會發送完整隊列
+        if (lastSeq === null) {
+          queueVersionRef.current = null
+        }
         setWsConnected(true)
         setWsConnecting(false)
         // 連線成功後，清除自動重連計時器
@@ -233,14 +243,28 @@ export function TeamCallingSystem({ onClearQueueRef, onEndSession }: TeamCalling
         try {
           const data = JSON.parse(event.data)
           console.log("WebSocket 收到消息:", data)
+          if (typeof data.seq === "number") {
+            const last = lastSeqRef.current
+            if (!last || last.teamId !== currentTeam.id || data.seq > last.seq) {
+              lastSeqRef.current = { teamId: currentTeam.id, seq: data.seq }
+            }
+          }
           
           // 處理不同類型的消息
           if (data.type === "CONNECTED") {
             // WebSocket 連接確認
             console.log("WebSocket 連接已確認, teamId:", data.teamId)
+          } else if (data.type === "RESUMED") {
+            // 重連成功，後端已補發斷線期間錯過的消息，保留現有狀態
+            console.log("WebSocket 重連已恢復, 補發消息數:", data.replayed)
           } else if (data.type === "QUEUE_UPDATE") {
-            // 更新隊列
+            // 更新隊列（完整快照）
+            queueEntriesRef.current = Array.isArray(data.queue) ? data.queue : []
+            queueVersionRef.current = typeof data.version === "number" ? data.version : null
             handleQueueUpdate(data.queue)
+          } else if (data.type === "QUEUE_DELTA") {
+            // 隊列增量更新
+            handleQueueDelta(data, ws)
           } else if (data.type === "COURT_UPDATE") {
             // 更新場地狀態
             handleCourtUpdate(data.court)
@@ -329,6 +353,50 @@ export function TeamCallingSystem({ onClearQueueRef, onEndSession }: TeamCalling
               console.warn("assignments 為空或不是數組", typeof assignments, assignments)
               toast.info("沒有可分配的人員")
             }
+          } else if (data.type === "AUTO_ASSIGN_ALL_SUCCESS") {
+            // 批量自動分配成功 - 一次更新所有分配的場地，均為待確認狀態
+            console.log("收到 AUTO_ASSIGN_ALL_SUCCESS 消息:", data)
+            const isPending = data.isPending === true
+            const courtsData: any[] = data.courts || []
+            const playersByCourt = new Map<number, CourtPlayer[]>()
+            courtsData.forEach((courtData) => {
+              const courtId = typeof courtData.courtId === 'number' ? courtData.courtId : parseInt(courtData.courtId)
+              const players: CourtPlayer[] = (courtData.assignments || []).map((assignment: any) => {
+                const userId = typeof assignment.userId === 'number' ? assignment.userId : parseInt(assignment.userId)
+                const position = typeof assignment.position === 'number' ? assignment.position : parseInt(assignment.position)
+                const member = teamMembers.find((m) => m.userId === userId)
+                return {
+                  userId,
+                  userName: member?.userName || assignment.userName || `用戶${userId}`,
+                  userRealName: member?.userRealName || assignment.userRealName,
+                  position,
+                }
+              })
+              playersByCourt.set(courtId, players)
+            })
+
+            if (playersByCourt.size > 0) {
+              setCourts((prev) =>
+                prev.map((c) => {
+                  const players = playersByCourt.get(c.id)
+                  if (!players) {
+                    return c
+                  }
+                  return {
+                    ...c,
+                    players,
+                    isActive: !isPending,
+                    isPending,
+                  }
+                })
+              )
+              if (isPending) {
+                setPendingCourtId(playersByCourt.keys().next().value ?? null)
+              }
+              toast.success(data.message || `已自動分配 ${playersByCourt.size} 個場地`)
+            } else {
+              toast.info("沒有可分配的人員")
+            }
           } else if (data.type === "CONFIRM_START_MATCH_SUCCESS") {
             // 確認開始比賽成功
             console.log("收到 CONFIRM_START_MATCH_SUCCESS 消息:", data)
@@ -479,6 +547,7 @@ export function TeamCallingSystem({ onClearQueueRef, onEndSession }: TeamCalling
 
   // 断开 WebSocket
   const disconnectWebSocket = () => {
+    lastSeqRef.current = null
     if (wsRef.current) {
       wsRef.current.close(1000) // 1000 是正常關閉代碼
       wsRef.current = null
@@ -504,6 +573,45 @@ export function TeamCallingSystem({ onClearQueueRef, onEndSession }: TeamCalling
     onEndSession?.()
   }
 
+  // 處理隊列增量更新（由後端發送），版本不連續時重新請求完整隊列
+  const handleQueueDelta = (data: any, ws: WebSocket) => {
+    if (queueVersionRef.current === null || data.baseVersion !== queueVersionRef.current) {
+      console.warn("隊列版本不連續，重新加載完整隊列:", queueVersionRef.current, "->", data.baseVersion)
+      queueVersionRef.current = null
+      if (ws.readyState === WebSocket.OPEN) {
+        ws.send(JSON.stringify({ type: "LOAD_QUEUE", teamId: data.teamId }))
+      }
+      return
+    }
+
+    // 先移除 REMOVED，再將 ADDED / MOVED 放到指定位置，其餘成員按原順序填入空位
+    const changes: any[] = Array.isArray(data.changes) ? data.changes : []
+    const removed = new Set(changes.filter((c) => c.op === "REMOVED").map((c) => c.userId))
+    const moved = new Set(changes.filter((c) => c.op === "MOVED").map((c) => c.userId))
+    const remaining = queueEntriesRef.current.filter((e) => !removed.has(e.userId))
+    const byUserId = new Map<number, any>(remaining.map((e) => [e.userId, e] as [number, any]))
+    const size = remaining.length + changes.filter((c) => c.op === "ADDED").length
+    const next: any[] = new Array(size)
+    changes.forEach((c) => {
+      if (c.op === "ADDED") {
+        next[c.index] = c.entry
+      } else if (c.op === "MOVED") {
+        next[c.index] = byUserId.get(c.userId)
+      }
+    })
+    const rest = remaining.filter((e) => !moved.has(e.userId))
+    let cursor = 0
+    for (let i = 0; i < size; i++) {
+      if (next[i] === undefined) {
+        next[i] = rest[cursor++]
+      }
+    }
+
+    queueEntriesRef.current = next
+    queueVersionRef.current = data.version
+    handleQueueUpdate(next)
+  }
+
   // 處理隊列更新（由後端發送）
   const handleQueueUpdate = (queue: any[]) => {
     if (!Array.isArray(queue)) {
@@ -930,6 +1038,32 @@ export function TeamCallingSystem({ onClearQueueRef, onEndSession }: TeamCalling
     }
   }
 
+  // 自動分配所有空場地（由後端按場地順序選擇成員）
+  const autoAssignAllCourts = () => {
+    // 檢查 WebSocket 連接狀態
+    if (!wsConnected) {
+      toast.warning("請先重新連線 以使用此功能")
+      return
+    }
+
+    if (!courts.some((c) => c.players.length === 0)) {
+      toast.warning("沒有空場地")
+      return
+    }
+
+    if (wsRef.current?.readyState === WebSocket.OPEN) {
+      const message = {
+        type: "AUTO_ASSIGN_ALL",
+        teamId: team?.id,
+      }
+      console.log(`發送批量自動分配請求:`, message)
+      wsRef.current.send(JSON.stringify(message))
+      toast.info("正在為所有空場地自動分配人員...")
+    } else {
+      toast.error("WebSocket 未連接")
+    }
+  }
+
   // 確認開始比賽
   const confirmStartMatch = (courtId: number) => {
     // 檢查 WebSocket 連接狀態
@@ -1258,7 +1392,18 @@ export function TeamCallingSystem({ onClearQueueRef, onEndSession }: TeamCalling
       {/* 场地显示区域 */}
       {team && courts.length > 0 && (
         <div>
-          <h2 className="text-xl font-semibold mb-4">場地狀態</h2>
+          <div className="flex items-center justify-between mb-4">
+            <h2 className="text-xl font-semibold">場地狀態</h2>
+            <Button
+              variant="outline"
+              size="sm"
+              onClick={autoAssignAllCourts}
+              disabled={!wsConnected || !courts.some((c) => c.players.length === 0)}
+            >
+              <Users className="w-4 h-4 mr-2" />
+              全部自動分配
+            </Button>
+          </div>
           <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-3 gap-6">
             {courts.map((court) => {
               // 获取4个位置的玩家
@@ -0,0 +1,102 @@
+package com.shuttleshout.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.socket.TextMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.handler.OutboundMessageEncoder;
+import com.shuttleshout.handler.message.QueueEntry;
+import com.shuttleshout.handler.message.QueueUpdateMessage;
+
+/**
+ * QUEUE_UPDATE 廣播序列化基準測試
+ * 對比原來的 HashMap/ConcurrentHashMap 消息 + 處理器本地 ObjectMapper，
+ * 與類型化消息 + 共享 ObjectWriter；兩者都只序列化一次，測量的是每個事件的構建和序列化開銷
+ *
+ * 運行: ./gradlew jmh
+ * 加 -prof gc 可查看每次操作的分配量
+ *
+ * @author ShuttleShout Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BroadcastSerializationBenchmark {
+
+    private static final Long TEAM_ID = 1L;
+
+    /**
+     * 等待隊列人數
+     */
+    @Param({"12", "48", "120"})
+    private int queueSize;
+
+    private List<UserTeamDTO> members;
+    private String queueCreatedAt;
+    private ObjectMapper handlerLocalMapper;
+    private OutboundMessageEncoder encoder;
+
+    @Setup
+    public void setUp() {
+        members = new ArrayList<>(queueSize);
+        for (long i = 1; i <= queueSize; i++) {
+            UserTeamDTO member = new UserTeamDTO();
+            member.setUserId(i);
+            member.setUserName("user" + i);
+            member.setUserRealName("球員" + i);
+            member.setUserEmail("user" + i + "@example.com");
+            members.add(member);
+        }
+        queueCreatedAt = LocalDateTime.of(2024, 1, 1, 19, 30).toString();
+        handlerLocalMapper = new ObjectMapper();
+        encoder = new OutboundMessageEncoder(Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    @Benchmark
+    public TextMessage mapMessages() throws Exception {
+        List<Map<String, Object>> queueData = new ArrayList<>();
+        for (UserTeamDTO member : members) {
+            Map<String, Object> memberData = new HashMap<>();
+            memberData.put("userId", member.getUserId());
+            memberData.put("userName", member.getUserName());
+            memberData.put("userRealName", member.getUserRealName());
+            memberData.put("userEmail", member.getUserEmail());
+            memberData.put("queueCreatedAt", queueCreatedAt);
+            queueData.add(memberData);
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("teamId", TEAM_ID);
+        data.put("queue", queueData);
+        Map<String, Object> message = new ConcurrentHashMap<>();
+        message.put("type", "QUEUE_UPDATE");
+        message.putAll(data);
+        return new TextMessage(handlerLocalMapper.writeValueAsString(message));
+    }
+
+    @Benchmark
+    public TextMessage typedMessages() throws Exception {
+        List<QueueEntry> queueData = new ArrayList<>(members.size());
+        for (UserTeamDTO member : members) {
+            queueData.add(new QueueEntry(member.getUserId(), member.getUserName(),
+                    member.getUserRealName(), member.getUserEmail(), queueCreatedAt));
+        }
+        return encoder.encode(new QueueUpdateMessage(TEAM_ID, 1L, queueData)).getMessage();
+    }
+}
@@ -0,0 +1,78 @@
+package com.shuttleshout.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.shuttleshout.common.util.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * JWT 過濾器每個請求的驗證開銷基準測試
+ * 對比原來的流程（每次調用重新創建密鑰和解析器，同一 token 解析驗簽三次），
+ * 與單次解析驗簽（復用解析器）以及加上驗證結果緩存後的穩定狀態
+ *
+ * 運行: ./gradlew jmh
+ * 加 -prof gc 可查看每次操作的分配量
+ *
+ * @author ShuttleShout Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "shuttleshout-secret-key-change-in-production-environment-please-use-a-long-random-string";
+    private static final long EXPIRATION = 86400000L;
+
+    private JwtUtil uncached;
+    private JwtUtil cached;
+    private UserDetails principal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncached = new JwtUtil(SECRET, EXPIRATION, 0, 0, false);
+        cached = new JwtUtil(SECRET, EXPIRATION, 4096, 60000, false);
+        principal = User.withUsername("42").password("").authorities(new SimpleGrantedAuthority("ROLE_USER")).build();
+        token = uncached.generateToken(principal);
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        String userId = legacyClaims(token).getSubject();
+        return userId.equals(principal.getUsername())
+                && legacyClaims(token).getSubject().equals(principal.getUsername())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        return principal.getUsername().equals(uncached.parseVerifiedClaims(token).getSubject());
+    }
+
+    @Benchmark
+    public boolean singleParseCached() {
+        return principal.getUsername().equals(cached.parseVerifiedClaims(token).getSubject());
+    }
+
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+}
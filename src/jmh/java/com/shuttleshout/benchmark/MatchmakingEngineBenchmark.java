@@ -0,0 +1,107 @@
+package com.shuttleshout.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.handler.TeamSessionState;
+import com.shuttleshout.handler.matchmaking.CandidatePool;
+import com.shuttleshout.handler.matchmaking.MatchmakingEngine;
+import com.shuttleshout.handler.matchmaking.RandomMatchmakingEngine;
+import com.shuttleshout.handler.matchmaking.RoundRobinMatchmakingEngine;
+import com.shuttleshout.handler.matchmaking.WaitingTimeMatchmakingEngine;
+
+/**
+ * 撮合引擎選人延遲基準測試
+ * 每次操作為一個場地選4人：從等待隊列構建候選池（排除在場上的成員）並由引擎選擇，
+ * 與原來基於 Stream 過濾 + 打亂整個列表的隨機選擇對比
+ *
+ * 運行: ./gradlew jmh
+ * 加 -prof gc 可查看每次操作的分配量
+ *
+ * @author ShuttleShout Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MatchmakingEngineBenchmark {
+
+    private static final Long TEAM_ID = 1L;
+    private static final int COURT_CAPACITY = 4;
+
+    /**
+     * 等待人數
+     */
+    @Param({"20", "200", "2000"})
+    private int waitingPlayers;
+
+    private List<TeamSessionState.WaitingEntry> waiting;
+    private Set<Long> onCourt;
+    private MatchmakingEngine waitingTime;
+    private MatchmakingEngine random;
+    private MatchmakingEngine roundRobin;
+
+    @Setup
+    public void setUp() {
+        waiting = new ArrayList<>(waitingPlayers);
+        for (long userId = 1; userId <= waitingPlayers; userId++) {
+            UserTeamDTO member = new UserTeamDTO();
+            member.setUserId(userId);
+            member.setTeamId(TEAM_ID);
+            member.setUserName("user" + userId);
+            waiting.add(new TeamSessionState.WaitingEntry(member, null));
+        }
+        // 約十分之一的等待成員仍在場上
+        onCourt = new HashSet<>();
+        for (long userId = 1; userId <= waitingPlayers; userId += 10) {
+            onCourt.add(userId);
+        }
+        waitingTime = new WaitingTimeMatchmakingEngine();
+        random = new RandomMatchmakingEngine();
+        roundRobin = new RoundRobinMatchmakingEngine();
+    }
+
+    @Benchmark
+    public List<UserTeamDTO> waitingTime() {
+        return select(waitingTime);
+    }
+
+    @Benchmark
+    public List<UserTeamDTO> random() {
+        return select(random);
+    }
+
+    @Benchmark
+    public List<UserTeamDTO> roundRobin() {
+        return select(roundRobin);
+    }
+
+    @Benchmark
+    public List<UserTeamDTO> streamShuffleBaseline() {
+        List<UserTeamDTO> available = waiting.stream()
+                .map(TeamSessionState.WaitingEntry::getMember)
+                .filter(member -> !onCourt.contains(member.getUserId()))
+                .collect(Collectors.toList());
+        Collections.shuffle(available);
+        return available.subList(0, Math.min(COURT_CAPACITY, available.size()));
+    }
+
+    private List<UserTeamDTO> select(MatchmakingEngine engine) {
+        CandidatePool pool = CandidatePool.of(TEAM_ID, waiting, onCourt);
+        return pool.take(engine.select(pool, COURT_CAPACITY));
+    }
+}
@@ -0,0 +1,59 @@
+package com.shuttleshout.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.shuttleshout.security.BloomFilter;
+
+/**
+ * token 撤銷檢查基準測試
+ * 測量未撤銷 token（常見情況）和已撤銷 token 的 Bloom 過濾器查詢耗時
+ *
+ * 運行: ./gradlew jmh
+ *
+ * @author ShuttleShout Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenRevocationBenchmark {
+
+    /**
+     * 未過期的撤銷記錄數
+     */
+    @Param({"1000", "100000"})
+    private int revokedTokens;
+
+    private BloomFilter filter;
+    private String revokedJti;
+    private String activeJti;
+
+    @Setup
+    public void setUp() {
+        filter = new BloomFilter(Math.max(100000, revokedTokens * 2), 0.01);
+        for (int i = 0; i < revokedTokens; i++) {
+            revokedJti = UUID.randomUUID().toString();
+            filter.put(revokedJti);
+        }
+        activeJti = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public boolean activeToken() {
+        return filter.mightContain(activeJti);
+    }
+
+    @Benchmark
+    public boolean revokedToken() {
+        return filter.mightContain(revokedJti);
+    }
+}
@@ -0,0 +1,216 @@
+package com.shuttleshout.load;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.websocket.ContainerProvider;
+import javax.websocket.WebSocketContainer;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+
+import com.mybatisflex.core.audit.AuditManager;
+import com.shuttleshout.ShuttleShoutApplication;
+
+/**
+ * 叫號系統 WebSocket 負載測試
+ * 在本進程內以 H2 內存數據庫啟動應用，為每個團隊打開一個操作員連接和若干觀眾連接，
+ * 操作員按配置的速率發送真實的叫號命令，統計結果廣播從命令發出到各連接收到的端到端延遲和吞吐量。
+ * 運行: ./gradlew callingLoadTest -Pload.teams=50 -Pload.viewersPerTeam=20
+ *
+ * @author ShuttleShout Team
+ */
+public class CallingLoadTest {
+
+    private static final long CONNECT_TIMEOUT_SECONDS = 30;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = new LoadTestOptions().validate();
+        System.out.println("叫號負載測試: " + options);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ShuttleShoutApplication.class)
+                .run("--spring.profiles.active=loadtest");
+        try {
+            // MyBatisFlexConfig 會把每條 SQL 打印到控制台，壓測時關閉以免影響測量
+            AuditManager.setAuditEnable(false);
+            List<LoadTestDataSeeder.SeededTeam> teams =
+                    new LoadTestDataSeeder(context.getBean(JdbcTemplate.class)).seed(options);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+            run(options, teams, "ws://localhost:" + port + contextPath + "/ws?teamId=");
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void run(LoadTestOptions options, List<LoadTestDataSeeder.SeededTeam> teams, String url)
+            throws Exception {
+        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        container.setDefaultMaxTextMessageBufferSize(256 * 1024);
+        StandardWebSocketClient client = new StandardWebSocketClient(container);
+
+        AtomicLong framesReceived = new AtomicLong();
+        Map<String, TeamOperator.CommandCounters> counters = new LinkedHashMap<>();
+        for (String command : TeamOperator.COMMANDS) {
+            counters.put(command, new TeamOperator.CommandCounters());
+        }
+
+        // 先建立所有連接，保證每個連接都收到第一條命令的廣播
+        List<TeamOperator> operators = new ArrayList<>(teams.size());
+        Map<Long, List<TeamClient>> receivers = new LinkedHashMap<>();
+        List<WebSocketSession> sessions = new ArrayList<>();
+        long connectStartedAt = System.nanoTime();
+        for (LoadTestDataSeeder.SeededTeam team : teams) {
+            URI uri = URI.create(url + team.teamId);
+            TeamOperator operator = new TeamOperator(options, team.teamId, team.courtIds, counters, framesReceived);
+            operator.connected(connect(client, operator.getClient(), uri, sessions));
+            operators.add(operator);
+
+            List<TeamClient> teamReceivers = new ArrayList<>(options.viewersPerTeam + 1);
+            teamReceivers.add(operator.getClient());
+            for (int viewer = 0; viewer < options.viewersPerTeam; viewer++) {
+                TeamClient viewerClient = new TeamClient(framesReceived, null);
+                connect(client, viewerClient, uri, sessions);
+                teamReceivers.add(viewerClient);
+            }
+            receivers.put(team.teamId, teamReceivers);
+        }
+        System.out.printf("已建立 %d 個連接，耗時 %dms%n", sessions.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStartedAt));
+
+        long framesBefore = framesReceived.get();
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        List<Thread> threads = new ArrayList<>(operators.size());
+        for (TeamOperator operator : operators) {
+            operator.setDeadline(deadline);
+            Thread thread = new Thread(operator, "load-operator-" + operator.getTeamId());
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // 等待最後一批廣播送達所有觀眾
+        Thread.sleep(options.responseTimeoutMillis / 10);
+        long elapsedNanos = System.nanoTime() - startedAt;
+        long frames = framesReceived.get() - framesBefore;
+
+        for (WebSocketSession session : sessions) {
+            if (session.isOpen()) {
+                session.close(CloseStatus.NORMAL);
+            }
+        }
+
+        long measuredFrom = startedAt + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        report(options, operators, receivers, counters, frames, elapsedNanos, measuredFrom);
+    }
+
+    private static WebSocketSession connect(StandardWebSocketClient client, TeamClient handler, URI uri,
+                                            List<WebSocketSession> sessions) throws Exception {
+        WebSocketSession session = client.doHandshake(handler, new WebSocketHttpHeaders(), uri)
+                .get(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        sessions.add(session);
+        return session;
+    }
+
+    /**
+     * 將每個接收者按順序收到的結果廣播與操作員成功命令逐條對應，計算端到端延遲；
+     * 延遲從命令排定的發送時間算起，另外統計從實際發出算起的服務時間以便對比
+     *
+     * @param measuredFrom 預熱結束時間，之前發出的命令不計入延遲統計
+     */
+    private static void report(LoadTestOptions options, List<TeamOperator> operators,
+                               Map<Long, List<TeamClient>> receivers, Map<String, TeamOperator.CommandCounters> counters,
+                               long frames, long elapsedNanos, long measuredFrom) {
+        long[] latencies = new long[64];
+        long[] serviceTimes = new long[64];
+        int count = 0;
+        int delivered = 0;
+        int missing = 0;
+        int timedOutTeams = 0;
+        int droppedConnections = 0;
+        long succeeded = 0;
+        for (TeamOperator operator : operators) {
+            long[] scheduledAt = operator.getSucceededAt();
+            long[] sentAt = operator.getSucceededSentAt();
+            succeeded += sentAt.length;
+            if (operator.isTimedOut()) {
+                timedOutTeams++;
+            }
+            for (TeamClient receiver : receivers.get(operator.getTeamId())) {
+                if (receiver.isClosedUnexpectedly()) {
+                    droppedConnections++;
+                }
+                long[] receivedAt = receiver.getResultReceivedAt();
+                int matched = Math.min(sentAt.length, receivedAt.length);
+                delivered += matched;
+                missing += sentAt.length - matched;
+                if (count + matched > latencies.length) {
+                    latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + matched));
+                    serviceTimes = Arrays.copyOf(serviceTimes, latencies.length);
+                }
+                for (int i = 0; i < matched; i++) {
+                    if (scheduledAt[i] >= measuredFrom) {
+                        latencies[count] = receivedAt[i] - scheduledAt[i];
+                        serviceTimes[count++] = receivedAt[i] - sentAt[i];
+                    }
+                }
+            }
+        }
+        latencies = Arrays.copyOf(latencies, count);
+        Arrays.sort(latencies);
+        serviceTimes = Arrays.copyOf(serviceTimes, count);
+        Arrays.sort(serviceTimes);
+        double seconds = elapsedNanos / 1e9;
+
+        System.out.println();
+        System.out.println("==================== 叫號負載測試結果 ====================");
+        System.out.println("參數: " + options);
+        System.out.printf("持續時間: %.1fs, 連接數: %d%n", seconds,
+                operators.size() * (options.viewersPerTeam + 1));
+        System.out.printf("%-22s %10s %10s %10s %10s%n", "命令", "發送", "成功", "失敗", "超時");
+        for (Map.Entry<String, TeamOperator.CommandCounters> entry : counters.entrySet()) {
+            TeamOperator.CommandCounters counter = entry.getValue();
+            System.out.printf("%-22s %10d %10d %10d %10d%n", entry.getKey(), counter.sent.get(),
+                    counter.succeeded.get(), counter.failed.get(), counter.timedOut.get());
+        }
+        System.out.printf("命令吞吐量: %.1f 條/秒（成功 %d 條）%n", succeeded / seconds, succeeded);
+        System.out.printf("廣播送達: %.1f 幀/秒（結果廣播 %d 次，全部幀 %d）%n", frames / seconds, delivered, frames);
+        System.out.printf("端到端廣播延遲(ms，%d 個樣本，自排定發送時間起): p50=%.2f, p99=%.2f, p999=%.2f, max=%.2f%n",
+                count, percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                count > 0 ? toMillis(latencies[count - 1]) : 0.0);
+        System.out.printf("  其中自實際發出起(ms): p50=%.2f, p99=%.2f, p999=%.2f, max=%.2f%n",
+                percentile(serviceTimes, 0.50), percentile(serviceTimes, 0.99), percentile(serviceTimes, 0.999),
+                count > 0 ? toMillis(serviceTimes[count - 1]) : 0.0);
+        if (missing > 0 || timedOutTeams > 0 || droppedConnections > 0) {
+            System.out.printf("異常: 未送達的結果廣播 %d 次, 超時停止的團隊 %d 個, 異常斷開的連接 %d 個%n",
+                    missing, timedOutTeams, droppedConnections);
+        }
+        System.out.println("==========================================================");
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return toMillis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,86 @@
+package com.shuttleshout.load;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * 負載測試數據初始化
+ * 在內存數據庫中建表，並為每個團隊創建成員和場地
+ *
+ * @author ShuttleShout Team
+ */
+class LoadTestDataSeeder {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    LoadTestDataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 建表並初始化數據
+     *
+     * @return 每個團隊的場地ID
+     */
+    List<SeededTeam> seed(LoadTestOptions options) {
+        new ResourceDatabasePopulator(new ClassPathResource("loadtest/schema.sql"))
+                .execute(jdbcTemplate.getDataSource());
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<SeededTeam> teams = new ArrayList<>(options.teams);
+        for (int team = 1; team <= options.teams; team++) {
+            List<Object[]> users = new ArrayList<>(options.membersPerTeam);
+            for (int member = 1; member <= options.membersPerTeam; member++) {
+                String username = "load-" + team + "-" + member;
+                users.add(new Object[] {username, "load-test", username, now, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO users (username, password, real_name, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?)", users);
+            List<Long> userIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM users WHERE username LIKE ? ORDER BY id", Long.class, "load-" + team + "-%");
+
+            jdbcTemplate.update("INSERT INTO teams (name, max_players, court_count, user_id, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", "負載測試團隊 " + team, options.membersPerTeam,
+                    options.courtsPerTeam, userIds.get(0), now, now);
+            Long teamId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM teams", Long.class);
+
+            List<Object[]> memberships = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                memberships.add(new Object[] {userId, teamId, userId.equals(userIds.get(0)), now, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO user_teams (user_id, team_id, is_owner, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?)", memberships);
+
+            List<Object[]> courts = new ArrayList<>(options.courtsPerTeam);
+            for (int court = 1; court <= options.courtsPerTeam; court++) {
+                courts.add(new Object[] {"場地 " + court, teamId, now, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO team_courts (name, team_id, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?)", courts);
+            List<Long> courtIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM team_courts WHERE team_id = ? ORDER BY id", Long.class, teamId);
+
+            teams.add(new SeededTeam(teamId, courtIds));
+        }
+        return teams;
+    }
+
+    /**
+     * 已初始化的團隊
+     */
+    static class SeededTeam {
+
+        final Long teamId;
+        final List<Long> courtIds;
+
+        SeededTeam(Long teamId, List<Long> courtIds) {
+            this.teamId = teamId;
+            this.courtIds = courtIds;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.shuttleshout.load;
+
+/**
+ * 負載測試參數
+ * 從系統屬性讀取，例如: ./gradlew callingLoadTest -Pload.teams=50 -Pload.commandRate=10
+ *
+ * @author ShuttleShout Team
+ */
+public class LoadTestOptions {
+
+    /**
+     * 同時進行叫號的團隊數，每個團隊一個操作員連接
+     */
+    final int teams = intProperty("load.teams", 20);
+
+    /**
+     * 每個團隊的觀眾連接數（只接收廣播）
+     */
+    final int viewersPerTeam = intProperty("load.viewersPerTeam", 10);
+
+    final int courtsPerTeam = intProperty("load.courtsPerTeam", 4);
+
+    /**
+     * 每個團隊的成員數，需要多於場地容量才能持續輪換
+     */
+    final int membersPerTeam = intProperty("load.membersPerTeam", 24);
+
+    /**
+     * 每個操作員每秒發送的命令數
+     */
+    final double commandRate = doubleProperty("load.commandRate", 5);
+
+    /**
+     * 分配球員後改為移除一位球員再重新分配的概率
+     */
+    final double removeRatio = doubleProperty("load.removeRatio", 0.1);
+
+    final int durationSeconds = intProperty("load.durationSeconds", 60);
+
+    /**
+     * 預熱時間（秒），期間發出的命令不計入延遲統計
+     */
+    final int warmupSeconds = intProperty("load.warmupSeconds", 10);
+
+    /**
+     * 單條命令等待響應的超時（毫秒），超時的團隊停止發送
+     */
+    final long responseTimeoutMillis = intProperty("load.responseTimeoutMillis", 10000);
+
+    LoadTestOptions validate() {
+        if (teams <= 0 || courtsPerTeam <= 0 || commandRate <= 0 || durationSeconds <= 0) {
+            throw new IllegalArgumentException("teams、courtsPerTeam、commandRate、durationSeconds 必須大於0");
+        }
+        if (warmupSeconds < 0 || warmupSeconds >= durationSeconds) {
+            throw new IllegalArgumentException("warmupSeconds 必須小於 durationSeconds");
+        }
+        if (membersPerTeam < courtsPerTeam * 4 + 4) {
+            throw new IllegalArgumentException("membersPerTeam 至少需要 courtsPerTeam * 4 + 4 = " + (courtsPerTeam * 4 + 4));
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("teams=%d, viewersPerTeam=%d, courtsPerTeam=%d, membersPerTeam=%d, "
+                        + "commandRate=%.1f/s, removeRatio=%.2f, duration=%ds, warmup=%ds",
+                teams, viewersPerTeam, courtsPerTeam, membersPerTeam, commandRate, removeRatio, durationSeconds,
+                warmupSeconds);
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+    }
+}
@@ -0,0 +1,91 @@
+package com.shuttleshout.load;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 加入團隊房間的 WebSocket 客戶端
+ * 按順序記錄每條命令結果廣播的接收時間，測試結束後與操作員的發送時間逐條對應計算延遲
+ *
+ * @author ShuttleShout Team
+ */
+class TeamClient extends TextWebSocketHandler {
+
+    /**
+     * 每條成功命令各廣播一次的結果消息
+     */
+    static final Set<String> RESULT_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "START_NEW_GAME_SUCCESS", "AUTO_ASSIGN_SUCCESS", "CONFIRM_START_MATCH_SUCCESS",
+            "MATCH_FINISHED", "PLAYER_REMOVED")));
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final AtomicLong framesReceived;
+    private final Consumer<String> listener;
+
+    private long[] resultReceivedAt = new long[64];
+    private int resultCount;
+    private volatile boolean closedUnexpectedly;
+
+    /**
+     * @param framesReceived 所有客戶端共享的接收幀計數
+     * @param listener 每條消息的類型回調（操作員用於等待響應），可為null
+     */
+    TeamClient(AtomicLong framesReceived, Consumer<String> listener) {
+        this.framesReceived = framesReceived;
+        this.listener = listener;
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        long receivedAt = System.nanoTime();
+        framesReceived.incrementAndGet();
+        JsonNode type = MAPPER.readTree(message.getPayload()).get("type");
+        if (type == null) {
+            return;
+        }
+        if (RESULT_TYPES.contains(type.asText())) {
+            recordResult(receivedAt);
+        }
+        if (listener != null) {
+            listener.accept(type.asText());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        if (!CloseStatus.NORMAL.equalsCode(status)) {
+            closedUnexpectedly = true;
+        }
+    }
+
+    /**
+     * 按接收順序返回結果廣播的接收時間（納秒）
+     */
+    synchronized long[] getResultReceivedAt() {
+        return Arrays.copyOf(resultReceivedAt, resultCount);
+    }
+
+    boolean isClosedUnexpectedly() {
+        return closedUnexpectedly;
+    }
+
+    private synchronized void recordResult(long receivedAt) {
+        if (resultCount == resultReceivedAt.length) {
+            resultReceivedAt = Arrays.copyOf(resultReceivedAt, resultCount * 2);
+        }
+        resultReceivedAt[resultCount++] = receivedAt;
+    }
+}
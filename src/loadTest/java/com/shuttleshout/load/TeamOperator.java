@@ -0,0 +1,248 @@
+package com.shuttleshout.load;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 模擬一個團隊的操作員
+ * 先開始新局，然後按場地輪流推進 分配 → 確認開始 → 結束比賽 的流程，偶爾移除球員後重新分配。
+ * 每條命令等待結果廣播或錯誤響應後再發送下一條，保證結果廣播與命令一一對應。
+ * 命令按固定節奏排期，延遲從排定的發送時間算起：上一條命令響應慢導致的發送推遲計入延遲，
+ * 避免閉環發送只統計到實際發出的命令而低估排隊時間（coordinated omission）
+ *
+ * @author ShuttleShout Team
+ */
+class TeamOperator implements Runnable {
+
+    static final String START_NEW_GAME = "START_NEW_GAME";
+    static final String AUTO_ASSIGN = "AUTO_ASSIGN";
+    static final String CONFIRM_START_MATCH = "CONFIRM_START_MATCH";
+    static final String FINISH_MATCH = "FINISH_MATCH";
+    static final String REMOVE_PLAYER = "REMOVE_PLAYER";
+
+    static final List<String> COMMANDS = Arrays.asList(
+            START_NEW_GAME, AUTO_ASSIGN, CONFIRM_START_MATCH, FINISH_MATCH, REMOVE_PLAYER);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * 場地在操作員眼中的階段
+     */
+    private enum CourtPhase {
+        EMPTY,      // 等待分配
+        ASSIGNED,   // 已分配，等待確認開始
+        PLAYING     // 比賽進行中
+    }
+
+    private final LoadTestOptions options;
+    private final Long teamId;
+    private final List<Long> courtIds;
+    private final Map<String, CommandCounters> counters;
+    private final CourtPhase[] phases;
+    private final TeamClient client;
+
+    private WebSocketSession session;
+    private volatile CompletableFuture<String> pending;
+    private volatile long deadline;
+
+    private long[] succeededAt = new long[64];
+    private long[] succeededSentAt = new long[64];
+    private int succeededCount;
+    private volatile boolean timedOut;
+
+    TeamOperator(LoadTestOptions options, Long teamId, List<Long> courtIds,
+                 Map<String, CommandCounters> counters, AtomicLong framesReceived) {
+        this.options = options;
+        this.teamId = teamId;
+        this.courtIds = courtIds;
+        this.counters = counters;
+        this.phases = new CourtPhase[courtIds.size()];
+        Arrays.fill(phases, CourtPhase.EMPTY);
+        this.client = new TeamClient(framesReceived, this::onMessage);
+    }
+
+    TeamClient getClient() {
+        return client;
+    }
+
+    void connected(WebSocketSession session) {
+        this.session = session;
+    }
+
+    /**
+     * @param deadline 停止發送的時間（System.nanoTime）
+     */
+    void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    @Override
+    public void run() {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / options.commandRate);
+        // 錯開各團隊的第一條命令，避免所有操作員同時發送
+        long nextSendAt = System.nanoTime() + ThreadLocalRandom.current().nextLong(interval);
+        int court = 0;
+        try {
+            if (!send(START_NEW_GAME, command(START_NEW_GAME, null), System.nanoTime())) {
+                return;
+            }
+            while (!timedOut) {
+                LockSupport.parkNanos(nextSendAt - System.nanoTime());
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+                // 落後於排期時不補發也不跳過，下一條命令立即發送，延遲仍從排定時間算起
+                long scheduledAt = nextSendAt;
+                nextSendAt += interval;
+                step(court, scheduledAt);
+                court = (court + 1) % courtIds.size();
+            }
+        } catch (IOException e) {
+            timedOut = true;
+            System.err.printf("團隊 %d 的操作員發送失敗: %s%n", teamId, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 按場地當前階段發送下一條命令
+     */
+    private void step(int court, long scheduledAt) throws IOException, InterruptedException {
+        Long courtId = courtIds.get(court);
+        switch (phases[court]) {
+            case EMPTY:
+                if (send(AUTO_ASSIGN, command(AUTO_ASSIGN, courtId), scheduledAt)) {
+                    phases[court] = CourtPhase.ASSIGNED;
+                }
+                break;
+            case ASSIGNED:
+                if (ThreadLocalRandom.current().nextDouble() < options.removeRatio) {
+                    Map<String, Object> remove = command(REMOVE_PLAYER, courtId);
+                    remove.put("position", 1);
+                    if (send(REMOVE_PLAYER, remove, scheduledAt)) {
+                        phases[court] = CourtPhase.EMPTY;
+                    }
+                } else if (send(CONFIRM_START_MATCH, command(CONFIRM_START_MATCH, courtId), scheduledAt)) {
+                    phases[court] = CourtPhase.PLAYING;
+                }
+                break;
+            case PLAYING:
+                if (send(FINISH_MATCH, command(FINISH_MATCH, courtId), scheduledAt)) {
+                    phases[court] = CourtPhase.EMPTY;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 發送命令並等待結果廣播或錯誤響應
+     *
+     * @param scheduledAt 排定的發送時間（System.nanoTime）
+     * @return 命令是否成功
+     */
+    private boolean send(String type, Map<String, Object> command, long scheduledAt)
+            throws IOException, InterruptedException {
+        CommandCounters counter = counters.get(type);
+        CompletableFuture<String> response = new CompletableFuture<>();
+        pending = response;
+        long sentAt = System.nanoTime();
+        session.sendMessage(new TextMessage(MAPPER.writeValueAsString(command)));
+        counter.sent.incrementAndGet();
+        try {
+            String result = response.get(options.responseTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (TeamClient.RESULT_TYPES.contains(result)) {
+                counter.succeeded.incrementAndGet();
+                recordSuccess(scheduledAt, sentAt);
+                return true;
+            }
+            counter.failed.incrementAndGet();
+            return false;
+        } catch (TimeoutException e) {
+            // 超時後結果廣播可能晚到，無法再與命令一一對應，停止該團隊
+            counter.timedOut.incrementAndGet();
+            timedOut = true;
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pending = null;
+        }
+    }
+
+    private void onMessage(String type) {
+        CompletableFuture<String> response = pending;
+        if (response != null && (TeamClient.RESULT_TYPES.contains(type) || "ERROR".equals(type))) {
+            response.complete(type);
+        }
+    }
+
+    private Map<String, Object> command(String type, Long courtId) {
+        Map<String, Object> command = new LinkedHashMap<>();
+        command.put("type", type);
+        command.put("teamId", teamId);
+        if (courtId != null) {
+            command.put("courtId", courtId);
+        }
+        return command;
+    }
+
+    private synchronized void recordSuccess(long scheduledAt, long sentAt) {
+        if (succeededCount == succeededAt.length) {
+            succeededAt = Arrays.copyOf(succeededAt, succeededCount * 2);
+            succeededSentAt = Arrays.copyOf(succeededSentAt, succeededCount * 2);
+        }
+        succeededAt[succeededCount] = scheduledAt;
+        succeededSentAt[succeededCount++] = sentAt;
+    }
+
+    /**
+     * 按發送順序返回成功命令排定的發送時間（納秒）
+     */
+    synchronized long[] getSucceededAt() {
+        return Arrays.copyOf(succeededAt, succeededCount);
+    }
+
+    /**
+     * 按發送順序返回成功命令實際的發送時間（納秒）
+     */
+    synchronized long[] getSucceededSentAt() {
+        return Arrays.copyOf(succeededSentAt, succeededCount);
+    }
+
+    boolean isTimedOut() {
+        return timedOut;
+    }
+
+    Long getTeamId() {
+        return teamId;
+    }
+
+    /**
+     * 單種命令的計數
+     */
+    static class CommandCounters {
+
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong succeeded = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong timedOut = new AtomicLong();
+    }
+}
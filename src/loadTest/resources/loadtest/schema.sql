@@ -0,0 +1,145 @@
+-- ============================================
+-- 負載測試用的 H2 內存數據庫表結構（MySQL 兼容模式）
+-- 與 data/ 下的建表和遷移腳本保持一致，只保留叫號流程用到的表，去掉 MySQL 專有的表選項
+-- ============================================
+
+CREATE TABLE users (
+  id bigint NOT NULL AUTO_INCREMENT,
+  username varchar(50) NOT NULL,
+  password varchar(255) NOT NULL,
+  email varchar(100) DEFAULT NULL,
+  phone_number varchar(20) DEFAULT NULL,
+  real_name varchar(100) DEFAULT NULL,
+  avatar varchar(500) DEFAULT NULL,
+  is_active tinyint NOT NULL DEFAULT 1,
+  last_login_at datetime DEFAULT NULL,
+  created_at datetime NOT NULL,
+  updated_at datetime NOT NULL,
+  badminton_level tinyint DEFAULT NULL,
+  roles_version bigint NOT NULL DEFAULT 0,
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_user_username (username)
+);
+
+CREATE TABLE roles (
+  id bigint NOT NULL AUTO_INCREMENT,
+  name varchar(50) NOT NULL,
+  code varchar(50) NOT NULL,
+  description varchar(255) DEFAULT NULL,
+  is_active tinyint NOT NULL DEFAULT 1,
+  created_at datetime NOT NULL,
+  updated_at datetime NOT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE user_roles (
+  id bigint NOT NULL AUTO_INCREMENT,
+  user_id bigint NOT NULL,
+  role_id bigint NOT NULL,
+  created_at datetime NOT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE teams (
+  id bigint NOT NULL AUTO_INCREMENT,
+  name varchar(100) NOT NULL,
+  description varchar(255) DEFAULT NULL,
+  color varchar(50) DEFAULT NULL,
+  level varchar(50) DEFAULT NULL,
+  max_players int NOT NULL DEFAULT 20,
+  court_count int NOT NULL DEFAULT 2,
+  is_active tinyint NOT NULL DEFAULT 1,
+  user_id bigint NOT NULL,
+  created_at datetime NOT NULL,
+  updated_at datetime NOT NULL,
+  PRIMARY KEY (id),
+  KEY idx_team_user (user_id)
+);
+
+CREATE TABLE user_teams (
+  id bigint NOT NULL AUTO_INCREMENT,
+  user_id bigint NOT NULL,
+  team_id bigint NOT NULL,
+  is_owner tinyint DEFAULT 0,
+  created_at datetime DEFAULT CURRENT_TIMESTAMP,
+  updated_at datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_team_user (team_id, user_id),
+  KEY idx_user_teams_user (user_id)
+);
+
+CREATE TABLE team_courts (
+  id bigint NOT NULL AUTO_INCREMENT,
+  name varchar(100) NOT NULL,
+  team_id bigint NOT NULL,
+  player1_id bigint DEFAULT NULL,
+  player2_id bigint DEFAULT NULL,
+  player3_id bigint DEFAULT NULL,
+  player4_id bigint DEFAULT NULL,
+  match_started_at datetime DEFAULT NULL,
+  match_ended_at datetime DEFAULT NULL,
+  is_active tinyint NOT NULL DEFAULT 1,
+  created_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  KEY idx_team_court_team (team_id)
+);
+
+CREATE TABLE matches (
+  id bigint NOT NULL AUTO_INCREMENT,
+  team_id bigint NOT NULL,
+  court_id bigint NOT NULL,
+  player1_id bigint DEFAULT NULL,
+  player2_id bigint DEFAULT NULL,
+  player3_id bigint DEFAULT NULL,
+  player4_id bigint DEFAULT NULL,
+  status varchar(20) NOT NULL DEFAULT 'ONGOING',
+  started_at datetime NOT NULL,
+  ended_at datetime DEFAULT NULL,
+  created_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  KEY idx_match_team (team_id),
+  KEY idx_match_court (court_id),
+  KEY idx_match_status (status)
+);
+
+CREATE TABLE players (
+  id bigint NOT NULL AUTO_INCREMENT,
+  name varchar(100) NOT NULL,
+  phone_number varchar(20) DEFAULT NULL,
+  notes varchar(500) DEFAULT NULL,
+  team_id bigint NOT NULL,
+  user_id bigint DEFAULT NULL,
+  created_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  KEY idx_player_team (team_id),
+  KEY idx_player_team_user (team_id, user_id),
+  KEY idx_player_name (name)
+);
+
+CREATE TABLE queues (
+  id bigint NOT NULL AUTO_INCREMENT,
+  player_id bigint NOT NULL,
+  court_id bigint DEFAULT NULL,
+  status varchar(20) NOT NULL DEFAULT 'WAITING',
+  queue_number int DEFAULT NULL,
+  called_at datetime DEFAULT NULL,
+  served_at datetime DEFAULT NULL,
+  created_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  KEY idx_queue_player (player_id),
+  KEY idx_queue_court (court_id),
+  KEY idx_queue_status_player (status, player_id, queue_number, created_at),
+  KEY idx_queue_number (queue_number)
+);
+
+CREATE TABLE queue_number_sequences (
+  scope_type varchar(10) NOT NULL,
+  scope_id bigint NOT NULL,
+  next_value bigint NOT NULL,
+  updated_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (scope_type, scope_id)
+);
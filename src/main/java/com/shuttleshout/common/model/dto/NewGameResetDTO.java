@@ -0,0 +1,26 @@
+package com.shuttleshout.common.model.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 開始新局的批量重置結果
+ *
+ * @author ShuttleShout Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NewGameResetDTO {
+
+    private Integer clearedCourtCount;
+    private Integer deletedQueueCount;
+
+    // 重置後的等待隊列，按排隊號碼排序
+    private List<WaitingQueueEntryDTO> waitingEntries;
+}
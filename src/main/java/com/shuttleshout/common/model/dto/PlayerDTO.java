@@ -31,6 +31,8 @@ public class PlayerDTO {
 
     private String teamName;
 
+    private Long userId;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
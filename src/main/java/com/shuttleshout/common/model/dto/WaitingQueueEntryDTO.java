@@ -0,0 +1,33 @@
+package com.shuttleshout.common.model.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 等待隊列讀模型
+ * 一條 WAITING 隊列記錄及其對應的用戶信息，由一條 SQL 連表查出
+ *
+ * @author ShuttleShout Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitingQueueEntryDTO {
+
+    private Long queueId;
+    private Long playerId;
+    private Long courtId;
+    private Integer queueNumber;
+    private LocalDateTime queueCreatedAt;
+
+    // 關聯信息，球員未關聯用戶時為null
+    private Long userId;
+    private String userName;
+    private String userRealName;
+    private String userEmail;
+}
@@ -46,6 +46,12 @@ public class Player {
     @RelationManyToOne(selfField = "teamId", targetField = "id")
     private TeamPO team;
 
+    /**
+     * 對應的用戶ID，手動添加的球員為null
+     */
+    @Column(value = "user_id")
+    private Long userId;
+
     @Column(value = "created_at")
     private LocalDateTime createdAt;
 
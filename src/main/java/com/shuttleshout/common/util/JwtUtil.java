@@ -1,15 +1,23 @@
 package com.shuttleshout.common.util;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -18,23 +26,90 @@ import javax.crypto.SecretKey;
 
 /**
  * JWT工具类
+ * 签名密钥和解析器在构造时创建一次并复用；{@link #parseVerifiedClaims} 只解析、验签一次，
+ * 验证通过的token在短时间内缓存，同一token的后续请求不再重复验签
  * 
  * @author ShuttleShout Team
  */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret:shuttleshout-secret-key-change-in-production-environment}")
-    private String secret;
+    /**
+     * 角色 claims：權限名列表和簽發時的角色版本號
+     */
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_ROLES_VERSION = "rv";
+
+    private final Long expiration;
+
+    private final boolean roleClaimsEnabled;
+
+    private final SecretKey signingKey;
+
+    private final JwtParser parser;
 
-    @Value("${jwt.expiration:86400000}") // 默认24小时
-    private Long expiration;
+    private final int verifiedCacheSize;
+
+    private final long verifiedCacheTtl;
+
+    /**
+     * token -> 验证通过的claims，按访问顺序淘汰；所有读写都需要同步
+     */
+    private final Map<String, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret:shuttleshout-secret-key-change-in-production-environment}") String secret,
+                   @Value("${jwt.expiration:86400000}") Long expiration, // 默认24小时
+                   @Value("${jwt.verified-cache-size:4096}") int verifiedCacheSize,
+                   @Value("${jwt.verified-cache-ttl:60000}") long verifiedCacheTtl,
+                   @Value("${jwt.role-claims:false}") boolean roleClaimsEnabled) {
+        this.expiration = expiration;
+        this.roleClaimsEnabled = roleClaimsEnabled;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedCacheSize = verifiedCacheSize;
+        this.verifiedCacheTtl = verifiedCacheTtl;
+        this.verifiedTokens = new LinkedHashMap<String, VerifiedToken>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > JwtUtil.this.verifiedCacheSize;
+            }
+        };
+    }
 
     /**
-     * 获取签名密钥
+     * 解析并验证token：验签和过期检查（由解析器完成）只做一次；返回的claims可能被缓存共享，调用方不要修改
+     * 验证通过的token缓存 jwt.verified-cache-ttl 毫秒（不超过token本身的过期时间），设为0时不缓存
+     *
+     * @param token JWT
+     * @return 验证通过的claims
+     * @throws JwtException 签名无效、格式错误或已过期
+     * @throws IllegalArgumentException token为空
      */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public Claims parseVerifiedClaims(String token) {
+        long now = System.currentTimeMillis();
+        if (verifiedCacheSize > 0 && verifiedCacheTtl > 0) {
+            synchronized (verifiedTokens) {
+                VerifiedToken cached = verifiedTokens.get(token);
+                if (cached != null) {
+                    if (cached.expiresAt > now) {
+                        return cached.claims;
+                    }
+                    verifiedTokens.remove(token);
+                }
+            }
+        }
+
+        Claims claims = getAllClaimsFromToken(token);
+        if (verifiedCacheSize > 0 && verifiedCacheTtl > 0) {
+            long expiresAt = now + verifiedCacheTtl;
+            if (claims.getExpiration() != null) {
+                expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+            }
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(token, new VerifiedToken(claims, expiresAt));
+            }
+        }
+        return claims;
     }
 
     /**
@@ -76,19 +151,7 @@ public class JwtUtil {
      * 从token中获取所有claims
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    /**
-     * 检查token是否过期
-     */
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -106,6 +169,54 @@ public class JwtUtil {
         return createToken(claims, userDetails.getUsername());
     }
 
+    /**
+     * 生成token：开启 jwt.role-claims 时带上权限和角色版本号，认证时不再查询用户角色
+     *
+     * @param userDetails 用户
+     * @param rolesVersion 当前角色版本号
+     */
+    public String generateToken(UserDetails userDetails, long rolesVersion) {
+        if (!roleClaimsEnabled) {
+            return generateToken(userDetails);
+        }
+        List<String> roles = new ArrayList<>(userDetails.getAuthorities().size());
+        for (GrantedAuthority authority : userDetails.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_ROLES, roles);
+        claims.put(CLAIM_ROLES_VERSION, rolesVersion);
+        return createToken(claims, userDetails.getUsername());
+    }
+
+    public boolean isRoleClaimsEnabled() {
+        return roleClaimsEnabled;
+    }
+
+    /**
+     * 从已验证的claims中读取角色版本号
+     *
+     * @return 版本号，未开启 jwt.role-claims 或token不带角色claims时返回null
+     */
+    public Long getRolesVersion(Claims claims) {
+        Object version = claims.get(CLAIM_ROLES_VERSION);
+        if (!roleClaimsEnabled || !(version instanceof Number) || !(claims.get(CLAIM_ROLES) instanceof List)) {
+            return null;
+        }
+        return ((Number) version).longValue();
+    }
+
+    /**
+     * 从已验证的claims中构建权限，只在 {@link #getRolesVersion} 不为null时使用
+     */
+    public List<GrantedAuthority> getAuthorities(Claims claims) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (Object role : (List<?>) claims.get(CLAIM_ROLES)) {
+            authorities.add(new SimpleGrantedAuthority(String.valueOf(role)));
+        }
+        return authorities;
+    }
+
     /**
      * 创建token
      */
@@ -113,9 +224,10 @@ public class JwtUtil {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
@@ -123,8 +235,19 @@ public class JwtUtil {
      * 验证token
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        // 解析器已拒绝过期的token，缓存的记录不会超过token的过期时间
+        return userDetails.getUsername().equals(parseVerifiedClaims(token).getSubject());
+    }
+
+    private static final class VerifiedToken {
+
+        private final Claims claims;
+        private final long expiresAt;
+
+        private VerifiedToken(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
     }
 }
 
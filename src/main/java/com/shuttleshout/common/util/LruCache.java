@@ -0,0 +1,195 @@
+package com.shuttleshout.common.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * 按访问顺序淘汰的内存缓存
+ * 容量有上限，可选按 ttl 过期；失效在当前事务提交后执行（见 {@link TransactionUtil#afterCommit}），
+ * 每次失效代数加一，加载期间发生过失效的结果不写入缓存，避免旧数据覆盖。
+ * 容量和 ttl 每次使用时读取，配置修改后立即生效
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author ShuttleShout Team
+ */
+public class LruCache<K, V> {
+
+    private final IntSupplier maxEntries;
+    private final LongSupplier ttlMillis;
+
+    /**
+     * 访问会调整顺序，所有读写都需要同步
+     */
+    private final Map<K, CacheEntry<V>> entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+            if (size() > maxEntries.getAsInt()) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxEntries 容量上限
+     * @param ttlMillis 过期时间（毫秒），不大于0时不过期
+     */
+    public LruCache(IntSupplier maxEntries, LongSupplier ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * 不过期的缓存
+     */
+    public LruCache(IntSupplier maxEntries) {
+        this(maxEntries, () -> 0L);
+    }
+
+    /**
+     * 读取未过期的缓存
+     *
+     * @return 缓存的值，没有或已过期时返回null
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            CacheEntry<V> entry = entries.get(key);
+            if (entry != null && !entry.isExpired()) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 读取缓存，没有时调用 loader 加载并写入；loader 返回null时不缓存
+     * 加载在锁外进行，并发加载同一个键时各自查询一次
+     */
+    public V get(K key, Function<K, V> loader) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadedGeneration = currentGeneration();
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            put(key, loaded, loadedGeneration);
+        }
+        return loaded;
+    }
+
+    /**
+     * 加载前记下当前代数，加载后传给 {@link #put}
+     */
+    public long currentGeneration() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * 写入缓存；加载期间有过失效时放弃写入
+     */
+    public void put(K key, V value, long loadedGeneration) {
+        long ttl = ttlMillis.getAsLong();
+        synchronized (entries) {
+            if (loadedGeneration == generation) {
+                entries.put(key, new CacheEntry<>(value, ttl > 0 ? System.currentTimeMillis() + ttl : Long.MAX_VALUE));
+            }
+        }
+    }
+
+    /**
+     * 使单个键失效，在当前事务提交后执行
+     */
+    public void evict(K key) {
+        TransactionUtil.afterCommit(() -> {
+            synchronized (entries) {
+                generation++;
+                entries.remove(key);
+            }
+        });
+    }
+
+    /**
+     * 使满足条件的值失效，在当前事务提交后执行
+     */
+    public void evictIf(Predicate<V> condition) {
+        TransactionUtil.afterCommit(() -> {
+            synchronized (entries) {
+                generation++;
+                Iterator<CacheEntry<V>> iterator = entries.values().iterator();
+                while (iterator.hasNext()) {
+                    if (condition.test(iterator.next().value)) {
+                        iterator.remove();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 使所有缓存失效，在当前事务提交后执行
+     */
+    public void evictAll() {
+        TransactionUtil.afterCommit(() -> {
+            synchronized (entries) {
+                generation++;
+                entries.clear();
+            }
+        });
+    }
+
+    /**
+     * 统计指标
+     *
+     * @param sizeName 缓存条数的指标名
+     */
+    public Map<String, Object> getStats(String sizeName) {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put(sizeName, entries.size());
+        }
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        return stats;
+    }
+
+    private static final class CacheEntry<V> {
+
+        private final V value;
+        private final long expiresAt;
+
+        private CacheEntry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
+    }
+}
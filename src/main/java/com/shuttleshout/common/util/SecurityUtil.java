@@ -1,6 +1,11 @@
 package com.shuttleshout.common.util;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -82,6 +87,28 @@ public class SecurityUtil {
         return authentication != null && authentication.isAuthenticated();
     }
 
+    /**
+     * 获取当前登录用户的角色代码，即去掉 ROLE_ 前缀的权限
+     *
+     * @return 角色代码集合，如果未登录则返回空集合
+     */
+    public static Set<String> getCurrentRoleCodes() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> roleCodes = new HashSet<>();
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name != null && name.startsWith("ROLE_")) {
+                roleCodes.add(name.substring("ROLE_".length()));
+            }
+        }
+        return roleCodes;
+    }
+
     /**
      * 检查当前用户是否具有指定的角色
      *
@@ -0,0 +1,32 @@
+package com.shuttleshout.common.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ *
+ * @author ShuttleShout Team
+ */
+public class TransactionUtil {
+
+    /**
+     * 在当前事务提交后执行，没有事务时立即执行
+     * 用于使内存缓存失效：提交前失效的话，其他线程可能在提交前重新读到旧数据并写回缓存；
+     * 事务回滚时不执行
+     *
+     * @param action 要执行的操作
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
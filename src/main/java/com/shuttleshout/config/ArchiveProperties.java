@@ -0,0 +1,43 @@
+package com.shuttleshout.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 隊列歸檔配置
+ * 對應 application.yml 中的 shuttleshout.archive.*
+ *
+ * @author ShuttleShout Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "shuttleshout.archive")
+public class ArchiveProperties {
+
+    /**
+     * 是否啟用後台歸檔，需先執行 data/9 遷移
+     */
+    private boolean enabled = false;
+
+    /**
+     * 已結束的隊列記錄保留多久（毫秒）後歸檔，按 updated_at 計算
+     */
+    private long retention = 7L * 24 * 60 * 60 * 1000;
+
+    /**
+     * 兩輪歸檔之間的間隔（毫秒）
+     */
+    private long interval = 60L * 60 * 1000;
+
+    /**
+     * 每批移動的記錄數，每批一個事務
+     */
+    private int batchSize = 500;
+
+    /**
+     * 兩批之間的暫停（毫秒），限制對數據庫的壓力
+     */
+    private long batchPause = 200;
+}
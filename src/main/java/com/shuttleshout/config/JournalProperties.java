@@ -0,0 +1,43 @@
+package com.shuttleshout.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 寫後日誌配置
+ * 對應 application.yml 中的 shuttleshout.journal.*
+ *
+ * @author ShuttleShout Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "shuttleshout.journal")
+public class JournalProperties {
+
+    /**
+     * 是否啟用寫後日誌，關閉時場地球員和隊列狀態的修改同步寫入數據庫
+     */
+    private boolean enabled = true;
+
+    /**
+     * 日誌文件路徑，保存尚未寫入數據庫的修改
+     */
+    private String path = "journal/mutations.journal";
+
+    /**
+     * 定時寫入數據庫的間隔（毫秒），即數據庫相對內存的最大延遲
+     */
+    private long flushInterval = 200;
+
+    /**
+     * 待寫入的修改達到該數量時立即寫入數據庫
+     */
+    private int batchSize = 100;
+
+    /**
+     * 每次追加後是否強制同步到磁盤；關閉時只保證進程崩潰不丟失，開啟後可抵禦斷電
+     */
+    private boolean syncOnAppend = false;
+}
@@ -0,0 +1,31 @@
+package com.shuttleshout.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 自動分配撮合引擎配置
+ * 對應 application.yml 中的 shuttleshout.matchmaking.*
+ *
+ * @author ShuttleShout Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "shuttleshout.matchmaking")
+public class MatchmakingProperties {
+
+    /**
+     * 未單獨配置的團隊使用的引擎
+     */
+    private String defaultEngine = "WAITING_TIME";
+
+    /**
+     * 團隊ID -> 引擎名稱
+     */
+    private Map<Long, String> teams = new HashMap<>();
+}
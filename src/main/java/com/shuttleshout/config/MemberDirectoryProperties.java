@@ -0,0 +1,28 @@
+package com.shuttleshout.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 團隊成員目錄緩存配置
+ * 對應 application.yml 中的 shuttleshout.member-directory.*
+ *
+ * @author ShuttleShout Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "shuttleshout.member-directory")
+public class MemberDirectoryProperties {
+
+    /**
+     * 是否緩存團隊成員列表，關閉時每次都查詢數據庫
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最多緩存的團隊數，超過後淘汰最久未訪問的團隊
+     */
+    private int maxTeams = 512;
+}
@@ -0,0 +1,33 @@
+package com.shuttleshout.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 已認證用戶緩存配置
+ * 對應 application.yml 中的 shuttleshout.principal-cache.*
+ *
+ * @author ShuttleShout Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "shuttleshout.principal-cache")
+public class PrincipalCacheProperties {
+
+    /**
+     * 是否緩存 JWT 認證時加載的用戶和角色，關閉時每個請求都查詢數據庫
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最多緩存的用戶數，超過後淘汰最久未訪問的用戶
+     */
+    private int maxEntries = 10000;
+
+    /**
+     * 緩存有效期（毫秒），到期後重新查詢；兜底未經本服務修改的用戶或角色數據
+     */
+    private long ttl = 300000;
+}
@@ -99,6 +99,8 @@ public class SecurityConfig {
                 .authorizeRequests()
                 // OPTIONS 預檢請求允許所有（必須在第一位）
                 .antMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                // 運行指標暴露內部狀態，只允許系統管理員訪問（必須在 /health/** 之前）
+                .antMatchers("/health/websocket").hasRole("SYSTEM_ADMIN")
                 // 公開訪問的端點
                 .antMatchers("/health/**").permitAll()
                 .antMatchers("/auth/login", "/auth/register").permitAll()
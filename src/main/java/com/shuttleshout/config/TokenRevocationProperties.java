@@ -0,0 +1,38 @@
+package com.shuttleshout.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * token 撤銷配置
+ * 對應 application.yml 中的 shuttleshout.token-revocation.*
+ *
+ * @author ShuttleShout Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "shuttleshout.token-revocation")
+public class TokenRevocationProperties {
+
+    /**
+     * 是否在登出時撤銷 token 並在認證時檢查，需先執行 data/11 遷移
+     */
+    private boolean enabled = false;
+
+    /**
+     * Bloom 過濾器按多少條未過期的撤銷記錄分配空間，實際記錄更多時按實際數量的兩倍重建
+     */
+    private int expectedEntries = 100000;
+
+    /**
+     * Bloom 過濾器的目標誤判率，誤判時再查精確集合
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * 清理過期記錄並從數據庫重新加載的間隔（毫秒），其他實例的撤銷在此間隔內生效
+     */
+    private long refreshInterval = 5L * 60 * 1000;
+}
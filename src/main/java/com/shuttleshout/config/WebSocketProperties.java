@@ -0,0 +1,99 @@
+package com.shuttleshout.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * WebSocket 叫號系統配置
+ * 對應 application.yml 中的 shuttleshout.websocket.*
+ *
+ * @author ShuttleShout Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "shuttleshout.websocket")
+public class WebSocketProperties {
+
+    /**
+     * 出站消息發送配置
+     */
+    private Outbound outbound = new Outbound();
+
+    /**
+     * 斷線重連重放配置
+     */
+    private Replay replay = new Replay();
+
+    /**
+     * 團隊命令調度配置
+     */
+    private Command command = new Command();
+
+    @Data
+    public static class Outbound {
+
+        /**
+         * 每個會話最多緩衝的待發送幀數，超過即視為慢客戶端並斷開
+         */
+        private int bufferSizeLimit = 256;
+
+        /**
+         * 單次發送允許的最長時間（毫秒），超過即視為慢客戶端並斷開
+         */
+        private long sendTimeLimit = 10000;
+
+        /**
+         * 發送線程數量，<=0 時使用 CPU 核數的兩倍
+         */
+        private int senderThreads = 0;
+    }
+
+    @Data
+    public static class Replay {
+
+        /**
+         * 每個團隊最多保留的廣播幀數
+         */
+        private int capacity = 256;
+
+        /**
+         * 廣播幀保留的最長時間（毫秒），超過後重連的客戶端需要完整恢復
+         */
+        private long maxAge = 600000;
+    }
+
+    @Data
+    public static class Command {
+
+        /**
+         * 執行團隊命令的工作線程數量，<=0 時使用 CPU 核數；僅 PLATFORM 模式使用
+         */
+        private int workerThreads = 0;
+
+        /**
+         * 每個團隊郵箱最多排隊的命令數，超過後拒絕新命令
+         */
+        private int mailboxCapacity = 1000;
+
+        /**
+         * 命令執行模式，VIRTUAL 需要運行在支持虛擬線程的 JDK（21+）上，否則回退為 PLATFORM
+         */
+        private ExecutorMode executor = ExecutorMode.PLATFORM;
+    }
+
+    /**
+     * 團隊命令執行模式
+     */
+    public enum ExecutorMode {
+        /**
+         * 固定大小的平台線程池
+         */
+        PLATFORM,
+        /**
+         * 每條命令一個虛擬線程，阻塞在 JDBC 上時不佔用平台線程
+         */
+        VIRTUAL
+    }
+}
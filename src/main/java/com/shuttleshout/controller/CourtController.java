@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.shuttleshout.common.model.po.Court;
+import com.shuttleshout.handler.TeamSessionStateManager;
 import com.shuttleshout.service.CourtService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -35,6 +36,7 @@ import lombok.extern.slf4j.Slf4j;
 public class CourtController {
 
     private final CourtService courtService;
+    private final TeamSessionStateManager sessionStateManager;
 
     @GetMapping
     @Operation(summary = "獲取所有場地", description = "返回系統中所有場地列表")
@@ -65,6 +67,7 @@ public class CourtController {
             @Parameter(description = "團隊ID") @PathVariable Long teamId) {
         log.info("初始化團隊 {} 的場地", teamId);
         List<Court> courts = courtService.initializeCourtsForTeam(teamId);
+        sessionStateManager.evict(teamId);
         return ResponseEntity.ok(courts);
     }
 
@@ -74,6 +77,7 @@ public class CourtController {
             @Valid @RequestBody Court court) {
         log.info("創建場地: {}", court.getName());
         Court createdCourt = courtService.createCourt(court);
+        sessionStateManager.evict(createdCourt.getTeamId());
         return ResponseEntity.ok(createdCourt);
     }
 
@@ -93,6 +97,7 @@ public class CourtController {
             @RequestBody Court court) {
         log.info("更新場地, ID: {}", id);
         Court existing = courtService.getCourtById(id);
+        Long previousTeamId = existing.getTeamId();
         if (court.getName() != null) {
             existing.setName(court.getName());
         }
@@ -103,6 +108,9 @@ public class CourtController {
             existing.setTeamId(court.getTeamId());
         }
         Court updated = courtService.updateCourt(existing);
+        // 場地可能換了團隊，新舊團隊的會話狀態都需要重新加載
+        sessionStateManager.evict(previousTeamId);
+        sessionStateManager.evict(updated.getTeamId());
         return ResponseEntity.ok(updated);
     }
 
@@ -9,8 +9,19 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.shuttleshout.handler.SessionOutboundManager;
+import com.shuttleshout.handler.TeamCommandDispatcher;
+import com.shuttleshout.handler.TeamSessionStateManager;
+import com.shuttleshout.security.PermissionMatrix;
+import com.shuttleshout.security.PrincipalCache;
+import com.shuttleshout.security.TokenRevocationStore;
+import com.shuttleshout.service.UserTeamService;
+import com.shuttleshout.service.archive.QueueArchiver;
+import com.shuttleshout.service.journal.WriteBehindJournal;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
 
 /**
  * 健康檢查控制器
@@ -20,9 +31,20 @@ import io.swagger.v3.oas.annotations.tags.Tag;
  */
 @RestController
 @RequestMapping("/health")
+@RequiredArgsConstructor
 @Tag(name = "健康檢查", description = "系統健康檢查相關的API接口")
 public class HealthController {
 
+    private final SessionOutboundManager sessionOutboundManager;
+    private final TeamCommandDispatcher teamCommandDispatcher;
+    private final TeamSessionStateManager teamSessionStateManager;
+    private final WriteBehindJournal writeBehindJournal;
+    private final UserTeamService userTeamService;
+    private final QueueArchiver queueArchiver;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final PermissionMatrix permissionMatrix;
+
     /**
      * 健康檢查接口
      * 可用於測試CORS配置是否正常
@@ -50,5 +72,25 @@ public class HealthController {
         response.put("timestamp", LocalDateTime.now());
         return ResponseEntity.ok(response);
     }
-}
 
+    /**
+     * 運行指標，僅系統管理員可訪問
+     * WebSocket出站緩衝與慢客戶端斷開、團隊命令郵箱、團隊會話狀態、寫後日誌和隊列歸檔；
+     * 另含團隊成員、已認證用戶、token 撤銷和角色頁面權限各緩存的統計
+     */
+    @GetMapping("/websocket")
+    @Operation(summary = "運行指標", description = "返回WebSocket發送隊列、命令郵箱與各內存緩存的統計，需要系統管理員權限")
+    public ResponseEntity<Map<String, Object>> websocket() {
+        Map<String, Object> response = new HashMap<>(sessionOutboundManager.getStats());
+        response.put("commands", teamCommandDispatcher.getStats());
+        response.put("loadedTeamStates", teamSessionStateManager.getLoadedCount());
+        response.put("journal", writeBehindJournal.getStats());
+        response.put("memberDirectory", userTeamService.getMemberDirectoryStats());
+        response.put("archive", queueArchiver.getStats());
+        response.put("principalCache", principalCache.getStats());
+        response.put("tokenRevocation", tokenRevocationStore.getStats());
+        response.put("permissionMatrix", permissionMatrix.getStats());
+        response.put("timestamp", LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -22,6 +22,7 @@ import com.shuttleshout.common.model.dto.TeamCreateDTO;
 import com.shuttleshout.common.model.dto.TeamDTO;
 import com.shuttleshout.common.model.dto.TeamOverviewStatsDTO;
 import com.shuttleshout.common.model.dto.TeamUpdateDTO;
+import com.shuttleshout.handler.TeamSessionStateManager;
 import com.shuttleshout.service.TeamService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -40,6 +41,9 @@ public class TeamController {
     @Autowired
     private TeamService teamService;
 
+    @Autowired
+    private TeamSessionStateManager sessionStateManager;
+
     /**
      * 獲取所有球隊
      */
@@ -118,6 +122,7 @@ public class TeamController {
     public ResponseEntity<TeamDTO> updateTeam(@PathVariable Long id, @Valid @RequestBody TeamUpdateDTO teamUpdateDto) {
         try {
             TeamDTO updatedTeam = teamService.updateTeam(id, teamUpdateDto);
+            sessionStateManager.evict(id);
             return ResponseEntity.ok(updatedTeam);
         } catch (Exception e) {
             throw new ApiException("更新球隊失敗: " + e.getMessage(), HttpStatus.BAD_REQUEST, "UPDATE_TEAM_ERROR", e);
@@ -132,6 +137,7 @@ public class TeamController {
     public ResponseEntity<Void> deleteTeam(@PathVariable Long id) {
         try {
             teamService.deleteTeam(id);
+            sessionStateManager.evict(id);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
             throw new ApiException("刪除球隊失敗: " + e.getMessage(), HttpStatus.BAD_REQUEST, "DELETE_TEAM_ERROR", e);
@@ -23,6 +23,7 @@ import com.shuttleshout.common.model.dto.UserCreateDTO;
 import com.shuttleshout.common.model.dto.UserDTO;
 import com.shuttleshout.common.model.dto.UserUpdateDTO;
 import com.shuttleshout.common.util.SecurityUtil;
+import com.shuttleshout.handler.TeamSessionStateManager;
 import com.shuttleshout.service.UserService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -41,6 +42,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TeamSessionStateManager sessionStateManager;
+
     /**
      * 獲取所有用戶
      */
@@ -105,6 +109,7 @@ public class UserController {
     public ResponseEntity<UserDTO> updateUser(@PathVariable Long id, @Valid @RequestBody UserUpdateDTO userUpdateDto) {
         try {
             UserDTO updatedUser = userService.updateUser(id, userUpdateDto);
+            sessionStateManager.evictForUser(id);
             return ResponseEntity.ok(updatedUser);
         } catch (Exception e) {
             throw new ApiException("更新用戶失敗: " + e.getMessage(), HttpStatus.BAD_REQUEST, "UPDATE_USER_ERROR", e);
@@ -119,6 +124,7 @@ public class UserController {
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         try {
             userService.deleteUser(id);
+            sessionStateManager.evictForUser(id);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
             throw new ApiException("刪除用戶失敗: " + e.getMessage(), HttpStatus.BAD_REQUEST, "DELETE_USER_ERROR", e);
@@ -148,6 +154,7 @@ public class UserController {
     public ResponseEntity<UserDTO> updateCurrentUser(@CurrentUserId Long userId, @Valid @RequestBody UserUpdateDTO userUpdateDto) {
         try {
             UserDTO updatedUser = userService.updateUser(userId, userUpdateDto);
+            sessionStateManager.evictForUser(userId);
             return ResponseEntity.ok(updatedUser);
         } catch (Exception e) {
             throw new ApiException("更新用戶資訊失敗: " + e.getMessage(), HttpStatus.BAD_REQUEST, "UPDATE_USER_ERROR", e);
@@ -19,6 +19,7 @@ import com.shuttleshout.common.annotation.CurrentUserId;
 import com.shuttleshout.common.exception.ApiException;
 import com.shuttleshout.common.model.dto.UserTeamCreateDTO;
 import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.handler.TeamSessionStateManager;
 import com.shuttleshout.service.UserTeamService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -37,6 +38,9 @@ public class UserTeamController {
     @Autowired
     private UserTeamService userTeamService;
 
+    @Autowired
+    private TeamSessionStateManager sessionStateManager;
+
     /**
      * 获取所有用户团队关系
      */
@@ -87,6 +91,7 @@ public class UserTeamController {
     public ResponseEntity<UserTeamDTO> joinTeam(@Valid @RequestBody UserTeamCreateDTO userTeamCreateDto) {
         try {
             UserTeamDTO userTeam = userTeamService.joinTeam(userTeamCreateDto);
+            sessionStateManager.evict(userTeamCreateDto.getTeamId());
             return ResponseEntity.status(HttpStatus.CREATED).body(userTeam);
         } catch (Exception e) {
             throw new ApiException("加入團隊失敗: " + e.getMessage(), HttpStatus.BAD_REQUEST, "JOIN_TEAM_ERROR", e);
@@ -101,6 +106,7 @@ public class UserTeamController {
     public ResponseEntity<Void> leaveTeam(@PathVariable Long userId, @PathVariable Long teamId) {
         try {
             userTeamService.leaveTeam(userId, teamId);
+            sessionStateManager.evict(teamId);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
             throw new ApiException("離開團隊失敗: " + e.getMessage(), HttpStatus.BAD_REQUEST, "LEAVE_TEAM_ERROR", e);
@@ -120,6 +126,7 @@ public class UserTeamController {
             dto.setIsOwner(false);
 
             UserTeamDTO userTeam = userTeamService.joinTeam(dto);
+            sessionStateManager.evict(teamId);
             return ResponseEntity.status(HttpStatus.CREATED).body(userTeam);
         } catch (Exception e) {
             throw new ApiException("加入團隊失敗: " + e.getMessage(), HttpStatus.BAD_REQUEST, "JOIN_TEAM_ERROR", e);
@@ -134,6 +141,7 @@ public class UserTeamController {
     public ResponseEntity<Void> currentUserLeaveTeam(@PathVariable Long teamId, @CurrentUserId Long currentUserId) {
         try {
             userTeamService.leaveTeam(currentUserId, teamId);
+            sessionStateManager.evict(teamId);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
             throw new ApiException("離開團隊失敗: " + e.getMessage(), HttpStatus.BAD_REQUEST, "LEAVE_TEAM_ERROR", e);
@@ -148,6 +156,7 @@ public class UserTeamController {
     public ResponseEntity<Void> removeMember(@PathVariable Long targetUserId, @PathVariable Long teamId, @CurrentUserId Long currentUserId) {
         try {
             userTeamService.removeMember(currentUserId, targetUserId, teamId);
+            sessionStateManager.evict(teamId);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
             throw new ApiException("移除成員失敗: " + e.getMessage(), HttpStatus.BAD_REQUEST, "REMOVE_MEMBER_ERROR", e);
@@ -0,0 +1,57 @@
+package com.shuttleshout.handler;
+
+import org.springframework.web.socket.TextMessage;
+
+import lombok.Getter;
+
+/**
+ * 已序列化的出站消息幀
+ * 同一個幀可以被放入多個會話的發送隊列，不會重複序列化
+ *
+ * @author ShuttleShout Team
+ */
+@Getter
+public final class OutboundFrame {
+
+    /**
+     * 消息類型，例如 QUEUE_UPDATE
+     */
+    private final String type;
+
+    /**
+     * 序列化後的消息
+     */
+    private final TextMessage message;
+
+    /**
+     * 合併鍵：隊列中已有相同合併鍵的舊幀時，舊幀會被新幀取代；為null表示不合併
+     */
+    private final String coalesceKey;
+
+    /**
+     * 被取代鍵：之後入隊的幀的合併鍵等於此值時，本幀會被一併移除；為null表示不會被取代
+     */
+    private final String supersededBy;
+
+    private OutboundFrame(String type, TextMessage message, String coalesceKey, String supersededBy) {
+        this.type = type;
+        this.message = message;
+        this.coalesceKey = coalesceKey;
+        this.supersededBy = supersededBy;
+    }
+
+    /**
+     * 創建幀，QUEUE_UPDATE 這類全量快照會按團隊合併，只保留最新的一幀；
+     * 尚未發出的 QUEUE_DELTA 會被之後的全量快照取代
+     *
+     * @param type 消息類型
+     * @param teamId 團隊ID（可為null）
+     * @param json 序列化後的消息內容
+     * @return 出站幀
+     */
+    public static OutboundFrame of(String type, Long teamId, String json) {
+        String coalesceKey = "QUEUE_UPDATE".equals(type) ? type + ":" + teamId : null;
+        String supersededBy = "QUEUE_DELTA".equals(type) ? "QUEUE_UPDATE:" + teamId : null;
+        return new OutboundFrame(type, new TextMessage(json), coalesceKey, supersededBy);
+    }
+}
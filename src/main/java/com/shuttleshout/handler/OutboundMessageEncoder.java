@@ -0,0 +1,103 @@
+package com.shuttleshout.handler;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.shuttleshout.handler.message.OutboundMessage;
+
+/**
+ * WebSocket消息編解碼器
+ * 使用 Spring 配置好的 ObjectMapper 預先構建不可變的 ObjectWriter / ObjectReader，
+ * 所有會話共享，序列化器在首次使用後即被緩存
+ *
+ * @author ShuttleShout Team
+ */
+@Component
+public class OutboundMessageEncoder {
+
+    private final ObjectWriter writer;
+    private final ObjectReader inboundReader;
+
+    public OutboundMessageEncoder(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer();
+        this.inboundReader = objectMapper.readerFor(Map.class);
+    }
+
+    /**
+     * 將類型化消息序列化為出站幀，同一幀可發送給多個會話
+     *
+     * @param message 出站消息
+     * @return 出站幀
+     * @throws JsonProcessingException 序列化失敗
+     */
+    public OutboundFrame encode(OutboundMessage message) throws JsonProcessingException {
+        return OutboundFrame.of(message.getType(), message.teamIdForRouting(), writer.writeValueAsString(message));
+    }
+
+    /**
+     * 將類型化消息序列化為帶序號的出站幀，用於團隊廣播
+     *
+     * @param message 出站消息
+     * @param seq 團隊廣播序號
+     * @return 出站幀
+     * @throws JsonProcessingException 序列化失敗
+     */
+    public OutboundFrame encode(OutboundMessage message, long seq) throws JsonProcessingException {
+        return OutboundFrame.of(message.getType(), message.teamIdForRouting(),
+                withSeq(writer.writeValueAsString(message), seq));
+    }
+
+    /**
+     * 將 Map 形式的消息序列化為帶序號的出站幀，用於團隊廣播
+     *
+     * @param message 消息內容，必須包含 type
+     * @param teamId 團隊ID
+     * @param seq 團隊廣播序號
+     * @return 出站幀
+     * @throws JsonProcessingException 序列化失敗
+     */
+    public OutboundFrame encode(Map<String, Object> message, Long teamId, long seq) throws JsonProcessingException {
+        return OutboundFrame.of((String) message.get("type"), teamId,
+                withSeq(writer.writeValueAsString(message), seq));
+    }
+
+    /**
+     * 將 Map 形式的消息序列化為出站幀
+     *
+     * @param message 消息內容，必須包含 type
+     * @param teamId 團隊ID（可為null）
+     * @return 出站幀
+     * @throws JsonProcessingException 序列化失敗
+     */
+    public OutboundFrame encode(Map<String, Object> message, Long teamId) throws JsonProcessingException {
+        return OutboundFrame.of((String) message.get("type"), teamId, writer.writeValueAsString(message));
+    }
+
+    /**
+     * 在已序列化的 JSON 對象開頭寫入 seq 字段，避免為每次廣播重新構建消息對象
+     */
+    static String withSeq(String json, long seq) {
+        String prefix = "{\"seq\":" + seq;
+        if (json.length() <= 2) {
+            return prefix + "}";
+        }
+        return prefix + "," + json.substring(1);
+    }
+
+    /**
+     * 解析客戶端發來的消息
+     *
+     * @param payload JSON 字符串
+     * @return 消息數據
+     * @throws IOException 解析失敗
+     */
+    public Map<String, Object> decode(String payload) throws IOException {
+        return inboundReader.readValue(payload);
+    }
+}
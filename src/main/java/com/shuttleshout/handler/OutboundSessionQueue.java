@@ -0,0 +1,172 @@
+package com.shuttleshout.handler;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 單個會話的出站發送隊列
+ * 入隊不阻塞調用線程，由共享的發送線程池按順序逐幀寫出；
+ * 同一時間每個會話最多只有一個發送任務，保證幀的順序且避免併發寫同一個會話
+ *
+ * @author ShuttleShout Team
+ */
+@Slf4j
+class OutboundSessionQueue {
+
+    /**
+     * 入隊結果
+     */
+    enum OfferResult {
+        ACCEPTED,
+        COALESCED,
+        REJECTED,
+        EVICTED
+    }
+
+    private final WebSocketSession session;
+    private final Executor executor;
+    private final int bufferSizeLimit;
+    private final long sendTimeLimit;
+
+    private final Deque<OutboundFrame> pending = new ArrayDeque<>();
+
+    /**
+     * 以下狀態均由 this 鎖保護
+     */
+    private boolean draining;
+    private boolean closed;
+    private long sendStartedAt;
+
+    OutboundSessionQueue(WebSocketSession session, Executor executor, int bufferSizeLimit, long sendTimeLimit) {
+        this.session = session;
+        this.executor = executor;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimit = sendTimeLimit;
+    }
+
+    WebSocketSession getSession() {
+        return session;
+    }
+
+    /**
+     * 將幀放入隊列
+     * 如果客戶端跟不上（緩衝已滿或單次發送超時），隊列會被關閉並斷開會話
+     */
+    OfferResult offer(OutboundFrame frame) {
+        boolean startDrain = false;
+        OfferResult result;
+        synchronized (this) {
+            if (closed) {
+                return OfferResult.REJECTED;
+            }
+            if (isSlowConsumer()) {
+                closed = true;
+                pending.clear();
+                result = OfferResult.EVICTED;
+            } else {
+                result = coalesce(frame) ? OfferResult.COALESCED : OfferResult.ACCEPTED;
+                pending.addLast(frame);
+                if (!draining) {
+                    draining = true;
+                    startDrain = true;
+                }
+            }
+        }
+        if (result == OfferResult.EVICTED) {
+            executor.execute(() -> closeQuietly(CloseStatus.SESSION_NOT_RELIABLE));
+        } else if (startDrain) {
+            executor.execute(this::drain);
+        }
+        return result;
+    }
+
+    /**
+     * 關閉隊列，丟棄尚未發送的幀
+     */
+    synchronized void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    /**
+     * 當前緩衝中的幀數
+     */
+    synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * 移除隊列中與新幀合併鍵相同的舊幀（舊的全量快照已經過時），
+     * 以及被新幀取代的增量幀
+     * 新幀總是追加到隊尾，保證與其他消息的相對順序不變
+     */
+    private boolean coalesce(OutboundFrame frame) {
+        String key = frame.getCoalesceKey();
+        if (key == null) {
+            return false;
+        }
+        boolean removed = false;
+        Iterator<OutboundFrame> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            OutboundFrame queued = iterator.next();
+            if (key.equals(queued.getCoalesceKey()) || key.equals(queued.getSupersededBy())) {
+                iterator.remove();
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    private boolean isSlowConsumer() {
+        if (pending.size() >= bufferSizeLimit) {
+            log.warn("會話發送緩衝已滿: sessionId={}, buffered={}", session.getId(), pending.size());
+            return true;
+        }
+        if (sendStartedAt > 0 && System.currentTimeMillis() - sendStartedAt > sendTimeLimit) {
+            log.warn("會話發送超時: sessionId={}, elapsed={}ms", session.getId(),
+                    System.currentTimeMillis() - sendStartedAt);
+            return true;
+        }
+        return false;
+    }
+
+    private void drain() {
+        while (true) {
+            OutboundFrame frame;
+            synchronized (this) {
+                frame = closed ? null : pending.pollFirst();
+                if (frame == null) {
+                    draining = false;
+                    sendStartedAt = 0;
+                    return;
+                }
+                sendStartedAt = System.currentTimeMillis();
+            }
+            try {
+                if (session.isOpen()) {
+                    session.sendMessage(frame.getMessage());
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("發送WebSocket消息失敗: sessionId={}, type={}", session.getId(), frame.getType(), e);
+            }
+        }
+    }
+
+    private void closeQuietly(CloseStatus status) {
+        try {
+            if (session.isOpen()) {
+                session.close(status);
+            }
+        } catch (IOException e) {
+            log.debug("關閉慢客戶端會話失敗: sessionId={}", session.getId(), e);
+        }
+    }
+}
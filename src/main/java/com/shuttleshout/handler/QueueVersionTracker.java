@@ -0,0 +1,185 @@
+package com.shuttleshout.handler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.shuttleshout.handler.message.QueueChange;
+import com.shuttleshout.handler.message.QueueEntry;
+
+import lombok.Value;
+
+/**
+ * 等待隊列版本追蹤器
+ * 記錄每個團隊最近一次發送的等待隊列，計算新隊列與其差異並遞增版本號
+ *
+ * @author ShuttleShout Team
+ */
+@Component
+public class QueueVersionTracker {
+
+    private final Map<Long, TeamQueue> teams = new ConcurrentHashMap<>();
+
+    /**
+     * 記錄團隊最新的等待隊列
+     * publisher 在團隊鎖內執行，保證各版本按順序放入發送隊列
+     *
+     * @param teamId 團隊ID
+     * @param queue 最新的等待隊列
+     * @param publisher 發布本次版本變更
+     */
+    public void record(Long teamId, List<QueueEntry> queue, Consumer<QueueRevision> publisher) {
+        TeamQueue state = teams.computeIfAbsent(teamId, id -> new TeamQueue());
+        synchronized (state) {
+            long baseVersion = state.version;
+            List<QueueChange> changes = diff(state.entries, queue);
+            if (changes == null || !changes.isEmpty()) {
+                state.version++;
+            }
+            state.entries = new ArrayList<>(queue);
+            publisher.accept(new QueueRevision(baseVersion, state.version, changes, queue.size()));
+        }
+    }
+
+    /**
+     * 計算兩個隊列之間的差異
+     * 相對順序未變的成員不產生變更，只有最少數量的成員會被標記為 MOVED
+     *
+     * @param previous 上一版本的隊列
+     * @param current 新隊列
+     * @return 變更列表，隊列中存在重複成員無法計算時返回null
+     */
+    static List<QueueChange> diff(List<QueueEntry> previous, List<QueueEntry> current) {
+        Map<Long, Integer> currentIndex = new HashMap<>(current.size() * 2);
+        for (int i = 0; i < current.size(); i++) {
+            if (currentIndex.put(current.get(i).getUserId(), i) != null) {
+                return null;
+            }
+        }
+
+        List<QueueChange> changes = new ArrayList<>();
+        Map<Long, Boolean> seen = new HashMap<>(previous.size() * 2);
+        List<Long> keptIds = new ArrayList<>(previous.size());
+        List<Integer> keptTargets = new ArrayList<>(previous.size());
+        for (QueueEntry entry : previous) {
+            if (seen.put(entry.getUserId(), Boolean.TRUE) != null) {
+                return null;
+            }
+            Integer target = currentIndex.get(entry.getUserId());
+            if (target == null || !entry.equals(current.get(target))) {
+                // 離開隊列或信息有變化，信息變化時會重新以 ADDED 加入
+                changes.add(QueueChange.removed(entry.getUserId()));
+            } else {
+                keptIds.add(entry.getUserId());
+                keptTargets.add(target);
+            }
+        }
+
+        // 保留成員中新位置遞增的最長子序列不需要移動
+        boolean[] stays = longestIncreasing(keptTargets);
+        Map<Integer, Long> movedByIndex = new HashMap<>();
+        boolean[] kept = new boolean[current.size()];
+        for (int i = 0; i < keptIds.size(); i++) {
+            kept[keptTargets.get(i)] = true;
+            if (!stays[i]) {
+                movedByIndex.put(keptTargets.get(i), keptIds.get(i));
+            }
+        }
+
+        for (int i = 0; i < current.size(); i++) {
+            if (!kept[i]) {
+                changes.add(QueueChange.added(i, current.get(i)));
+            } else if (movedByIndex.containsKey(i)) {
+                changes.add(QueueChange.moved(movedByIndex.get(i), i));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * 標記屬於最長嚴格遞增子序列的元素
+     */
+    private static boolean[] longestIncreasing(List<Integer> values) {
+        int n = values.size();
+        boolean[] result = new boolean[n];
+        if (n == 0) {
+            return result;
+        }
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        Arrays.fill(previous, -1);
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            int value = values.get(i);
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values.get(tails[mid]) < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low > 0) {
+                previous[i] = tails[low - 1];
+            }
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        for (int i = tails[length - 1]; i >= 0; i = previous[i]) {
+            result[i] = true;
+        }
+        return result;
+    }
+
+    /**
+     * 一次隊列記錄的結果
+     */
+    @Value
+    public static class QueueRevision {
+
+        long baseVersion;
+        long version;
+
+        /**
+         * 相對 baseVersion 的變更，為null表示無法計算增量
+         */
+        List<QueueChange> changes;
+
+        int queueSize;
+
+        public boolean isChanged() {
+            return version != baseVersion;
+        }
+
+        /**
+         * 增量是否比完整快照更小：變更項數少於隊列人數時才值得發送增量
+         */
+        public boolean isDeltaWorthwhile() {
+            return changes != null && changes.size() < Math.max(queueSize, 1);
+        }
+
+        public List<QueueChange> getChanges() {
+            return changes != null ? changes : Collections.emptyList();
+        }
+    }
+
+    /**
+     * 團隊隊列狀態，由自身鎖保護
+     * 版本號以創建時的時間戳為起點，服務重啟後不會與客戶端持有的舊版本號重疊
+     */
+    private static class TeamQueue {
+        private long version = System.currentTimeMillis();
+        private List<QueueEntry> entries = Collections.emptyList();
+    }
+}
@@ -0,0 +1,147 @@
+package com.shuttleshout.handler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import com.shuttleshout.config.WebSocketProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 會話出站管理器
+ * 為每個 WebSocket 會話維護一個有界的非阻塞發送隊列，
+ * 廣播只負責入隊，實際寫出由發送線程池完成，慢客戶端不會拖慢其他客戶端
+ *
+ * @author ShuttleShout Team
+ */
+@Slf4j
+@Component
+public class SessionOutboundManager {
+
+    /**
+     * Tomcat 阻塞發送超時屬性，限制單幀寫出時佔用發送線程的時間
+     */
+    private static final String TOMCAT_BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final Map<String, OutboundSessionQueue> queues = new ConcurrentHashMap<>();
+    private final WebSocketProperties.Outbound config;
+    private final ExecutorService senderExecutor;
+
+    private final AtomicLong sentFrames = new AtomicLong();
+    private final AtomicLong coalescedFrames = new AtomicLong();
+    private final AtomicLong rejectedFrames = new AtomicLong();
+    private final AtomicLong evictedSessions = new AtomicLong();
+
+    public SessionOutboundManager(WebSocketProperties properties) {
+        this.config = properties.getOutbound();
+        int threads = config.getSenderThreads() > 0
+                ? config.getSenderThreads()
+                : Runtime.getRuntime().availableProcessors() * 2;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.senderExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "ws-outbound-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        log.info("WebSocket出站發送線程池初始化完成: threads={}, bufferSizeLimit={}, sendTimeLimit={}ms",
+                threads, config.getBufferSizeLimit(), config.getSendTimeLimit());
+    }
+
+    /**
+     * 為會話創建發送隊列
+     *
+     * @param session WebSocket會話
+     */
+    public void register(WebSocketSession session) {
+        applyBlockingSendTimeout(session);
+        queues.put(session.getId(), new OutboundSessionQueue(session, senderExecutor,
+                config.getBufferSizeLimit(), config.getSendTimeLimit()));
+    }
+
+    /**
+     * 移除會話的發送隊列，丟棄尚未發送的幀
+     *
+     * @param session WebSocket會話
+     */
+    public void unregister(WebSocketSession session) {
+        OutboundSessionQueue queue = queues.remove(session.getId());
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    /**
+     * 將幀放入會話的發送隊列，不阻塞調用線程
+     *
+     * @param session WebSocket會話
+     * @param frame 已序列化的出站幀
+     */
+    public void send(WebSocketSession session, OutboundFrame frame) {
+        OutboundSessionQueue queue = queues.get(session.getId());
+        if (queue == null) {
+            rejectedFrames.incrementAndGet();
+            log.debug("會話沒有發送隊列，丟棄消息: sessionId={}, type={}", session.getId(), frame.getType());
+            return;
+        }
+        switch (queue.offer(frame)) {
+            case ACCEPTED:
+                sentFrames.incrementAndGet();
+                break;
+            case COALESCED:
+                sentFrames.incrementAndGet();
+                coalescedFrames.incrementAndGet();
+                break;
+            case EVICTED:
+                evictedSessions.incrementAndGet();
+                queues.remove(session.getId(), queue);
+                log.warn("慢客戶端已被斷開: sessionId={}, type={}", session.getId(), frame.getType());
+                break;
+            default:
+                rejectedFrames.incrementAndGet();
+                break;
+        }
+    }
+
+    /**
+     * 出站統計指標
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", queues.size());
+        stats.put("bufferedFrames", queues.values().stream().mapToInt(OutboundSessionQueue::size).sum());
+        stats.put("enqueuedFrames", sentFrames.get());
+        stats.put("coalescedFrames", coalescedFrames.get());
+        stats.put("rejectedFrames", rejectedFrames.get());
+        stats.put("evictedSessions", evictedSessions.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senderExecutor.shutdownNow();
+    }
+
+    private void applyBlockingSendTimeout(WebSocketSession session) {
+        if (session instanceof NativeWebSocketSession) {
+            javax.websocket.Session nativeSession =
+                    ((NativeWebSocketSession) session).getNativeSession(javax.websocket.Session.class);
+            if (nativeSession != null) {
+                nativeSession.getUserProperties().put(TOMCAT_BLOCKING_SEND_TIMEOUT, config.getSendTimeLimit());
+            }
+        }
+    }
+}
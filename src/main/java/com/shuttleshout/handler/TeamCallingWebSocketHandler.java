@@ -2,14 +2,10 @@ package com.shuttleshout.handler;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
@@ -18,23 +14,22 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shuttleshout.common.model.dto.UserTeamDTO;
 import com.shuttleshout.common.model.po.Court;
+import com.shuttleshout.handler.message.ConnectedMessage;
+import com.shuttleshout.handler.message.CourtAssignments;
+import com.shuttleshout.handler.message.ErrorMessage;
+import com.shuttleshout.handler.message.GameStateCheckMessage;
+import com.shuttleshout.handler.message.OutboundMessage;
+import com.shuttleshout.handler.message.PlayerAssignment;
+import com.shuttleshout.handler.message.QueueDeltaMessage;
+import com.shuttleshout.handler.message.QueueEntry;
+import com.shuttleshout.handler.message.QueueUpdateMessage;
+import com.shuttleshout.handler.message.RestoreOngoingMatchesMessage;
+import com.shuttleshout.handler.message.ResumedMessage;
 import com.shuttleshout.handler.strategy.MessageStrategyFactory;
 import com.shuttleshout.handler.strategy.WebSocketMessageStrategy;
-import com.shuttleshout.service.CourtService;
 import com.shuttleshout.service.MatchService;
-import com.shuttleshout.service.QueueService;
-import com.shuttleshout.service.UserTeamService;
-import com.shuttleshout.repository.UserRepository;
-import com.shuttleshout.repository.PlayerRepository;
-import com.shuttleshout.common.model.po.UserPO;
-import com.shuttleshout.common.model.dto.QueueDTO;
-import com.shuttleshout.common.model.po.Queue;
-import com.shuttleshout.common.model.po.Player;
-import static com.shuttleshout.common.model.po.table.UserPOTableDef.USER_PO;
-import com.mybatisflex.core.query.QueryWrapper;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -52,15 +47,20 @@ import javax.annotation.PostConstruct;
 @Slf4j
 public class TeamCallingWebSocketHandler extends TextWebSocketHandler {
 
-    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    /**
+     * 會話屬性：客戶端握手時帶 queueDelta=1 表示支持 QUEUE_DELTA 增量協議
+     */
+    private static final String QUEUE_DELTA_ATTRIBUTE = "queueDelta";
+
+    private final OutboundMessageEncoder encoder;
+    private final TeamSessionRegistry sessionRegistry;
+    private final SessionOutboundManager outboundManager;
+    private final QueueVersionTracker queueVersionTracker;
+    private final TeamReplayBuffer replayBuffer;
+    private final TeamCommandDispatcher commandDispatcher;
     private final MessageStrategyFactory strategyFactory;
     private final MatchService matchService;
-    private final UserTeamService userTeamService;
-    private final CourtService courtService;
-    private final QueueService queueService;
-    private final UserRepository userRepository;
-    private final PlayerRepository playerRepository;
+    private final TeamSessionStateManager sessionStateManager;
     
     /**
      * 初始化完成
@@ -73,31 +73,53 @@ public class TeamCallingWebSocketHandler extends TextWebSocketHandler {
     @Override
     public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
         String sessionId = session.getId();
-        sessions.put(sessionId, session);
+        outboundManager.register(session);
         
         // 從查詢參數中獲取teamId
         String query = session.getUri() != null ? session.getUri().getQuery() : null;
-        String teamIdStr = extractTeamId(query);
+        String teamIdStr = extractQueryParam(query, "teamId");
+        if ("1".equals(extractQueryParam(query, QUEUE_DELTA_ATTRIBUTE))) {
+            session.getAttributes().put(QUEUE_DELTA_ATTRIBUTE, Boolean.TRUE);
+        }
+        // 斷線重連的客戶端會帶上最後收到的廣播序號
+        Long lastSeq = convertToLong(extractQueryParam(query, "lastSeq"));
+        Long roomTeamId = convertToLong(teamIdStr);
         
-        log.info("WebSocket連接建立: sessionId={}, teamId={}", sessionId, teamIdStr);
+        log.info("WebSocket連接建立: sessionId={}, teamId={}, lastSeq={}", sessionId, teamIdStr, lastSeq);
         
         // 發送連接成功消息
-        Map<String, Object> data = new HashMap<>();
-        data.put("teamId", teamIdStr != null ? teamIdStr : "");
-        sendMessage(session, createMessage("CONNECTED", data));
+        sendMessage(session, new ConnectedMessage(teamIdStr != null ? teamIdStr : ""));
         
-        // 如果有teamId，檢查是否有進行中的比賽，發送狀態檢查消息給前端
-        // 不自動恢復狀態，等待用戶選擇"開始新局"或"恢復狀態"
-        if (teamIdStr != null && !teamIdStr.isEmpty()) {
-            try {
-                Long teamId = convertToLong(teamIdStr);
-                if (teamId != null) {
-                    checkAndSendGameState(session, teamId);
-                }
-            } catch (Exception e) {
-                log.error("檢查團隊狀態失敗: teamId={}", teamIdStr, e);
-                // 不影響連接，只記錄錯誤
+        if (roomTeamId == null) {
+            return;
+        }
+        
+        // 加入團隊房間，之後該團隊的廣播只會發送給房間內的會話；
+        // 重連的客戶端同時補發斷線期間錯過的廣播
+        int replayed = replayBuffer.resume(roomTeamId, lastSeq,
+                () -> sessionRegistry.join(roomTeamId, session),
+                frame -> outboundManager.send(session, frame));
+        if (replayed != TeamReplayBuffer.NOT_RESUMABLE) {
+            log.info("WebSocket重連已恢復: sessionId={}, teamId={}, lastSeq={}, replayed={}",
+                    sessionId, roomTeamId, lastSeq, replayed);
+            sendMessage(session, new ResumedMessage(roomTeamId, lastSeq, replayed));
+            return;
+        }
+        
+        try {
+            if (lastSeq != null) {
+                // 重連但序號已過期，直接發送完整的場地和等待隊列
+                log.info("WebSocket重連序號已過期，發送完整狀態: sessionId={}, teamId={}", sessionId, roomTeamId);
+                loadAndSendOngoingMatches(session, roomTeamId);
+                loadAndSendWaitingQueue(session, roomTeamId);
+            } else {
+                // 新連接，檢查是否有進行中的比賽，發送狀態檢查消息給前端
+                // 不自動恢復狀態，等待用戶選擇"開始新局"或"恢復狀態"
+                checkAndSendGameState(session, roomTeamId);
             }
+        } catch (Exception e) {
+            log.error("檢查團隊狀態失敗: teamId={}", teamIdStr, e);
+            // 不影響連接，只記錄錯誤
         }
     }
 
@@ -110,73 +132,170 @@ public class TeamCallingWebSocketHandler extends TextWebSocketHandler {
         
         try {
             // 解析收到的消息
-            @SuppressWarnings("unchecked")
-            Map<String, Object> data = objectMapper.readValue(payload, Map.class);
+            Map<String, Object> data = encoder.decode(payload);
             String type = (String) data.get("type");
             
             // 使用策略模式處理消息
             WebSocketMessageStrategy strategy = strategyFactory.getStrategy(type);
-            if (strategy != null) {
-                log.debug("使用策略處理消息: type={}, strategy={}", type, strategy.getClass().getSimpleName());
-                strategy.handle(session, data);
-            } else {
+            if (strategy == null) {
                 log.warn("未知的消息類型: {}", type);
+                return;
+            }
+            
+            // 命令只作用於會話握手時加入的團隊房間，消息中的 teamId 必須與之一致；
+            // 未帶 teamId 的消息補上房間的團隊，策略統一從消息中讀取
+            Long teamId = resolveTeamId(session);
+            Object requestedTeamId = data.get("teamId");
+            if (requestedTeamId != null && !Objects.equals(convertToLong(requestedTeamId), teamId)) {
+                log.warn("消息的團隊與會話所在房間不一致，已拒絕: sessionId={}, teamId={}, roomTeamId={}",
+                        sessionId, requestedTeamId, teamId);
+                sendMessage(session, ErrorMessage.of("只能操作當前連接的團隊"));
+                return;
+            }
+            if (teamId != null) {
+                data.put("teamId", teamId);
+            }
+
+            // 同一團隊的命令放入團隊郵箱順序執行，避免並發讀寫場地和隊列狀態
+            if (teamId == null) {
+                executeStrategy(session, strategy, data);
+            } else if (!commandDispatcher.dispatch(teamId, () -> executeStrategy(session, strategy, data))) {
+                sendMessage(session, ErrorMessage.of("系統繁忙，請稍後再試"));
             }
         } catch (Exception e) {
             log.error("處理WebSocket消息失敗", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("message", "消息處理失敗");
-            sendMessage(session, createMessage("ERROR", errorData));
+            sendMessage(session, ErrorMessage.of("消息處理失敗"));
+        }
+    }
+
+    /**
+     * 執行消息策略，失敗時向會話發送錯誤消息
+     */
+    private void executeStrategy(WebSocketSession session, WebSocketMessageStrategy strategy, Map<String, Object> data) {
+        try {
+            log.debug("使用策略處理消息: type={}, strategy={}", strategy.getMessageType(),
+                    strategy.getClass().getSimpleName());
+            strategy.handle(session, data);
+        } catch (Exception e) {
+            log.error("處理WebSocket消息失敗: type={}", strategy.getMessageType(), e);
+            sendMessage(session, ErrorMessage.of("消息處理失敗"));
         }
     }
 
     @Override
     public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) throws Exception {
         String sessionId = session.getId();
-        sessions.remove(sessionId);
-        log.info("WebSocket連接關閉: sessionId={}, status={}", sessionId, status);
+        Long teamId = sessionRegistry.leave(session);
+        outboundManager.unregister(session);
+        releaseSessionState(teamId);
+        log.info("WebSocket連接關閉: sessionId={}, teamId={}, status={}", sessionId, teamId, status);
     }
 
     @Override
     public void handleTransportError(@NonNull WebSocketSession session, @NonNull Throwable exception) throws Exception {
         log.error("WebSocket傳輸錯誤: sessionId={}", session.getId(), exception);
-        sessions.remove(session.getId());
+        releaseSessionState(sessionRegistry.leave(session));
+        outboundManager.unregister(session);
+    }
+
+    /**
+     * 團隊最後一個連接斷開後釋放其會話狀態，下次有連接時重新從數據庫加載
+     */
+    private void releaseSessionState(Long teamId) {
+        if (teamId != null && sessionRegistry.getSessions(teamId).isEmpty()) {
+            sessionStateManager.evict(teamId);
+        }
     }
 
     /**
      * 發送消息給特定會話
+     * 消息放入會話的發送隊列後立即返回，不等待實際寫出
      */
     public void sendMessage(WebSocketSession session, Map<String, Object> message) {
         try {
-            String json = objectMapper.writeValueAsString(message);
-            session.sendMessage(new TextMessage(json));
+            outboundManager.send(session, encoder.encode(message, convertToLong(message.get("teamId"))));
         } catch (IOException e) {
             log.error("發送WebSocket消息失敗", e);
         }
     }
 
     /**
-     * 廣播消息給所有連接的客戶端
+     * 發送類型化消息給特定會話
      */
-    public void broadcastMessage(Map<String, Object> message) {
-        String json;
+    public void sendMessage(WebSocketSession session, OutboundMessage message) {
         try {
-            json = objectMapper.writeValueAsString(message);
+            outboundManager.send(session, encoder.encode(message));
+        } catch (IOException e) {
+            log.error("發送WebSocket消息失敗: type={}", message.getType(), e);
+        }
+    }
+
+    /**
+     * 廣播消息給指定團隊房間內的所有客戶端
+     * 消息只序列化一次，發送幀數只與該團隊的連接數相關
+     * 消息放入各會話的發送隊列後立即返回
+     * 需要被策略類訪問，因此設為 public
+     * 
+     * @param teamId 團隊ID（為null時不廣播）
+     * @param message 消息內容
+     */
+    public void broadcastToTeam(Long teamId, Map<String, Object> message) {
+        if (teamId == null) {
+            log.warn("廣播消息缺少 teamId，已忽略: type={}", message.get("type"));
+            return;
+        }
+        
+        try {
+            replayBuffer.publish(teamId, seq -> broadcastFrame(teamId, encoder.encode(message, teamId, seq)));
         } catch (Exception e) {
             log.error("序列化消息失敗", e);
+        }
+    }
+
+    /**
+     * 廣播類型化消息給指定團隊房間內的所有客戶端
+     * 
+     * @param teamId 團隊ID（為null時不廣播）
+     * @param message 消息內容
+     */
+    public void broadcastToTeam(Long teamId, OutboundMessage message) {
+        if (teamId == null) {
+            log.warn("廣播消息缺少 teamId，已忽略: type={}", message.getType());
             return;
         }
 
-        TextMessage textMessage = new TextMessage(json);
-        for (WebSocketSession session : sessions.values()) {
-            try {
-                if (session.isOpen()) {
-                    session.sendMessage(textMessage);
-                }
-            } catch (IOException e) {
-                log.error("廣播消息失敗: sessionId={}", session.getId(), e);
+        try {
+            replayBuffer.publish(teamId, seq -> broadcastFrame(teamId, encoder.encode(message, seq)));
+        } catch (Exception e) {
+            log.error("序列化消息失敗: type={}", message.getType(), e);
+        }
+    }
+
+    /**
+     * 將同一個已序列化的幀放入房間內各會話的發送隊列
+     * 只入隊不等待寫出，廣播耗時不受最慢客戶端影響
+     *
+     * @return 已發送的幀，供重放緩衝記錄
+     */
+    private OutboundFrame broadcastFrame(Long teamId, OutboundFrame frame) {
+        for (WebSocketSession session : sessionRegistry.getSessions(teamId)) {
+            if (session.isOpen()) {
+                outboundManager.send(session, frame);
             }
         }
+        return frame;
+    }
+
+    /**
+     * 解析消息所屬的團隊ID，即會話握手時加入的團隊房間
+     * 客戶端不能通過消息中的 teamId 操作其他團隊，不一致的消息在入口處已被拒絕
+     * 需要被策略類訪問，因此設為 public
+     * 
+     * @param session WebSocket會話
+     * @return 團隊ID，會話不在任何房間時返回null
+     */
+    public Long resolveTeamId(WebSocketSession session) {
+        return sessionRegistry.getTeamId(session);
     }
 
     /**
@@ -184,7 +303,7 @@ public class TeamCallingWebSocketHandler extends TextWebSocketHandler {
      * 需要被策略類訪問，因此設為 public
      */
     public Map<String, Object> createMessage(String type, Map<String, Object> data) {
-        Map<String, Object> message = new ConcurrentHashMap<>();
+        Map<String, Object> message = new LinkedHashMap<>(data.size() * 2 + 2);
         message.put("type", type);
         message.putAll(data);
         return message;
@@ -258,9 +377,9 @@ public class TeamCallingWebSocketHandler extends TextWebSocketHandler {
     }
 
     /**
-     * 從查詢字符串中提取teamId
+     * 從查詢字符串中提取指定參數
      */
-    private String extractTeamId(String query) {
+    private String extractQueryParam(String query, String name) {
         if (query == null || query.isEmpty()) {
             return null;
         }
@@ -268,7 +387,7 @@ public class TeamCallingWebSocketHandler extends TextWebSocketHandler {
         for (String param : params) {
             if (param != null && param.contains("=")) {
                 String[] keyValue = param.split("=");
-                if (keyValue.length == 2 && "teamId".equals(keyValue[0])) {
+                if (keyValue.length == 2 && name.equals(keyValue[0])) {
                     return keyValue[1];
                 }
             }
@@ -285,45 +404,16 @@ public class TeamCallingWebSocketHandler extends TextWebSocketHandler {
      */
     private void checkAndSendGameState(WebSocketSession session, Long teamId) {
         try {
-            // 獲取團隊的所有場地
-            List<Court> courts = courtService.getCourtsByTeamId(teamId);
+            TeamSessionState state = sessionStateManager.get(teamId);
             
-            if (courts == null || courts.isEmpty()) {
-                log.debug("團隊 {} 沒有場地", teamId);
-                // 沒有場地，發送無狀態消息
-                Map<String, Object> stateData = new HashMap<>();
-                stateData.put("type", "GAME_STATE_CHECK");
-                stateData.put("teamId", teamId);
-                stateData.put("hasOngoingMatches", false);
-                stateData.put("message", "沒有進行中的比賽，可以開始新的一局");
-                sendMessage(session, stateData);
-                return;
-            }
-            
-            // 檢查是否有進行中的比賽
-            int ongoingCount = 0;
-            for (Court court : courts) {
-                boolean hasPlayers = court.getPlayer1Id() != null || 
-                                     court.getPlayer2Id() != null || 
-                                     court.getPlayer3Id() != null || 
-                                     court.getPlayer4Id() != null;
-                if (hasPlayers) {
-                    ongoingCount++;
-                }
-            }
+            // 檢查是否有進行中的比賽（從會話狀態讀取，不訪問數據庫）
+            int ongoingCount = state.countOccupiedCourts();
             
             // 發送狀態檢查消息
-            Map<String, Object> stateData = new HashMap<>();
-            stateData.put("type", "GAME_STATE_CHECK");
-            stateData.put("teamId", teamId);
-            stateData.put("hasOngoingMatches", ongoingCount > 0);
-            stateData.put("ongoingCourtsCount", ongoingCount);
-            if (ongoingCount > 0) {
-                stateData.put("message", String.format("檢測到 %d 個場地有進行中的比賽，請選擇：開始新的一局 或 恢復上次狀態", ongoingCount));
-            } else {
-                stateData.put("message", "沒有進行中的比賽，可以開始新的一局");
-            }
-            sendMessage(session, stateData);
+            String stateMessage = ongoingCount > 0
+                    ? String.format("檢測到 %d 個場地有進行中的比賽，請選擇：開始新的一局 或 恢復上次狀態", ongoingCount)
+                    : "沒有進行中的比賽，可以開始新的一局";
+            sendMessage(session, new GameStateCheckMessage(teamId, ongoingCount > 0, ongoingCount, stateMessage));
             log.info("已發送遊戲狀態檢查消息: teamId={}, hasOngoingMatches={}, ongoingCourtsCount={}", 
                     teamId, ongoingCount > 0, ongoingCount);
             
@@ -341,76 +431,47 @@ public class TeamCallingWebSocketHandler extends TextWebSocketHandler {
      */
     public void loadAndSendOngoingMatches(WebSocketSession session, Long teamId) {
         try {
-            // 獲取團隊的所有場地
-            List<Court> courts = courtService.getCourtsByTeamId(teamId);
+            TeamSessionState state = sessionStateManager.get(teamId);
+            List<Court> courts = state.getCourts();
             
-            if (courts == null || courts.isEmpty()) {
+            if (courts.isEmpty()) {
                 log.debug("團隊 {} 沒有場地", teamId);
                 return;
             }
             
-            // 獲取團隊成員列表，用於構建用戶信息映射
-            List<UserTeamDTO> teamMembers = userTeamService.getTeamMembers(teamId);
-            Map<Long, UserTeamDTO> memberMap = teamMembers.stream()
-                    .collect(Collectors.toMap(UserTeamDTO::getUserId, member -> member));
+            // 團隊成員映射，用於構建用戶信息
+            Map<Long, UserTeamDTO> memberMap = state.getMemberMap();
             
-            // 構建每個場地的分配信息（從 court 表讀取球員信息）
-            List<Map<String, Object>> courtsData = new ArrayList<>();
-            int ongoingCount = 0;
+            // 構建每個場地的分配信息
+            List<CourtAssignments> courtsData = new ArrayList<>();
             
             for (Court court : courts) {
-                // 檢查場地上是否有球員（從 court 表讀取）
-                boolean hasPlayers = court.getPlayer1Id() != null || 
-                                     court.getPlayer2Id() != null || 
-                                     court.getPlayer3Id() != null || 
-                                     court.getPlayer4Id() != null;
-                
-                if (hasPlayers) {
-                    ongoingCount++;
-                    Map<String, Object> courtData = new HashMap<>();
-                    courtData.put("courtId", court.getId());
-                    
-                    // 添加比賽開始時間
-                    if (court.getMatchStartedAt() != null) {
-                        courtData.put("matchStartedAt", court.getMatchStartedAt().toString());
-                    }
-                    
-                    // 構建該場地的球員分配列表（從 court 表讀取）
-                    List<Map<String, Object>> assignments = new ArrayList<>();
-                    
-                    if (court.getPlayer1Id() != null) {
-                        assignments.add(buildPlayerAssignment(court.getPlayer1Id(), 1, memberMap));
-                    }
-                    if (court.getPlayer2Id() != null) {
-                        assignments.add(buildPlayerAssignment(court.getPlayer2Id(), 2, memberMap));
-                    }
-                    if (court.getPlayer3Id() != null) {
-                        assignments.add(buildPlayerAssignment(court.getPlayer3Id(), 3, memberMap));
-                    }
-                    if (court.getPlayer4Id() != null) {
-                        assignments.add(buildPlayerAssignment(court.getPlayer4Id(), 4, memberMap));
+                if (!TeamSessionState.hasPlayers(court)) {
+                    continue;
+                }
+                List<PlayerAssignment> assignments = new ArrayList<>(4);
+                List<Long> slots = TeamSessionState.slotsOf(court);
+                for (int i = 0; i < slots.size(); i++) {
+                    if (slots.get(i) != null) {
+                        assignments.add(buildPlayerAssignment(slots.get(i), i + 1, memberMap));
                     }
-                    
-                    courtData.put("assignments", assignments);
-                    courtsData.add(courtData);
                 }
+                
+                String matchStartedAt = court.getMatchStartedAt() != null
+                        ? court.getMatchStartedAt().toString() : null;
+                courtsData.add(new CourtAssignments(court.getId(), matchStartedAt, assignments));
             }
             
-            if (ongoingCount == 0) {
+            if (courtsData.isEmpty()) {
                 log.debug("團隊 {} 沒有進行中的比賽", teamId);
                 return;
             }
             
-            log.info("團隊 {} 有 {} 個場地有進行中的比賽，開始加載人員信息", teamId, ongoingCount);
+            log.info("團隊 {} 有 {} 個場地有進行中的比賽，開始加載人員信息", teamId, courtsData.size());
             
             // 發送恢復數據消息
-            Map<String, Object> restoreData = new HashMap<>();
-            restoreData.put("type", "RESTORE_ONGOING_MATCHES");
-            restoreData.put("teamId", teamId);
-            restoreData.put("courts", courtsData);
-            restoreData.put("message", String.format("已恢復 %d 個場地的進行中比賽", courtsData.size()));
-            
-            sendMessage(session, restoreData);
+            sendMessage(session, new RestoreOngoingMatchesMessage(teamId, courtsData,
+                    String.format("已恢復 %d 個場地的進行中比賽", courtsData.size())));
             log.info("成功發送進行中比賽恢復數據: teamId={}, courtsCount={}", teamId, courtsData.size());
             
         } catch (Exception e) {
@@ -424,27 +485,16 @@ public class TeamCallingWebSocketHandler extends TextWebSocketHandler {
      * @param userId 用戶ID
      * @param position 位置 (1-4)
      * @param memberMap 成員映射表
-     * @return 分配信息Map
+     * @return 分配信息
      */
-    private Map<String, Object> buildPlayerAssignment(Long userId, int position, Map<Long, UserTeamDTO> memberMap) {
-        Map<String, Object> assignment = new HashMap<>();
-        assignment.put("userId", userId);
-        assignment.put("position", position);
-        
-        // 添加用戶的詳細信息
-        UserTeamDTO member = memberMap.get(userId);
-        if (member != null) {
-            assignment.put("userName", member.getUserName());
-            assignment.put("userRealName", member.getUserRealName());
-            assignment.put("userEmail", member.getUserEmail());
-        }
-        
-        return assignment;
+    private PlayerAssignment buildPlayerAssignment(Long userId, int position, Map<Long, UserTeamDTO> memberMap) {
+        return PlayerAssignment.of(userId, position, memberMap.get(userId));
     }
 
     /**
      * 加載並發送等待隊列
-     * 從queues表中查詢WAITING狀態的記錄
+     * 與廣播使用同一份隊列（不在場地上的成員，按等待時間排序），否則單個客戶端重新加載
+     * 會被記錄為新版本，其他客戶端顯示的隊列隨之在兩種算法之間來回切換
      * 需要被策略類訪問，因此設為 public
      * 
      * @param session WebSocket會話
@@ -452,133 +502,9 @@ public class TeamCallingWebSocketHandler extends TextWebSocketHandler {
      */
     public void loadAndSendWaitingQueue(WebSocketSession session, Long teamId) {
         try {
-            // 從queues表查詢該團隊的WAITING狀態的隊列
-            List<QueueDTO> waitingQueues = queueService.getQueuesByTeamIdAndStatus(teamId, Queue.QueueStatus.WAITING);
-            
-            if (waitingQueues == null || waitingQueues.isEmpty()) {
-                log.debug("團隊 {} 沒有等待隊列", teamId);
-                sendWaitingQueueUpdate(session, teamId, new ArrayList<>());
-                return;
-            }
-            
-            // 獲取團隊的所有成員（用於匹配User）
-            List<UserTeamDTO> teamMembers = userTeamService.getTeamMembers(teamId);
-            if (teamMembers == null) {
-                teamMembers = new ArrayList<>();
-            }
-            
-            // 將Queue轉換為UserTeamDTO，並保持排序順序（等待時間最長的優先）
-            // 使用LinkedHashMap保持插入順序，確保按照Queue的排序順序
-            Map<Long, UserTeamDTO> memberMap = new LinkedHashMap<>();
-            Map<Long, QueueDTO> queueMap = new HashMap<>(); // 用於存儲queue信息，方便排序
-            
-            for (QueueDTO queue : waitingQueues) {
-                // 通過playerId獲取Player信息
-                Player player = playerRepository.selectOneById(queue.getPlayerId());
-                if (player == null) {
-                    log.warn("無法找到Player: playerId={}", queue.getPlayerId());
-                    continue;
-                }
-                
-                // 通過Player的name和phoneNumber匹配User
-                String playerName = player.getName();
-                String playerPhone = player.getPhoneNumber();
-                
-                UserTeamDTO matchedMember = null;
-                
-                // 首先嘗試通過name匹配（realName或username）
-                if (playerName != null) {
-                    matchedMember = teamMembers.stream()
-                            .filter(m -> playerName.equals(m.getUserRealName()) || playerName.equals(m.getUserName()))
-                            .findFirst()
-                            .orElse(null);
-                }
-                
-                // 如果name匹配失敗，嘗試通過phoneNumber匹配
-                if (matchedMember == null && playerPhone != null) {
-                    QueryWrapper userQuery = QueryWrapper.create()
-                            .where(USER_PO.PHONE_NUMBER.eq(playerPhone));
-                    UserPO user = userRepository.selectOneByQuery(userQuery);
-                    if (user != null) {
-                        matchedMember = teamMembers.stream()
-                                .filter(m -> m.getUserId().equals(user.getId()))
-                                .findFirst()
-                                .orElse(null);
-                    }
-                }
-                
-                if (matchedMember != null) {
-                    // 使用LinkedHashMap保持插入順序，按照Queue的順序添加
-                    // 如果該成員已經存在（可能有多個Queue記錄），只保留第一個（等待時間最長的）
-                    if (!memberMap.containsKey(matchedMember.getUserId())) {
-                        memberMap.put(matchedMember.getUserId(), matchedMember);
-                        queueMap.put(matchedMember.getUserId(), queue);
-                    } else {
-                        // 如果已存在，比較queueNumber和createdAt，保留等待時間更長的
-                        QueueDTO existingQueue = queueMap.get(matchedMember.getUserId());
-                        boolean shouldReplace = false;
-                        
-                        if (queue.getQueueNumber() != null && existingQueue.getQueueNumber() != null) {
-                            if (queue.getQueueNumber() < existingQueue.getQueueNumber()) {
-                                shouldReplace = true;
-                            } else if (queue.getQueueNumber().equals(existingQueue.getQueueNumber())) {
-                                // queueNumber相同，比較createdAt
-                                if (queue.getCreatedAt() != null && existingQueue.getCreatedAt() != null) {
-                                    if (queue.getCreatedAt().isBefore(existingQueue.getCreatedAt())) {
-                                        shouldReplace = true;
-                                    }
-                                }
-                            }
-                        } else if (queue.getCreatedAt() != null && existingQueue.getCreatedAt() != null) {
-                            if (queue.getCreatedAt().isBefore(existingQueue.getCreatedAt())) {
-                                shouldReplace = true;
-                            }
-                        }
-                        
-                        if (shouldReplace) {
-                            memberMap.put(matchedMember.getUserId(), matchedMember);
-                            queueMap.put(matchedMember.getUserId(), queue);
-                        }
-                    }
-                } else {
-                    log.warn("無法匹配Player到User: playerId={}, playerName={}, playerPhone={}", 
-                            queue.getPlayerId(), playerName, playerPhone);
-                }
-            }
-            
-            // 將Map轉換為List，保持順序（等待時間最長的在前）
-            // 需要按照queueMap中的queue信息重新排序
-            List<UserTeamDTO> waitingQueue = new ArrayList<>(memberMap.values());
-            
-            // 按照queueNumber和createdAt排序（等待時間最長的優先）
-            waitingQueue.sort((a, b) -> {
-                QueueDTO queueA = queueMap.get(a.getUserId());
-                QueueDTO queueB = queueMap.get(b.getUserId());
-                
-                if (queueA == null && queueB == null) return 0;
-                if (queueA == null) return 1;
-                if (queueB == null) return -1;
-                
-                // 首先按queueNumber排序（升序，號碼小的優先）
-                if (queueA.getQueueNumber() != null && queueB.getQueueNumber() != null) {
-                    int queueNumberCompare = queueA.getQueueNumber().compareTo(queueB.getQueueNumber());
-                    if (queueNumberCompare != 0) {
-                        return queueNumberCompare;
-                    }
-                }
-                
-                // 如果queueNumber相同或為null，按createdAt排序（升序，最早創建的優先）
-                if (queueA.getCreatedAt() == null && queueB.getCreatedAt() == null) return 0;
-                if (queueA.getCreatedAt() == null) return 1;
-                if (queueB.getCreatedAt() == null) return -1;
-                return queueA.getCreatedAt().compareTo(queueB.getCreatedAt());
-            });
-            
-            log.info("團隊 {} 的等待隊列: {} 人（從queues表查詢）", teamId, waitingQueue.size());
-            
-            // 發送等待隊列更新
-            sendWaitingQueueUpdate(session, teamId, waitingQueue);
-            
+            List<TeamSessionState.WaitingEntry> waitingQueue = sessionStateManager.get(teamId).getIdleMembers();
+            log.info("團隊 {} 的等待隊列: {} 人", teamId, waitingQueue.size());
+            sendWaitingQueue(session, teamId, waitingQueue);
         } catch (Exception e) {
             log.error("加載等待隊列失敗: teamId={}", teamId, e);
         }
@@ -587,191 +513,121 @@ public class TeamCallingWebSocketHandler extends TextWebSocketHandler {
     /**
      * 發送等待隊列更新消息
      * 
-     * @param session WebSocket會話（如果為null則廣播給所有客戶端）
+     * @param session WebSocket會話（如果為null則廣播給該團隊的所有客戶端）
      * @param teamId 團隊ID
      * @param queue 等待隊列（如果為null則自動計算：團隊成員 - 所有場地上的球員）
      */
     public void sendWaitingQueueUpdate(WebSocketSession session, Long teamId, List<UserTeamDTO> queue) {
         try {
-            List<UserTeamDTO> queueToSend = queue;
-            
-            // 如果queue為null，自動計算等待隊列
-            if (queueToSend == null && teamId != null) {
-                // 獲取團隊的所有成員
-                List<UserTeamDTO> teamMembers = userTeamService.getTeamMembers(teamId);
-                if (teamMembers == null || teamMembers.isEmpty()) {
-                    queueToSend = new ArrayList<>();
-                } else {
-                    // 獲取團隊的所有場地
-                    List<Court> courts = courtService.getCourtsByTeamId(teamId);
-                    
-                    // 收集所有在場地上的球員ID（從 court 表中獲取）
-                    Set<Long> playersOnCourt = new HashSet<>();
-                    if (courts != null) {
-                        for (Court court : courts) {
-                            List<Long> players = courtService.getPlayersOnCourt(court.getId());
-                            for (Long playerId : players) {
-                                if (playerId != null) {
-                                    playersOnCourt.add(playerId);
-                                }
-                            }
-                        }
-                    }
-                    
-                    // 過濾出不在場地上的成員（即等待隊列）
-                    queueToSend = teamMembers.stream()
-                            .filter(member -> !playersOnCourt.contains(member.getUserId()))
-                            .collect(Collectors.toList());
+            if (teamId == null) {
+                if (queue == null) {
+                    log.warn("無法計算等待隊列: teamId={}", teamId);
+                    return;
                 }
-            }
-            
-            if (queueToSend == null) {
-                log.warn("無法計算等待隊列: teamId={}", teamId);
+                List<TeamSessionState.WaitingEntry> entries = new ArrayList<>(queue.size());
+                for (UserTeamDTO member : queue) {
+                    entries.add(new TeamSessionState.WaitingEntry(member, null));
+                }
+                sendWaitingQueue(session, null, entries);
                 return;
             }
             
-            // 如果teamId不為null，從queues表獲取Queue信息並按等待時間從短到長排序
-            Map<Long, QueueDTO> userIdToQueueMap = new HashMap<>(); // 移到外部作用域
-            if (teamId != null && !queueToSend.isEmpty()) {
-                try {
-                    // 獲取該團隊的所有WAITING狀態的Queue
-                    List<QueueDTO> waitingQueues = queueService.getQueuesByTeamIdAndStatus(teamId, Queue.QueueStatus.WAITING);
-                    
-                    if (waitingQueues != null && !waitingQueues.isEmpty()) {
-                        
-                        // 通過Player匹配UserTeamDTO
-                        for (QueueDTO queueDto : waitingQueues) {
-                            Player player = playerRepository.selectOneById(queueDto.getPlayerId());
-                            if (player == null) {
-                                continue;
-                            }
-                            
-                            // 通過Player的name或phoneNumber匹配UserTeamDTO
-                            String playerName = player.getName();
-                            String playerPhone = player.getPhoneNumber();
-                            
-                            for (UserTeamDTO member : queueToSend) {
-                                boolean matched = false;
-                                
-                                // 通過name匹配
-                                if (playerName != null && 
-                                    (playerName.equals(member.getUserRealName()) || playerName.equals(member.getUserName()))) {
-                                    matched = true;
-                                }
-                                
-                                // 如果name匹配失敗，嘗試通過phoneNumber匹配
-                                if (!matched && playerPhone != null) {
-                                    QueryWrapper userQuery = QueryWrapper.create()
-                                            .where(USER_PO.PHONE_NUMBER.eq(playerPhone));
-                                    UserPO user = userRepository.selectOneByQuery(userQuery);
-                                    if (user != null && user.getId().equals(member.getUserId())) {
-                                        matched = true;
-                                    }
-                                }
-                                
-                                if (matched) {
-                                    // 如果該userId已經有Queue，保留等待時間更長的（queueNumber更小或createdAt更早）
-                                    QueueDTO existingQueue = userIdToQueueMap.get(member.getUserId());
-                                    if (existingQueue == null) {
-                                        userIdToQueueMap.put(member.getUserId(), queueDto);
-                                    } else {
-                                        boolean shouldReplace = false;
-                                        
-                                        // 比較queueNumber（小的優先，即等待時間更長）
-                                        if (queueDto.getQueueNumber() != null && existingQueue.getQueueNumber() != null) {
-                                            if (queueDto.getQueueNumber() < existingQueue.getQueueNumber()) {
-                                                shouldReplace = true;
-                                            } else if (queueDto.getQueueNumber().equals(existingQueue.getQueueNumber())) {
-                                                // queueNumber相同，比較createdAt（早的優先，即等待時間更長）
-                                                if (queueDto.getCreatedAt() != null && existingQueue.getCreatedAt() != null) {
-                                                    if (queueDto.getCreatedAt().isBefore(existingQueue.getCreatedAt())) {
-                                                        shouldReplace = true;
-                                                    }
-                                                }
-                                            }
-                                        } else if (queueDto.getCreatedAt() != null && existingQueue.getCreatedAt() != null) {
-                                            if (queueDto.getCreatedAt().isBefore(existingQueue.getCreatedAt())) {
-                                                shouldReplace = true;
-                                            }
-                                        }
-                                        
-                                        if (shouldReplace) {
-                                            userIdToQueueMap.put(member.getUserId(), queueDto);
-                                        }
-                                    }
-                                    break;
-                                }
-                            }
+            // 從會話狀態計算並按等待時間排序（等待時間最長的優先），不訪問數據庫
+            TeamSessionState state = sessionStateManager.get(teamId);
+            sendWaitingQueue(session, teamId, queue == null ? state.getIdleMembers() : state.orderByWaitingTime(queue));
+        } catch (Exception e) {
+            log.error("發送等待隊列更新失敗", e);
+        }
+    }
+
+    /**
+     * 發送已排序的等待隊列
+     *
+     * @param session WebSocket會話（如果為null則廣播給該團隊的所有客戶端）
+     * @param teamId 團隊ID
+     * @param entries 已排序的等待隊列
+     */
+    private void sendWaitingQueue(WebSocketSession session, Long teamId, List<TeamSessionState.WaitingEntry> entries) {
+        // 構建隊列數據，包含時間信息
+        List<QueueEntry> queueData = new ArrayList<>(entries.size());
+        for (TeamSessionState.WaitingEntry entry : entries) {
+            UserTeamDTO member = entry.getMember();
+            String queueCreatedAt = entry.getQueue() != null && entry.getQueue().getCreatedAt() != null
+                    ? entry.getQueue().getCreatedAt().toString() : null;
+            queueData.add(new QueueEntry(member.getUserId(), member.getUserName(),
+                    member.getUserRealName(), member.getUserEmail(), queueCreatedAt));
+        }
+        
+        if (teamId == null) {
+            if (session != null) {
+                sendMessage(session, new QueueUpdateMessage(null, 0L, queueData));
+            }
+            return;
+        }
+        
+        // 記錄新版本並在團隊鎖內發送，保證各客戶端按版本順序收到
+        queueVersionTracker.record(teamId, queueData,
+                revision -> publishQueue(session, teamId, queueData, revision));
+        
+        log.debug("已發送等待隊列更新: teamId={}, queueSize={}", teamId, queueData.size());
+    }
+
+    /**
+     * 發送一個版本的等待隊列
+     * 指定會話時給該會話發送完整快照，其他支持增量的客戶端收到 QUEUE_DELTA 以保持版本連續；
+     * 廣播時支持增量的客戶端只收到變更，舊客戶端仍收到完整快照。
+     * 有變化的版本會分配團隊廣播序號，重放緩衝中記錄的是完整快照
+     *
+     * @param session WebSocket會話（為null時廣播）
+     * @param teamId 團隊ID
+     * @param queueData 完整隊列
+     * @param revision 本次版本變更
+     */
+    private void publishQueue(WebSocketSession session, Long teamId, List<QueueEntry> queueData,
+                              QueueVersionTracker.QueueRevision revision) {
+        QueueUpdateMessage snapshot = new QueueUpdateMessage(teamId, revision.getVersion(), queueData);
+        if (session != null) {
+            sendMessage(session, snapshot);
+        }
+
+        try {
+            if (!revision.isChanged()) {
+                if (session == null) {
+                    // 隊列沒有變化，支持增量的客戶端無需重複接收，舊客戶端照舊收到完整快照
+                    OutboundFrame snapshotFrame = encoder.encode(snapshot);
+                    for (WebSocketSession target : sessionRegistry.getSessions(teamId)) {
+                        if (target.isOpen() && !supportsQueueDelta(target)) {
+                            outboundManager.send(target, snapshotFrame);
                         }
-                        
-                        // 按照等待時間從長到短排序（等待時間最長的優先，queueNumber小的在前，或createdAt早的在前）
-                        final Map<Long, QueueDTO> finalQueueMap = userIdToQueueMap;
-                        queueToSend.sort((a, b) -> {
-                            QueueDTO queueA = finalQueueMap.get(a.getUserId());
-                            QueueDTO queueB = finalQueueMap.get(b.getUserId());
-                            
-                            // 如果都沒有Queue信息，保持原順序
-                            if (queueA == null && queueB == null) return 0;
-                            if (queueA == null) return 1; // 沒有Queue的排在後面
-                            if (queueB == null) return -1; // 沒有Queue的排在後面
-                            
-                            // 首先按queueNumber排序（升序，號碼小的優先，即等待時間長的在前）
-                            if (queueA.getQueueNumber() != null && queueB.getQueueNumber() != null) {
-                                int queueNumberCompare = queueA.getQueueNumber().compareTo(queueB.getQueueNumber());
-                                if (queueNumberCompare != 0) {
-                                    return queueNumberCompare;
-                                }
-                            }
-                            
-                            // 如果queueNumber相同或為null，按createdAt排序（升序，早創建的優先，即等待時間長的在前）
-                            if (queueA.getCreatedAt() == null && queueB.getCreatedAt() == null) return 0;
-                            if (queueA.getCreatedAt() == null) return 1;
-                            if (queueB.getCreatedAt() == null) return -1;
-                            return queueA.getCreatedAt().compareTo(queueB.getCreatedAt());
-                        });
                     }
-                } catch (Exception e) {
-                    log.warn("獲取Queue信息失敗，使用原順序: {}", e.getMessage());
-                    // 如果獲取Queue信息失敗，繼續使用原順序
                 }
+                return;
             }
-            
-            // 構建隊列數據（轉換為Map列表），包含時間信息
-            final Map<Long, QueueDTO> finalQueueMapForData = userIdToQueueMap; // 使用外部作用域的userIdToQueueMap
-            List<Map<String, Object>> queueData = queueToSend.stream()
-                    .map(member -> {
-                        Map<String, Object> memberData = new HashMap<>();
-                        memberData.put("userId", member.getUserId());
-                        memberData.put("userName", member.getUserName());
-                        memberData.put("userRealName", member.getUserRealName());
-                        memberData.put("userEmail", member.getUserEmail());
-                        
-                        // 添加隊列時間信息（如果存在）
-                        QueueDTO queueDto = finalQueueMapForData.get(member.getUserId());
-                        if (queueDto != null && queueDto.getCreatedAt() != null) {
-                            memberData.put("queueCreatedAt", queueDto.getCreatedAt().toString());
-                        }
-                        
-                        return memberData;
-                    })
-                    .collect(Collectors.toList());
-            
-            Map<String, Object> queueUpdate = new HashMap<>();
-            queueUpdate.put("type", "QUEUE_UPDATE");
-            queueUpdate.put("teamId", teamId);
-            queueUpdate.put("queue", queueData);
-            
-            if (session != null) {
-                // 發送給特定會話
-                sendMessage(session, queueUpdate);
-            } else {
-                // 廣播給所有客戶端
-                broadcastMessage(queueUpdate);
-            }
-            
-            log.debug("已發送等待隊列更新: teamId={}, queueSize={}", teamId, queueData.size());
-        } catch (Exception e) {
-            log.error("發送等待隊列更新失敗", e);
+
+            replayBuffer.publish(teamId, seq -> {
+                OutboundFrame snapshotFrame = encoder.encode(snapshot, seq);
+                OutboundFrame deltaFrame = revision.isDeltaWorthwhile()
+                        ? encoder.encode(new QueueDeltaMessage(teamId, revision.getBaseVersion(),
+                                revision.getVersion(), revision.getChanges()), seq)
+                        : snapshotFrame;
+                for (WebSocketSession target : sessionRegistry.getSessions(teamId)) {
+                    if (target == session || !target.isOpen()) {
+                        continue;
+                    }
+                    if (supportsQueueDelta(target)) {
+                        outboundManager.send(target, deltaFrame);
+                    } else if (session == null) {
+                        outboundManager.send(target, snapshotFrame);
+                    }
+                }
+                return snapshotFrame;
+            });
+        } catch (IOException e) {
+            log.error("序列化等待隊列消息失敗: teamId={}", teamId, e);
         }
     }
+
+    private boolean supportsQueueDelta(WebSocketSession session) {
+        return Boolean.TRUE.equals(session.getAttributes().get(QUEUE_DELTA_ATTRIBUTE));
+    }
 }
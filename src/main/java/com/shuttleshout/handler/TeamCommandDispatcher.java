@@ -0,0 +1,231 @@
+package com.shuttleshout.handler;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Component;
+
+import com.shuttleshout.config.WebSocketProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 團隊命令調度器
+ * 每個團隊一個郵箱，同一團隊的命令按到達順序逐個執行，互不重疊，
+ * 不同團隊的命令由共享的工作線程池並行執行；郵箱在命令執行完後移除，郵箱數量只與有待執行命令的團隊數量相關；
+ * 配置為 VIRTUAL 且運行在 JDK 21+ 時，每條命令在獨立的虛擬線程上執行，阻塞的 JDBC 調用不再佔用平台線程
+ *
+ * @author ShuttleShout Team
+ */
+@Slf4j
+@Component
+public class TeamCommandDispatcher {
+
+    /**
+     * 每次調度最多連續執行的命令數，之後讓出工作線程，避免繁忙團隊長期佔用
+     */
+    private static final int DRAIN_BATCH = 32;
+
+    private final Map<Long, TeamMailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final WebSocketProperties.ExecutorMode executorMode;
+    private final int mailboxCapacity;
+
+    private final AtomicLong executedCommands = new AtomicLong();
+    private final AtomicLong rejectedCommands = new AtomicLong();
+    private final AtomicLong failedCommands = new AtomicLong();
+
+    public TeamCommandDispatcher(WebSocketProperties properties) {
+        WebSocketProperties.Command config = properties.getCommand();
+        this.mailboxCapacity = config.getMailboxCapacity();
+        ExecutorService virtualWorkers = config.getExecutor() == WebSocketProperties.ExecutorMode.VIRTUAL
+                ? newVirtualThreadExecutor()
+                : null;
+        if (virtualWorkers != null) {
+            this.workers = virtualWorkers;
+            this.executorMode = WebSocketProperties.ExecutorMode.VIRTUAL;
+            log.info("WebSocket命令調度使用虛擬線程: mailboxCapacity={}", mailboxCapacity);
+            return;
+        }
+        if (config.getExecutor() == WebSocketProperties.ExecutorMode.VIRTUAL) {
+            log.warn("當前 JDK 不支持虛擬線程，命令調度回退為平台線程池: java.version={}",
+                    System.getProperty("java.version"));
+        }
+
+        int threads = config.getWorkerThreads() > 0
+                ? config.getWorkerThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "ws-command-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executorMode = WebSocketProperties.ExecutorMode.PLATFORM;
+        log.info("WebSocket命令調度線程池初始化完成: threads={}, mailboxCapacity={}", threads, mailboxCapacity);
+    }
+
+    /**
+     * 實際使用的執行模式
+     */
+    public WebSocketProperties.ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    /**
+     * 將命令放入團隊郵箱
+     *
+     * @param teamId 團隊ID
+     * @param command 命令
+     * @return 郵箱已滿時返回false
+     */
+    public boolean dispatch(Long teamId, Runnable command) {
+        // 在 compute 內入隊，與郵箱清空後的移除互斥，命令不會進入已移除的郵箱
+        boolean[] accepted = new boolean[1];
+        mailboxes.compute(teamId, (id, mailbox) -> {
+            TeamMailbox target = mailbox != null ? mailbox : new TeamMailbox(id);
+            accepted[0] = target.offer(command);
+            return target;
+        });
+        if (!accepted[0]) {
+            rejectedCommands.incrementAndGet();
+            log.warn("團隊命令郵箱已滿，拒絕命令: teamId={}, capacity={}", teamId, mailboxCapacity);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 命令調度統計指標
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executor", executorMode);
+        stats.put("mailboxes", mailboxes.size());
+        stats.put("queuedCommands", mailboxes.values().stream().mapToInt(TeamMailbox::size).sum());
+        stats.put("executedCommands", executedCommands.get());
+        stats.put("failedCommands", failedCommands.get());
+        stats.put("rejectedCommands", rejectedCommands.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * 通過反射創建虛擬線程執行器，項目以 Java 8 為編譯目標，不能直接引用 JDK 21 的 API
+     *
+     * @return 執行器，JDK 不支持虛擬線程時返回null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "ws-command-v-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 團隊郵箱
+     * 同一時間最多只有一個工作線程在執行該郵箱的命令
+     */
+    private class TeamMailbox implements Runnable {
+
+        private final Long teamId;
+        private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private TeamMailbox(Long teamId) {
+            this.teamId = teamId;
+        }
+
+        private boolean offer(Runnable command) {
+            if (size.incrementAndGet() > mailboxCapacity) {
+                size.decrementAndGet();
+                return false;
+            }
+            commands.add(command);
+            schedule();
+            return true;
+        }
+
+        private int size() {
+            return size.get();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    workers.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    log.error("命令調度線程池已關閉，無法執行團隊命令: teamId={}", teamId);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int processed = 0;
+            Runnable command;
+            while (processed < DRAIN_BATCH && (command = commands.poll()) != null) {
+                size.decrementAndGet();
+                processed++;
+                try {
+                    command.run();
+                    executedCommands.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failedCommands.incrementAndGet();
+                    log.error("執行團隊命令失敗: teamId={}", teamId, e);
+                }
+            }
+            // 續調度或移除在同一個 compute 內決定，與 dispatch 的入隊互斥；
+            // 期間 scheduled 保持為 true，新到達的命令不會啟動第二個工作線程
+            mailboxes.computeIfPresent(teamId, (id, mailbox) -> {
+                if (mailbox != this) {
+                    return mailbox;
+                }
+                if (!commands.isEmpty()) {
+                    resubmit();
+                    return mailbox;
+                }
+                scheduled.set(false);
+                return null;
+            });
+        }
+
+        private void resubmit() {
+            try {
+                workers.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                log.error("命令調度線程池已關閉，無法執行團隊命令: teamId={}", teamId);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.shuttleshout.handler;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.shuttleshout.config.WebSocketProperties;
+
+/**
+ * 團隊事件重放緩衝
+ * 每個團隊保存最近廣播過的有限數量的幀，並為每次廣播分配遞增的序號；
+ * 客戶端斷線重連時帶上最後收到的序號，只需重放缺失的幀，無需重新查詢數據庫
+ *
+ * @author ShuttleShout Team
+ */
+@Component
+public class TeamReplayBuffer {
+
+    /**
+     * 無法重放（序號已過期或未知）
+     */
+    public static final int NOT_RESUMABLE = -1;
+
+    private final Map<Long, TeamLog> teams = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final long maxAge;
+
+    public TeamReplayBuffer(WebSocketProperties properties) {
+        this.capacity = properties.getReplay().getCapacity();
+        this.maxAge = properties.getReplay().getMaxAge();
+    }
+
+    /**
+     * 根據序號創建出站幀
+     */
+    @FunctionalInterface
+    public interface SequencedFrameFactory {
+
+        /**
+         * 創建並發送帶序號的幀
+         *
+         * @param seq 本次廣播的序號
+         * @return 用於重放的幀
+         * @throws IOException 序列化失敗
+         */
+        OutboundFrame create(long seq) throws IOException;
+    }
+
+    /**
+     * 為一次團隊廣播分配序號並記錄用於重放的幀
+     * factory 在團隊鎖內執行，各會話收到的幀與序號順序一致
+     *
+     * @param teamId 團隊ID
+     * @param factory 創建並發送幀
+     * @return 分配的序號
+     * @throws IOException 序列化失敗，此時不記錄任何幀
+     */
+    public long publish(Long teamId, SequencedFrameFactory factory) throws IOException {
+        TeamLog teamLog = teams.computeIfAbsent(teamId, id -> new TeamLog());
+        synchronized (teamLog) {
+            long seq = ++teamLog.lastSeq;
+            OutboundFrame frame = factory.create(seq);
+            long now = System.currentTimeMillis();
+            teamLog.entries.addLast(new Entry(seq, frame, now));
+            while (teamLog.entries.size() > capacity) {
+                teamLog.entries.pollFirst();
+            }
+            teamLog.prune(now - maxAge);
+            return seq;
+        }
+    }
+
+    /**
+     * 加入團隊並重放 lastSeq 之後的幀
+     * join 與重放在團隊鎖內執行，保證重放的幀與之後的新廣播之間不會遺漏或亂序
+     *
+     * @param teamId 團隊ID
+     * @param lastSeq 客戶端最後收到的序號（為null表示不需要重放）
+     * @param join 加入團隊房間
+     * @param sender 發送重放幀
+     * @return 重放的幀數，無法重放時返回 {@link #NOT_RESUMABLE}
+     */
+    public int resume(Long teamId, Long lastSeq, Runnable join, Consumer<OutboundFrame> sender) {
+        TeamLog teamLog = teams.get(teamId);
+        if (teamLog == null) {
+            join.run();
+            return NOT_RESUMABLE;
+        }
+        synchronized (teamLog) {
+            join.run();
+            if (lastSeq == null || lastSeq > teamLog.lastSeq) {
+                return NOT_RESUMABLE;
+            }
+            teamLog.prune(System.currentTimeMillis() - maxAge);
+            if (lastSeq < teamLog.lastSeq) {
+                Entry oldest = teamLog.entries.peekFirst();
+                if (oldest == null || oldest.seq > lastSeq + 1) {
+                    return NOT_RESUMABLE;
+                }
+            }
+            int replayed = 0;
+            for (Entry entry : teamLog.entries) {
+                if (entry.seq > lastSeq) {
+                    sender.accept(entry.frame);
+                    replayed++;
+                }
+            }
+            return replayed;
+        }
+    }
+
+    /**
+     * 團隊最後分配的序號，沒有廣播過時返回null
+     */
+    public Long getLastSeq(Long teamId) {
+        TeamLog teamLog = teams.get(teamId);
+        if (teamLog == null) {
+            return null;
+        }
+        synchronized (teamLog) {
+            return teamLog.lastSeq;
+        }
+    }
+
+    /**
+     * 團隊事件日誌，由自身鎖保護
+     * 序號以創建時的時間戳為起點，服務重啟後客戶端持有的舊序號不會被誤認為有效
+     */
+    private static class TeamLog {
+        private final Deque<Entry> entries = new ArrayDeque<>();
+        private long lastSeq = System.currentTimeMillis();
+
+        private void prune(long expiredBefore) {
+            while (!entries.isEmpty() && entries.peekFirst().createdAt < expiredBefore) {
+                entries.pollFirst();
+            }
+        }
+    }
+
+    private static class Entry {
+        private final long seq;
+        private final OutboundFrame frame;
+        private final long createdAt;
+
+        private Entry(long seq, OutboundFrame frame, long createdAt) {
+            this.seq = seq;
+            this.frame = frame;
+            this.createdAt = createdAt;
+        }
+    }
+}
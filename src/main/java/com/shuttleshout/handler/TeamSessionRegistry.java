@@ -0,0 +1,113 @@
+package com.shuttleshout.handler;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 團隊房間註冊表
+ * 以 teamId 為鍵維護 WebSocket 會話分組，廣播時只遍歷該團隊的會話
+ *
+ * @author ShuttleShout Team
+ */
+@Slf4j
+@Component
+public class TeamSessionRegistry {
+
+    /**
+     * teamId -> 該團隊的所有會話
+     */
+    private final Map<Long, Set<WebSocketSession>> rooms = new ConcurrentHashMap<>();
+
+    /**
+     * sessionId -> teamId，用於斷線時快速定位房間
+     */
+    private final Map<String, Long> sessionTeams = new ConcurrentHashMap<>();
+
+    /**
+     * 將會話加入團隊房間
+     * 如果會話已在其他房間，會先離開原房間
+     *
+     * @param teamId 團隊ID
+     * @param session WebSocket會話
+     */
+    public void join(Long teamId, WebSocketSession session) {
+        if (teamId == null || session == null) {
+            return;
+        }
+        Long previous = sessionTeams.put(session.getId(), teamId);
+        if (previous != null && !previous.equals(teamId)) {
+            removeFromRoom(previous, session);
+        }
+        // 在 compute 內加入，避免與 removeFromRoom 並發時加入到已被移除的空房間
+        rooms.compute(teamId, (key, room) -> {
+            Set<WebSocketSession> target = room != null ? room : ConcurrentHashMap.<WebSocketSession>newKeySet();
+            target.add(session);
+            return target;
+        });
+        log.debug("會話加入團隊房間: sessionId={}, teamId={}", session.getId(), teamId);
+    }
+
+    /**
+     * 將會話從所在房間移除
+     *
+     * @param session WebSocket會話
+     * @return 會話原本所在的團隊ID，如果不在任何房間則返回null
+     */
+    public Long leave(WebSocketSession session) {
+        if (session == null) {
+            return null;
+        }
+        Long teamId = sessionTeams.remove(session.getId());
+        if (teamId != null) {
+            removeFromRoom(teamId, session);
+            log.debug("會話離開團隊房間: sessionId={}, teamId={}", session.getId(), teamId);
+        }
+        return teamId;
+    }
+
+    /**
+     * 獲取團隊房間內的所有會話
+     *
+     * @param teamId 團隊ID
+     * @return 會話集合（只讀視圖），房間不存在時返回空集合
+     */
+    public Collection<WebSocketSession> getSessions(Long teamId) {
+        if (teamId == null) {
+            return Collections.emptySet();
+        }
+        Set<WebSocketSession> room = rooms.get(teamId);
+        return room != null ? Collections.unmodifiableSet(room) : Collections.<WebSocketSession>emptySet();
+    }
+
+    /**
+     * 獲取會話所在的團隊ID
+     *
+     * @param session WebSocket會話
+     * @return 團隊ID，如果會話未加入任何房間則返回null
+     */
+    public Long getTeamId(WebSocketSession session) {
+        return session != null ? sessionTeams.get(session.getId()) : null;
+    }
+
+    /**
+     * 當前有會話的房間數量
+     */
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    private void removeFromRoom(Long teamId, WebSocketSession session) {
+        rooms.computeIfPresent(teamId, (key, room) -> {
+            room.remove(session);
+            return room.isEmpty() ? null : room;
+        });
+    }
+}
@@ -0,0 +1,289 @@
+package com.shuttleshout.handler;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.shuttleshout.common.model.dto.QueueDTO;
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.common.model.po.Court;
+
+import lombok.Value;
+
+/**
+ * 團隊叫號會話狀態
+ * 團隊會話開始時從數據庫加載一次，保存場地球員、WAITING 隊列、成員目錄和球員與用戶的雙向索引；
+ * 之後的讀取全部在內存中完成，修改由 {@link TeamSessionStateManager} 持久化成功後再同步到這裡。
+ * 所有方法由自身鎖保護，讀取方法返回副本
+ *
+ * @author ShuttleShout Team
+ */
+public class TeamSessionState {
+
+    /**
+     * 等待時間排序：queueNumber 小的優先，相同時 createdAt 早的優先，缺失值排在後面
+     */
+    static final Comparator<QueueDTO> WAITING_ORDER = Comparator
+            .comparing(QueueDTO::getQueueNumber, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(QueueDTO::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Long teamId;
+    private final Map<Long, Court> courts = new LinkedHashMap<>();
+    private final Map<Long, UserTeamDTO> members = new LinkedHashMap<>();
+
+    /**
+     * 用戶ID -> 該用戶的 WAITING 隊列記錄（按等待時間排序）
+     */
+    private final Map<Long, List<QueueDTO>> waiting = new HashMap<>();
+
+    /**
+     * 球員ID <-> 用戶ID，隊列記錄通過球員ID對應到成員
+     */
+    private final Map<Long, Long> userByPlayer = new HashMap<>();
+    private final Map<Long, Long> playerByUser = new HashMap<>();
+
+    TeamSessionState(Long teamId, List<Court> courts, List<UserTeamDTO> members) {
+        this.teamId = teamId;
+        for (Court court : courts) {
+            this.courts.put(court.getId(), copyOf(court));
+        }
+        for (UserTeamDTO member : members) {
+            this.members.putIfAbsent(member.getUserId(), member);
+        }
+    }
+
+    public Long getTeamId() {
+        return teamId;
+    }
+
+    /**
+     * 團隊的所有場地（按ID排序）
+     */
+    public synchronized List<Court> getCourts() {
+        List<Court> result = new ArrayList<>(courts.size());
+        for (Court court : courts.values()) {
+            result.add(copyOf(court));
+        }
+        return result;
+    }
+
+    /**
+     * 獲取場地，不屬於該團隊時返回null
+     */
+    public synchronized Court getCourt(Long courtId) {
+        Court court = courts.get(courtId);
+        return court != null ? copyOf(court) : null;
+    }
+
+    /**
+     * 所有場地上的球員用戶ID
+     */
+    public synchronized Set<Long> getPlayersOnCourts() {
+        Set<Long> players = new HashSet<>();
+        for (Court court : courts.values()) {
+            for (Long userId : slotsOf(court)) {
+                if (userId != null) {
+                    players.add(userId);
+                }
+            }
+        }
+        return players;
+    }
+
+    /**
+     * 有球員的場地數量
+     */
+    public synchronized int countOccupiedCourts() {
+        int count = 0;
+        for (Court court : courts.values()) {
+            if (hasPlayers(court)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized List<UserTeamDTO> getMembers() {
+        return new ArrayList<>(members.values());
+    }
+
+    public synchronized boolean hasMember(Long userId) {
+        return members.containsKey(userId);
+    }
+
+    public synchronized Map<Long, UserTeamDTO> getMemberMap() {
+        return new LinkedHashMap<>(members);
+    }
+
+    /**
+     * 有 WAITING 隊列記錄的成員，按等待時間排序（等待最久的在前）
+     */
+    public synchronized List<WaitingEntry> getWaitingEntries() {
+        List<WaitingEntry> entries = new ArrayList<>(waiting.size());
+        for (Map.Entry<Long, List<QueueDTO>> entry : waiting.entrySet()) {
+            UserTeamDTO member = members.get(entry.getKey());
+            if (member != null) {
+                entries.add(new WaitingEntry(member, entry.getValue().get(0)));
+            }
+        }
+        entries.sort((a, b) -> WAITING_ORDER.compare(a.getQueue(), b.getQueue()));
+        return entries;
+    }
+
+    /**
+     * 不在任何場地上的成員，按等待時間排序，沒有隊列記錄的成員按原順序排在最後
+     */
+    public synchronized List<WaitingEntry> getIdleMembers() {
+        Set<Long> onCourt = getPlayersOnCourts();
+        List<UserTeamDTO> idle = new ArrayList<>(members.size());
+        for (UserTeamDTO member : members.values()) {
+            if (!onCourt.contains(member.getUserId())) {
+                idle.add(member);
+            }
+        }
+        return orderByWaitingTime(idle);
+    }
+
+    /**
+     * 按等待時間排序給定的成員，沒有隊列記錄的成員按原順序排在最後
+     */
+    public synchronized List<WaitingEntry> orderByWaitingTime(Collection<UserTeamDTO> candidates) {
+        List<WaitingEntry> entries = new ArrayList<>(candidates.size());
+        for (UserTeamDTO member : candidates) {
+            entries.add(new WaitingEntry(member, getOldestWaiting(member.getUserId())));
+        }
+        entries.sort((a, b) -> {
+            if (a.getQueue() == null || b.getQueue() == null) {
+                return a.getQueue() == null ? (b.getQueue() == null ? 0 : 1) : -1;
+            }
+            return WAITING_ORDER.compare(a.getQueue(), b.getQueue());
+        });
+        return entries;
+    }
+
+    /**
+     * 用戶等待最久的 WAITING 隊列記錄，沒有時返回null
+     */
+    public synchronized QueueDTO getOldestWaiting(Long userId) {
+        List<QueueDTO> records = waiting.get(userId);
+        return records != null ? records.get(0) : null;
+    }
+
+    /**
+     * 球員對應的用戶ID，未關聯時返回null
+     */
+    public synchronized Long getUserIdByPlayer(Long playerId) {
+        return userByPlayer.get(playerId);
+    }
+
+    /**
+     * 用戶在該團隊的球員ID，沒有球員記錄時返回null
+     */
+    public synchronized Long getPlayerIdByUser(Long userId) {
+        return playerByUser.get(userId);
+    }
+
+    /**
+     * 記錄球員與用戶的對應關係；同一用戶有多條球員記錄時保留最先記錄的一條
+     */
+    synchronized void linkPlayer(Long playerId, Long userId) {
+        userByPlayer.put(playerId, userId);
+        playerByUser.putIfAbsent(userId, playerId);
+    }
+
+    synchronized void putCourt(Court court) {
+        if (teamId.equals(court.getTeamId())) {
+            courts.put(court.getId(), copyOf(court));
+        } else {
+            courts.remove(court.getId());
+        }
+    }
+
+    synchronized void clearCourt(Long courtId, LocalDateTime now) {
+        Court court = courts.get(courtId);
+        if (court != null) {
+            court.setPlayer1Id(null);
+            court.setPlayer2Id(null);
+            court.setPlayer3Id(null);
+            court.setPlayer4Id(null);
+            court.setMatchStartedAt(null);
+            court.setMatchEndedAt(now);
+            court.setUpdatedAt(now);
+        }
+    }
+
+    synchronized void addWaiting(Long userId, QueueDTO queue) {
+        List<QueueDTO> records = waiting.computeIfAbsent(userId, id -> new ArrayList<>(1));
+        records.add(queue);
+        records.sort(WAITING_ORDER);
+    }
+
+    synchronized void removeWaiting(Long userId, Long queueId) {
+        List<QueueDTO> records = waiting.get(userId);
+        if (records != null) {
+            records.removeIf(record -> record.getId().equals(queueId));
+            if (records.isEmpty()) {
+                waiting.remove(userId);
+            }
+        }
+    }
+
+    synchronized void clearWaiting() {
+        waiting.clear();
+    }
+
+    /**
+     * 場地的四個位置，按位置順序
+     */
+    public static List<Long> slotsOf(Court court) {
+        List<Long> slots = new ArrayList<>(4);
+        slots.add(court.getPlayer1Id());
+        slots.add(court.getPlayer2Id());
+        slots.add(court.getPlayer3Id());
+        slots.add(court.getPlayer4Id());
+        return slots;
+    }
+
+    public static boolean hasPlayers(Court court) {
+        return court.getPlayer1Id() != null || court.getPlayer2Id() != null
+                || court.getPlayer3Id() != null || court.getPlayer4Id() != null;
+    }
+
+    static Court copyOf(Court court) {
+        return Court.builder()
+                .id(court.getId())
+                .name(court.getName())
+                .teamId(court.getTeamId())
+                .player1Id(court.getPlayer1Id())
+                .player2Id(court.getPlayer2Id())
+                .player3Id(court.getPlayer3Id())
+                .player4Id(court.getPlayer4Id())
+                .matchStartedAt(court.getMatchStartedAt())
+                .matchEndedAt(court.getMatchEndedAt())
+                .isActive(court.getIsActive())
+                .createdAt(court.getCreatedAt())
+                .updatedAt(court.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * 等待隊列中的一位成員
+     */
+    @Value
+    public static class WaitingEntry {
+
+        UserTeamDTO member;
+
+        /**
+         * 成員等待最久的隊列記錄，沒有時為null
+         */
+        QueueDTO queue;
+    }
+}
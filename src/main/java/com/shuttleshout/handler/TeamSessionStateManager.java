@@ -0,0 +1,453 @@
+package com.shuttleshout.handler;
+
+import static com.shuttleshout.common.model.po.table.PlayerTableDef.PLAYER;
+import static com.shuttleshout.common.model.po.table.UserPOTableDef.USER_PO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.shuttleshout.common.model.dto.NewGameResetDTO;
+import com.shuttleshout.common.model.dto.QueueDTO;
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.common.model.dto.WaitingQueueEntryDTO;
+import com.shuttleshout.common.model.po.Court;
+import com.shuttleshout.common.model.po.Player;
+import com.shuttleshout.common.model.po.Queue;
+import com.shuttleshout.common.model.po.UserPO;
+import com.shuttleshout.repository.PlayerRepository;
+import com.shuttleshout.repository.UserRepository;
+import com.shuttleshout.service.CourtService;
+import com.shuttleshout.service.PlayerService;
+import com.shuttleshout.service.QueueService;
+import com.shuttleshout.service.UserTeamService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 團隊會話狀態管理器
+ * 每個有活躍連接的團隊在內存中保存一份 {@link TeamSessionState}，首次訪問時從數據庫加載，
+ * 沒有連接的團隊不緩存，狀態數量以房間數量為上限；
+ * 場地和隊列的修改必須經由這裡進行。場地球員和隊列狀態的修改追加到寫後日誌後即同步內存，
+ * 數據庫由日誌異步寫入；新建、刪除隊列等其他修改先寫入數據庫，成功後再同步內存，寫入失敗時內存保持不變。
+ * 團隊最後一個連接斷開，或通過 REST 接口修改了成員、用戶資料、團隊、場地後移除緩存，下次訪問時重新加載；
+ * 移除經由團隊命令郵箱執行，與該團隊的命令按順序進行
+ *
+ * @author ShuttleShout Team
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TeamSessionStateManager {
+
+    private final Map<Long, TeamSessionState> states = new ConcurrentHashMap<>();
+
+    private final CourtService courtService;
+    private final QueueService queueService;
+    private final UserTeamService userTeamService;
+    private final PlayerService playerService;
+    private final PlayerRepository playerRepository;
+    private final UserRepository userRepository;
+    private final TeamSessionRegistry sessionRegistry;
+    private final TeamCommandDispatcher commandDispatcher;
+
+    /**
+     * 獲取團隊會話狀態，未加載時從數據庫加載
+     *
+     * @param teamId 團隊ID
+     * @return 會話狀態
+     */
+    public TeamSessionState get(Long teamId) {
+        TeamSessionState state = states.get(teamId);
+        if (state != null) {
+            return state;
+        }
+        // 加載在映射鎖之外進行，並發加載時只保留先完成的一份
+        TeamSessionState loaded = load(teamId);
+        if (!hasRoom(teamId)) {
+            return loaded;
+        }
+        TeamSessionState existing = states.putIfAbsent(teamId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * 重新從數據庫加載團隊會話狀態
+     */
+    public TeamSessionState reload(Long teamId) {
+        TeamSessionState loaded = load(teamId);
+        if (hasRoom(teamId)) {
+            states.put(teamId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 移除團隊會話狀態
+     * 排在團隊郵箱中已有的命令之後執行：直接移除的話，正在執行的命令會繼續修改舊狀態，
+     * 而之後的讀取已經從數據庫重新加載，兩份狀態互不可見
+     */
+    public void evict(Long teamId) {
+        if (teamId == null) {
+            return;
+        }
+        if (!commandDispatcher.dispatch(teamId, () -> remove(teamId))) {
+            remove(teamId);
+        }
+    }
+
+    /**
+     * 移除包含該用戶的所有團隊會話狀態，用戶資料修改或用戶刪除後調用
+     */
+    public void evictForUser(Long userId) {
+        for (Map.Entry<Long, TeamSessionState> entry : states.entrySet()) {
+            if (entry.getValue().hasMember(userId)) {
+                evict(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * 已加載的團隊數量
+     */
+    public int getLoadedCount() {
+        return states.size();
+    }
+
+    /**
+     * 獲取場地，團隊已知時從會話狀態讀取
+     *
+     * @param teamId 團隊ID（可為null）
+     * @param courtId 場地ID
+     * @return 場地副本
+     */
+    public Court getCourt(Long teamId, Long courtId) {
+        if (teamId != null) {
+            Court court = get(teamId).getCourt(courtId);
+            if (court != null) {
+                return court;
+            }
+        }
+        return courtService.getCourtById(courtId);
+    }
+
+    /**
+     * 更新場地並同步會話狀態
+     */
+    public Court updateCourt(Court court) {
+        courtService.updateCourtPlayers(court);
+        TeamSessionState state = loadedState(court.getTeamId());
+        if (state != null) {
+            state.putCourt(court);
+        }
+        return court;
+    }
+
+    /**
+     * 批量更新同一團隊的多個場地並同步會話狀態
+     */
+    public void updateCourts(Long teamId, List<Court> courts) {
+        courtService.updateCourtsPlayers(courts);
+        TeamSessionState state = loadedState(teamId);
+        if (state != null) {
+            for (Court court : courts) {
+                state.putCourt(court);
+            }
+        }
+    }
+
+    /**
+     * 清空場地的球員信息和比賽時間並同步會話狀態
+     */
+    public void clearCourtPlayers(Court court) {
+        courtService.clearCourtPlayers(court.getId());
+        TeamSessionState state = loadedState(court.getTeamId());
+        if (state != null) {
+            state.clearCourt(court.getId(), LocalDateTime.now());
+        }
+    }
+
+    /**
+     * 為用戶創建隊列記錄（必要時先創建球員記錄）
+     *
+     * @param teamId 團隊ID
+     * @param userId 用戶ID
+     * @param courtId 場地ID（可為null）
+     * @param status 隊列狀態
+     * @return 新建的隊列記錄
+     */
+    public QueueDTO enqueue(Long teamId, Long userId, Long courtId, Queue.QueueStatus status) {
+        TeamSessionState state = loadedState(teamId);
+        Long playerId = state != null ? state.getPlayerIdByUser(userId) : null;
+        if (playerId == null) {
+            playerId = playerService.createPlayerFromUser(userId, teamId).getId();
+            if (state != null) {
+                state.linkPlayer(playerId, userId);
+            }
+        }
+        QueueDTO queue = toDto(queueService.createQueue(playerId, courtId, status));
+        if (status == Queue.QueueStatus.WAITING && state != null) {
+            state.addWaiting(userId, queue);
+        }
+        return queue;
+    }
+
+    /**
+     * 將用戶標記為已上場
+     * 有 WAITING 記錄時把等待最久的一條更新為 SERVED，否則新建一條 SERVED 記錄
+     *
+     * @return 更新或新建的隊列記錄
+     */
+    public QueueDTO serve(Long teamId, Long userId, Long courtId) {
+        TeamSessionState state = get(teamId);
+        QueueDTO waiting = state.getOldestWaiting(userId);
+        if (waiting == null) {
+            return enqueue(teamId, userId, courtId, Queue.QueueStatus.SERVED);
+        }
+        queueService.updateQueueStatus(waiting.getId(), Queue.QueueStatus.SERVED);
+        state.removeWaiting(userId, waiting.getId());
+
+        LocalDateTime now = LocalDateTime.now();
+        QueueDTO served = copyOf(waiting);
+        served.setStatus(Queue.QueueStatus.SERVED);
+        served.setServedAt(now);
+        served.setUpdatedAt(now);
+        return served;
+    }
+
+    /**
+     * 刪除團隊所有 WAITING 隊列並同步會話狀態
+     *
+     * @return 刪除的數量
+     */
+    public int clearWaiting(Long teamId) {
+        int deletedCount = queueService.deleteWaitingQueuesByTeamId(teamId);
+        TeamSessionState state = loadedState(teamId);
+        if (state != null) {
+            state.clearWaiting();
+        }
+        return deletedCount;
+    }
+
+    /**
+     * 批量轉換團隊隊列的狀態，並同步會話狀態
+     * 內存只保存 WAITING 隊列：從 WAITING 轉出時清空等待隊列，轉入 WAITING 時重新加載
+     *
+     * @param teamId 團隊ID
+     * @param from 原狀態
+     * @param to 新狀態
+     * @return 轉換的隊列數量
+     */
+    public int transitionQueues(Long teamId, Queue.QueueStatus from, Queue.QueueStatus to) {
+        int updatedCount = queueService.transitionQueuesByTeamId(teamId, from, to);
+        TeamSessionState state = loadedState(teamId);
+        if (state == null || updatedCount == 0 || from == to) {
+            return updatedCount;
+        }
+        if (to == Queue.QueueStatus.WAITING) {
+            reload(teamId);
+        } else if (from == Queue.QueueStatus.WAITING) {
+            state.clearWaiting();
+        }
+        return updatedCount;
+    }
+
+    /**
+     * 開始新局：清空所有場地，按成員順序重建等待隊列，並同步會話狀態
+     *
+     * @param teamId 團隊ID
+     * @return 重置結果
+     */
+    public NewGameResetDTO startNewGame(Long teamId) {
+        TeamSessionState state = get(teamId);
+        NewGameResetDTO result = queueService.startNewGame(teamId, state.getMembers());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Court court : state.getCourts()) {
+            state.clearCourt(court.getId(), now);
+        }
+        state.clearWaiting();
+        for (WaitingQueueEntryDTO entry : result.getWaitingEntries()) {
+            if (entry.getUserId() != null) {
+                state.linkPlayer(entry.getPlayerId(), entry.getUserId());
+                state.addWaiting(entry.getUserId(), toQueue(entry));
+            }
+        }
+        return result;
+    }
+
+    private static QueueDTO toQueue(WaitingQueueEntryDTO entry) {
+        QueueDTO queue = new QueueDTO();
+        queue.setId(entry.getQueueId());
+        queue.setPlayerId(entry.getPlayerId());
+        queue.setCourtId(entry.getCourtId());
+        queue.setStatus(Queue.QueueStatus.WAITING);
+        queue.setQueueNumber(entry.getQueueNumber());
+        queue.setCreatedAt(entry.getQueueCreatedAt());
+        return queue;
+    }
+
+    private void remove(Long teamId) {
+        if (states.remove(teamId) != null) {
+            log.debug("已移除團隊 {} 的會話狀態", teamId);
+        }
+    }
+
+    private boolean hasRoom(Long teamId) {
+        return !sessionRegistry.getSessions(teamId).isEmpty();
+    }
+
+    private TeamSessionState loadedState(Long teamId) {
+        return teamId != null ? states.get(teamId) : null;
+    }
+
+    private TeamSessionState load(Long teamId) {
+        List<Court> courts = courtService.getCourtsByTeamId(teamId);
+        List<UserTeamDTO> members = userTeamService.getTeamMembers(teamId);
+        TeamSessionState state = new TeamSessionState(teamId,
+                courts != null ? courts : Collections.emptyList(),
+                members != null ? members : Collections.emptyList());
+
+        // 球員與用戶的雙向索引，之後隊列到成員的對應只在內存中查找
+        Map<Long, Player> unlinked = new HashMap<>();
+        for (Player player : playerRepository.selectListByQuery(QueryWrapper.create()
+                .where(PLAYER.TEAM_ID.eq(teamId))
+                .orderBy(PLAYER.ID.asc()))) {
+            if (player.getUserId() != null) {
+                state.linkPlayer(player.getId(), player.getUserId());
+            } else {
+                unlinked.put(player.getId(), player);
+            }
+        }
+
+        // 等待隊列連同用戶一條查詢按順序取出，已關聯的球員無需再查找
+        List<WaitingQueueEntryDTO> entries = queueService.getWaitingQueueEntries(teamId);
+        int waitingCount = 0;
+        if (entries != null && !entries.isEmpty()) {
+            linkLegacyPlayers(state, entries, unlinked);
+            for (WaitingQueueEntryDTO entry : entries) {
+                Long userId = entry.getUserId() != null
+                        ? entry.getUserId() : state.getUserIdByPlayer(entry.getPlayerId());
+                if (userId != null) {
+                    state.addWaiting(userId, toQueue(entry));
+                    waitingCount++;
+                } else {
+                    log.warn("無法匹配Player到User: playerId={}", entry.getPlayerId());
+                }
+            }
+        }
+
+        log.info("已加載團隊 {} 的會話狀態: courts={}, members={}, waitingQueues={}",
+                teamId, state.getCourts().size(), state.getMembers().size(), waitingCount);
+        return state;
+    }
+
+    /**
+     * 舊數據：隊列中尚未關聯用戶的球員按姓名（realName 或 username）匹配，失敗時再按手機號碼匹配，
+     * 匹配成功後回填 players.user_id，下次加載不再需要匹配
+     */
+    private void linkLegacyPlayers(TeamSessionState state, List<WaitingQueueEntryDTO> entries,
+                                   Map<Long, Player> unlinked) {
+        List<Player> players = new ArrayList<>();
+        for (WaitingQueueEntryDTO entry : entries) {
+            if (entry.getUserId() != null) {
+                continue;
+            }
+            Player player = unlinked.remove(entry.getPlayerId());
+            if (player != null) {
+                players.add(player);
+            }
+        }
+        if (players.isEmpty()) {
+            return;
+        }
+
+        List<UserTeamDTO> members = state.getMembers();
+        Map<String, Long> userIdByName = new HashMap<>();
+        Set<Long> memberIds = new HashSet<>();
+        for (UserTeamDTO member : members) {
+            memberIds.add(member.getUserId());
+            if (member.getUserRealName() != null) {
+                userIdByName.putIfAbsent(member.getUserRealName(), member.getUserId());
+            }
+            if (member.getUserName() != null) {
+                userIdByName.putIfAbsent(member.getUserName(), member.getUserId());
+            }
+        }
+
+        Map<Long, Long> playerUsers = new HashMap<>();
+        List<Player> unmatched = new ArrayList<>();
+        for (Player player : players) {
+            Long userId = player.getName() != null ? userIdByName.get(player.getName()) : null;
+            if (userId != null) {
+                playerUsers.put(player.getId(), userId);
+            } else if (player.getPhoneNumber() != null) {
+                unmatched.add(player);
+            }
+        }
+
+        if (!unmatched.isEmpty()) {
+            Set<String> phones = new HashSet<>();
+            for (Player player : unmatched) {
+                phones.add(player.getPhoneNumber());
+            }
+            Map<String, Long> userIdByPhone = new HashMap<>();
+            for (UserPO user : userRepository.selectListByQuery(QueryWrapper.create()
+                    .where(USER_PO.PHONE_NUMBER.in(phones)))) {
+                if (memberIds.contains(user.getId())) {
+                    userIdByPhone.putIfAbsent(user.getPhoneNumber(), user.getId());
+                }
+            }
+            for (Player player : unmatched) {
+                Long userId = userIdByPhone.get(player.getPhoneNumber());
+                if (userId != null) {
+                    playerUsers.put(player.getId(), userId);
+                }
+            }
+        }
+
+        for (Map.Entry<Long, Long> entry : playerUsers.entrySet()) {
+            playerService.linkUser(entry.getKey(), entry.getValue());
+            state.linkPlayer(entry.getKey(), entry.getValue());
+        }
+        log.info("已為團隊 {} 的 {} 位舊球員記錄回填用戶關聯", state.getTeamId(), playerUsers.size());
+    }
+
+    private static QueueDTO copyOf(QueueDTO queue) {
+        QueueDTO copy = new QueueDTO();
+        copy.setId(queue.getId());
+        copy.setPlayerId(queue.getPlayerId());
+        copy.setCourtId(queue.getCourtId());
+        copy.setStatus(queue.getStatus());
+        copy.setQueueNumber(queue.getQueueNumber());
+        copy.setCalledAt(queue.getCalledAt());
+        copy.setServedAt(queue.getServedAt());
+        copy.setCreatedAt(queue.getCreatedAt());
+        copy.setUpdatedAt(queue.getUpdatedAt());
+        return copy;
+    }
+
+    private static QueueDTO toDto(Queue queue) {
+        QueueDTO dto = new QueueDTO();
+        dto.setId(queue.getId());
+        dto.setPlayerId(queue.getPlayerId());
+        dto.setCourtId(queue.getCourtId());
+        dto.setStatus(queue.getStatus());
+        dto.setQueueNumber(queue.getQueueNumber());
+        dto.setCalledAt(queue.getCalledAt());
+        dto.setServedAt(queue.getServedAt());
+        dto.setCreatedAt(queue.getCreatedAt());
+        dto.setUpdatedAt(queue.getUpdatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,98 @@
+package com.shuttleshout.handler.matchmaking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.handler.TeamSessionState;
+
+/**
+ * 撮合候選池
+ * 等待隊列中不在場上的成員，按等待時間排序（等待最久的在前）；
+ * 用戶ID保存在 long 數組中，引擎只按下標讀取，選擇過程不需要裝箱或遍歷 DTO
+ *
+ * @author ShuttleShout Team
+ */
+public final class CandidatePool {
+
+    private final Long teamId;
+    private final long[] userIds;
+    private final UserTeamDTO[] members;
+    private int size;
+
+    private CandidatePool(Long teamId, long[] userIds, UserTeamDTO[] members, int size) {
+        this.teamId = teamId;
+        this.userIds = userIds;
+        this.members = members;
+        this.size = size;
+    }
+
+    /**
+     * 從等待隊列構建候選池，排除已在場上的成員
+     *
+     * @param teamId 團隊ID
+     * @param waiting 等待隊列，等待時間最長的在前
+     * @param onCourt 已在場上的用戶ID
+     */
+    public static CandidatePool of(Long teamId, List<TeamSessionState.WaitingEntry> waiting, Set<Long> onCourt) {
+        long[] userIds = new long[waiting.size()];
+        UserTeamDTO[] members = new UserTeamDTO[waiting.size()];
+        int size = 0;
+        for (TeamSessionState.WaitingEntry entry : waiting) {
+            UserTeamDTO member = entry.getMember();
+            if (!onCourt.contains(member.getUserId())) {
+                userIds[size] = member.getUserId();
+                members[size] = member;
+                size++;
+            }
+        }
+        return new CandidatePool(teamId, userIds, members, size);
+    }
+
+    public Long getTeamId() {
+        return teamId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long userId(int index) {
+        return userIds[index];
+    }
+
+    public UserTeamDTO member(int index) {
+        return members[index];
+    }
+
+    /**
+     * 取出選中的成員並從候選池中移除，剩餘成員保持原有順序
+     *
+     * @param indices 引擎返回的下標
+     * @return 選中的成員，順序與 indices 一致
+     */
+    public List<UserTeamDTO> take(int[] indices) {
+        List<UserTeamDTO> selected = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            selected.add(members[index]);
+        }
+        int[] removed = indices.clone();
+        Arrays.sort(removed);
+        int write = removed.length == 0 ? size : removed[0];
+        int next = 0;
+        for (int read = write; read < size; read++) {
+            if (next < removed.length && removed[next] == read) {
+                next++;
+                continue;
+            }
+            userIds[write] = userIds[read];
+            members[write] = members[read];
+            write++;
+        }
+        Arrays.fill(members, write, size, null);
+        size = write;
+        return selected;
+    }
+}
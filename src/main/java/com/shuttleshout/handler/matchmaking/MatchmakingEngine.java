@@ -0,0 +1,25 @@
+package com.shuttleshout.handler.matchmaking;
+
+/**
+ * 撮合引擎
+ * 從候選池中為一個場地選出球員。實現類註冊為 Spring Bean 後按名稱登記到 {@link MatchmakingEngineRegistry}，
+ * 團隊通過 shuttleshout.matchmaking.* 配置或 AUTO_ASSIGN 消息的 method 參數選擇引擎
+ *
+ * @author ShuttleShout Team
+ */
+public interface MatchmakingEngine {
+
+    /**
+     * 引擎名稱，內置引擎與 {@link com.shuttleshout.handler.strategy.AutoAssignStrategy.AssignmentMethod} 同名
+     */
+    String getName();
+
+    /**
+     * 選出球員
+     *
+     * @param pool 候選池，不包含已在場上的成員
+     * @param needed 需要的人數
+     * @return 選中成員在候選池中的下標，按場地位置順序；候選不足時可少於 needed 個
+     */
+    int[] select(CandidatePool pool, int needed);
+}
@@ -0,0 +1,71 @@
+package com.shuttleshout.handler.matchmaking;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.shuttleshout.common.exception.ApiException;
+import com.shuttleshout.common.exception.ErrorCode;
+import com.shuttleshout.config.MatchmakingProperties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 撮合引擎註冊表
+ * 收集所有 {@link MatchmakingEngine} Bean 並按名稱（不區分大小寫）登記；
+ * 團隊使用的引擎由 {@link MatchmakingProperties} 決定，啟動時校驗配置的引擎都已註冊
+ *
+ * @author ShuttleShout Team
+ */
+@Slf4j
+@Component
+public class MatchmakingEngineRegistry {
+
+    private final Map<String, MatchmakingEngine> engines = new HashMap<>();
+    private final MatchmakingProperties properties;
+
+    public MatchmakingEngineRegistry(List<MatchmakingEngine> engines, MatchmakingProperties properties) {
+        for (MatchmakingEngine engine : engines) {
+            MatchmakingEngine previous = this.engines.put(key(engine.getName()), engine);
+            if (previous != null) {
+                throw new IllegalStateException("撮合引擎名稱重複: " + engine.getName());
+            }
+        }
+        this.properties = properties;
+        require(properties.getDefaultEngine());
+        properties.getTeams().values().forEach(this::require);
+        log.info("已註冊撮合引擎: {}，默認: {}", this.engines.keySet(), properties.getDefaultEngine());
+    }
+
+    /**
+     * 按名稱獲取引擎
+     *
+     * @throws ApiException 引擎未註冊
+     */
+    public MatchmakingEngine get(String name) {
+        MatchmakingEngine engine = name != null ? engines.get(key(name)) : null;
+        if (engine == null) {
+            throw new ApiException(ErrorCode.ILLEGAL_ARGUMENT, "未知的分配方式: " + name);
+        }
+        return engine;
+    }
+
+    /**
+     * 團隊配置的引擎，未配置時使用默認引擎
+     */
+    public MatchmakingEngine forTeam(Long teamId) {
+        return get(properties.getTeams().getOrDefault(teamId, properties.getDefaultEngine()));
+    }
+
+    private void require(String name) {
+        if (name == null || !engines.containsKey(key(name))) {
+            throw new IllegalStateException("配置的撮合引擎未註冊: " + name);
+        }
+    }
+
+    private static String key(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+}
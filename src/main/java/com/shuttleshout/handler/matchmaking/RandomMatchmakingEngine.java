@@ -0,0 +1,50 @@
+package com.shuttleshout.handler.matchmaking;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.stereotype.Component;
+
+import com.shuttleshout.handler.strategy.AutoAssignStrategy.AssignmentMethod;
+
+/**
+ * 隨機撮合：用 Floyd 抽樣從候選池中不重複地抽取，只與抽取人數有關，不需要打亂整個候選池
+ *
+ * @author ShuttleShout Team
+ */
+@Component
+public class RandomMatchmakingEngine implements MatchmakingEngine {
+
+    @Override
+    public String getName() {
+        return AssignmentMethod.RANDOM.name();
+    }
+
+    @Override
+    public int[] select(CandidatePool pool, int needed) {
+        int size = pool.size();
+        int count = Math.min(needed, size);
+        int[] selected = new int[count];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0, bound = size - count; i < count; i++, bound++) {
+            int candidate = random.nextInt(bound + 1);
+            selected[i] = contains(selected, i, candidate) ? bound : candidate;
+        }
+        // Floyd 抽樣的結果順序不均勻，再打亂一次位置
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = selected[i];
+            selected[i] = selected[j];
+            selected[j] = swap;
+        }
+        return selected;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
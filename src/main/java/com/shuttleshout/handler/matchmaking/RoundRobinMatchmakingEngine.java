@@ -0,0 +1,72 @@
+package com.shuttleshout.handler.matchmaking;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.shuttleshout.handler.strategy.AutoAssignStrategy.AssignmentMethod;
+
+/**
+ * 輪換撮合：按用戶ID排成固定的輪換順序，每個團隊記住上次選到的最後一位，
+ * 下次從其後的第一位候選開始，到末尾後回到開頭
+ *
+ * @author ShuttleShout Team
+ */
+@Component
+public class RoundRobinMatchmakingEngine implements MatchmakingEngine {
+
+    /**
+     * 團隊ID -> 上次選中的最後一位用戶ID
+     */
+    private final Map<Long, Long> cursors = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return AssignmentMethod.ROUND_ROBIN.name();
+    }
+
+    @Override
+    public int[] select(CandidatePool pool, int needed) {
+        int count = Math.min(needed, pool.size());
+        if (count == 0) {
+            return new int[0];
+        }
+        Long last = cursors.get(pool.getTeamId());
+        long cursor = last != null ? last : Long.MIN_VALUE;
+
+        // 單次遍歷保留輪換順序上最靠前的 count 位，插入排序維護
+        int[] selected = new int[count];
+        int filled = 0;
+        for (int i = 0; i < pool.size(); i++) {
+            long userId = pool.userId(i);
+            int position = filled;
+            while (position > 0 && before(userId, pool.userId(selected[position - 1]), cursor)) {
+                position--;
+            }
+            if (position >= count) {
+                continue;
+            }
+            int end = Math.min(filled, count - 1);
+            System.arraycopy(selected, position, selected, position + 1, end - position);
+            selected[position] = i;
+            if (filled < count) {
+                filled++;
+            }
+        }
+        cursors.put(pool.getTeamId(), pool.userId(selected[count - 1]));
+        return selected;
+    }
+
+    /**
+     * 從 cursor 之後開始輪換時，a 是否排在 b 前面
+     */
+    private static boolean before(long a, long b, long cursor) {
+        boolean aWrapped = a <= cursor;
+        boolean bWrapped = b <= cursor;
+        if (aWrapped != bWrapped) {
+            return !aWrapped;
+        }
+        return a < b;
+    }
+}
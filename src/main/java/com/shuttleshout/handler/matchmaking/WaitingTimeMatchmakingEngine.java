@@ -0,0 +1,28 @@
+package com.shuttleshout.handler.matchmaking;
+
+import org.springframework.stereotype.Component;
+
+import com.shuttleshout.handler.strategy.AutoAssignStrategy.AssignmentMethod;
+
+/**
+ * 按等待時間撮合（默認）：候選池已按等待時間排序，直接取最前面的成員
+ *
+ * @author ShuttleShout Team
+ */
+@Component
+public class WaitingTimeMatchmakingEngine implements MatchmakingEngine {
+
+    @Override
+    public String getName() {
+        return AssignmentMethod.WAITING_TIME.name();
+    }
+
+    @Override
+    public int[] select(CandidatePool pool, int needed) {
+        int[] selected = new int[Math.min(needed, pool.size())];
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = i;
+        }
+        return selected;
+    }
+}
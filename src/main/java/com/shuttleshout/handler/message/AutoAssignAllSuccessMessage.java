@@ -0,0 +1,34 @@
+package com.shuttleshout.handler.message;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Value;
+
+/**
+ * AUTO_ASSIGN_ALL_SUCCESS 消息，一次填滿團隊所有空場地後廣播給團隊
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+public class AutoAssignAllSuccessMessage implements OutboundMessage {
+
+    String type = "AUTO_ASSIGN_ALL_SUCCESS";
+    Long teamId;
+
+    /**
+     * 本次分配的場地，均為待確認狀態
+     */
+    List<CourtAssignments> courts;
+
+    @JsonProperty("isPending")
+    boolean pending;
+
+    String message;
+
+    @Override
+    public Long teamIdForRouting() {
+        return teamId;
+    }
+}
@@ -0,0 +1,34 @@
+package com.shuttleshout.handler.message;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Value;
+
+/**
+ * AUTO_ASSIGN_SUCCESS 消息，自動分配完成後廣播給團隊
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+public class AutoAssignSuccessMessage implements OutboundMessage {
+
+    String type = "AUTO_ASSIGN_SUCCESS";
+    Long courtId;
+    Long teamId;
+    List<PlayerAssignment> assignments;
+
+    /**
+     * 是否為待確認狀態
+     */
+    @JsonProperty("isPending")
+    boolean pending;
+
+    String message;
+
+    @Override
+    public Long teamIdForRouting() {
+        return teamId;
+    }
+}
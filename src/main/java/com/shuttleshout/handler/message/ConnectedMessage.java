@@ -0,0 +1,19 @@
+package com.shuttleshout.handler.message;
+
+import lombok.Value;
+
+/**
+ * CONNECTED 消息，連接建立後發送給客戶端
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+public class ConnectedMessage implements OutboundMessage {
+
+    String type = "CONNECTED";
+
+    /**
+     * 握手時帶入的 teamId 原始字符串，沒有時為空字符串
+     */
+    String teamId;
+}
@@ -0,0 +1,26 @@
+package com.shuttleshout.handler.message;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Value;
+
+/**
+ * 單個場地的進行中比賽信息
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CourtAssignments {
+
+    Long courtId;
+
+    /**
+     * 比賽開始時間（ISO-8601 字符串），待確認狀態下為null
+     */
+    String matchStartedAt;
+
+    List<PlayerAssignment> assignments;
+}
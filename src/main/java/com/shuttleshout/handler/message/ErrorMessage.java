@@ -0,0 +1,19 @@
+package com.shuttleshout.handler.message;
+
+import lombok.Value;
+
+/**
+ * ERROR 消息
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+public class ErrorMessage implements OutboundMessage {
+
+    String type = "ERROR";
+    String message;
+
+    public static ErrorMessage of(String message) {
+        return new ErrorMessage(message);
+    }
+}
@@ -0,0 +1,34 @@
+package com.shuttleshout.handler.message;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Value;
+
+/**
+ * GAME_STATE_CHECK 消息，告知客戶端團隊是否有進行中的比賽
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameStateCheckMessage implements OutboundMessage {
+
+    String type = "GAME_STATE_CHECK";
+    Long teamId;
+
+    @JsonProperty("hasOngoingMatches")
+    boolean hasOngoingMatches;
+
+    /**
+     * 有進行中比賽的場地數量，團隊沒有場地時為null
+     */
+    Integer ongoingCourtsCount;
+
+    String message;
+
+    @Override
+    public Long teamIdForRouting() {
+        return teamId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.shuttleshout.handler.message;
+
+/**
+ * WebSocket出站消息
+ * 所有類型化的出站消息都實現此接口，序列化時 type 字段會寫入 JSON
+ *
+ * @author ShuttleShout Team
+ */
+public interface OutboundMessage {
+
+    /**
+     * 消息類型，例如 QUEUE_UPDATE
+     */
+    String getType();
+
+    /**
+     * 消息所屬的團隊ID，沒有團隊歸屬時返回null
+     */
+    default Long teamIdForRouting() {
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.shuttleshout.handler.message;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+
+import lombok.Value;
+
+/**
+ * 場地上某個位置的球員分配信息
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PlayerAssignment {
+
+    Long userId;
+    int position;
+    String userName;
+    String userRealName;
+    String userEmail;
+
+    /**
+     * 構建分配信息，成員不存在時只包含 userId 和 position
+     *
+     * @param userId 用戶ID
+     * @param position 位置 (1-4)
+     * @param member 團隊成員（可為null）
+     * @return 分配信息
+     */
+    public static PlayerAssignment of(Long userId, int position, UserTeamDTO member) {
+        if (member == null) {
+            return new PlayerAssignment(userId, position, null, null, null);
+        }
+        return new PlayerAssignment(userId, position,
+                member.getUserName(), member.getUserRealName(), member.getUserEmail());
+    }
+}
@@ -0,0 +1,51 @@
+package com.shuttleshout.handler.message;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Value;
+
+/**
+ * 等待隊列的單項變更
+ * 客戶端應用順序：先刪除 REMOVED，再將 ADDED / MOVED 放到 index 指定的位置，
+ * 其餘未變動的成員按原相對順序依次填入剩下的位置
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QueueChange {
+
+    /**
+     * 變更類型
+     */
+    public enum Op {
+        ADDED,
+        REMOVED,
+        MOVED
+    }
+
+    Op op;
+    Long userId;
+
+    /**
+     * ADDED / MOVED 在新隊列中的位置
+     */
+    Integer index;
+
+    /**
+     * ADDED 時的完整成員信息
+     */
+    QueueEntry entry;
+
+    public static QueueChange added(int index, QueueEntry entry) {
+        return new QueueChange(Op.ADDED, entry.getUserId(), index, entry);
+    }
+
+    public static QueueChange removed(Long userId) {
+        return new QueueChange(Op.REMOVED, userId, null, null);
+    }
+
+    public static QueueChange moved(Long userId, int index) {
+        return new QueueChange(Op.MOVED, userId, index, null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.shuttleshout.handler.message;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * QUEUE_DELTA 消息，等待隊列相對於 baseVersion 的增量變更
+ * 客戶端當前版本不等於 baseVersion 時應發送 LOAD_QUEUE 重新獲取完整快照
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+public class QueueDeltaMessage implements OutboundMessage {
+
+    String type = "QUEUE_DELTA";
+    Long teamId;
+    long baseVersion;
+    long version;
+    List<QueueChange> changes;
+
+    @Override
+    public Long teamIdForRouting() {
+        return teamId;
+    }
+}
@@ -0,0 +1,25 @@
+package com.shuttleshout.handler.message;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Value;
+
+/**
+ * 等待隊列中的一位成員
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QueueEntry {
+
+    Long userId;
+    String userName;
+    String userRealName;
+    String userEmail;
+
+    /**
+     * 進入等待隊列的時間（ISO-8601 字符串），沒有隊列記錄時為null
+     */
+    String queueCreatedAt;
+}
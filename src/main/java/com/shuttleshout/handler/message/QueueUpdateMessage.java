@@ -0,0 +1,25 @@
+package com.shuttleshout.handler.message;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * QUEUE_UPDATE 消息，包含完整的等待隊列快照
+ * version 是該快照的隊列版本，之後的 QUEUE_DELTA 以此為基準
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+public class QueueUpdateMessage implements OutboundMessage {
+
+    String type = "QUEUE_UPDATE";
+    Long teamId;
+    long version;
+    List<QueueEntry> queue;
+
+    @Override
+    public Long teamIdForRouting() {
+        return teamId;
+    }
+}
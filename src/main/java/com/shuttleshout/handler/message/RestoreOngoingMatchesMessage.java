@@ -0,0 +1,24 @@
+package com.shuttleshout.handler.message;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * RESTORE_ONGOING_MATCHES 消息，恢復各場地進行中的比賽
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+public class RestoreOngoingMatchesMessage implements OutboundMessage {
+
+    String type = "RESTORE_ONGOING_MATCHES";
+    Long teamId;
+    List<CourtAssignments> courts;
+    String message;
+
+    @Override
+    public Long teamIdForRouting() {
+        return teamId;
+    }
+}
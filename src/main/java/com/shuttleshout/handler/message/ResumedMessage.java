@@ -0,0 +1,30 @@
+package com.shuttleshout.handler.message;
+
+import lombok.Value;
+
+/**
+ * RESUMED 消息，斷線重連後缺失的廣播已重放完畢，客戶端可保留現有狀態
+ *
+ * @author ShuttleShout Team
+ */
+@Value
+public class ResumedMessage implements OutboundMessage {
+
+    String type = "RESUMED";
+    Long teamId;
+
+    /**
+     * 客戶端重連時帶上的最後序號
+     */
+    long lastSeq;
+
+    /**
+     * 重放的幀數
+     */
+    int replayed;
+
+    @Override
+    public Long teamIdForRouting() {
+        return teamId;
+    }
+}
@@ -2,8 +2,6 @@ package com.shuttleshout.handler.strategy;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +11,8 @@ import org.springframework.web.socket.WebSocketSession;
 
 import com.shuttleshout.common.model.po.Court;
 import com.shuttleshout.handler.TeamCallingWebSocketHandler;
-import com.shuttleshout.service.CourtService;
+import com.shuttleshout.handler.TeamSessionStateManager;
+import com.shuttleshout.handler.message.ErrorMessage;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -31,7 +30,7 @@ public class AssignPlayerStrategy implements WebSocketMessageStrategy {
     private TeamCallingWebSocketHandler handler;
     
     @Autowired
-    private CourtService courtService;
+    private TeamSessionStateManager sessionStateManager;
     
     @Override
     public void handle(WebSocketSession session, Map<String, Object> data) {
@@ -46,9 +45,7 @@ public class AssignPlayerStrategy implements WebSocketMessageStrategy {
             // 驗證參數
             if (courtIdObj == null || userIdObj == null || positionObj == null) {
                 log.warn("球員分配請求缺少必要參數");
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "缺少必要參數: courtId, userId, position");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("缺少必要參數: courtId, userId, position"));
                 return;
             }
             
@@ -59,57 +56,37 @@ public class AssignPlayerStrategy implements WebSocketMessageStrategy {
             
             if (courtId == null || userId == null || position == null) {
                 log.warn("參數類型轉換失敗");
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "參數類型無效");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("參數類型無效"));
                 return;
             }
             
             // 驗證位置範圍
             if (position < 1 || position > 4) {
                 log.warn("位置參數無效: position={}", position);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "位置參數無效，必須在 1-4 之間");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("位置參數無效，必須在 1-4 之間"));
                 return;
             }
             
-            // 獲取 teamId（用於檢查所有場地）
-            Object teamIdObj = data.get("teamId");
-            Long teamId = teamIdObj != null ? handler.convertToLong(teamIdObj) : null;
+            // 獲取 teamId（用於檢查所有場地和確定廣播的團隊房間）
+            Long teamId = handler.resolveTeamId(session);
             
-            // 通過 team_courts 表檢查該球員是否已經在任何場地上（去重）
+            // 通過會話狀態檢查該球員是否已經在任何場地上（去重）
             if (teamId != null) {
-                List<Court> courts = courtService.getCourtsByTeamId(teamId);
-                Set<Long> allPlayersOnCourt = new HashSet<>();
-                if (courts != null) {
-                    for (Court court : courts) {
-                        List<Long> players = courtService.getPlayersOnCourt(court.getId());
-                        for (Long playerId : players) {
-                            if (playerId != null) {
-                                allPlayersOnCourt.add(playerId);
-                            }
-                        }
-                    }
-                }
+                Set<Long> allPlayersOnCourt = sessionStateManager.get(teamId).getPlayersOnCourts();
                 
                 // 檢查該球員是否已經在其他場地上
                 if (allPlayersOnCourt.contains(userId)) {
                     log.warn("球員 {} 已經在其他場地上，無法重複分配", userId);
-                    Map<String, Object> errorData = new HashMap<>();
-                    errorData.put("message", "該球員已經在其他場地上，無法重複分配");
-                    handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                    handler.sendMessage(session, ErrorMessage.of("該球員已經在其他場地上，無法重複分配"));
                     return;
                 }
             }
             
             // 獲取當前場地信息
-            Court court = courtService.getCourtById(courtId);
+            Court court = sessionStateManager.getCourt(teamId, courtId);
             if (court == null) {
                 log.warn("場地不存在: courtId={}", courtId);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "場地不存在");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("場地不存在"));
                 return;
             }
             
@@ -159,7 +136,7 @@ public class AssignPlayerStrategy implements WebSocketMessageStrategy {
             }
             
             court.setUpdatedAt(LocalDateTime.now());
-            courtService.updateCourt(court);
+            sessionStateManager.updateCourt(court);
             
             log.info("已分配球員 {} 到場地 {} 的位置 {}（已更新 team_courts 表）", userId, courtId, position);
             
@@ -171,8 +148,10 @@ public class AssignPlayerStrategy implements WebSocketMessageStrategy {
             response.put("position", position);
             response.put("playerId", userId); // 兼容舊格式
             
-            // 廣播給所有客戶端
-            handler.broadcastMessage(response);
+            // 廣播給場地所屬團隊的所有客戶端
+            Long broadcastTeamId = court.getTeamId() != null ? court.getTeamId() : teamId;
+            response.put("teamId", broadcastTeamId);
+            handler.broadcastToTeam(broadcastTeamId, response);
             
             // 更新等待隊列（從團隊成員中排除所有場地上的球員）
             if (teamId != null) {
@@ -181,9 +160,7 @@ public class AssignPlayerStrategy implements WebSocketMessageStrategy {
             
         } catch (Exception e) {
             log.error("處理球員分配失敗", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("message", "球員分配失敗: " + e.getMessage());
-            handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+            handler.sendMessage(session, ErrorMessage.of("球員分配失敗: " + e.getMessage()));
         }
     }
     
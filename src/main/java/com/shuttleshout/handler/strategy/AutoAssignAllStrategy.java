@@ -0,0 +1,143 @@
+package com.shuttleshout.handler.strategy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.common.model.po.Court;
+import com.shuttleshout.handler.TeamCallingWebSocketHandler;
+import com.shuttleshout.handler.TeamSessionState;
+import com.shuttleshout.handler.TeamSessionStateManager;
+import com.shuttleshout.handler.matchmaking.CandidatePool;
+import com.shuttleshout.handler.matchmaking.MatchmakingEngine;
+import com.shuttleshout.handler.matchmaking.MatchmakingEngineRegistry;
+import com.shuttleshout.handler.message.AutoAssignAllSuccessMessage;
+import com.shuttleshout.handler.message.CourtAssignments;
+import com.shuttleshout.handler.message.ErrorMessage;
+import com.shuttleshout.handler.message.PlayerAssignment;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 批量自動分配策略
+ * 一次填滿團隊所有空場地：候選池只構建一次，按場地順序由團隊的撮合引擎依次選人，
+ * 結果與逐個場地發送 AUTO_ASSIGN 相同；所有場地一起寫入，只廣播一次分配結果和一次等待隊列
+ * 
+ * @author ShuttleShout Team
+ */
+@Slf4j
+@Component
+public class AutoAssignAllStrategy implements WebSocketMessageStrategy {
+
+    private static final int COURT_CAPACITY = 4;
+
+    @Lazy
+    @Autowired
+    private TeamCallingWebSocketHandler handler;
+
+    @Autowired
+    private TeamSessionStateManager sessionStateManager;
+
+    @Autowired
+    private MatchmakingEngineRegistry matchmakingEngineRegistry;
+
+    @Override
+    public void handle(WebSocketSession session, Map<String, Object> data) {
+        try {
+            Object teamIdObj = data.get("teamId");
+            log.info("收到批量自動分配請求: teamId={}", teamIdObj);
+
+            if (teamIdObj == null) {
+                log.warn("批量自動分配請求缺少必要參數: teamId");
+                handler.sendMessage(session, ErrorMessage.of("缺少必要參數: teamId"));
+                return;
+            }
+            Long teamId = handler.convertToLong(teamIdObj);
+            if (teamId == null) {
+                log.warn("參數類型無效: teamId={}", teamIdObj);
+                handler.sendMessage(session, ErrorMessage.of("參數類型無效"));
+                return;
+            }
+
+            TeamSessionState state = sessionStateManager.get(teamId);
+            List<Court> courts = state.getCourts();
+            CandidatePool pool = CandidatePool.of(teamId, state.getWaitingEntries(), state.getPlayersOnCourts());
+            Map<Long, List<UserTeamDTO>> plan = plan(courts, pool, matchmakingEngineRegistry.forTeam(teamId));
+            if (plan.isEmpty()) {
+                log.warn("團隊 {} 沒有可填滿的空場地", teamId);
+                handler.sendMessage(session, ErrorMessage.of("沒有空場地，或等待成員不足以填滿一個場地"));
+                return;
+            }
+
+            // 不設置 matchStartedAt，等待用戶逐個場地確認
+            LocalDateTime now = LocalDateTime.now();
+            List<Court> assignedCourts = new ArrayList<>(plan.size());
+            List<CourtAssignments> courtsData = new ArrayList<>(plan.size());
+            for (Court court : courts) {
+                List<UserTeamDTO> selected = plan.get(court.getId());
+                if (selected == null) {
+                    continue;
+                }
+                court.setPlayer1Id(selected.get(0).getUserId());
+                court.setPlayer2Id(selected.get(1).getUserId());
+                court.setPlayer3Id(selected.get(2).getUserId());
+                court.setPlayer4Id(selected.get(3).getUserId());
+                court.setMatchEndedAt(null);
+                court.setUpdatedAt(now);
+                assignedCourts.add(court);
+
+                List<PlayerAssignment> assignments = new ArrayList<>(COURT_CAPACITY);
+                for (int i = 0; i < selected.size(); i++) {
+                    UserTeamDTO member = selected.get(i);
+                    assignments.add(PlayerAssignment.of(member.getUserId(), i + 1, member));
+                }
+                courtsData.add(new CourtAssignments(court.getId(), null, assignments));
+            }
+            sessionStateManager.updateCourts(teamId, assignedCourts);
+            log.info("團隊 {} 批量分配了 {} 個場地", teamId, assignedCourts.size());
+
+            handler.broadcastToTeam(teamId, new AutoAssignAllSuccessMessage(teamId, courtsData, true,
+                    String.format("已自動分配 %d 個場地，請確認後開始比賽", assignedCourts.size())));
+            handler.sendWaitingQueueUpdate(null, teamId, null);
+        } catch (Exception e) {
+            log.error("處理批量自動分配請求失敗", e);
+            handler.sendMessage(session, ErrorMessage.of("批量自動分配失敗: " + e.getMessage()));
+        }
+    }
+
+    @Override
+    public String getMessageType() {
+        return "AUTO_ASSIGN_ALL";
+    }
+
+    /**
+     * 按場地順序為空場地選擇成員
+     * 每個場地選出的成員從候選池中移除；候選池湊不滿4人時停止，
+     * 與逐個場地分配時該場地報錯、之後的場地同樣人數不足的結果一致
+     *
+     * @param courts 團隊場地，按場地順序
+     * @param pool 候選池，不包含已在場上的成員
+     * @param engine 團隊的撮合引擎
+     * @return 場地ID到選中成員的映射，按場地順序
+     */
+    static Map<Long, List<UserTeamDTO>> plan(List<Court> courts, CandidatePool pool, MatchmakingEngine engine) {
+        Map<Long, List<UserTeamDTO>> plan = new LinkedHashMap<>();
+        for (Court court : courts) {
+            if (TeamSessionState.hasPlayers(court)) {
+                continue;
+            }
+            if (pool.size() < COURT_CAPACITY) {
+                break;
+            }
+            plan.put(court.getId(), pool.take(engine.select(pool, COURT_CAPACITY)));
+        }
+        return plan;
+    }
+}
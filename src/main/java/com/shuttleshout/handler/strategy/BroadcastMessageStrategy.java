@@ -10,7 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * 廣播消息策略
- * 處理需要直接廣播給所有客戶端的消息類型
+ * 處理需要直接廣播給團隊房間內所有客戶端的消息類型
  * 支持: QUEUE_UPDATE, COURT_UPDATE, PLAYER_ASSIGNED, PLAYER_REMOVED
  * 
  * @author ShuttleShout Team
@@ -25,7 +25,7 @@ public class BroadcastMessageStrategy implements WebSocketMessageStrategy {
     @Override
     public void handle(WebSocketSession session, Map<String, Object> data) {
         log.info("廣播消息: type={}", messageType);
-        handler.broadcastMessage(handler.createMessage(messageType, data));
+        handler.broadcastToTeam(handler.resolveTeamId(session), handler.createMessage(messageType, data));
     }
     
     @Override
@@ -9,7 +9,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
 
 import com.shuttleshout.handler.TeamCallingWebSocketHandler;
-import com.shuttleshout.service.QueueService;
+import com.shuttleshout.handler.TeamSessionStateManager;
+import com.shuttleshout.handler.message.ErrorMessage;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -27,7 +28,7 @@ public class ClearQueueStrategy implements WebSocketMessageStrategy {
     private TeamCallingWebSocketHandler handler;
     
     @Autowired
-    private QueueService queueService;
+    private TeamSessionStateManager sessionStateManager;
     
     @Override
     public void handle(WebSocketSession session, Map<String, Object> data) {
@@ -39,9 +40,7 @@ public class ClearQueueStrategy implements WebSocketMessageStrategy {
             // 驗證參數
             if (teamIdObj == null) {
                 log.warn("清除隊列請求缺少必要參數: teamId");
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "缺少必要參數: teamId");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("缺少必要參數: teamId"));
                 return;
             }
             
@@ -49,14 +48,12 @@ public class ClearQueueStrategy implements WebSocketMessageStrategy {
             
             if (teamId == null) {
                 log.warn("參數類型無效: teamId={}", teamIdObj);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "參數類型無效");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("參數類型無效"));
                 return;
             }
             
             // 刪除團隊的所有WAITING狀態的隊列
-            int deletedCount = queueService.deleteWaitingQueuesByTeamId(teamId);
+            int deletedCount = sessionStateManager.clearWaiting(teamId);
             
             // 構建響應消息
             Map<String, Object> response = new HashMap<>();
@@ -68,15 +65,13 @@ public class ClearQueueStrategy implements WebSocketMessageStrategy {
             // 發送給當前會話
             handler.sendMessage(session, response);
             
-            // 廣播給所有客戶端，更新等待隊列
+            // 廣播給該團隊的所有客戶端，更新等待隊列
             handler.sendWaitingQueueUpdate(null, teamId, new java.util.ArrayList<>());
             
             log.info("清除隊列請求處理完成: teamId={}, deletedCount={}", teamId, deletedCount);
         } catch (Exception e) {
             log.error("處理清除隊列請求失敗", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("message", "清除隊列失敗: " + e.getMessage());
-            handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+            handler.sendMessage(session, ErrorMessage.of("清除隊列失敗: " + e.getMessage()));
         }
     }
     
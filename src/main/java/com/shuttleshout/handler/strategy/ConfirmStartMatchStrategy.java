@@ -5,7 +5,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -16,15 +15,11 @@ import com.shuttleshout.common.model.dto.QueueDTO;
 import com.shuttleshout.common.model.dto.UserTeamDTO;
 import com.shuttleshout.common.model.po.Court;
 import com.shuttleshout.common.model.po.Match;
-import com.shuttleshout.common.model.po.Player;
-import com.shuttleshout.common.model.po.Queue;
 import com.shuttleshout.handler.TeamCallingWebSocketHandler;
-import com.shuttleshout.repository.PlayerRepository;
-import com.shuttleshout.service.CourtService;
+import com.shuttleshout.handler.TeamSessionStateManager;
+import com.shuttleshout.handler.message.ErrorMessage;
+import com.shuttleshout.handler.message.PlayerAssignment;
 import com.shuttleshout.service.MatchService;
-import com.shuttleshout.service.PlayerService;
-import com.shuttleshout.service.QueueService;
-import com.shuttleshout.service.UserTeamService;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -42,23 +37,11 @@ public class ConfirmStartMatchStrategy implements WebSocketMessageStrategy {
     @Autowired
     private TeamCallingWebSocketHandler handler;
     
-    @Autowired
-    private CourtService courtService;
-    
     @Autowired
     private MatchService matchService;
     
     @Autowired
-    private UserTeamService userTeamService;
-    
-    @Autowired
-    private PlayerService playerService;
-    
-    @Autowired
-    private QueueService queueService;
-    
-    @Autowired
-    private PlayerRepository playerRepository;
+    private TeamSessionStateManager sessionStateManager;
     
     @Override
     public void handle(WebSocketSession session, Map<String, Object> data) {
@@ -71,9 +54,7 @@ public class ConfirmStartMatchStrategy implements WebSocketMessageStrategy {
             // 驗證參數
             if (courtIdObj == null || teamIdObj == null) {
                 log.warn("確認開始比賽請求缺少必要參數: courtId 或 teamId");
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "缺少必要參數: courtId 和 teamId");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("缺少必要參數: courtId 和 teamId"));
                 return;
             }
             
@@ -82,19 +63,15 @@ public class ConfirmStartMatchStrategy implements WebSocketMessageStrategy {
             
             if (courtId == null || teamId == null) {
                 log.warn("參數類型無效: courtId={}, teamId={}", courtId, teamId);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "參數類型無效");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("參數類型無效"));
                 return;
             }
             
             // 驗證場地是否存在
-            Court court = courtService.getCourtById(courtId);
+            Court court = sessionStateManager.getCourt(teamId, courtId);
             if (court == null) {
                 log.warn("場地不存在: courtId={}", courtId);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "場地不存在");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("場地不存在"));
                 return;
             }
             
@@ -138,7 +115,7 @@ public class ConfirmStartMatchStrategy implements WebSocketMessageStrategy {
                 court.setPlayer3Id(player3Id);
                 court.setPlayer4Id(player4Id);
                 court.setUpdatedAt(LocalDateTime.now());
-                courtService.updateCourt(court);
+                sessionStateManager.updateCourt(court);
                 log.info("已使用確認名單更新場地 {} 的球員信息: players=[{}, {}, {}, {}]", 
                         courtId, player1Id, player2Id, player3Id, player4Id);
             } else {
@@ -158,18 +135,14 @@ public class ConfirmStartMatchStrategy implements WebSocketMessageStrategy {
             
             if (playerCount < 4) {
                 log.warn("場地 {} 的球員不足4人，無法開始比賽（當前: {} 人）", courtId, playerCount);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", String.format("場地球員不足4人，無法開始比賽（當前: %d 人）", playerCount));
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of(String.format("場地球員不足4人，無法開始比賽（當前: %d 人）", playerCount)));
                 return;
             }
             
             // 檢查比賽是否已經開始
             if (court.getMatchStartedAt() != null) {
                 log.warn("場地 {} 的比賽已經開始", courtId);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "比賽已經開始");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("比賽已經開始"));
                 return;
             }
             
@@ -177,38 +150,9 @@ public class ConfirmStartMatchStrategy implements WebSocketMessageStrategy {
             LocalDateTime now = LocalDateTime.now();
             court.setMatchStartedAt(now);
             court.setMatchEndedAt(null);
-            courtService.updateCourt(court);
+            sessionStateManager.updateCourt(court);
             log.info("已設置場地 {} 的比賽開始時間: {}", courtId, now);
             
-            // 獲取團隊成員列表（用於匹配User）
-            List<UserTeamDTO> teamMembers = userTeamService.getTeamMembers(teamId);
-            if (teamMembers == null) {
-                teamMembers = new ArrayList<>();
-            }
-            
-            // 獲取等待隊列，用於更新Queue狀態
-            List<QueueDTO> waitingQueues = queueService.getQueuesByTeamIdAndStatus(teamId, Queue.QueueStatus.WAITING);
-            Map<Long, QueueDTO> queueMap = new HashMap<>();
-            if (waitingQueues != null) {
-                for (QueueDTO queue : waitingQueues) {
-                    Player player = playerRepository.selectOneById(queue.getPlayerId());
-                    if (player != null) {
-                        // 通過Player的name匹配userId
-                        String playerName = player.getName();
-                        for (UserTeamDTO member : teamMembers) {
-                            if ((playerName.equals(member.getUserRealName()) || playerName.equals(member.getUserName()))
-                                    && ((player1Id != null && player1Id.equals(member.getUserId())) 
-                                        || (player2Id != null && player2Id.equals(member.getUserId()))
-                                        || (player3Id != null && player3Id.equals(member.getUserId())) 
-                                        || (player4Id != null && player4Id.equals(member.getUserId())))) {
-                                queueMap.put(member.getUserId(), queue);
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
-            
             // 為每個分配的選手更新Queue狀態為SERVED
             List<Long> assignedPlayerIds = new ArrayList<>();
             if (player1Id != null) assignedPlayerIds.add(player1Id);
@@ -218,24 +162,10 @@ public class ConfirmStartMatchStrategy implements WebSocketMessageStrategy {
             
             for (Long userId : assignedPlayerIds) {
                 try {
-                    // 確保Player記錄存在
-                    Player player = playerService.createPlayerFromUser(userId, teamId);
-                    log.info("確保球員記錄存在: playerId={}, userId={}, teamId={}", 
-                            player.getId(), userId, teamId);
-                    
-                    // 如果該用戶有WAITING狀態的Queue，更新為SERVED
-                    QueueDTO existingQueue = queueMap.get(userId);
-                    if (existingQueue != null) {
-                        // 更新現有Queue的狀態為SERVED
-                        queueService.updateQueueStatus(existingQueue.getId(), Queue.QueueStatus.SERVED);
-                        log.info("已更新隊列記錄: queueId={}, playerId={}, status=SERVED", 
-                                existingQueue.getId(), player.getId());
-                    } else {
-                        // 創建新的Queue記錄，狀態為SERVED（已上場）
-                        Queue queue = queueService.createQueue(player.getId(), courtId, Queue.QueueStatus.SERVED);
-                        log.info("成功創建隊列記錄: queueId={}, playerId={}, courtId={}, status=SERVED", 
-                                queue.getId(), player.getId(), courtId);
-                    }
+                    // 有WAITING狀態的Queue時更新為SERVED，否則創建新的SERVED記錄（已上場）
+                    QueueDTO queue = sessionStateManager.serve(teamId, userId, courtId);
+                    log.info("已更新隊列記錄: queueId={}, playerId={}, userId={}, status=SERVED", 
+                            queue.getId(), queue.getPlayerId(), userId);
                 } catch (Exception e) {
                     log.error("為用戶 {} 更新Player或Queue記錄失敗", userId, e);
                     // 不影響主流程，只記錄錯誤
@@ -253,24 +183,23 @@ public class ConfirmStartMatchStrategy implements WebSocketMessageStrategy {
             }
             
             // 構建響應消息
-            Map<Long, UserTeamDTO> memberMap = teamMembers.stream()
-                    .collect(Collectors.toMap(UserTeamDTO::getUserId, member -> member));
+            Map<Long, UserTeamDTO> memberMap = sessionStateManager.get(teamId).getMemberMap();
             
-            List<Map<String, Object>> assignments = new ArrayList<>();
+            List<PlayerAssignment> assignments = new ArrayList<>(4);
             if (player1Id != null) {
-                Map<String, Object> assignment1 = buildAssignment(player1Id, 1, memberMap);
+                PlayerAssignment assignment1 = buildAssignment(player1Id, 1, memberMap);
                 assignments.add(assignment1);
             }
             if (player2Id != null) {
-                Map<String, Object> assignment2 = buildAssignment(player2Id, 2, memberMap);
+                PlayerAssignment assignment2 = buildAssignment(player2Id, 2, memberMap);
                 assignments.add(assignment2);
             }
             if (player3Id != null) {
-                Map<String, Object> assignment3 = buildAssignment(player3Id, 3, memberMap);
+                PlayerAssignment assignment3 = buildAssignment(player3Id, 3, memberMap);
                 assignments.add(assignment3);
             }
             if (player4Id != null) {
-                Map<String, Object> assignment4 = buildAssignment(player4Id, 4, memberMap);
+                PlayerAssignment assignment4 = buildAssignment(player4Id, 4, memberMap);
                 assignments.add(assignment4);
             }
             
@@ -282,18 +211,16 @@ public class ConfirmStartMatchStrategy implements WebSocketMessageStrategy {
             response.put("matchStartedAt", now.toString());
             response.put("message", "比賽已開始");
             
-            // 廣播給所有客戶端
-            handler.broadcastMessage(response);
+            // 廣播給該團隊的所有客戶端
+            handler.broadcastToTeam(teamId, response);
             
             // 更新等待隊列
             handler.sendWaitingQueueUpdate(null, teamId, null); // null表示廣播，第三個參數為null表示自動計算
             
-            log.info("確認開始比賽請求處理完成，已更新數據庫並廣播給所有客戶端");
+            log.info("確認開始比賽請求處理完成，已更新數據庫並廣播給團隊客戶端");
         } catch (Exception e) {
             log.error("處理確認開始比賽請求失敗", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("message", "確認開始比賽失敗: " + e.getMessage());
-            handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+            handler.sendMessage(session, ErrorMessage.of("確認開始比賽失敗: " + e.getMessage()));
         }
     }
     
@@ -308,22 +235,10 @@ public class ConfirmStartMatchStrategy implements WebSocketMessageStrategy {
      * @param userId 用戶ID
      * @param position 位置 (1-4)
      * @param memberMap 成員映射表
-     * @return 分配信息Map
+     * @return 分配信息
      */
-    private Map<String, Object> buildAssignment(Long userId, int position, Map<Long, UserTeamDTO> memberMap) {
-        Map<String, Object> assignment = new HashMap<>();
-        assignment.put("userId", userId);
-        assignment.put("position", position);
-        
-        // 添加用戶的詳細信息
-        UserTeamDTO member = memberMap.get(userId);
-        if (member != null) {
-            assignment.put("userName", member.getUserName());
-            assignment.put("userRealName", member.getUserRealName());
-            assignment.put("userEmail", member.getUserEmail());
-        }
-        
-        return assignment;
+    private PlayerAssignment buildAssignment(Long userId, int position, Map<Long, UserTeamDTO> memberMap) {
+        return PlayerAssignment.of(userId, position, memberMap.get(userId));
     }
 }
 
@@ -25,7 +25,7 @@ public class CourtUpdateStrategy implements WebSocketMessageStrategy {
     @Override
     public void handle(WebSocketSession session, Map<String, Object> data) {
         log.info("廣播場地更新消息");
-        handler.broadcastMessage(handler.createMessage("COURT_UPDATE", data));
+        handler.broadcastToTeam(handler.resolveTeamId(session), handler.createMessage("COURT_UPDATE", data));
     }
     
     @Override
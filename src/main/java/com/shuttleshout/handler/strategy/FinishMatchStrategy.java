@@ -12,13 +12,12 @@ import java.util.List;
 
 import com.shuttleshout.common.model.po.Court;
 import com.shuttleshout.common.model.po.Match;
-import com.shuttleshout.common.model.po.Player;
+import com.shuttleshout.common.model.dto.QueueDTO;
 import com.shuttleshout.common.model.po.Queue;
 import com.shuttleshout.handler.TeamCallingWebSocketHandler;
-import com.shuttleshout.service.CourtService;
+import com.shuttleshout.handler.TeamSessionStateManager;
+import com.shuttleshout.handler.message.ErrorMessage;
 import com.shuttleshout.service.MatchService;
-import com.shuttleshout.service.PlayerService;
-import com.shuttleshout.service.QueueService;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -39,13 +38,7 @@ public class FinishMatchStrategy implements WebSocketMessageStrategy {
     private MatchService matchService;
     
     @Autowired
-    private CourtService courtService;
-    
-    @Autowired
-    private PlayerService playerService;
-    
-    @Autowired
-    private QueueService queueService;
+    private TeamSessionStateManager sessionStateManager;
     
     @Override
     public void handle(WebSocketSession session, Map<String, Object> data) {
@@ -58,28 +51,22 @@ public class FinishMatchStrategy implements WebSocketMessageStrategy {
             // 驗證參數
             if (courtIdObj == null) {
                 log.warn("結束比賽請求缺少必要參數: courtId");
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "缺少必要參數: courtId");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("缺少必要參數: courtId"));
                 return;
             }
             
             Long courtId = handler.convertToLong(courtIdObj);
             if (courtId == null) {
                 log.warn("courtId 參數類型無效");
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "courtId 參數類型無效");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("courtId 參數類型無效"));
                 return;
             }
             
             // 獲取場地信息
-            Court court = courtService.getCourtById(courtId);
+            Court court = sessionStateManager.getCourt(handler.resolveTeamId(session), courtId);
             if (court == null) {
                 log.warn("場地不存在: courtId={}", courtId);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "場地不存在");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("場地不存在"));
                 return;
             }
             
@@ -91,9 +78,7 @@ public class FinishMatchStrategy implements WebSocketMessageStrategy {
             
             if (!hasPlayers) {
                 log.warn("場地 {} 沒有球員，無需結束比賽", courtId);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "該場地沒有球員，無需結束比賽");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("該場地沒有球員，無需結束比賽"));
                 return;
             }
             
@@ -134,33 +119,20 @@ public class FinishMatchStrategy implements WebSocketMessageStrategy {
                     courtId, court.getPlayer1Id(), court.getPlayer2Id(), 
                     court.getPlayer3Id(), court.getPlayer4Id());
             
-            // 使用專門的方法清空球員信息，確保 null 值被正確更新到數據庫
-            courtService.clearCourtPlayers(courtId);
-            
-            // 重新查詢驗證清空是否成功
-            Court updatedCourt = courtService.getCourtById(courtId);
-            if (updatedCourt.getPlayer1Id() != null || updatedCourt.getPlayer2Id() != null ||
-                updatedCourt.getPlayer3Id() != null || updatedCourt.getPlayer4Id() != null) {
-                log.error("清空場地 {} 的球員信息失敗，仍有球員存在: players=[{}, {}, {}, {}]", 
-                        courtId, updatedCourt.getPlayer1Id(), updatedCourt.getPlayer2Id(),
-                        updatedCourt.getPlayer3Id(), updatedCourt.getPlayer4Id());
-            } else {
-                log.info("已成功清空場地 {} 的球員信息和比賽時間（team_courts 表已更新）", courtId);
-            }
+            // 使用專門的方法清空球員信息，確保 null 值被正確更新到數據庫，成功後同步會話狀態
+            sessionStateManager.clearCourtPlayers(court);
+            log.info("已成功清空場地 {} 的球員信息和比賽時間（team_courts 表已更新）", courtId);
             
             // 為下場的球員重新加入等待隊列
             int reQueuedCount = 0;
             if (teamId != null && !finishedPlayerUserIds.isEmpty()) {
                 for (Long userId : finishedPlayerUserIds) {
                     try {
-                        // 創建或獲取Player記錄（從用戶信息創建）
-                        Player player = playerService.createPlayerFromUser(userId, teamId);
-                        
-                        // 為該Player創建WAITING狀態的Queue記錄
-                        Queue queue = queueService.createQueue(player.getId(), null, Queue.QueueStatus.WAITING);
+                        // 創建或獲取Player記錄，並為其創建WAITING狀態的Queue記錄
+                        QueueDTO queue = sessionStateManager.enqueue(teamId, userId, null, Queue.QueueStatus.WAITING);
                         reQueuedCount++;
                         log.info("已將下場球員重新加入等待隊列: userId={}, playerId={}, queueId={}", 
-                                userId, player.getId(), queue.getId());
+                                userId, queue.getPlayerId(), queue.getId());
                     } catch (Exception e) {
                         log.error("為下場球員 {} 重新加入等待隊列失敗", userId, e);
                         // 繼續處理其他球員，不影響整體流程
@@ -184,8 +156,8 @@ public class FinishMatchStrategy implements WebSocketMessageStrategy {
             response.put("reQueuedCount", reQueuedCount);
             response.put("message", String.format("比賽已結束，場地已清空，已將 %d 位球員重新加入等待隊列", reQueuedCount));
             
-            // 廣播給所有客戶端
-            handler.broadcastMessage(response);
+            // 廣播給該團隊的所有客戶端
+            handler.broadcastToTeam(teamId != null ? teamId : handler.resolveTeamId(session), response);
             
             // 自動更新等待隊列（球員已放回等待隊列）
             if (teamId != null) {
@@ -195,12 +167,10 @@ public class FinishMatchStrategy implements WebSocketMessageStrategy {
                 log.warn("無法更新等待隊列：無法獲取 teamId");
             }
             
-            log.info("結束比賽請求處理完成，已更新數據庫並廣播給所有客戶端");
+            log.info("結束比賽請求處理完成，已更新數據庫並廣播給團隊客戶端");
         } catch (Exception e) {
             log.error("處理結束比賽請求失敗", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("message", "結束比賽失敗: " + e.getMessage());
-            handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+            handler.sendMessage(session, ErrorMessage.of("結束比賽失敗: " + e.getMessage()));
         }
     }
     
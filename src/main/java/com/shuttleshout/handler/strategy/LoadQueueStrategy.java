@@ -1,6 +1,5 @@
 package com.shuttleshout.handler.strategy;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +8,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
 
 import com.shuttleshout.handler.TeamCallingWebSocketHandler;
+import com.shuttleshout.handler.message.ErrorMessage;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -33,9 +33,7 @@ public class LoadQueueStrategy implements WebSocketMessageStrategy {
             
             if (teamId == null) {
                 log.warn("加載隊列請求缺少 teamId 參數");
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "缺少必要參數: teamId");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("缺少必要參數: teamId"));
                 return;
             }
             
@@ -46,9 +44,7 @@ public class LoadQueueStrategy implements WebSocketMessageStrategy {
             
         } catch (Exception e) {
             log.error("處理手動加載隊列請求失敗", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("message", "加載隊列失敗: " + e.getMessage());
-            handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+            handler.sendMessage(session, ErrorMessage.of("加載隊列失敗: " + e.getMessage()));
         }
     }
     
@@ -25,7 +25,7 @@ public class PlayerAssignedBroadcastStrategy implements WebSocketMessageStrategy
     @Override
     public void handle(WebSocketSession session, Map<String, Object> data) {
         log.info("廣播球員分配消息");
-        handler.broadcastMessage(handler.createMessage("PLAYER_ASSIGNED", data));
+        handler.broadcastToTeam(handler.resolveTeamId(session), handler.createMessage("PLAYER_ASSIGNED", data));
     }
     
     @Override
@@ -25,7 +25,7 @@ public class PlayerRemovedBroadcastStrategy implements WebSocketMessageStrategy
     @Override
     public void handle(WebSocketSession session, Map<String, Object> data) {
         log.info("廣播球員移除消息");
-        handler.broadcastMessage(handler.createMessage("PLAYER_REMOVED", data));
+        handler.broadcastToTeam(handler.resolveTeamId(session), handler.createMessage("PLAYER_REMOVED", data));
     }
     
     @Override
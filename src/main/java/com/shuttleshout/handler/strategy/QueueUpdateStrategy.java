@@ -25,7 +25,7 @@ public class QueueUpdateStrategy implements WebSocketMessageStrategy {
     @Override
     public void handle(WebSocketSession session, Map<String, Object> data) {
         log.info("廣播隊列更新消息");
-        handler.broadcastMessage(handler.createMessage("QUEUE_UPDATE", data));
+        handler.broadcastToTeam(handler.resolveTeamId(session), handler.createMessage("QUEUE_UPDATE", data));
     }
     
     @Override
@@ -10,7 +10,8 @@ import org.springframework.web.socket.WebSocketSession;
 
 import com.shuttleshout.common.model.po.Court;
 import com.shuttleshout.handler.TeamCallingWebSocketHandler;
-import com.shuttleshout.service.CourtService;
+import com.shuttleshout.handler.TeamSessionStateManager;
+import com.shuttleshout.handler.message.ErrorMessage;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -29,7 +30,7 @@ public class RemovePlayerStrategy implements WebSocketMessageStrategy {
     private TeamCallingWebSocketHandler handler;
     
     @Autowired
-    private CourtService courtService;
+    private TeamSessionStateManager sessionStateManager;
     
     @Override
     public void handle(WebSocketSession session, Map<String, Object> data) {
@@ -43,9 +44,7 @@ public class RemovePlayerStrategy implements WebSocketMessageStrategy {
             // 驗證參數
             if (courtIdObj == null) {
                 log.warn("球員移除請求缺少必要參數: courtId");
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "缺少必要參數: courtId");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("缺少必要參數: courtId"));
                 return;
             }
             
@@ -56,19 +55,15 @@ public class RemovePlayerStrategy implements WebSocketMessageStrategy {
             
             if (courtId == null) {
                 log.warn("參數類型轉換失敗: courtId");
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "參數類型無效: courtId");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("參數類型無效: courtId"));
                 return;
             }
             
             // 獲取場地信息
-            Court court = courtService.getCourtById(courtId);
+            Court court = sessionStateManager.getCourt(handler.resolveTeamId(session), courtId);
             if (court == null) {
                 log.warn("場地不存在: courtId={}", courtId);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "場地不存在");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("場地不存在"));
                 return;
             }
             
@@ -86,18 +81,14 @@ public class RemovePlayerStrategy implements WebSocketMessageStrategy {
                     targetPosition = 4;
                 } else {
                     log.warn("場地 {} 上找不到球員 {}，無法移除", courtId, playerId);
-                    Map<String, Object> errorData = new HashMap<>();
-                    errorData.put("message", "場地上找不到該球員");
-                    handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                    handler.sendMessage(session, ErrorMessage.of("場地上找不到該球員"));
                     return;
                 }
             }
             
             if (targetPosition == null) {
                 log.warn("無法確定要移除的位置: courtId={}, playerId={}, position={}", courtId, playerId, position);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "無法確定要移除的位置，請提供 playerId 或 position");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("無法確定要移除的位置，請提供 playerId 或 position"));
                 return;
             }
             
@@ -105,9 +96,7 @@ public class RemovePlayerStrategy implements WebSocketMessageStrategy {
             // 只有在待確認狀態下（matchStartedAt 為 null）才允許移除
             if (court.getMatchStartedAt() != null) {
                 log.warn("場地 {} 的比賽已經開始，不允許移除球員", courtId);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "比賽已經開始，不允許移除球員");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("比賽已經開始，不允許移除球員"));
                 return;
             }
             
@@ -127,14 +116,12 @@ public class RemovePlayerStrategy implements WebSocketMessageStrategy {
                     break;
                 default:
                     log.warn("無效的位置: position={}", targetPosition);
-                    Map<String, Object> errorData = new HashMap<>();
-                    errorData.put("message", "無效的位置，必須在 1-4 之間");
-                    handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                    handler.sendMessage(session, ErrorMessage.of("無效的位置，必須在 1-4 之間"));
                     return;
             }
             
             court.setUpdatedAt(LocalDateTime.now());
-            courtService.updateCourt(court);
+            sessionStateManager.updateCourt(court);
             
             log.info("已從場地 {} 的位置 {} 移除球員（已更新 team_courts 表）", courtId, targetPosition);
             
@@ -145,23 +132,19 @@ public class RemovePlayerStrategy implements WebSocketMessageStrategy {
             response.put("playerId", playerId);
             response.put("position", targetPosition);
             
-            // 廣播給所有客戶端
-            handler.broadcastMessage(response);
+            // 廣播給場地所屬團隊的所有客戶端
+            Long teamId = court.getTeamId() != null ? court.getTeamId() : handler.resolveTeamId(session);
+            response.put("teamId", teamId);
+            handler.broadcastToTeam(teamId, response);
             
             // 更新等待隊列
-            Object teamIdObj = data.get("teamId");
-            if (teamIdObj != null) {
-                Long teamId = handler.convertToLong(teamIdObj);
-                if (teamId != null) {
-                    handler.sendWaitingQueueUpdate(null, teamId, null); // null表示廣播，第三個參數為null表示自動計算
-                }
+            if (teamId != null) {
+                handler.sendWaitingQueueUpdate(null, teamId, null); // null表示廣播，第三個參數為null表示自動計算
             }
             
         } catch (Exception e) {
             log.error("處理球員移除失敗", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("message", "球員移除失敗: " + e.getMessage());
-            handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+            handler.sendMessage(session, ErrorMessage.of("球員移除失敗: " + e.getMessage()));
         }
     }
     
@@ -1,6 +1,5 @@
 package com.shuttleshout.handler.strategy;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +8,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
 
 import com.shuttleshout.handler.TeamCallingWebSocketHandler;
+import com.shuttleshout.handler.message.ErrorMessage;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -35,9 +35,7 @@ public class RestoreStateStrategy implements WebSocketMessageStrategy {
             // 驗證參數
             if (teamIdObj == null) {
                 log.warn("恢復狀態請求缺少必要參數: teamId");
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "缺少必要參數: teamId");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("缺少必要參數: teamId"));
                 return;
             }
             
@@ -45,9 +43,7 @@ public class RestoreStateStrategy implements WebSocketMessageStrategy {
             
             if (teamId == null) {
                 log.warn("參數類型無效: teamId={}", teamIdObj);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "參數類型無效");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("參數類型無效"));
                 return;
             }
             
@@ -60,9 +56,7 @@ public class RestoreStateStrategy implements WebSocketMessageStrategy {
             log.info("恢復狀態請求處理完成: teamId={}（已恢復進行中的比賽和等待隊列）", teamId);
         } catch (Exception e) {
             log.error("處理恢復狀態請求失敗", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("message", "恢復狀態失敗: " + e.getMessage());
-            handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+            handler.sendMessage(session, ErrorMessage.of("恢復狀態失敗: " + e.getMessage()));
         }
     }
     
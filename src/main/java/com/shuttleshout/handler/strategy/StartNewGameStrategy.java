@@ -9,15 +9,12 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
 
-import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.common.model.dto.NewGameResetDTO;
 import com.shuttleshout.common.model.po.Court;
-import com.shuttleshout.common.model.po.Player;
-import com.shuttleshout.common.model.po.Queue;
 import com.shuttleshout.handler.TeamCallingWebSocketHandler;
-import com.shuttleshout.service.CourtService;
-import com.shuttleshout.service.PlayerService;
-import com.shuttleshout.service.QueueService;
-import com.shuttleshout.service.UserTeamService;
+import com.shuttleshout.handler.TeamSessionState;
+import com.shuttleshout.handler.TeamSessionStateManager;
+import com.shuttleshout.handler.message.ErrorMessage;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -35,16 +32,7 @@ public class StartNewGameStrategy implements WebSocketMessageStrategy {
     private TeamCallingWebSocketHandler handler;
     
     @Autowired
-    private CourtService courtService;
-    
-    @Autowired
-    private UserTeamService userTeamService;
-    
-    @Autowired
-    private PlayerService playerService;
-    
-    @Autowired
-    private QueueService queueService;
+    private TeamSessionStateManager sessionStateManager;
     
     @Override
     public void handle(WebSocketSession session, Map<String, Object> data) {
@@ -56,9 +44,7 @@ public class StartNewGameStrategy implements WebSocketMessageStrategy {
             // 驗證參數
             if (teamIdObj == null) {
                 log.warn("開始新局請求缺少必要參數: teamId");
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "缺少必要參數: teamId");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("缺少必要參數: teamId"));
                 return;
             }
             
@@ -66,64 +52,29 @@ public class StartNewGameStrategy implements WebSocketMessageStrategy {
             
             if (teamId == null) {
                 log.warn("參數類型無效: teamId={}", teamIdObj);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "參數類型無效");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("參數類型無效"));
                 return;
             }
             
-            // 獲取團隊的所有場地
-            List<Court> courts = courtService.getCourtsByTeamId(teamId);
+            // 新的一局重新加載會話狀態，同步最新的場地和成員
+            TeamSessionState state = sessionStateManager.reload(teamId);
+            List<Court> courts = state.getCourts();
             
-            if (courts == null || courts.isEmpty()) {
+            if (courts.isEmpty()) {
                 log.warn("團隊 {} 沒有場地", teamId);
-                Map<String, Object> errorData = new HashMap<>();
-                errorData.put("message", "團隊沒有場地");
-                handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+                handler.sendMessage(session, ErrorMessage.of("團隊沒有場地"));
                 return;
             }
             
-            // 清空所有場地的狀態
-            int clearedCount = 0;
-            for (Court court : courts) {
-                try {
-                    courtService.clearCourtPlayers(court.getId());
-                    clearedCount++;
-                    log.info("已清空場地 {} 的狀態", court.getId());
-                } catch (Exception e) {
-                    log.error("清空場地 {} 的狀態失敗", court.getId(), e);
-                }
-            }
-            
-            // 刪除現有的WAITING狀態的隊列
-            int deletedQueueCount = queueService.deleteWaitingQueuesByTeamId(teamId);
-            log.info("已刪除團隊 {} 的 {} 個WAITING狀態的隊列", teamId, deletedQueueCount);
-            
-            // 獲取團隊的所有成員
-            List<UserTeamDTO> teamMembers = userTeamService.getTeamMembers(teamId);
-            if (teamMembers == null || teamMembers.isEmpty()) {
+            if (state.getMembers().isEmpty()) {
                 log.warn("團隊 {} 沒有成員，無法創建隊列", teamId);
-            } else {
-                // 為每個成員創建Player記錄和WAITING狀態的Queue記錄
-                int createdQueueCount = 0;
-                for (UserTeamDTO member : teamMembers) {
-                    try {
-                        // 創建Player記錄（從用戶信息創建，如果已存在則返回現有記錄）
-                        Player player = playerService.createPlayerFromUser(member.getUserId(), teamId);
-                        
-                        // 創建WAITING狀態的Queue記錄
-                        Queue queue = queueService.createQueue(player.getId(), null, Queue.QueueStatus.WAITING);
-                        createdQueueCount++;
-                        log.debug("為成員 {} 創建隊列記錄: queueId={}, playerId={}", 
-                                member.getUserId(), queue.getId(), player.getId());
-                    } catch (Exception e) {
-                        log.error("為成員 {} 創建Player或Queue記錄失敗", member.getUserId(), e);
-                        // 繼續處理其他成員，不影響整體流程
-                    }
-                }
-                log.info("為團隊 {} 的 {} 位成員創建了 {} 個隊列記錄", teamId, teamMembers.size(), createdQueueCount);
             }
             
+            // 一個事務內清空所有場地、刪除WAITING隊列、補齊球員記錄並為所有成員創建隊列
+            NewGameResetDTO result = sessionStateManager.startNewGame(teamId);
+            int clearedCount = result.getClearedCourtCount();
+            int deletedQueueCount = result.getDeletedQueueCount();
+            
             // 構建響應消息
             Map<String, Object> response = new HashMap<>();
             response.put("type", "START_NEW_GAME_SUCCESS");
@@ -132,8 +83,8 @@ public class StartNewGameStrategy implements WebSocketMessageStrategy {
             response.put("deletedQueueCount", deletedQueueCount);
             response.put("message", String.format("已清空 %d 個場地的狀態，已為所有成員創建等待隊列", clearedCount));
             
-            // 廣播給所有客戶端
-            handler.broadcastMessage(response);
+            // 廣播給該團隊的所有客戶端
+            handler.broadcastToTeam(teamId, response);
             
             // 更新等待隊列（發送新創建的隊列）
             handler.sendWaitingQueueUpdate(null, teamId, null);
@@ -142,9 +93,7 @@ public class StartNewGameStrategy implements WebSocketMessageStrategy {
                     teamId, clearedCount, deletedQueueCount);
         } catch (Exception e) {
             log.error("處理開始新局請求失敗", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("message", "開始新局失敗: " + e.getMessage());
-            handler.sendMessage(session, handler.createMessage("ERROR", errorData));
+            handler.sendMessage(session, ErrorMessage.of("開始新局失敗: " + e.getMessage()));
         }
     }
     
@@ -37,5 +37,26 @@ public interface CourtRepository extends BaseMapper<Court> {
     void clearCourtPlayers(@Param("courtId") Long courtId, 
                           @Param("matchEndedAt") LocalDateTime matchEndedAt,
                           @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * 清空團隊所有場地的球員信息和比賽時間
+     * 
+     * @param teamId 團隊ID
+     * @param matchEndedAt 比賽結束時間
+     * @param updatedAt 更新時間
+     * @return 更新的場地數量
+     */
+    @Update("UPDATE team_courts SET " +
+            "player1_id = NULL, " +
+            "player2_id = NULL, " +
+            "player3_id = NULL, " +
+            "player4_id = NULL, " +
+            "match_started_at = NULL, " +
+            "match_ended_at = #{matchEndedAt}, " +
+            "updated_at = #{updatedAt} " +
+            "WHERE team_id = #{teamId}")
+    int clearTeamCourts(@Param("teamId") Long teamId,
+                        @Param("matchEndedAt") LocalDateTime matchEndedAt,
+                        @Param("updatedAt") LocalDateTime updatedAt);
 }
 
@@ -1,8 +1,17 @@
 package com.shuttleshout.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
 import com.mybatisflex.core.BaseMapper;
+import com.shuttleshout.common.model.dto.WaitingQueueEntryDTO;
 import com.shuttleshout.common.model.po.Queue;
-import org.apache.ibatis.annotations.Mapper;
 
 /**
  * 隊列Repository接口
@@ -11,5 +20,51 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface QueueRepository extends BaseMapper<Queue> {
-}
 
+    /**
+     * 查詢團隊的 WAITING 隊列及對應的用戶信息
+     * 按 queue_number、created_at 排序，缺失值排在後面；使用 idx_queue_status_player 索引
+     * 
+     * @param teamId 團隊ID
+     * @return 排好序的等待隊列
+     */
+    @Select("SELECT q.id AS queue_id, q.player_id, q.court_id, q.queue_number, q.created_at AS queue_created_at, " +
+            "u.id AS user_id, u.username AS user_name, u.real_name AS user_real_name, u.email AS user_email " +
+            "FROM players p " +
+            "JOIN queues q ON q.player_id = p.id AND q.status = 'WAITING' " +
+            "LEFT JOIN users u ON u.id = p.user_id " +
+            "WHERE p.team_id = #{teamId} " +
+            "ORDER BY q.queue_number IS NULL, q.queue_number, q.created_at IS NULL, q.created_at, q.id")
+    List<WaitingQueueEntryDTO> selectWaitingQueueEntries(@Param("teamId") Long teamId);
+
+    /**
+     * 刪除團隊所有 WAITING 隊列
+     * 
+     * @param teamId 團隊ID
+     * @return 刪除的數量
+     */
+    @Delete("DELETE FROM queues WHERE status = 'WAITING' " +
+            "AND player_id IN (SELECT id FROM players WHERE team_id = #{teamId})")
+    int deleteWaitingByTeamId(@Param("teamId") Long teamId);
+
+    /**
+     * 批量轉換團隊隊列的狀態
+     * called_at、served_at 只在首次進入 CALLED、SERVED 時設置，與寫後日誌的單條更新一致
+     * 
+     * @param teamId 團隊ID
+     * @param from 原狀態
+     * @param to 新狀態
+     * @param now 當前時間
+     * @return 更新的數量
+     */
+    @Update("UPDATE queues SET status = #{to}, " +
+            "called_at = CASE WHEN #{to} = 'CALLED' THEN COALESCE(called_at, #{now}) ELSE called_at END, " +
+            "served_at = CASE WHEN #{to} = 'SERVED' THEN COALESCE(served_at, #{now}) ELSE served_at END, " +
+            "updated_at = #{now} " +
+            "WHERE status = #{from} " +
+            "AND player_id IN (SELECT id FROM players WHERE team_id = #{teamId})")
+    int updateStatusByTeamId(@Param("teamId") Long teamId,
+                             @Param("from") String from,
+                             @Param("to") String to,
+                             @Param("now") LocalDateTime now);
+}
@@ -31,11 +31,38 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    private final PrincipalCache principalCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return loadUserById(username);
     }
 
+    /**
+     * JWT认证使用：按用户ID加载，优先读取缓存，稳定状态下不查询数据库；
+     * 缓存的用户不含密码，登录认证仍走 {@link #loadUserByUsername}
+     */
+    public UserDetails loadPrincipalById(String userId) throws UsernameNotFoundException {
+        Long id;
+        try {
+            id = Long.parseLong(userId);
+        } catch (NumberFormatException e) {
+            return loadUserById(userId);
+        }
+        if (!principalCache.isEnabled()) {
+            return loadUserById(userId);
+        }
+
+        UserDetails cached = principalCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = principalCache.currentGeneration();
+        UserDetails principal = User.withUserDetails(loadUserById(userId)).password("").build();
+        principalCache.put(id, principal, generation);
+        return principal;
+    }
+
     public UserDetails loadUserById(String userId) throws UsernameNotFoundException {
         UserPO user;
         try {
@@ -10,6 +10,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -19,6 +20,8 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import com.shuttleshout.common.constants.ApplicationConstants;
 import com.shuttleshout.common.util.JwtUtil;
 
+import io.jsonwebtoken.Claims;
+
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -32,6 +35,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService customUserDetailsService;
+    private final RolesVersionRegistry rolesVersionRegistry;
+    private final TokenRevocationStore tokenRevocationStore;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
@@ -45,27 +50,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader(ApplicationConstants.JWT_TOKEN_HEADER);
 
-        String userId = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authHeader != null && !authHeader.trim().isEmpty()) {
             // 支持直接使用token或Bearer token格式
-            if (authHeader.startsWith("Bearer ")) {
-                jwt = authHeader.substring(7);
-            } else {
-                jwt = authHeader;
-            }
+            String jwt = authHeader.startsWith("Bearer ") ? authHeader.substring(7) : authHeader;
             try {
-                userId = jwtUtil.getUsernameFromToken(jwt);
+                // 只解析、驗簽一次，之後直接使用 claims
+                claims = jwtUtil.parseVerifiedClaims(jwt);
             } catch (Exception e) {
                 logger.error("無法從JWT token中獲取用戶名", e);
             }
+            if (claims != null && tokenRevocationStore.isRevoked(claims.getId())) {
+                logger.debug("token 已被撤銷: jti=" + claims.getId());
+                claims = null;
+            }
         }
 
-        if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = customUserDetailsService.loadUserById(userId);
+        if (claims != null && claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Long rolesVersion = jwtUtil.getRolesVersion(claims);
+            UserDetails userDetails = rolesVersion != null
+                    ? principalFromClaims(claims, rolesVersion)
+                    : customUserDetailsService.loadPrincipalById(claims.getSubject());
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (userDetails != null && claims.getSubject().equals(userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -75,5 +83,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         chain.doFilter(request, response);
     }
+
+    /**
+     * 直接用 token 中的角色構建用戶，不查詢數據庫
+     *
+     * @return 用戶，角色版本號已過期或用戶不存在時返回null（按未認證處理）
+     */
+    private UserDetails principalFromClaims(Claims claims, long rolesVersion) {
+        Long current;
+        try {
+            current = rolesVersionRegistry.current(Long.parseLong(claims.getSubject()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (current == null || current != rolesVersion) {
+            logger.debug("token 的角色版本已過期: userId=" + claims.getSubject());
+            return null;
+        }
+        return User.withUsername(claims.getSubject())
+                .password("")
+                .authorities(jwtUtil.getAuthorities(claims))
+                .build();
+    }
 }
 
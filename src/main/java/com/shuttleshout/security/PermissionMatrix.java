@@ -0,0 +1,322 @@
+package com.shuttleshout.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.shuttleshout.common.model.po.ResourcePagePO;
+import com.shuttleshout.common.model.po.RolePO;
+import com.shuttleshout.common.model.po.RoleResourcePagePO;
+import com.shuttleshout.common.util.TransactionUtil;
+import com.shuttleshout.repository.ResourcePageRepository;
+import com.shuttleshout.repository.RoleRepository;
+import com.shuttleshout.repository.RoleResourcePageRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 角色頁面權限矩陣
+ * 將 roles、resource_pages、role_resource_pages 三張表一次讀入不可變的快照，
+ * 按角色ID、角色代碼、頁面代碼和權限位索引，權限檢查只做內存中的位運算；
+ * 角色、頁面資源或角色頁面權限變更後，在事務提交時丟棄快照，下一次讀取時整體重建
+ *
+ * @author ShuttleShout Team
+ */
+@Component
+@RequiredArgsConstructor
+public class PermissionMatrix {
+
+    /**
+     * 角色與頁面存在關聯，無論各權限是否開啟
+     */
+    public static final int LINKED = 1;
+    public static final int READ = 1 << 1;
+    public static final int WRITE = 1 << 2;
+    public static final int DELETE = 1 << 3;
+
+    private static final String ADMIN_ROLE_CODE = "SYSTEM_ADMIN";
+
+    private final RoleRepository roleRepository;
+    private final ResourcePageRepository resourcePageRepository;
+    private final RoleResourcePageRepository roleResourcePageRepository;
+
+    /**
+     * 當前快照，失效後為null；重建和失效都持有 lock，失效會等待進行中的重建完成後再丟棄其結果
+     */
+    private volatile Snapshot snapshot;
+
+    private final Object lock = new Object();
+
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile long lastBuildMillis;
+
+    /**
+     * 當前快照，不存在時從數據庫重建
+     * 在事務中調用時應先於其他查詢，避免重建讀到事務開始前的數據
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (lock) {
+            if (snapshot == null) {
+                long start = System.currentTimeMillis();
+                snapshot = build(roleRepository.selectAll(), resourcePageRepository.selectAll(),
+                        roleResourcePageRepository.selectAll());
+                lastBuildMillis = System.currentTimeMillis() - start;
+                rebuilds.incrementAndGet();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 角色、頁面資源或角色頁面權限已修改，在事務提交後丟棄快照
+     */
+    public void invalidate() {
+        TransactionUtil.afterCommit(() -> {
+            synchronized (lock) {
+                snapshot = null;
+            }
+            invalidations.incrementAndGet();
+        });
+    }
+
+    /**
+     * 權限名轉為權限位
+     *
+     * @param permission read、write 或 delete，不區分大小寫
+     * @return 權限位，無法識別時返回0
+     */
+    public static int permissionBit(String permission) {
+        if (permission == null) {
+            return 0;
+        }
+        switch (permission.toLowerCase()) {
+            case "read":
+                return READ;
+            case "write":
+                return WRITE;
+            case "delete":
+                return DELETE;
+            default:
+                return 0;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", current != null);
+        stats.put("roles", current != null ? current.masksByRole.size() : 0);
+        stats.put("pages", current != null ? current.pages.length : 0);
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("lastBuildMillis", lastBuildMillis);
+        return stats;
+    }
+
+    /**
+     * 由三張表的全部記錄構建快照；頁面按 sortOrder、ID 排序，每個頁面帶上關聯角色
+     */
+    static Snapshot build(List<RolePO> roles, List<ResourcePagePO> resourcePages,
+            List<RoleResourcePagePO> associations) {
+        Map<Long, RolePO> rolesById = new HashMap<>();
+        Map<String, Long> roleIdsByCode = new HashMap<>();
+        Set<Long> adminRoleIds = new HashSet<>();
+        for (RolePO role : roles) {
+            rolesById.put(role.getId(), role);
+            if (role.getCode() != null) {
+                // 與認證信息中的權限一致，按大寫索引
+                roleIdsByCode.put(role.getCode().toUpperCase(), role.getId());
+            }
+            if (ADMIN_ROLE_CODE.equals(role.getCode())) {
+                adminRoleIds.add(role.getId());
+            }
+        }
+
+        List<ResourcePagePO> sorted = new ArrayList<>(resourcePages);
+        sorted.sort(Comparator.comparing((ResourcePagePO page) -> page.getSortOrder() != null ? page.getSortOrder() : 0)
+                .thenComparing(ResourcePagePO::getId));
+        ResourcePagePO[] pages = sorted.toArray(new ResourcePagePO[0]);
+        Map<String, Integer> indexByCode = new HashMap<>();
+        Map<Long, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < pages.length; i++) {
+            // 複製一份，不修改倉庫返回的實體；關聯角色在下面按關聯記錄填充
+            ResourcePagePO page = copyOf(pages[i]);
+            pages[i] = page;
+            indexByCode.put(page.getCode(), i);
+            indexById.put(page.getId(), i);
+        }
+
+        Map<Long, byte[]> masksByRole = new HashMap<>();
+        for (RoleResourcePagePO association : associations) {
+            Integer index = indexById.get(association.getResourcePageId());
+            if (index == null) {
+                continue;
+            }
+            byte[] masks = masksByRole.computeIfAbsent(association.getRoleId(), id -> new byte[pages.length]);
+            int mask = LINKED;
+            if (Boolean.TRUE.equals(association.getCanRead())) {
+                mask |= READ;
+            }
+            if (Boolean.TRUE.equals(association.getCanWrite())) {
+                mask |= WRITE;
+            }
+            if (Boolean.TRUE.equals(association.getCanDelete())) {
+                mask |= DELETE;
+            }
+            masks[index] = (byte) mask;
+            RolePO role = rolesById.get(association.getRoleId());
+            if (role != null) {
+                pages[index].getRoles().add(role);
+            }
+        }
+        return new Snapshot(pages, indexByCode, masksByRole, roleIdsByCode, adminRoleIds);
+    }
+
+    private static ResourcePagePO copyOf(ResourcePagePO source) {
+        ResourcePagePO page = new ResourcePagePO();
+        page.setId(source.getId());
+        page.setName(source.getName());
+        page.setCode(source.getCode());
+        page.setPath(source.getPath());
+        page.setDescription(source.getDescription());
+        page.setIcon(source.getIcon());
+        page.setSortOrder(source.getSortOrder());
+        page.setParentId(source.getParentId());
+        page.setIsActive(source.getIsActive());
+        page.setCreatedAt(source.getCreatedAt());
+        page.setUpdatedAt(source.getUpdatedAt());
+        page.setRoles(new ArrayList<>());
+        return page;
+    }
+
+    /**
+     * 權限矩陣快照，構建後不再修改；返回的頁面實體由所有請求共享，調用方只能讀取
+     */
+    public static final class Snapshot {
+
+        private final ResourcePagePO[] pages;
+
+        /**
+         * 頁面代碼 -> 頁面下標
+         */
+        private final Map<String, Integer> indexByCode;
+
+        /**
+         * 角色ID -> 按頁面下標排列的權限位
+         */
+        private final Map<Long, byte[]> masksByRole;
+
+        /**
+         * 大寫角色代碼 -> 角色ID
+         */
+        private final Map<String, Long> roleIdsByCode;
+
+        private final Set<Long> adminRoleIds;
+
+        private Snapshot(ResourcePagePO[] pages, Map<String, Integer> indexByCode, Map<Long, byte[]> masksByRole,
+                Map<String, Long> roleIdsByCode, Set<Long> adminRoleIds) {
+            this.pages = pages;
+            this.indexByCode = indexByCode;
+            this.masksByRole = masksByRole;
+            this.roleIdsByCode = roleIdsByCode;
+            this.adminRoleIds = adminRoleIds;
+        }
+
+        /**
+         * 角色代碼轉為角色ID，不區分大小寫，不存在的代碼忽略
+         */
+        public List<Long> roleIdsOf(Collection<String> roleCodes) {
+            List<Long> roleIds = new ArrayList<>(roleCodes.size());
+            for (String roleCode : roleCodes) {
+                Long roleId = roleIdsByCode.get(roleCode.toUpperCase());
+                if (roleId != null) {
+                    roleIds.add(roleId);
+                }
+            }
+            return roleIds;
+        }
+
+        /**
+         * 任一角色為 SYSTEM_ADMIN
+         */
+        public boolean isAdmin(Collection<Long> roleIds) {
+            for (Long roleId : roleIds) {
+                if (adminRoleIds.contains(roleId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 任一角色在該頁面上擁有指定權限位
+         */
+        public boolean permits(Collection<Long> roleIds, String pageCode, int bit) {
+            Integer index = indexByCode.get(pageCode);
+            if (index == null || bit == 0) {
+                return false;
+            }
+            for (Long roleId : roleIds) {
+                byte[] masks = masksByRole.get(roleId);
+                if (masks != null && (masks[index] & bit) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 任一角色有關聯記錄的頁面，不區分啟用狀態
+         */
+        public List<ResourcePagePO> pagesOf(Collection<Long> roleIds) {
+            List<byte[]> roleMasks = new ArrayList<>(roleIds.size());
+            for (Long roleId : roleIds) {
+                byte[] masks = masksByRole.get(roleId);
+                if (masks != null) {
+                    roleMasks.add(masks);
+                }
+            }
+            if (roleMasks.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<ResourcePagePO> result = new ArrayList<>();
+            for (int i = 0; i < pages.length; i++) {
+                for (byte[] masks : roleMasks) {
+                    if (masks[i] != 0) {
+                        result.add(pages[i]);
+                        break;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 所有已啟用的頁面
+         */
+        public List<ResourcePagePO> activePages() {
+            List<ResourcePagePO> result = new ArrayList<>();
+            for (ResourcePagePO page : pages) {
+                if (Boolean.TRUE.equals(page.getIsActive())) {
+                    result.add(page);
+                }
+            }
+            return result;
+        }
+    }
+}
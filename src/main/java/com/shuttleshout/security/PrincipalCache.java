@@ -0,0 +1,77 @@
+package com.shuttleshout.security;
+
+import java.util.Map;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.shuttleshout.common.util.LruCache;
+import com.shuttleshout.config.PrincipalCacheProperties;
+
+/**
+ * 已認證用戶緩存
+ * 按用戶ID保存 JWT 認證時加載的 {@link UserDetails}（含角色權限，不含密碼），
+ * 容量有上限並按訪問順序淘汰，每條記錄在 ttl 後過期；用戶資料或角色變更時由服務層失效
+ *
+ * @author ShuttleShout Team
+ */
+@Component
+public class PrincipalCache {
+
+    private final PrincipalCacheProperties properties;
+
+    /**
+     * 用戶ID -> 用戶
+     */
+    private final LruCache<Long, UserDetails> entries;
+
+    public PrincipalCache(PrincipalCacheProperties properties) {
+        this.properties = properties;
+        this.entries = new LruCache<>(properties::getMaxEntries, properties::getTtl);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 讀取未過期的緩存
+     *
+     * @return 緩存的用戶，沒有或已過期時返回null
+     */
+    public UserDetails get(Long userId) {
+        return entries.get(userId);
+    }
+
+    /**
+     * 加載前記下當前代數，加載後傳給 {@link #put}
+     */
+    public long currentGeneration() {
+        return entries.currentGeneration();
+    }
+
+    /**
+     * 寫入緩存；加載期間有過失效時放棄寫入
+     */
+    public void put(Long userId, UserDetails userDetails, long loadedGeneration) {
+        entries.put(userId, userDetails, loadedGeneration);
+    }
+
+    /**
+     * 使單個用戶的緩存失效，在當前事務提交後執行
+     */
+    public void evict(Long userId) {
+        entries.evict(userId);
+    }
+
+    /**
+     * 使所有緩存失效，用於角色本身被修改或刪除，在當前事務提交後執行
+     */
+    public void evictAll() {
+        entries.evictAll();
+    }
+
+    public Map<String, Object> getStats() {
+        return entries.getStats("users");
+    }
+}
@@ -0,0 +1,75 @@
+package com.shuttleshout.security;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.shuttleshout.common.util.JwtUtil;
+import com.shuttleshout.common.util.LruCache;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 用戶角色版本號
+ * 持久化在 users.roles_version，內存中按用戶ID緩存；帶角色 claims 的 token 記錄簽發時的版本號，
+ * 與當前版本號不一致時視為過期。版本號在角色或啟用狀態變更時加一，內存緩存在事務提交後失效，
+ * 下一次認證時從數據庫重新讀取。
+ * 只在開啟 jwt.role-claims 時使用 users.roles_version 列（遷移 10）；關閉時不讀寫該列，未遷移的數據庫照常工作
+ *
+ * @author ShuttleShout Team
+ */
+@Component
+@RequiredArgsConstructor
+public class RolesVersionRegistry {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JwtUtil jwtUtil;
+
+    /**
+     * 用戶ID -> 角色版本號，每個用戶只有一個數字，不限容量
+     */
+    private final LruCache<Long, Long> versions = new LruCache<>(() -> Integer.MAX_VALUE);
+
+    /**
+     * 當前角色版本號
+     *
+     * @return 版本號，用戶不存在時返回null
+     */
+    public Long current(Long userId) {
+        return versions.get(userId, id -> {
+            List<Long> rows = jdbcTemplate.queryForList("SELECT roles_version FROM users WHERE id = ?", Long.class, id);
+            return rows.isEmpty() ? null : rows.get(0);
+        });
+    }
+
+    /**
+     * 用戶的角色或啟用狀態變更，版本號加一；在調用方的事務中執行
+     */
+    public void bump(Long userId) {
+        if (!jwtUtil.isRoleClaimsEnabled()) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE users SET roles_version = roles_version + 1 WHERE id = ?", userId);
+        versions.evict(userId);
+    }
+
+    /**
+     * 角色本身被修改或刪除，擁有該角色的所有用戶版本號加一；需在刪除角色關聯之前調用
+     */
+    public void bumpRole(Long roleId) {
+        if (!jwtUtil.isRoleClaimsEnabled()) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE users SET roles_version = roles_version + 1 "
+                + "WHERE id IN (SELECT user_id FROM user_roles WHERE role_id = ?)", roleId);
+        versions.evictAll();
+    }
+
+    /**
+     * 用戶被刪除，之後按版本號讀取不到該用戶，帶角色 claims 的 token 隨之失效
+     */
+    public void forget(Long userId) {
+        versions.evict(userId);
+    }
+}
@@ -0,0 +1,215 @@
+package com.shuttleshout.security;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.shuttleshout.config.TokenRevocationProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 已撤銷 token 存儲
+ * 撤銷記錄（jti 和 token 過期時間）寫入 revoked_tokens 表；內存中用 Bloom 過濾器加精確集合保存未過期的記錄，
+ * 絕大多數未撤銷的 token 只需計算一次哈希、讀幾個位即可放行，過濾器命中時再查精確集合。
+ * 後台線程定期刪除已過期的記錄並從表中重新加載，同時重建過濾器（Bloom 過濾器不能刪除），
+ * 其他實例的撤銷也在此時生效
+ *
+ * @author ShuttleShout Team
+ */
+@Slf4j
+@Component
+public class TokenRevocationStore {
+
+    private static final String INSERT_SQL = "INSERT INTO revoked_tokens (jti, user_id, expires_at, revoked_at) "
+            + "VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
+
+    private static final String PURGE_SQL = "DELETE FROM revoked_tokens WHERE expires_at < ?";
+
+    private static final String LOAD_SQL = "SELECT jti, expires_at FROM revoked_tokens WHERE expires_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenRevocationProperties properties;
+
+    /**
+     * 過濾器和精確集合一起替換；revoke 寫入和 refresh 替換由 lock 互斥，避免重新加載期間的撤銷丟失
+     */
+    private volatile Snapshot snapshot;
+    private final Object lock = new Object();
+
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong revocations = new AtomicLong();
+    private final AtomicLong filterPositives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicLong failedRefreshes = new AtomicLong();
+    private volatile LocalDateTime lastRefreshAt;
+
+    public TokenRevocationStore(JdbcTemplate jdbcTemplate, TokenRevocationProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.snapshot = new Snapshot(new BloomFilter(properties.getExpectedEntries(), properties.getFalsePositiveRate()),
+                new ConcurrentHashMap<>());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.info("token 撤銷檢查已關閉");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 首次加載也在後台線程執行，不阻塞啟動
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, properties.getRefreshInterval(),
+                TimeUnit.MILLISECONDS);
+        log.info("token 撤銷檢查已啟動: refreshInterval={}ms", properties.getRefreshInterval());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * token 是否已被撤銷
+     *
+     * @param jti token ID，舊 token 沒有時為null
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !properties.isEnabled()) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        if (!current.filter.mightContain(jti)) {
+            return false;
+        }
+        filterPositives.incrementAndGet();
+        if (current.expiries.containsKey(jti)) {
+            return true;
+        }
+        falsePositives.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 撤銷 token，記錄保留到 token 過期；關閉時不做任何事，未執行遷移 11 的數據庫照常登出
+     *
+     * @param jti token ID
+     * @param userId 用戶ID，可為null
+     * @param expiresAt token 過期時間
+     */
+    public void revoke(String jti, Long userId, Date expiresAt) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_SQL, jti, userId, new Timestamp(expiresAt.getTime()));
+        } catch (DuplicateKeyException e) {
+            log.debug("token 已經撤銷過: jti={}", jti);
+        }
+        synchronized (lock) {
+            snapshot.add(jti, expiresAt.getTime());
+        }
+        revocations.incrementAndGet();
+    }
+
+    /**
+     * 刪除過期記錄，從表中重新加載未過期的記錄並重建過濾器
+     */
+    public void refresh() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int purged = jdbcTemplate.update(PURGE_SQL, now);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(LOAD_SQL, now);
+
+        Map<String, Long> loaded = new HashMap<>(rows.size() * 2);
+        for (Map<String, Object> row : rows) {
+            loaded.put((String) row.get("jti"), ((Timestamp) row.get("expires_at")).getTime());
+        }
+        synchronized (lock) {
+            // 保留加載期間本實例新增、尚未讀到的撤銷
+            long nowMillis = now.getTime();
+            for (Map.Entry<String, Long> entry : snapshot.expiries.entrySet()) {
+                if (entry.getValue() >= nowMillis) {
+                    loaded.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+            int capacity = Math.max(properties.getExpectedEntries(), loaded.size() * 2);
+            Snapshot rebuilt = new Snapshot(new BloomFilter(capacity, properties.getFalsePositiveRate()),
+                    new ConcurrentHashMap<>(loaded.size() * 2));
+            for (Map.Entry<String, Long> entry : loaded.entrySet()) {
+                rebuilt.add(entry.getKey(), entry.getValue());
+            }
+            snapshot = rebuilt;
+        }
+        lastRefreshAt = LocalDateTime.now();
+        if (purged > 0) {
+            log.info("已清理 {} 條過期的 token 撤銷記錄，當前 {} 條", purged, loaded.size());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("revoked", snapshot.expiries.size());
+        stats.put("revocations", revocations.get());
+        stats.put("filterPositives", filterPositives.get());
+        stats.put("falsePositives", falsePositives.get());
+        stats.put("failedRefreshes", failedRefreshes.get());
+        stats.put("lastRefreshAt", lastRefreshAt);
+        return stats;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            failedRefreshes.incrementAndGet();
+            log.error("重新加載 token 撤銷記錄失敗", e);
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final BloomFilter filter;
+
+        /**
+         * jti -> token 過期時間（毫秒）
+         */
+        private final Map<String, Long> expiries;
+
+        private Snapshot(BloomFilter filter, Map<String, Long> expiries) {
+            this.filter = filter;
+            this.expiries = expiries;
+        }
+
+        /**
+         * 先寫精確集合再寫過濾器，過濾器命中時精確集合中一定已有記錄
+         */
+        private void add(String jti, long expiresAt) {
+            expiries.put(jti, expiresAt);
+            filter.put(jti);
+        }
+    }
+}
@@ -62,14 +62,39 @@ public interface CourtService {
      */
     Court updateCourt(Court court);
 
+    /**
+     * 更新場地的球員和比賽時間
+     * 通過寫後日誌批量寫入數據庫，調用立即返回
+     * 
+     * @param court 場地實體
+     */
+    void updateCourtPlayers(Court court);
+
+    /**
+     * 批量更新多個場地的球員和比賽時間
+     * 一次追加到寫後日誌，在同一批中寫入數據庫
+     * 
+     * @param courts 場地實體
+     */
+    void updateCourtsPlayers(List<Court> courts);
+
     /**
      * 清空場地的球員信息和比賽時間
-     * 使用 UpdateWrapper 確保 null 值被正確更新到數據庫
+     * 通過寫後日誌批量寫入數據庫，調用立即返回
      * 
      * @param courtId 場地ID
      */
     void clearCourtPlayers(Long courtId);
 
+    /**
+     * 清空團隊所有場地的球員信息和比賽時間（一條語句）
+     * 先寫入寫後日誌中待寫入的修改，避免之後被覆蓋
+     * 
+     * @param teamId 團隊ID
+     * @return 清空的場地數量
+     */
+    int resetCourtsByTeamId(Long teamId);
+
     /**
      * 獲取場地上正在進行的比賽的球員ID列表
      * 從 court 表中讀取球員信息
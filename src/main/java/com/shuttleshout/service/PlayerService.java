@@ -1,8 +1,10 @@
 package com.shuttleshout.service;
 
 import java.util.List;
+import java.util.Map;
 
 import com.shuttleshout.common.model.dto.PlayerDTO;
+import com.shuttleshout.common.model.dto.UserTeamDTO;
 import com.shuttleshout.common.model.po.Player;
 
 /**
@@ -29,6 +31,7 @@ public interface PlayerService {
 
     /**
      * 創建球員（從用戶信息創建）
+     * 該用戶在團隊中已有球員記錄時直接返回現有記錄
      * 
      * @param userId 用戶ID
      * @param teamId 團隊ID
@@ -36,6 +39,24 @@ public interface PlayerService {
      */
     Player createPlayerFromUser(Long userId, Long teamId);
 
+    /**
+     * 將尚未關聯用戶的球員記錄關聯到用戶
+     * 
+     * @param playerId 球員ID
+     * @param userId 用戶ID
+     */
+    void linkUser(Long playerId, Long userId);
+
+    /**
+     * 批量確保成員在團隊中都有球員記錄
+     * 已關聯的直接使用，同名的舊記錄關聯後複用，其餘一次批量插入
+     * 
+     * @param teamId 團隊ID
+     * @param members 團隊成員
+     * @return 用戶ID到球員ID的映射
+     */
+    Map<Long, Long> ensurePlayersForMembers(Long teamId, List<UserTeamDTO> members);
+
     /**
      * 創建球員
      */
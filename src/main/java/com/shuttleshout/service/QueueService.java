@@ -2,7 +2,10 @@ package com.shuttleshout.service;
 
 import java.util.List;
 
+import com.shuttleshout.common.model.dto.NewGameResetDTO;
 import com.shuttleshout.common.model.dto.QueueDTO;
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.common.model.dto.WaitingQueueEntryDTO;
 import com.shuttleshout.common.model.po.Queue;
 
 /**
@@ -41,6 +44,24 @@ public interface QueueService {
      */
     List<QueueDTO> getQueuesByTeamIdAndStatus(Long teamId, Queue.QueueStatus status);
 
+    /**
+     * 獲取團隊排好序的等待隊列及對應的用戶信息（單條查詢）
+     * 
+     * @param teamId 團隊ID
+     * @return 等待隊列，等待最久的在前
+     */
+    List<WaitingQueueEntryDTO> getWaitingQueueEntries(Long teamId);
+
+    /**
+     * 開始新局：在一個事務中清空團隊所有場地、刪除 WAITING 隊列，
+     * 批量補齊成員的球員記錄並按成員順序批量插入新的 WAITING 隊列
+     * 
+     * @param teamId 團隊ID
+     * @param members 團隊成員，按排隊順序
+     * @return 重置結果及新的等待隊列
+     */
+    NewGameResetDTO startNewGame(Long teamId, List<UserTeamDTO> members);
+
     /**
      * 創建隊列記錄
      * 
@@ -53,8 +74,9 @@ public interface QueueService {
 
     /**
      * 更新隊列狀態
+     * 通過寫後日誌批量寫入數據庫，調用立即返回
      */
-    QueueDTO updateQueueStatus(Long queueId, Queue.QueueStatus status);
+    void updateQueueStatus(Long queueId, Queue.QueueStatus status);
 
     /**
      * 刪除隊列
@@ -68,5 +90,17 @@ public interface QueueService {
      * @return 刪除的隊列數量
      */
     int deleteWaitingQueuesByTeamId(Long teamId);
+
+    /**
+     * 批量轉換團隊隊列的狀態，例如把所有 WAITING 轉為 CANCELLED（一條語句）
+     * called_at、served_at 只在首次進入對應狀態時設置；
+     * 不更新內存中的團隊會話狀態，團隊有活躍連接時應經由 TeamSessionStateManager#transitionQueues 調用
+     * 
+     * @param teamId 團隊ID
+     * @param from 原狀態
+     * @param to 新狀態
+     * @return 轉換的隊列數量
+     */
+    int transitionQueuesByTeamId(Long teamId, Queue.QueueStatus from, Queue.QueueStatus to);
 }
 
@@ -1,6 +1,7 @@
 package com.shuttleshout.service;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.Valid;
 
@@ -46,4 +47,21 @@ public interface UserTeamService {
      * @param teamId 团队ID
      */
     void removeMember(Long removerUserId, Long targetUserId, Long teamId);
+
+    /**
+     * 团队资料变更或团队删除后，使该团队的成员缓存失效
+     * @param teamId 团队ID
+     */
+    void evictMemberDirectory(Long teamId);
+
+    /**
+     * 用户资料变更后，使包含该用户的团队成员缓存失效
+     * @param userId 用户ID
+     */
+    void evictMemberDirectoryForUser(Long userId);
+
+    /**
+     * 团队成员缓存统计指标
+     */
+    Map<String, Object> getMemberDirectoryStats();
 }
@@ -0,0 +1,187 @@
+package com.shuttleshout.service.archive;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.shuttleshout.config.ArchiveProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 隊列歷史歸檔
+ * 後台線程定期把已結束（SERVED、CANCELLED）且 updated_at 早於保留時間的隊列記錄分批移入 queues_archive，
+ * 每批在一個事務中複製並刪除，批與批之間暫停以限制數據庫壓力。
+ * 本輪掃描到的隊列ID保存在 queue_archive_progress 中，進程重啟後從中斷處繼續；一輪結束後歸零，
+ * 之前未到期的記錄在下一輪重新檢查
+ *
+ * @author ShuttleShout Team
+ */
+@Slf4j
+@Component
+public class QueueArchiver {
+
+    private static final String COLUMNS = "id, player_id, court_id, status, queue_number, called_at, served_at, "
+            + "created_at, updated_at";
+
+    // 鎖定進度行，多個實例同時運行時同一批只會被一個實例處理
+    private static final String LOCK_PROGRESS_SQL = "SELECT last_queue_id FROM queue_archive_progress WHERE id = 1 "
+            + "FOR UPDATE";
+
+    private static final String INIT_PROGRESS_SQL = "INSERT INTO queue_archive_progress (id, last_queue_id, "
+            + "archived_total, updated_at) VALUES (1, 0, 0, CURRENT_TIMESTAMP)";
+
+    private static final String SELECT_BATCH_SQL = "SELECT id FROM queues WHERE id > ? "
+            + "AND status IN ('SERVED', 'CANCELLED') AND updated_at < ? ORDER BY id LIMIT ?";
+
+    private static final String UPDATE_PROGRESS_SQL = "UPDATE queue_archive_progress SET last_queue_id = ?, "
+            + "archived_total = archived_total + ?, updated_at = CURRENT_TIMESTAMP WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong archivedRows = new AtomicLong();
+    private final AtomicLong completedRounds = new AtomicLong();
+    private final AtomicLong failedRounds = new AtomicLong();
+    private volatile LocalDateTime lastRoundAt;
+
+    public QueueArchiver(JdbcTemplate jdbcTemplate, ArchiveProperties properties,
+                         PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.info("隊列歸檔已關閉");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "queue-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runQuietly, properties.getInterval(), properties.getInterval(),
+                TimeUnit.MILLISECONDS);
+        log.info("隊列歸檔已啟動: retention={}ms, interval={}ms, batchSize={}",
+                properties.getRetention(), properties.getInterval(), properties.getBatchSize());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 執行一輪歸檔，直到沒有到期的記錄或線程被中斷
+     *
+     * @return 本輪歸檔的記錄數
+     */
+    public long archive() throws InterruptedException {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusNanos(
+                TimeUnit.MILLISECONDS.toNanos(properties.getRetention())));
+        long archived = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            archived += moved;
+            archivedRows.addAndGet(moved);
+            if (moved < properties.getBatchSize()) {
+                break;
+            }
+            TimeUnit.MILLISECONDS.sleep(properties.getBatchPause());
+        }
+        lastRoundAt = LocalDateTime.now();
+        return archived;
+    }
+
+    /**
+     * 移動一批記錄，不足一批時表示本輪已掃描到末尾，進度歸零
+     *
+     * @return 移動的記錄數
+     */
+    int archiveBatch(Timestamp cutoff) {
+        List<Long> progress = jdbcTemplate.queryForList(LOCK_PROGRESS_SQL, Long.class);
+        if (progress.isEmpty()) {
+            jdbcTemplate.update(INIT_PROGRESS_SQL);
+            progress = Collections.singletonList(0L);
+        }
+        long lastQueueId = progress.get(0);
+
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_BATCH_SQL, Long.class, lastQueueId, cutoff,
+                properties.getBatchSize());
+        if (ids.isEmpty()) {
+            jdbcTemplate.update(UPDATE_PROGRESS_SQL, 0L, 0);
+            return 0;
+        }
+
+        String in = placeholders(ids.size());
+        Object[] args = ids.toArray();
+        jdbcTemplate.update("INSERT INTO queues_archive (" + COLUMNS + ") SELECT " + COLUMNS
+                + " FROM queues WHERE id IN (" + in + ")", args);
+        int deleted = jdbcTemplate.update("DELETE FROM queues WHERE id IN (" + in + ")", args);
+
+        long nextQueueId = ids.size() < properties.getBatchSize() ? 0L : ids.get(ids.size() - 1);
+        jdbcTemplate.update(UPDATE_PROGRESS_SQL, nextQueueId, deleted);
+        log.debug("已歸檔 {} 條隊列記錄: ids=[{}, {}]", deleted, ids.get(0), ids.get(ids.size() - 1));
+        return deleted;
+    }
+
+    /**
+     * 歸檔統計指標
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", scheduler != null);
+        stats.put("archivedRows", archivedRows.get());
+        stats.put("completedRounds", completedRounds.get());
+        stats.put("failedRounds", failedRounds.get());
+        stats.put("lastRoundAt", lastRoundAt);
+        return stats;
+    }
+
+    private void runQuietly() {
+        try {
+            long archived = archive();
+            completedRounds.incrementAndGet();
+            if (archived > 0) {
+                log.info("本輪歸檔了 {} 條已結束的隊列記錄", archived);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            failedRounds.incrementAndGet();
+            log.error("隊列歸檔失敗，下一輪從中斷處繼續", e);
+        }
+    }
+
+    private static String placeholders(int count) {
+        List<String> marks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            marks.add("?");
+        }
+        return String.join(", ", marks);
+    }
+}
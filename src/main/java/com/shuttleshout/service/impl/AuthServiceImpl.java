@@ -35,11 +35,14 @@ import com.shuttleshout.common.model.po.UserPO;
 import com.shuttleshout.common.util.JwtUtil;
 import com.shuttleshout.repository.RoleResourcePageRepository;
 import com.shuttleshout.repository.UserRepository;
+import com.shuttleshout.security.RolesVersionRegistry;
+import com.shuttleshout.security.TokenRevocationStore;
 import com.shuttleshout.service.AuthService;
 import com.shuttleshout.service.ResourcePageService;
 import com.shuttleshout.service.RoleService;
 import com.shuttleshout.service.UserService;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -60,6 +63,8 @@ public class AuthServiceImpl implements AuthService {
     private final RoleService roleService;
     private final ResourcePageService resourcePageService;
     private final RoleResourcePageRepository roleResourcePageRepository;
+    private final RolesVersionRegistry rolesVersionRegistry;
+    private final TokenRevocationStore tokenRevocationStore;
 
     /**
      * 用户注册
@@ -117,7 +122,9 @@ public class AuthServiceImpl implements AuthService {
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
             // 生成JWT token
-            String token = jwtUtil.generateToken(userDetails);
+            String token = jwtUtil.isRoleClaimsEnabled()
+                    ? jwtUtil.generateToken(userDetails, rolesVersionRegistry.current(userDto.getId()))
+                    : jwtUtil.generateToken(userDetails);
 
             // 更新最后登录时间
             UserPO user = userRepository.selectOneById(userDto.getId());
@@ -152,6 +159,39 @@ public class AuthServiceImpl implements AuthService {
         // 记录登出日志
         log.info("用戶登出，token: {}", token != null && token.length() > 10 ?
                  token.substring(0, 10) + "..." : token);
+        if (token == null) {
+            return;
+        }
+
+        // 前端以 JSON 字符串提交，去掉引号和 Bearer 前缀
+        String jwt = token.trim();
+        if (jwt.length() >= 2 && jwt.startsWith("\"") && jwt.endsWith("\"")) {
+            jwt = jwt.substring(1, jwt.length() - 1);
+        }
+        if (jwt.startsWith("Bearer ")) {
+            jwt = jwt.substring(7);
+        }
+        Claims claims;
+        try {
+            claims = jwtUtil.parseVerifiedClaims(jwt);
+        } catch (Exception e) {
+            log.warn("登出的 token 無效，無需撤銷: {}", e.getMessage());
+            return;
+        }
+        if (claims.getId() == null) {
+            // 早于 jti 的旧 token 无法单独撤销，只能等待过期
+            log.info("token 沒有 jti，無法撤銷: userId={}", claims.getSubject());
+            return;
+        }
+        tokenRevocationStore.revoke(claims.getId(), parseUserId(claims.getSubject()), claims.getExpiration());
+    }
+
+    private static Long parseUserId(String subject) {
+        try {
+            return Long.parseLong(subject);
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     /**
@@ -19,6 +19,8 @@ import com.shuttleshout.common.model.po.TeamPO;
 import com.shuttleshout.repository.CourtRepository;
 import com.shuttleshout.repository.TeamRepository;
 import com.shuttleshout.service.CourtService;
+import com.shuttleshout.service.journal.JournalEntry;
+import com.shuttleshout.service.journal.WriteBehindJournal;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -35,14 +37,17 @@ import lombok.extern.slf4j.Slf4j;
 public class CourtServiceImpl extends ServiceImpl<CourtRepository, Court> implements CourtService {
 
     private final TeamRepository teamRepository;
+    private final WriteBehindJournal writeBehindJournal;
 
     @Override
     public List<Court> getAllCourts() {
+        writeBehindJournal.flush();
         return getMapper().selectAll();
     }
 
     @Override
     public List<Court> getActiveCourts() {
+        writeBehindJournal.flush();
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .where(COURT.IS_ACTIVE.eq(true))
                 .orderBy(COURT.TEAM_ID.asc(), COURT.ID.asc());
@@ -51,6 +56,7 @@ public class CourtServiceImpl extends ServiceImpl<CourtRepository, Court> implem
 
     @Override
     public List<Court> getCourtsByTeamId(Long teamId) {
+        writeBehindJournal.flush();
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .where(COURT.TEAM_ID.eq(teamId))
                 .orderBy(COURT.ID.asc());
@@ -115,6 +121,7 @@ public class CourtServiceImpl extends ServiceImpl<CourtRepository, Court> implem
 
     @Override
     public Court getCourtById(Long id) {
+        writeBehindJournal.flush();
         Court court = getMapper().selectOneById(id);
         if (court == null) {
             throw new ApiException(ErrorCode.COURT_NOT_FOUND, "場地不存在，ID: " + id);
@@ -125,24 +132,57 @@ public class CourtServiceImpl extends ServiceImpl<CourtRepository, Court> implem
     @Override
     @Transactional
     public Court updateCourt(Court court) {
+        // 先寫入日誌中的球員修改，避免之後被舊值覆蓋
+        writeBehindJournal.flush();
         if (court.getUpdatedAt() == null) {
             court.setUpdatedAt(LocalDateTime.now());
         }
         getMapper().update(court);
         return court;
     }
+
+    @Override
+    public void updateCourtPlayers(Court court) {
+        LocalDateTime now = LocalDateTime.now();
+        court.setUpdatedAt(now);
+        writeBehindJournal.append(JournalEntry.courtPlayers(court, now));
+    }
+
+    @Override
+    public void updateCourtsPlayers(List<Court> courts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<JournalEntry> entries = new ArrayList<>(courts.size());
+        for (Court court : courts) {
+            court.setUpdatedAt(now);
+            entries.add(JournalEntry.courtPlayers(court, now));
+        }
+        writeBehindJournal.appendAll(entries);
+    }
     
     /**
      * 清空場地的球員信息和比賽時間
-     * 使用 SQL 直接更新，確保 null 值被正確更新到數據庫
+     * 寫入日誌的是完整的新值，null 值會被正確寫入數據庫
      * 
      * @param courtId 場地ID
      */
-    @Transactional
+    @Override
     public void clearCourtPlayers(Long courtId) {
         LocalDateTime now = LocalDateTime.now();
-        getMapper().clearCourtPlayers(courtId, now, now);
-        log.info("已使用 SQL 清空場地 {} 的球員信息和比賽時間", courtId);
+        Court cleared = Court.builder()
+                .id(courtId)
+                .matchEndedAt(now)
+                .build();
+        writeBehindJournal.append(JournalEntry.courtPlayers(cleared, now));
+        log.info("已清空場地 {} 的球員信息和比賽時間", courtId);
+    }
+
+    @Override
+    public int resetCourtsByTeamId(Long teamId) {
+        writeBehindJournal.flush();
+        LocalDateTime now = LocalDateTime.now();
+        int clearedCount = getMapper().clearTeamCourts(teamId, now, now);
+        log.info("已清空團隊 {} 的 {} 個場地", teamId, clearedCount);
+        return clearedCount;
     }
 
     @Override
@@ -3,7 +3,10 @@ package com.shuttleshout.service.impl;
 import static com.shuttleshout.common.model.po.table.PlayerTableDef.PLAYER;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -15,6 +18,7 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.shuttleshout.common.exception.ApiException;
 import com.shuttleshout.common.exception.ErrorCode;
 import com.shuttleshout.common.model.dto.PlayerDTO;
+import com.shuttleshout.common.model.dto.UserTeamDTO;
 import com.shuttleshout.common.model.po.Player;
 import com.shuttleshout.common.model.po.UserPO;
 import com.shuttleshout.repository.PlayerRepository;
@@ -66,16 +70,12 @@ public class PlayerServiceImpl extends ServiceImpl<PlayerRepository, Player> imp
 
     @Override
     public Player createPlayerFromUser(Long userId, Long teamId) {
-        // 獲取用戶信息
-        UserPO user = userRepository.selectOneById(userId);
-        if (user == null) {
-            throw new ApiException(ErrorCode.USER_NOT_FOUND, "用戶不存在，ID: " + userId);
-        }
-
         // 檢查是否已經存在該用戶在該團隊的球員記錄
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .where(PLAYER.TEAM_ID.eq(teamId))
-                .and(PLAYER.NAME.eq(user.getRealName() != null ? user.getRealName() : user.getUsername()));
+                .and(PLAYER.USER_ID.eq(userId))
+                .orderBy(PLAYER.ID.asc())
+                .limit(1);
         Player existingPlayer = getMapper().selectOneByQuery(queryWrapper);
         
         if (existingPlayer != null) {
@@ -84,13 +84,36 @@ public class PlayerServiceImpl extends ServiceImpl<PlayerRepository, Player> imp
             return existingPlayer;
         }
 
+        // 獲取用戶信息
+        UserPO user = userRepository.selectOneById(userId);
+        if (user == null) {
+            throw new ApiException(ErrorCode.USER_NOT_FOUND, "用戶不存在，ID: " + userId);
+        }
+        String name = user.getRealName() != null ? user.getRealName() : user.getUsername();
+
+        // 舊數據：同名且尚未關聯用戶的球員記錄，關聯後複用
+        Player legacyPlayer = getMapper().selectOneByQuery(QueryWrapper.create()
+                .where(PLAYER.TEAM_ID.eq(teamId))
+                .and(PLAYER.USER_ID.isNull())
+                .and(PLAYER.NAME.eq(name))
+                .orderBy(PLAYER.ID.asc())
+                .limit(1));
+        if (legacyPlayer != null) {
+            linkUser(legacyPlayer.getId(), userId);
+            legacyPlayer.setUserId(userId);
+            log.info("已將現有球員記錄關聯到用戶: playerId={}, userId={}, teamId={}", 
+                    legacyPlayer.getId(), userId, teamId);
+            return legacyPlayer;
+        }
+
         // 創建新的球員記錄
         LocalDateTime now = LocalDateTime.now();
         Player player = new Player();
-        player.setName(user.getRealName() != null ? user.getRealName() : user.getUsername());
+        player.setName(name);
         player.setPhoneNumber(user.getPhoneNumber());
         player.setNotes("從用戶自動創建");
         player.setTeamId(teamId);
+        player.setUserId(userId);
         player.setCreatedAt(now);
         player.setUpdatedAt(now);
 
@@ -101,6 +124,74 @@ public class PlayerServiceImpl extends ServiceImpl<PlayerRepository, Player> imp
         return player;
     }
 
+    @Override
+    public void linkUser(Long playerId, Long userId) {
+        Player player = new Player();
+        player.setId(playerId);
+        player.setUserId(userId);
+        player.setUpdatedAt(LocalDateTime.now());
+        getMapper().update(player);
+    }
+
+    @Override
+    public Map<Long, Long> ensurePlayersForMembers(Long teamId, List<UserTeamDTO> members) {
+        Map<Long, Long> playerIds = new HashMap<>();
+        Map<String, Player> legacyByName = new HashMap<>();
+        for (Player player : getMapper().selectListByQuery(QueryWrapper.create()
+                .where(PLAYER.TEAM_ID.eq(teamId))
+                .orderBy(PLAYER.ID.asc()))) {
+            if (player.getUserId() != null) {
+                playerIds.putIfAbsent(player.getUserId(), player.getId());
+            } else if (player.getName() != null) {
+                legacyByName.putIfAbsent(player.getName(), player);
+            }
+        }
+
+        List<Long> missingUserIds = new ArrayList<>();
+        for (UserTeamDTO member : members) {
+            if (playerIds.containsKey(member.getUserId())) {
+                continue;
+            }
+            // 舊數據：同名且尚未關聯用戶的球員記錄，關聯後複用
+            String name = member.getUserRealName() != null ? member.getUserRealName() : member.getUserName();
+            Player legacyPlayer = name != null ? legacyByName.remove(name) : null;
+            if (legacyPlayer != null) {
+                linkUser(legacyPlayer.getId(), member.getUserId());
+                playerIds.put(member.getUserId(), legacyPlayer.getId());
+            } else {
+                missingUserIds.add(member.getUserId());
+            }
+        }
+        if (missingUserIds.isEmpty()) {
+            return playerIds;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Player> created = new ArrayList<>(missingUserIds.size());
+        for (UserPO user : userRepository.selectListByIds(missingUserIds)) {
+            Player player = new Player();
+            player.setName(user.getRealName() != null ? user.getRealName() : user.getUsername());
+            player.setPhoneNumber(user.getPhoneNumber());
+            player.setNotes("從用戶自動創建");
+            player.setTeamId(teamId);
+            player.setUserId(user.getId());
+            player.setCreatedAt(now);
+            player.setUpdatedAt(now);
+            created.add(player);
+        }
+        if (!created.isEmpty()) {
+            getMapper().insertBatch(created);
+            // 多行插入不保證回填自增ID，按用戶ID查回
+            for (Player player : getMapper().selectListByQuery(QueryWrapper.create()
+                    .where(PLAYER.TEAM_ID.eq(teamId))
+                    .and(PLAYER.USER_ID.in(missingUserIds)))) {
+                playerIds.putIfAbsent(player.getUserId(), player.getId());
+            }
+            log.info("已為團隊 {} 批量創建 {} 個球員記錄", teamId, created.size());
+        }
+        return playerIds;
+    }
+
     @Override
     public PlayerDTO createPlayer(Player player) {
         LocalDateTime now = LocalDateTime.now();
@@ -151,6 +242,7 @@ public class PlayerServiceImpl extends ServiceImpl<PlayerRepository, Player> imp
         dto.setPhoneNumber(player.getPhoneNumber());
         dto.setNotes(player.getNotes());
         dto.setTeamId(player.getTeamId());
+        dto.setUserId(player.getUserId());
         dto.setCreatedAt(player.getCreatedAt());
         dto.setUpdatedAt(player.getUpdatedAt());
         return dto;
@@ -6,6 +6,7 @@ import static com.shuttleshout.common.model.po.table.PlayerTableDef.PLAYER;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -16,14 +17,22 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 
 import com.shuttleshout.common.exception.ApiException;
 import com.shuttleshout.common.exception.ErrorCode;
+import com.shuttleshout.common.model.dto.NewGameResetDTO;
 import com.shuttleshout.common.model.dto.QueueDTO;
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.common.model.dto.WaitingQueueEntryDTO;
 import com.shuttleshout.common.model.po.Court;
 import com.shuttleshout.common.model.po.Player;
 import com.shuttleshout.common.model.po.Queue;
 import com.shuttleshout.repository.CourtRepository;
 import com.shuttleshout.repository.PlayerRepository;
 import com.shuttleshout.repository.QueueRepository;
+import com.shuttleshout.service.CourtService;
+import com.shuttleshout.service.PlayerService;
 import com.shuttleshout.service.QueueService;
+import com.shuttleshout.service.journal.JournalEntry;
+import com.shuttleshout.service.journal.WriteBehindJournal;
+import com.shuttleshout.service.sequence.QueueNumberAllocator;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -41,9 +50,14 @@ public class QueueServiceImpl extends ServiceImpl<QueueRepository, Queue> implem
 
     private final PlayerRepository playerRepository;
     private final CourtRepository courtRepository;
+    private final WriteBehindJournal writeBehindJournal;
+    private final QueueNumberAllocator queueNumberAllocator;
+    private final CourtService courtService;
+    private final PlayerService playerService;
 
     @Override
     public List<QueueDTO> getAllQueues() {
+        writeBehindJournal.flush();
         List<Queue> queues = getMapper().selectAll();
         return queues.stream()
                 .map(this::convertToDto)
@@ -52,6 +66,7 @@ public class QueueServiceImpl extends ServiceImpl<QueueRepository, Queue> implem
 
     @Override
     public QueueDTO getQueueById(Long id) {
+        writeBehindJournal.flush();
         Queue queue = getMapper().selectOneById(id);
         if (queue == null) {
             throw new ApiException(ErrorCode.QUEUE_NOT_FOUND, "隊列不存在，ID: " + id);
@@ -61,6 +76,7 @@ public class QueueServiceImpl extends ServiceImpl<QueueRepository, Queue> implem
 
     @Override
     public List<QueueDTO> getQueuesByPlayerId(Long playerId) {
+        writeBehindJournal.flush();
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .where(QUEUE.PLAYER_ID.eq(playerId))
                 .orderBy(QUEUE.CREATED_AT.asc());
@@ -72,6 +88,7 @@ public class QueueServiceImpl extends ServiceImpl<QueueRepository, Queue> implem
 
     @Override
     public List<QueueDTO> getQueuesByCourtId(Long courtId) {
+        writeBehindJournal.flush();
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .where(QUEUE.COURT_ID.eq(courtId))
                 .orderBy(QUEUE.CREATED_AT.asc());
@@ -83,22 +100,13 @@ public class QueueServiceImpl extends ServiceImpl<QueueRepository, Queue> implem
 
     @Override
     public List<QueueDTO> getQueuesByTeamIdAndStatus(Long teamId, Queue.QueueStatus status) {
-        // 先查詢該團隊的所有球員ID
-        QueryWrapper playerQuery = QueryWrapper.create()
-                .where(PLAYER.TEAM_ID.eq(teamId));
-        List<Player> players = playerRepository.selectListByQuery(playerQuery);
-        
-        if (players == null || players.isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        List<Long> playerIds = players.stream()
-                .map(Player::getId)
-                .collect(Collectors.toList());
-        
-        // 查詢這些球員的指定狀態的隊列
+        writeBehindJournal.flush();
+        // 連表按團隊過濾，一條查詢完成
         QueryWrapper queueQuery = QueryWrapper.create()
-                .where(QUEUE.PLAYER_ID.in(playerIds))
+                .select(QUEUE.ALL_COLUMNS)
+                .from(QUEUE)
+                .innerJoin(PLAYER).on(PLAYER.ID.eq(QUEUE.PLAYER_ID))
+                .where(PLAYER.TEAM_ID.eq(teamId))
                 .and(QUEUE.STATUS.eq(status.toString()))
                 .orderBy(QUEUE.QUEUE_NUMBER.asc(), QUEUE.CREATED_AT.asc());
         List<Queue> queues = getMapper().selectListByQuery(queueQuery);
@@ -108,6 +116,51 @@ public class QueueServiceImpl extends ServiceImpl<QueueRepository, Queue> implem
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<WaitingQueueEntryDTO> getWaitingQueueEntries(Long teamId) {
+        writeBehindJournal.flush();
+        return getMapper().selectWaitingQueueEntries(teamId);
+    }
+
+    @Override
+    public NewGameResetDTO startNewGame(Long teamId, List<UserTeamDTO> members) {
+        writeBehindJournal.flush();
+        int clearedCourtCount = courtService.resetCourtsByTeamId(teamId);
+        int deletedQueueCount = getMapper().deleteWaitingByTeamId(teamId);
+
+        if (!members.isEmpty()) {
+            Map<Long, Long> playerIds = playerService.ensurePlayersForMembers(teamId, members);
+            LocalDateTime now = LocalDateTime.now();
+            List<Queue> queues = new ArrayList<>(members.size());
+            for (UserTeamDTO member : members) {
+                Long playerId = playerIds.get(member.getUserId());
+                if (playerId == null) {
+                    log.warn("成員沒有對應的球員記錄，跳過: userId={}, teamId={}", member.getUserId(), teamId);
+                    continue;
+                }
+                Queue queue = new Queue();
+                queue.setPlayerId(playerId);
+                queue.setStatus(Queue.QueueStatus.WAITING);
+                queue.setQueueNumber(queueNumberAllocator.next(null, teamId));
+                queue.setCreatedAt(now);
+                queue.setUpdatedAt(now);
+                queues.add(queue);
+            }
+            if (!queues.isEmpty()) {
+                getMapper().insertBatch(queues);
+            }
+        }
+
+        List<WaitingQueueEntryDTO> waitingEntries = getMapper().selectWaitingQueueEntries(teamId);
+        log.info("團隊 {} 開始新局: 清空 {} 個場地，刪除 {} 個WAITING隊列，創建 {} 個隊列",
+                teamId, clearedCourtCount, deletedQueueCount, waitingEntries.size());
+        return NewGameResetDTO.builder()
+                .clearedCourtCount(clearedCourtCount)
+                .deletedQueueCount(deletedQueueCount)
+                .waitingEntries(waitingEntries)
+                .build();
+    }
+
     @Override
     public Queue createQueue(Long playerId, Long courtId, Queue.QueueStatus status) {
         // 驗證球員是否存在
@@ -124,8 +177,8 @@ public class QueueServiceImpl extends ServiceImpl<QueueRepository, Queue> implem
             }
         }
 
-        // 計算排隊號碼（獲取該場地或全局的最大排隊號碼）
-        Integer queueNumber = calculateNextQueueNumber(courtId);
+        // 分配排隊號碼（按場地編號，未指定場地時按團隊編號）
+        Integer queueNumber = queueNumberAllocator.next(courtId, player.getTeamId());
 
         LocalDateTime now = LocalDateTime.now();
         Queue queue = new Queue();
@@ -150,30 +203,14 @@ public class QueueServiceImpl extends ServiceImpl<QueueRepository, Queue> implem
     }
 
     @Override
-    public QueueDTO updateQueueStatus(Long queueId, Queue.QueueStatus status) {
-        Queue queue = getMapper().selectOneById(queueId);
-        if (queue == null) {
-            throw new ApiException(ErrorCode.QUEUE_NOT_FOUND, "隊列不存在，ID: " + queueId);
-        }
-
-        queue.setStatus(status);
-        LocalDateTime now = LocalDateTime.now();
-        
-        if (status == Queue.QueueStatus.CALLED && queue.getCalledAt() == null) {
-            queue.setCalledAt(now);
-        }
-        if (status == Queue.QueueStatus.SERVED && queue.getServedAt() == null) {
-            queue.setServedAt(now);
-        }
-        
-        queue.setUpdatedAt(now);
-        getMapper().update(queue);
-        
-        return convertToDto(queue);
+    public void updateQueueStatus(Long queueId, Queue.QueueStatus status) {
+        // called_at、served_at 只在首次進入該狀態時設置，由寫入語句保證
+        writeBehindJournal.append(JournalEntry.queueStatus(queueId, status, LocalDateTime.now()));
     }
 
     @Override
     public void deleteQueue(Long id) {
+        writeBehindJournal.flush();
         Queue queue = getMapper().selectOneById(id);
         if (queue == null) {
             throw new ApiException(ErrorCode.QUEUE_NOT_FOUND, "隊列不存在，ID: " + id);
@@ -183,62 +220,19 @@ public class QueueServiceImpl extends ServiceImpl<QueueRepository, Queue> implem
 
     @Override
     public int deleteWaitingQueuesByTeamId(Long teamId) {
-        // 先查詢該團隊的所有球員ID
-        QueryWrapper playerQuery = QueryWrapper.create()
-                .where(PLAYER.TEAM_ID.eq(teamId));
-        List<Player> players = playerRepository.selectListByQuery(playerQuery);
-        
-        if (players == null || players.isEmpty()) {
-            log.info("團隊 {} 沒有球員，無需刪除隊列", teamId);
-            return 0;
-        }
-        
-        List<Long> playerIds = players.stream()
-                .map(Player::getId)
-                .collect(Collectors.toList());
-        
-        // 查詢這些球員的WAITING狀態的隊列
-        QueryWrapper queueQuery = QueryWrapper.create()
-                .where(QUEUE.PLAYER_ID.in(playerIds))
-                .and(QUEUE.STATUS.eq(Queue.QueueStatus.WAITING.toString()));
-        List<Queue> waitingQueues = getMapper().selectListByQuery(queueQuery);
-        
-        if (waitingQueues == null || waitingQueues.isEmpty()) {
-            log.info("團隊 {} 沒有WAITING狀態的隊列", teamId);
-            return 0;
-        }
-        
-        // 刪除所有WAITING狀態的隊列
-        int deletedCount = 0;
-        for (Queue queue : waitingQueues) {
-            try {
-                getMapper().deleteById(queue.getId());
-                deletedCount++;
-            } catch (Exception e) {
-                log.error("刪除隊列失敗: queueId={}", queue.getId(), e);
-            }
-        }
-        
+        writeBehindJournal.flush();
+        int deletedCount = getMapper().deleteWaitingByTeamId(teamId);
         log.info("已刪除團隊 {} 的 {} 個WAITING狀態的隊列", teamId, deletedCount);
         return deletedCount;
     }
 
-    /**
-     * 計算下一個排隊號碼
-     */
-    private Integer calculateNextQueueNumber(Long courtId) {
-        QueryWrapper queryWrapper = QueryWrapper.create();
-        if (courtId != null) {
-            queryWrapper.where(QUEUE.COURT_ID.eq(courtId));
-        }
-        queryWrapper.orderBy(QUEUE.QUEUE_NUMBER.desc());
-        queryWrapper.limit(1);
-        
-        Queue lastQueue = getMapper().selectOneByQuery(queryWrapper);
-        if (lastQueue != null && lastQueue.getQueueNumber() != null) {
-            return lastQueue.getQueueNumber() + 1;
-        }
-        return 1;
+    @Override
+    public int transitionQueuesByTeamId(Long teamId, Queue.QueueStatus from, Queue.QueueStatus to) {
+        // 日誌中可能有這些隊列尚未寫入的狀態修改，先寫入再批量轉換
+        writeBehindJournal.flush();
+        int updatedCount = getMapper().updateStatusByTeamId(teamId, from.name(), to.name(), LocalDateTime.now());
+        log.info("已將團隊 {} 的 {} 個隊列從 {} 轉為 {}", teamId, updatedCount, from, to);
+        return updatedCount;
     }
 
     /**
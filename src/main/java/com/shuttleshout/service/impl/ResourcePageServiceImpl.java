@@ -2,6 +2,7 @@ package com.shuttleshout.service.impl;
 
 import static com.shuttleshout.common.model.po.table.ResourcePagePOTableDef.RESOURCE_PAGE_PO;
 import static com.shuttleshout.common.model.po.table.RoleResourcePagePOTableDef.ROLE_RESOURCE_PAGE_PO;
+import static com.shuttleshout.common.model.po.table.UserRolePOTableDef.USER_ROLE_PO;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,7 +13,6 @@ import javax.validation.Valid;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
 
 import com.mybatisflex.core.query.QueryWrapper;
@@ -26,11 +26,13 @@ import com.shuttleshout.common.model.dto.ResourcePageUpdateDTO;
 import com.shuttleshout.common.model.po.ResourcePagePO;
 import com.shuttleshout.common.model.po.RolePO;
 import com.shuttleshout.common.model.po.RoleResourcePagePO;
-import com.shuttleshout.common.model.po.UserPO;
+import com.shuttleshout.common.model.po.UserRolePO;
+import com.shuttleshout.common.util.SecurityUtil;
 import com.shuttleshout.repository.ResourcePageRepository;
 import com.shuttleshout.repository.RoleRepository;
 import com.shuttleshout.repository.RoleResourcePageRepository;
-import com.shuttleshout.repository.UserRepository;
+import com.shuttleshout.repository.UserRoleRepository;
+import com.shuttleshout.security.PermissionMatrix;
 import com.shuttleshout.service.ResourcePageService;
 
 import lombok.RequiredArgsConstructor;
@@ -43,6 +45,10 @@ import lombok.RequiredArgsConstructor;
  * 若偵測到使用者為管理員，則不查詢 role_resource_pages，直接回傳全部已啟用頁面或權限通過，
  * 以符合「管理員可瀏覽所有頁面、無需逐頁授權」之需求。
  * </p>
+ * <p>
+ * 這兩個方法只查詢使用者的角色ID，頁面與權限從 {@link PermissionMatrix} 的內存快照中讀取；
+ * 頁面資源或其角色關聯的任何修改都會使快照在事務提交後失效。
+ * </p>
  *
  * @author ShuttleShout Team
  */
@@ -53,7 +59,8 @@ public class ResourcePageServiceImpl extends ServiceImpl<ResourcePageRepository,
 
     private final RoleResourcePageRepository roleResourcePageRepository;
     private final RoleRepository roleRepository;
-    private final UserRepository userRepository;
+    private final UserRoleRepository userRoleRepository;
+    private final PermissionMatrix permissionMatrix;
 
     /**
      * 獲取所有頁面資源
@@ -113,38 +120,21 @@ public class ResourcePageServiceImpl extends ServiceImpl<ResourcePageRepository,
      */
     @Override
     public List<ResourcePageDTO> getResourcePagesByUserId(Long userId) {
-        // 獲取用戶的所有角色（包含關聯的 roles 資料）
-        UserPO user = userRepository.selectOneWithRelationsById(userId);
-        if (user == null || CollectionUtils.isEmpty(user.getRoles())) {
-            return new ArrayList<>();
-        }
-
-        // 管理員短路：具 SYSTEM_ADMIN 則回傳所有已啟用的頁面資源，不查 role_resource_pages
-        if (isAdminUser(user)) {
-            return getAllActiveResourcePages();
-        }
-
-        // 獲取所有角色ID
-        List<Long> roleIds = user.getRoles().stream()
-                .map(RolePO::getId)
-                .collect(Collectors.toList());
+        // 先取快照，需要重建時在其他查詢之前讀取
+        PermissionMatrix.Snapshot matrix = permissionMatrix.current();
 
+        // 獲取用戶的所有角色ID
+        List<Long> roleIds = getRoleIds(userId, matrix);
         if (roleIds.isEmpty()) {
             return new ArrayList<>();
         }
 
-        // 獲取這些角色可訪問的所有頁面資源（去重）
-        QueryWrapper queryWrapper = QueryWrapper.create()
-                .where(ROLE_RESOURCE_PAGE_PO.ROLE_ID.in(roleIds));
-        List<RoleResourcePagePO> roleResourcePages = roleResourcePageRepository.selectListWithRelationsByQuery(queryWrapper);
+        // 管理員短路：具 SYSTEM_ADMIN 則回傳所有已啟用的頁面資源，不看 role_resource_pages
+        List<ResourcePagePO> resourcePages = matrix.isAdmin(roleIds) ? matrix.activePages() : matrix.pagesOf(roleIds);
 
-        if(roleResourcePages.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        return roleResourcePages.stream()
-                .map(page -> convertToDto(page.getResourcePage()))
-                .distinct()
+        // 這些角色可訪問的所有頁面資源，快照中每個頁面只出現一次
+        return resourcePages.stream()
+                .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
@@ -174,6 +164,7 @@ public class ResourcePageServiceImpl extends ServiceImpl<ResourcePageRepository,
         resourcePage.setUpdatedAt(LocalDateTime.now());
 
         getMapper().insert(resourcePage);
+        permissionMatrix.invalidate();
 
         // 分配角色
         if (resourcePageCreateDto.getRoleIds() != null && !resourcePageCreateDto.getRoleIds().isEmpty()) {
@@ -231,6 +222,7 @@ public class ResourcePageServiceImpl extends ServiceImpl<ResourcePageRepository,
         resourcePage.setUpdatedAt(LocalDateTime.now());
 
         getMapper().update(resourcePage);
+        permissionMatrix.invalidate();
 
         // 更新角色關聯
         if (resourcePageUpdateDto.getRoleIds() != null) {
@@ -259,6 +251,7 @@ public class ResourcePageServiceImpl extends ServiceImpl<ResourcePageRepository,
         }
 
         getMapper().deleteById(id);
+        permissionMatrix.invalidate();
     }
 
     /**
@@ -290,6 +283,7 @@ public class ResourcePageServiceImpl extends ServiceImpl<ResourcePageRepository,
 
             roleResourcePageRepository.insert(association);
         }
+        permissionMatrix.invalidate();
     }
 
     /**
@@ -298,77 +292,48 @@ public class ResourcePageServiceImpl extends ServiceImpl<ResourcePageRepository,
      */
     @Override
     public boolean hasPermission(Long userId, String resourcePageCode, String permission) {
-        // 獲取用戶的所有角色（包含關聯的 roles 資料）
-        UserPO user = userRepository.selectOneWithRelationsById(userId);
-        if (user == null || user.getRoles() == null) {
+        // 先取快照，需要重建時在其他查詢之前讀取
+        PermissionMatrix.Snapshot matrix = permissionMatrix.current();
+
+        // 獲取用戶的所有角色ID
+        List<Long> roleIds = getRoleIds(userId, matrix);
+        if (roleIds.isEmpty()) {
             return false;
         }
 
         // 管理員短路：具 SYSTEM_ADMIN 則對任意頁面與權限一律回傳 true
-        if (isAdminUser(user)) {
+        if (matrix.isAdmin(roleIds)) {
             return true;
         }
 
-        // 獲取所有角色ID
-        List<Long> roleIds = user.getRoles().stream()
-                .map(RolePO::getId)
-                .collect(Collectors.toList());
-
-        if (roleIds.isEmpty()) {
-            return false;
-        }
-
         // 檢查是否有權限
-        QueryWrapper queryWrapper = QueryWrapper.create()
-                .where(ROLE_RESOURCE_PAGE_PO.ROLE_ID.in(roleIds))
-                .and(ROLE_RESOURCE_PAGE_PO.RESOURCE_PAGE_ID.in(
-                    QueryWrapper.create()
-                        .select(RESOURCE_PAGE_PO.ID)
-                        .from(RESOURCE_PAGE_PO)
-                        .where(RESOURCE_PAGE_PO.CODE.eq(resourcePageCode))
-                ));
-
-        List<RoleResourcePagePO> permissions = roleResourcePageRepository.selectListByQuery(queryWrapper);
-
-        return permissions.stream().anyMatch(p -> {
-            switch (permission.toLowerCase()) {
-                case "read":
-                    return Boolean.TRUE.equals(p.getCanRead());
-                case "write":
-                    return Boolean.TRUE.equals(p.getCanWrite());
-                case "delete":
-                    return Boolean.TRUE.equals(p.getCanDelete());
-                default:
-                    return false;
-            }
-        });
+        return matrix.permits(roleIds, resourcePageCode, PermissionMatrix.permissionBit(permission));
     }
 
     /**
-     * 檢查使用者是否為管理員（具 SYSTEM_ADMIN 角色）
-     * 
-     * @param user 使用者實體
-     * @return 若使用者任一角色的 code 為 "SYSTEM_ADMIN" 則回傳 true，否則回傳 false
+     * 獲取使用者的所有角色ID
+     * 查詢的是當前登錄用戶時，由認證信息中的角色代碼經快照換算，不訪問數據庫；
+     * 認證信息隨用戶緩存或角色版本號在角色變更後失效，與其他權限判斷使用同一份角色
      */
-    private boolean isAdminUser(UserPO user) {
-        if (user == null || CollectionUtils.isEmpty(user.getRoles())) {
-            return false;
+    private List<Long> getRoleIds(Long userId, PermissionMatrix.Snapshot matrix) {
+        if (userId != null && userId.equals(SecurityUtil.getCurrentUserId())) {
+            return matrix.roleIdsOf(SecurityUtil.getCurrentRoleCodes());
         }
-        return user.getRoles().stream()
-                .anyMatch(role -> "SYSTEM_ADMIN".equals(role.getCode()));
+        return getRoleIdsByUserId(userId);
     }
 
     /**
-     * 獲取所有已啟用的頁面資源
-     * 
-     * @return 所有 is_active = true 的資源頁面列表
+     * 從 user_roles 查詢使用者的所有角色ID，用於查詢其他用戶
+     *
+     * @param userId 使用者ID
+     * @return 角色ID列表，使用者不存在或沒有角色時為空
      */
-    private List<ResourcePageDTO> getAllActiveResourcePages() {
+    private List<Long> getRoleIdsByUserId(Long userId) {
         QueryWrapper queryWrapper = QueryWrapper.create()
-                .where(RESOURCE_PAGE_PO.IS_ACTIVE.eq(true));
-        List<ResourcePagePO> resourcePages = getMapper().selectListByQuery(queryWrapper);
-        return resourcePages.stream()
-                .map(this::convertToDto)
+                .select(USER_ROLE_PO.ROLE_ID)
+                .where(USER_ROLE_PO.USER_ID.eq(userId));
+        return userRoleRepository.selectListByQuery(queryWrapper).stream()
+                .map(UserRolePO::getRoleId)
                 .collect(Collectors.toList());
     }
 
@@ -21,6 +21,7 @@ import com.shuttleshout.common.model.po.RoleResourcePagePO;
 import com.shuttleshout.repository.ResourcePageRepository;
 import com.shuttleshout.repository.RoleRepository;
 import com.shuttleshout.repository.RoleResourcePageRepository;
+import com.shuttleshout.security.PermissionMatrix;
 import com.shuttleshout.service.RoleResourcePageService;
 
 import lombok.RequiredArgsConstructor;
@@ -37,6 +38,7 @@ public class RoleResourcePageServiceImpl extends ServiceImpl<RoleResourcePageRep
 
     private final RoleRepository roleRepository;
     private final ResourcePageRepository resourcePageRepository;
+    private final PermissionMatrix permissionMatrix;
 
     /**
      * 获取所有角色页面资源关联
@@ -111,6 +113,7 @@ public class RoleResourcePageServiceImpl extends ServiceImpl<RoleResourcePageRep
         association.setUpdatedAt(LocalDateTime.now());
 
         getMapper().insert(association);
+        permissionMatrix.invalidate();
     }
 
     /**
@@ -127,6 +130,7 @@ public class RoleResourcePageServiceImpl extends ServiceImpl<RoleResourcePageRep
         }
 
         getMapper().deleteById(association.getId());
+        permissionMatrix.invalidate();
     }
 
     /**
@@ -154,6 +158,7 @@ public class RoleResourcePageServiceImpl extends ServiceImpl<RoleResourcePageRep
         association.setUpdatedAt(LocalDateTime.now());
 
         getMapper().update(association);
+        permissionMatrix.invalidate();
     }
 
     /**
@@ -6,6 +6,7 @@ import java.util.stream.Collectors;
 
 import javax.validation.Valid;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +19,9 @@ import com.shuttleshout.common.model.dto.RoleDTO;
 import com.shuttleshout.common.model.po.RolePO;
 import com.shuttleshout.common.model.po.UserPO;
 import com.shuttleshout.repository.RoleRepository;
+import com.shuttleshout.security.PermissionMatrix;
+import com.shuttleshout.security.PrincipalCache;
+import com.shuttleshout.security.RolesVersionRegistry;
 import com.shuttleshout.service.RoleService;
 
 import static com.shuttleshout.common.model.po.table.RolePOTableDef.ROLE_PO;
@@ -30,6 +34,15 @@ import static com.shuttleshout.common.model.po.table.RolePOTableDef.ROLE_PO;
 @Service
 public class RoleServiceImpl extends ServiceImpl<RoleRepository, RolePO> implements RoleService {
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private RolesVersionRegistry rolesVersionRegistry;
+
+    @Autowired
+    private PermissionMatrix permissionMatrix;
+
     /**
      * 获取所有角色
      */
@@ -89,6 +102,8 @@ public class RoleServiceImpl extends ServiceImpl<RoleRepository, RolePO> impleme
         role.setUpdatedAt(LocalDateTime.now());
 
         getMapper().insert(role);
+        // 权限矩阵按角色代码识别管理员
+        permissionMatrix.invalidate();
         return convertToDto(role);
     }
 
@@ -116,6 +131,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleRepository, RolePO> impleme
         if (roleDto.getName() != null) {
             role.setName(roleDto.getName());
         }
+        boolean codeChanged = roleDto.getCode() != null && !roleDto.getCode().equals(role.getCode());
         if (roleDto.getCode() != null) {
             role.setCode(roleDto.getCode());
         }
@@ -128,6 +144,13 @@ public class RoleServiceImpl extends ServiceImpl<RoleRepository, RolePO> impleme
         role.setUpdatedAt(LocalDateTime.now());
 
         getMapper().update(role);
+        // 角色代码是权限名，拥有该角色的用户缓存的权限都已过时
+        principalCache.evictAll();
+        if (codeChanged) {
+            rolesVersionRegistry.bumpRole(id);
+        }
+        // 页面资源带有关联角色的名称，代码决定是否为管理员
+        permissionMatrix.invalidate();
         return convertToDto(role);
     }
 
@@ -140,7 +163,10 @@ public class RoleServiceImpl extends ServiceImpl<RoleRepository, RolePO> impleme
         if (role == null) {
             throw new ApiException(ErrorCode.ROLE_NOT_FOUND, "角色不存在，ID: " + id);
         }
+        rolesVersionRegistry.bumpRole(id);
         getMapper().deleteById(id);
+        principalCache.evictAll();
+        permissionMatrix.invalidate();
     }
 
     /**
@@ -35,6 +35,7 @@ import com.shuttleshout.repository.TeamRepository;
 import com.shuttleshout.repository.UserRepository;
 import com.shuttleshout.repository.UserTeamRepository;
 import com.shuttleshout.service.TeamService;
+import com.shuttleshout.service.UserTeamService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -54,6 +55,8 @@ public class TeamServiceImpl extends ServiceImpl<TeamRepository, TeamPO> impleme
 
     private final CourtRepository courtRepository;
 
+    private final UserTeamService userTeamService;
+
     /**
      * 獲取所有球隊
      */
@@ -152,6 +155,7 @@ public class TeamServiceImpl extends ServiceImpl<TeamRepository, TeamPO> impleme
                 .updatedAt(now)
                 .build();
         userTeamRepository.insert(userTeam);
+        userTeamService.evictMemberDirectory(team.getId());
 
         return convertToDto(team);
     }
@@ -207,6 +211,8 @@ public class TeamServiceImpl extends ServiceImpl<TeamRepository, TeamPO> impleme
         team.setUpdatedAt(LocalDateTime.now());
 
         getMapper().update(team);
+        // 成員緩存中帶有團隊名稱和顏色
+        userTeamService.evictMemberDirectory(id);
 
         return convertToDto(team);
     }
@@ -226,6 +232,7 @@ public class TeamServiceImpl extends ServiceImpl<TeamRepository, TeamPO> impleme
         // 如果需要強制刪除，可以在這裡添加額外的邏輯
 
         getMapper().deleteById(id);
+        userTeamService.evictMemberDirectory(id);
     }
 
     /**
@@ -28,7 +28,10 @@ import com.shuttleshout.common.util.PasswordUtil;
 import com.shuttleshout.repository.RoleRepository;
 import com.shuttleshout.repository.UserRepository;
 import com.shuttleshout.repository.UserRoleRepository;
+import com.shuttleshout.security.PrincipalCache;
+import com.shuttleshout.security.RolesVersionRegistry;
 import com.shuttleshout.service.UserService;
+import com.shuttleshout.service.UserTeamService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -48,6 +51,12 @@ public class UserServiceImpl extends ServiceImpl<UserRepository, UserPO> impleme
 
     private final PasswordUtil passwordUtil;
 
+    private final UserTeamService userTeamService;
+
+    private final PrincipalCache principalCache;
+
+    private final RolesVersionRegistry rolesVersionRegistry;
+
     /**
      * 獲取所有用戶（含角色關聯，以便 DTO 回傳 roleNames / roleCodes 給前端）
      */
@@ -169,6 +178,8 @@ public class UserServiceImpl extends ServiceImpl<UserRepository, UserPO> impleme
         if (userUpdateDto.getAvatar() != null) {
             user.setAvatar(userUpdateDto.getAvatar());
         }
+        boolean activeChanged = userUpdateDto.getIsActive() != null
+                && !userUpdateDto.getIsActive().equals(user.getIsActive());
         if (userUpdateDto.getIsActive() != null) {
             user.setIsActive(userUpdateDto.getIsActive());
         }
@@ -183,6 +194,14 @@ public class UserServiceImpl extends ServiceImpl<UserRepository, UserPO> impleme
         user.setUpdatedAt(LocalDateTime.now());
 
         getMapper().update(user);
+        // 團隊成員列表帶有用戶名、姓名和郵箱
+        userTeamService.evictMemberDirectoryForUser(id);
+        // 禁用或修改密码后不能再使用缓存的认证信息
+        principalCache.evict(id);
+        if (activeChanged) {
+            // 带角色claims的token不查询用户，启用状态通过角色版本号生效
+            rolesVersionRegistry.bump(id);
+        }
 
         // 更新角色
         if (userUpdateDto.getRoleIds() != null) {
@@ -211,6 +230,9 @@ public class UserServiceImpl extends ServiceImpl<UserRepository, UserPO> impleme
         }
 
         getMapper().deleteById(id);
+        userTeamService.evictMemberDirectoryForUser(id);
+        principalCache.evict(id);
+        rolesVersionRegistry.forget(id);
     }
 
     /**
@@ -239,7 +261,8 @@ public class UserServiceImpl extends ServiceImpl<UserRepository, UserPO> impleme
             userRole.setCreatedAt(LocalDateTime.now());
             userRoleRepository.insert(userRole);
         }
-
+        principalCache.evict(userId);
+        rolesVersionRegistry.bump(userId);
     }
 
     /**
@@ -5,7 +5,12 @@ import static com.shuttleshout.common.model.po.table.UserPOTableDef.USER_PO;
 import static com.shuttleshout.common.model.po.table.TeamPOTableDef.TEAM_PO;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.validation.Valid;
@@ -24,6 +29,8 @@ import com.shuttleshout.common.model.dto.UserTeamDTO;
 import com.shuttleshout.common.model.po.TeamPO;
 import com.shuttleshout.common.model.po.UserPO;
 import com.shuttleshout.common.model.po.UserTeamPO;
+import com.shuttleshout.common.util.LruCache;
+import com.shuttleshout.config.MemberDirectoryProperties;
 import com.shuttleshout.repository.TeamRepository;
 import com.shuttleshout.repository.UserRepository;
 import com.shuttleshout.repository.UserTeamRepository;
@@ -46,23 +53,35 @@ public class UserTeamServiceImpl implements UserTeamService {
     @Autowired
     private TeamRepository teamRepository;
 
+    @Autowired
+    private MemberDirectoryProperties memberDirectoryProperties;
+
+    /**
+     * 团队成员缓存，按访问顺序淘汰最久未使用的团队
+     */
+    private final LruCache<Long, List<UserTeamDTO>> memberDirectory =
+            new LruCache<>(() -> memberDirectoryProperties.getMaxTeams());
+
     @Override
     public List<UserTeamDTO> getAllUserTeams() {
-        List<UserTeamPO> userTeams = userTeamRepository.selectAll();
-        return userTeams.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(userTeamRepository.selectAll());
     }
 
     @Override
     public List<UserTeamDTO> getTeamMembers(Long teamId) {
+        if (!memberDirectoryProperties.isEnabled()) {
+            return loadTeamMembers(teamId);
+        }
+
+        // 缓存的列表由所有调用方共享，返回副本
+        return new ArrayList<>(memberDirectory.get(teamId, this::loadTeamMembers));
+    }
+
+    private List<UserTeamDTO> loadTeamMembers(Long teamId) {
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .where(USER_TEAM_PO.TEAM_ID.eq(teamId));
 
-        List<UserTeamPO> userTeams = userTeamRepository.selectListByQuery(queryWrapper);
-        return userTeams.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(userTeamRepository.selectListByQuery(queryWrapper));
     }
 
     @Override
@@ -70,10 +89,7 @@ public class UserTeamServiceImpl implements UserTeamService {
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .where(USER_TEAM_PO.USER_ID.eq(userId));
 
-        List<UserTeamPO> userTeams = userTeamRepository.selectListByQuery(queryWrapper);
-        return userTeams.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(userTeamRepository.selectListByQuery(queryWrapper));
     }
 
     @Override
@@ -112,8 +128,9 @@ public class UserTeamServiceImpl implements UserTeamService {
                 .build();
 
         userTeamRepository.insert(userTeam);
+        evictMemberDirectory(userTeam.getTeamId());
 
-        return convertToDto(userTeam);
+        return convertToDto(userTeam, user, team);
     }
 
     @Override
@@ -134,6 +151,7 @@ public class UserTeamServiceImpl implements UserTeamService {
         }
 
         userTeamRepository.deleteById(userTeam.getId());
+        evictMemberDirectory(teamId);
     }
 
     @Override
@@ -171,14 +189,50 @@ public class UserTeamServiceImpl implements UserTeamService {
         }
 
         userTeamRepository.deleteById(targetUserTeam.getId());
+        evictMemberDirectory(teamId);
     }
 
-    private UserTeamDTO convertToDto(UserTeamPO userTeam) {
-        // 获取用户信息
-        UserPO user = userRepository.selectOneById(userTeam.getUserId());
-        // 获取团队信息
-        TeamPO team = teamRepository.selectOneById(userTeam.getTeamId());
+    @Override
+    public void evictMemberDirectoryForUser(Long userId) {
+        memberDirectory.evictIf(members -> members.stream().anyMatch(member -> userId.equals(member.getUserId())));
+    }
+
+    @Override
+    public Map<String, Object> getMemberDirectoryStats() {
+        return memberDirectory.getStats("teams");
+    }
+
+    @Override
+    public void evictMemberDirectory(Long teamId) {
+        memberDirectory.evict(teamId);
+    }
+
+    /**
+     * 批量转换：用户和团队各用一条 IN 查询取出，查询次数与成员数量无关
+     */
+    private List<UserTeamDTO> convertToDtos(List<UserTeamPO> userTeams) {
+        if (userTeams == null || userTeams.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> teamIds = new HashSet<>();
+        for (UserTeamPO userTeam : userTeams) {
+            userIds.add(userTeam.getUserId());
+            teamIds.add(userTeam.getTeamId());
+        }
+        Map<Long, UserPO> users = userRepository.selectListByIds(userIds).stream()
+                .collect(Collectors.toMap(UserPO::getId, Function.identity()));
+        Map<Long, TeamPO> teams = teamRepository.selectListByIds(teamIds).stream()
+                .collect(Collectors.toMap(TeamPO::getId, Function.identity()));
+
+        return userTeams.stream()
+                .map(userTeam -> convertToDto(userTeam, users.get(userTeam.getUserId()),
+                        teams.get(userTeam.getTeamId())))
+                .collect(Collectors.toList());
+    }
 
+    private UserTeamDTO convertToDto(UserTeamPO userTeam, UserPO user, TeamPO team) {
         return UserTeamDTO.builder()
                 .id(userTeam.getId())
                 .userId(userTeam.getUserId())
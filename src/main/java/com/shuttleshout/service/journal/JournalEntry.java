@@ -0,0 +1,64 @@
+package com.shuttleshout.service.journal;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.shuttleshout.common.model.po.Court;
+import com.shuttleshout.common.model.po.Queue;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 寫後日誌中的一條修改
+ * 每條記錄都是目標行的完整新值，重複寫入結果相同，因此崩潰後重放不會出錯
+ *
+ * @author ShuttleShout Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JournalEntry {
+
+    /**
+     * 修改類型
+     */
+    public enum Type {
+        COURT_PLAYERS,  // 場地球員和比賽時間
+        QUEUE_STATUS    // 隊列狀態
+    }
+
+    private Type type;
+
+    /**
+     * 目標行ID（場地ID或隊列ID）
+     */
+    private Long id;
+
+    private Long player1Id;
+    private Long player2Id;
+    private Long player3Id;
+    private Long player4Id;
+    private LocalDateTime matchStartedAt;
+    private LocalDateTime matchEndedAt;
+
+    private Queue.QueueStatus status;
+
+    /**
+     * 修改發生的時間，寫入 updated_at（隊列狀態同時用於 called_at、served_at）
+     */
+    private LocalDateTime at;
+
+    public static JournalEntry courtPlayers(Court court, LocalDateTime at) {
+        return new JournalEntry(Type.COURT_PLAYERS, court.getId(),
+                court.getPlayer1Id(), court.getPlayer2Id(), court.getPlayer3Id(), court.getPlayer4Id(),
+                court.getMatchStartedAt(), court.getMatchEndedAt(), null, at);
+    }
+
+    public static JournalEntry queueStatus(Long queueId, Queue.QueueStatus status, LocalDateTime at) {
+        return new JournalEntry(Type.QUEUE_STATUS, queueId,
+                null, null, null, null, null, null, status, at);
+    }
+}
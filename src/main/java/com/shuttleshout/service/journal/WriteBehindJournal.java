@@ -0,0 +1,404 @@
+package com.shuttleshout.service.journal;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shuttleshout.config.JournalProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 場地球員與隊列狀態的寫後日誌
+ * 修改先追加到本地日誌文件並立即返回，由後台線程按固定間隔或達到批量大小時用 JDBC 批量語句寫入數據庫；
+ * 日誌文件只保存尚未寫入數據庫的修改，啟動時重放，進程崩潰不會丟失已返回的修改。
+ * 讀取這些表之前調用 {@link #flush()}，保證讀到自己寫入的數據；待寫入的修改總是在獨立的短事務中提交，
+ * 不持有鎖跨越調用方事務，調用方事務之間互不阻塞
+ *
+ * @author ShuttleShout Team
+ */
+@Slf4j
+@Component
+public class WriteBehindJournal {
+
+    private static final String UPDATE_COURT_PLAYERS_SQL = "UPDATE team_courts SET player1_id = ?, player2_id = ?, "
+            + "player3_id = ?, player4_id = ?, match_started_at = ?, match_ended_at = ?, updated_at = ? WHERE id = ?";
+
+    private static final String UPDATE_QUEUE_STATUS_SQL = "UPDATE queues SET status = ?, "
+            + "called_at = CASE WHEN ? = 'CALLED' THEN COALESCE(called_at, ?) ELSE called_at END, "
+            + "served_at = CASE WHEN ? = 'SERVED' THEN COALESCE(served_at, ?) ELSE served_at END, "
+            + "updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final JournalProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate flushTransactionTemplate;
+
+    /**
+     * 保護 pending 和日誌文件
+     */
+    private final Object appendLock = new Object();
+
+    /**
+     * 同一時間只有一個線程寫入數據庫，保證同一行的修改按順序生效
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private List<JournalEntry> pending = new ArrayList<>();
+    private Path path;
+    private FileOutputStream output;
+    private Writer writer;
+    private ScheduledExecutorService flusher;
+
+    private final AtomicLong appendedEntries = new AtomicLong();
+    private final AtomicLong flushedEntries = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile LocalDateTime lastFlushAt;
+
+    public WriteBehindJournal(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, JournalProperties properties,
+                              PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        // 關閉日誌時同步寫入，加入調用方事務
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 批量寫入總是在獨立事務中提交，即使調用方已在事務中
+        this.flushTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            log.info("寫後日誌已關閉，場地球員和隊列狀態將同步寫入數據庫");
+            return;
+        }
+        path = Paths.get(properties.getPath()).toAbsolutePath();
+        List<JournalEntry> recovered = readJournal(path);
+        synchronized (appendLock) {
+            pending.addAll(recovered);
+            openWriter(true);
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, properties.getFlushInterval(),
+                properties.getFlushInterval(), TimeUnit.MILLISECONDS);
+
+        if (!recovered.isEmpty()) {
+            log.info("從寫後日誌恢復 {} 條未寫入數據庫的修改: path={}", recovered.size(), path);
+            flushQuietly();
+        }
+        log.info("寫後日誌已啟動: path={}, flushInterval={}ms, batchSize={}",
+                path, properties.getFlushInterval(), properties.getBatchSize());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdownNow();
+        flushQuietly();
+        synchronized (appendLock) {
+            closeWriter();
+        }
+    }
+
+    /**
+     * 追加一條修改
+     * 寫入日誌文件後立即返回；日誌文件寫入失敗時仍按順序寫入數據庫，只是失去崩潰保護
+     *
+     * @param entry 修改
+     */
+    public void append(JournalEntry entry) {
+        appendAll(Collections.singletonList(entry));
+    }
+
+    /**
+     * 一次追加多條修改，只同步一次日誌文件，並在同一批中寫入數據庫
+     *
+     * @param entries 修改，按順序生效
+     */
+    public void appendAll(List<JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (flusher == null) {
+            apply(entries);
+            return;
+        }
+        int size;
+        synchronized (appendLock) {
+            try {
+                writeEntries(entries);
+            } catch (IOException e) {
+                log.error("寫後日誌追加失敗，這些修改在寫入數據庫前不受崩潰保護: count={}, first={}:{}",
+                        entries.size(), entries.get(0).getType(), entries.get(0).getId(), e);
+            }
+            pending.addAll(entries);
+            size = pending.size();
+        }
+        appendedEntries.addAndGet(entries.size());
+        if (size >= properties.getBatchSize()) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * 將所有待寫入的修改寫入數據庫
+     * 在獨立的新事務中寫入並提交後返回，調用方事務隨後即可讀到；鎖只在寫入期間持有。
+     * 日誌為空但其他線程正在寫入時等待其提交，避免讀到寫入前的數據。
+     * 寫入失敗時修改保留在日誌中，由後台線程重試
+     */
+    public void flush() {
+        if (isEmpty() && !flushLock.isLocked()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<JournalEntry> batch = takePending();
+            if (batch == null) {
+                return;
+            }
+            try {
+                flushTransactionTemplate.executeWithoutResult(status -> applyBatch(batch));
+            } catch (RuntimeException e) {
+                requeue(batch);
+                throw e;
+            }
+            flushed(batch);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 寫後日誌統計指標
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", flusher != null);
+        synchronized (appendLock) {
+            stats.put("pendingEntries", pending.size());
+        }
+        stats.put("appendedEntries", appendedEntries.get());
+        stats.put("flushedEntries", flushedEntries.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        stats.put("lastFlushAt", lastFlushAt);
+        return stats;
+    }
+
+    /**
+     * 取出所有待寫入的修改，需持有 flushLock
+     *
+     * @return 待寫入的修改，沒有時返回null
+     */
+    private List<JournalEntry> takePending() {
+        synchronized (appendLock) {
+            if (pending.isEmpty()) {
+                return null;
+            }
+            List<JournalEntry> batch = pending;
+            pending = new ArrayList<>();
+            return batch;
+        }
+    }
+
+    /**
+     * 寫入失敗的修改放回日誌最前面，需持有 flushLock
+     */
+    private void requeue(List<JournalEntry> batch) {
+        synchronized (appendLock) {
+            List<JournalEntry> restored = new ArrayList<>(batch);
+            restored.addAll(pending);
+            pending = restored;
+        }
+        failedFlushes.incrementAndGet();
+    }
+
+    /**
+     * 已寫入數據庫的修改從日誌中移除，日誌只保留寫入期間新追加的部分
+     */
+    private void flushed(List<JournalEntry> batch) {
+        flushedEntries.addAndGet(batch.size());
+        lastFlushAt = LocalDateTime.now();
+        if (flusher == null) {
+            return;
+        }
+        synchronized (appendLock) {
+            try {
+                rewriteJournal();
+            } catch (IOException e) {
+                log.error("壓縮寫後日誌失敗，下次啟動時會重放已寫入的修改: path={}", path, e);
+            }
+        }
+    }
+
+    private boolean isEmpty() {
+        synchronized (appendLock) {
+            return pending.isEmpty();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("寫後日誌寫入數據庫失敗，稍後重試", e);
+        }
+    }
+
+    /**
+     * 批量寫入數據庫
+     * 同一場地只保留最後一次修改；隊列狀態按順序全部執行。每條語句都是冪等的，部分失敗後整批重試是安全的
+     */
+    private void apply(List<JournalEntry> batch) {
+        transactionTemplate.executeWithoutResult(status -> applyBatch(batch));
+    }
+
+    private void applyBatch(List<JournalEntry> batch) {
+        Map<Long, JournalEntry> courts = new LinkedHashMap<>();
+        List<Object[]> queueArgs = new ArrayList<>();
+        for (JournalEntry entry : batch) {
+            if (entry.getType() == JournalEntry.Type.COURT_PLAYERS) {
+                courts.remove(entry.getId());
+                courts.put(entry.getId(), entry);
+            } else if (entry.getType() == JournalEntry.Type.QUEUE_STATUS) {
+                String status = entry.getStatus().name();
+                Timestamp at = toTimestamp(entry.getAt());
+                queueArgs.add(new Object[] {status, status, at, status, at, at, entry.getId()});
+            }
+        }
+
+        if (!courts.isEmpty()) {
+            List<Object[]> courtArgs = new ArrayList<>(courts.size());
+            for (JournalEntry entry : courts.values()) {
+                courtArgs.add(new Object[] {entry.getPlayer1Id(), entry.getPlayer2Id(), entry.getPlayer3Id(),
+                        entry.getPlayer4Id(), toTimestamp(entry.getMatchStartedAt()),
+                        toTimestamp(entry.getMatchEndedAt()), toTimestamp(entry.getAt()), entry.getId()});
+            }
+            jdbcTemplate.batchUpdate(UPDATE_COURT_PLAYERS_SQL, courtArgs);
+        }
+        if (!queueArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_QUEUE_STATUS_SQL, queueArgs);
+        }
+        log.debug("寫後日誌已寫入數據庫: courts={}, queues={}", courts.size(), queueArgs.size());
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    private void writeEntries(List<JournalEntry> entries) throws IOException {
+        if (writer == null) {
+            openWriter(true);
+        }
+        for (JournalEntry entry : entries) {
+            writer.write(objectMapper.writeValueAsString(entry));
+            writer.write('\n');
+        }
+        writer.flush();
+        if (properties.isSyncOnAppend()) {
+            output.getFD().sync();
+        }
+    }
+
+    /**
+     * 用當前待寫入的修改重寫日誌文件（先寫臨時文件再原子替換）
+     */
+    private void rewriteJournal() throws IOException {
+        closeWriter();
+        if (pending.isEmpty()) {
+            // 清空日誌文件
+            openWriter(false);
+            return;
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer tempWriter = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (JournalEntry entry : pending) {
+                tempWriter.write(objectMapper.writeValueAsString(entry));
+                tempWriter.write('\n');
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openWriter(true);
+    }
+
+    private void openWriter(boolean append) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        output = new FileOutputStream(path.toFile(), append);
+        writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("關閉寫後日誌失敗: path={}", path, e);
+            }
+            writer = null;
+            output = null;
+        }
+    }
+
+    /**
+     * 讀取日誌文件，崩潰時寫了一半的最後一行會被跳過
+     */
+    private List<JournalEntry> readJournal(Path journal) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        if (!Files.exists(journal)) {
+            return entries;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    entries.add(objectMapper.readValue(line, JournalEntry.class));
+                } catch (IOException e) {
+                    log.warn("跳過無法解析的寫後日誌記錄: {}", line);
+                }
+            }
+        }
+        return entries;
+    }
+}
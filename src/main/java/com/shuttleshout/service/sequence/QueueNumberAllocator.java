@@ -0,0 +1,146 @@
+package com.shuttleshout.service.sequence;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 排隊號碼分配器（hi/lo）
+ * 每個場地、以及每個團隊未指定場地的隊列各自編號。號碼從內存中的號段分配，
+ * 號段用完時在 queue_number_sequences 表中一次預留 {@link #BLOCK_SIZE} 個號碼，
+ * 插入隊列時不再查詢最大號碼；並發分配的號碼唯一且在同一進程內遞增。
+ * 預留在獨立事務中進行，只有同一範圍的分配需要等待，其他範圍不受影響。
+ * 進程重啟後未用完的號段會被跳過，號碼可能不連續
+ *
+ * @author ShuttleShout Team
+ */
+@Slf4j
+@Component
+public class QueueNumberAllocator {
+
+    /**
+     * 每次預留的號碼數
+     */
+    static final int BLOCK_SIZE = 50;
+
+    static final String SCOPE_COURT = "COURT";
+    static final String SCOPE_TEAM = "TEAM";
+
+    private static final String RESERVE_SQL = "UPDATE queue_number_sequences SET next_value = next_value + ?, "
+            + "updated_at = CURRENT_TIMESTAMP WHERE scope_type = ? AND scope_id = ?";
+
+    private static final String SELECT_SQL = "SELECT next_value FROM queue_number_sequences "
+            + "WHERE scope_type = ? AND scope_id = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO queue_number_sequences (scope_type, scope_id, next_value, "
+            + "updated_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
+
+    // 沒有計數行的範圍（新場地、新團隊或遷移前的舊數據）從現有隊列的最大號碼繼續
+    private static final String MAX_COURT_SQL = "SELECT MAX(queue_number) FROM queues WHERE court_id = ?";
+
+    private static final String MAX_TEAM_SQL = "SELECT MAX(q.queue_number) FROM queues q "
+            + "JOIN players p ON p.id = q.player_id WHERE p.team_id = ? AND q.court_id IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * 每個範圍一把鎖，換號段時只阻塞同一範圍的分配；數量與號段相同，隨場地和團隊數量增長
+     */
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public QueueNumberAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // 在獨立事務中預留並立即提交，行鎖只持有到預留結束，調用方回滾也不會重複分配
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 分配下一個排隊號碼
+     *
+     * @param courtId 場地ID，為null時按團隊編號
+     * @param teamId 球員所屬團隊ID
+     * @return 排隊號碼
+     */
+    public int next(Long courtId, Long teamId) {
+        String scopeType = courtId != null ? SCOPE_COURT : SCOPE_TEAM;
+        Long scopeId = courtId != null ? courtId : teamId;
+        String key = scopeType + ":" + scopeId;
+
+        Block block = blocks.get(key);
+        if (block != null) {
+            long value = block.next.getAndIncrement();
+            if (value < block.limit) {
+                return Math.toIntExact(value);
+            }
+        }
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            // 其他線程可能已經換好了號段
+            block = blocks.get(key);
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.limit) {
+                    return Math.toIntExact(value);
+                }
+            }
+            long start = reserve(scopeType, scopeId);
+            Block reserved = new Block(start + 1, start + BLOCK_SIZE);
+            blocks.put(key, reserved);
+            return Math.toIntExact(start);
+        }
+    }
+
+    /**
+     * 預留一個號段
+     *
+     * @return 號段的第一個號碼
+     */
+    private long reserve(String scopeType, Long scopeId) {
+        Long start = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(RESERVE_SQL, BLOCK_SIZE, scopeType, scopeId) > 0) {
+                return jdbcTemplate.queryForObject(SELECT_SQL, Long.class, scopeType, scopeId) - BLOCK_SIZE;
+            }
+            Integer max = jdbcTemplate.queryForObject(SCOPE_COURT.equals(scopeType) ? MAX_COURT_SQL : MAX_TEAM_SQL,
+                    Integer.class, scopeId);
+            long first = max != null ? max + 1L : 1L;
+            try {
+                jdbcTemplate.update(INSERT_SQL, scopeType, scopeId, first + BLOCK_SIZE);
+                return first;
+            } catch (DuplicateKeyException e) {
+                // 另一個實例同時創建了計數行
+                return null;
+            }
+        });
+        if (start == null) {
+            return reserve(scopeType, scopeId);
+        }
+        log.debug("預留排隊號碼: scope={}:{}, range=[{}, {})", scopeType, scopeId, start, start + BLOCK_SIZE);
+        return start;
+    }
+
+    /**
+     * 內存中的號段 [next, limit)
+     */
+    private static class Block {
+
+        final AtomicLong next;
+        final long limit;
+
+        Block(long next, long limit) {
+            this.next = new AtomicLong(next);
+            this.limit = limit;
+        }
+    }
+}
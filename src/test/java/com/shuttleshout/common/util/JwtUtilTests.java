@@ -0,0 +1,66 @@
+package com.shuttleshout.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+
+/**
+ * JWT工具類測試
+ *
+ * @author ShuttleShout Team
+ */
+class JwtUtilTests {
+
+    private static final String SECRET = "shuttleshout-test-secret-key-that-is-long-enough-for-hs512-signatures-0123456789";
+
+    private final UserDetails principal = User.withUsername("42").password("").roles("USER").build();
+
+    @Test
+    void verifiesOnceAndServesRepeatsFromCache() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000L, 16, 60000, false);
+        String token = jwtUtil.generateToken(principal);
+
+        Claims first = jwtUtil.parseVerifiedClaims(token);
+
+        assertEquals("42", first.getSubject());
+        assertSame(first, jwtUtil.parseVerifiedClaims(token));
+        assertTrue(jwtUtil.validateToken(token, principal));
+    }
+
+    @Test
+    void embedsRolesAndVersionOnlyWhenRoleClaimsEnabled() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000L, 16, 60000, true);
+        Claims claims = jwtUtil.parseVerifiedClaims(jwtUtil.generateToken(principal, 3L));
+
+        assertEquals(Long.valueOf(3L), jwtUtil.getRolesVersion(claims));
+        assertEquals("ROLE_USER", jwtUtil.getAuthorities(claims).get(0).getAuthority());
+
+        // 關閉後即使 token 帶有角色也不使用，回到按用戶加載
+        JwtUtil disabled = new JwtUtil(SECRET, 60000L, 16, 60000, false);
+        assertNull(disabled.getRolesVersion(disabled.parseVerifiedClaims(jwtUtil.generateToken(principal, 3L))));
+        assertNull(disabled.parseVerifiedClaims(disabled.generateToken(principal, 3L)).get(JwtUtil.CLAIM_ROLES));
+    }
+
+    @Test
+    void rejectsTamperedAndExpiredTokens() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000L, 16, 60000, false);
+        String token = jwtUtil.generateToken(principal);
+        jwtUtil.parseVerifiedClaims(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> jwtUtil.parseVerifiedClaims(tampered));
+
+        JwtUtil expiring = new JwtUtil(SECRET, -1000L, 16, 60000, false);
+        assertThrows(ExpiredJwtException.class, () -> expiring.parseVerifiedClaims(expiring.generateToken(principal)));
+    }
+}
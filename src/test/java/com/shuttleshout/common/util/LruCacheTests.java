@@ -0,0 +1,52 @@
+package com.shuttleshout.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 內存緩存測試
+ *
+ * @author ShuttleShout Team
+ */
+class LruCacheTests {
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondCapacity() {
+        LruCache<Long, String> cache = new LruCache<>(() -> 2);
+        cache.put(1L, "a", cache.currentGeneration());
+        cache.put(2L, "b", cache.currentGeneration());
+        cache.get(1L);
+        cache.put(3L, "c", cache.currentGeneration());
+
+        assertEquals("a", cache.get(1L));
+        assertNull(cache.get(2L));
+        Map<String, Object> stats = cache.getStats("size");
+        assertEquals(2, stats.get("size"));
+        assertEquals(1L, stats.get("evictions"));
+    }
+
+    @Test
+    void dropsResultsLoadedAcrossAnInvalidation() {
+        LruCache<Long, String> cache = new LruCache<>(() -> 10);
+        long generation = cache.currentGeneration();
+        cache.evictIf(value -> true);
+        cache.put(1L, "stale", generation);
+        assertNull(cache.get(1L));
+
+        assertEquals("fresh", cache.get(1L, id -> "fresh"));
+        assertEquals("fresh", cache.get(1L, id -> "reloaded"));
+        assertNull(cache.get(2L, id -> null));
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() throws InterruptedException {
+        LruCache<Long, String> cache = new LruCache<>(() -> 10, () -> 1L);
+        cache.put(1L, "a", cache.currentGeneration());
+        Thread.sleep(5);
+        assertNull(cache.get(1L));
+    }
+}
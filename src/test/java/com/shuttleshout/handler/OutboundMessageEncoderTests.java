@@ -0,0 +1,62 @@
+package com.shuttleshout.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shuttleshout.handler.message.AutoAssignSuccessMessage;
+import com.shuttleshout.handler.message.GameStateCheckMessage;
+import com.shuttleshout.handler.message.PlayerAssignment;
+import com.shuttleshout.handler.message.QueueEntry;
+import com.shuttleshout.handler.message.QueueUpdateMessage;
+
+/**
+ * 出站消息編碼測試，確保類型化消息與前端期望的 JSON 字段一致
+ *
+ * @author ShuttleShout Team
+ */
+class OutboundMessageEncoderTests {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final OutboundMessageEncoder encoder = new OutboundMessageEncoder(objectMapper);
+
+    @Test
+    void encodesQueueUpdateAsCoalescableFrame() throws Exception {
+        OutboundFrame frame = encoder.encode(new QueueUpdateMessage(7L, 3L, Arrays.asList(
+                new QueueEntry(1L, "amy", "Amy", "amy@example.com", "2024-01-01T19:30"),
+                new QueueEntry(2L, "bob", "Bob", null, null))));
+
+        assertEquals("QUEUE_UPDATE", frame.getType());
+        assertEquals("QUEUE_UPDATE:7", frame.getCoalesceKey());
+
+        JsonNode json = objectMapper.readTree(frame.getMessage().getPayload());
+        assertEquals("QUEUE_UPDATE", json.get("type").asText());
+        assertEquals(7L, json.get("teamId").asLong());
+        assertEquals("2024-01-01T19:30", json.get("queue").get(0).get("queueCreatedAt").asText());
+        assertFalse(json.get("queue").get(1).has("queueCreatedAt"));
+    }
+
+    @Test
+    void keepsBooleanFieldNamesExpectedByFrontend() throws Exception {
+        JsonNode autoAssign = objectMapper.readTree(encoder.encode(new AutoAssignSuccessMessage(3L, 7L,
+                Collections.singletonList(PlayerAssignment.of(1L, 1, null)), true, "ok"))
+                .getMessage().getPayload());
+        assertTrue(autoAssign.get("isPending").asBoolean());
+        assertFalse(autoAssign.has("pending"));
+        assertEquals(1, autoAssign.get("assignments").get(0).get("position").asInt());
+        assertFalse(autoAssign.get("assignments").get(0).has("userName"));
+
+        JsonNode state = objectMapper.readTree(encoder.encode(new GameStateCheckMessage(7L, false, null, "none"))
+                .getMessage().getPayload());
+        assertFalse(state.get("hasOngoingMatches").asBoolean());
+        assertFalse(state.has("ongoingCourtsCount"));
+    }
+}
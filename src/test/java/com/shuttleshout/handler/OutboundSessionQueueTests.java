@@ -0,0 +1,77 @@
+package com.shuttleshout.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * 會話出站隊列測試
+ *
+ * @author ShuttleShout Team
+ */
+class OutboundSessionQueueTests {
+
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+    private final Executor manualExecutor = tasks::add;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+    }
+
+    @Test
+    void coalescesPendingQueueSnapshots() throws Exception {
+        OutboundSessionQueue queue = new OutboundSessionQueue(session, manualExecutor, 16, 10000);
+
+        assertEquals(OutboundSessionQueue.OfferResult.ACCEPTED, queue.offer(OutboundFrame.of("QUEUE_UPDATE", 1L, "q1")));
+        assertEquals(OutboundSessionQueue.OfferResult.ACCEPTED, queue.offer(OutboundFrame.of("MATCH_FINISHED", 1L, "m1")));
+        assertEquals(OutboundSessionQueue.OfferResult.COALESCED, queue.offer(OutboundFrame.of("QUEUE_UPDATE", 1L, "q2")));
+        assertEquals(2, queue.size());
+
+        runAll();
+
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, times(2)).sendMessage(sent.capture());
+        assertEquals("m1", sent.getAllValues().get(0).getPayload());
+        assertEquals("q2", sent.getAllValues().get(1).getPayload());
+    }
+
+    @Test
+    void evictsWhenBufferIsFull() throws Exception {
+        OutboundSessionQueue queue = new OutboundSessionQueue(session, manualExecutor, 2, 10000);
+
+        queue.offer(OutboundFrame.of("A", 1L, "a"));
+        queue.offer(OutboundFrame.of("B", 1L, "b"));
+
+        assertEquals(OutboundSessionQueue.OfferResult.EVICTED, queue.offer(OutboundFrame.of("C", 1L, "c")));
+        assertEquals(OutboundSessionQueue.OfferResult.REJECTED, queue.offer(OutboundFrame.of("D", 1L, "d")));
+
+        runAll();
+
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(session, times(0)).sendMessage(any());
+    }
+
+    private void runAll() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+}
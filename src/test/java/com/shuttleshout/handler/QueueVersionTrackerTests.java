@@ -0,0 +1,144 @@
+package com.shuttleshout.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.shuttleshout.handler.message.QueueChange;
+import com.shuttleshout.handler.message.QueueEntry;
+
+/**
+ * 等待隊列版本追蹤測試
+ *
+ * @author ShuttleShout Team
+ */
+class QueueVersionTrackerTests {
+
+    @Test
+    void assigningHeadOfQueueProducesOnlyRemovalsAndAdditions() {
+        List<QueueEntry> before = entries(1, 2, 3, 4, 5, 6);
+        List<QueueEntry> after = entries(5, 6, 7);
+
+        List<QueueChange> changes = QueueVersionTracker.diff(before, after);
+
+        assertEquals(5, changes.size());
+        assertTrue(changes.stream().noneMatch(c -> c.getOp() == QueueChange.Op.MOVED));
+        assertEquals(after, apply(before, changes));
+    }
+
+    @Test
+    void onlyOutOfOrderMembersAreMoved() {
+        List<QueueEntry> before = entries(1, 2, 3, 4, 5, 6);
+        List<QueueEntry> after = entries(5, 6, 1, 2);
+
+        List<QueueChange> changes = QueueVersionTracker.diff(before, after);
+
+        assertEquals(2, changes.stream().filter(c -> c.getOp() == QueueChange.Op.REMOVED).count());
+        assertEquals(2, changes.stream().filter(c -> c.getOp() == QueueChange.Op.MOVED).count());
+        assertEquals(after, apply(before, changes));
+    }
+
+    @Test
+    void deltasReproduceArbitraryReorderings() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            List<QueueEntry> before = randomQueue(random);
+            List<QueueEntry> after = randomQueue(random);
+            assertEquals(after, apply(before, QueueVersionTracker.diff(before, after)));
+        }
+    }
+
+    @Test
+    void versionOnlyAdvancesWhenQueueChanges() {
+        QueueVersionTracker tracker = new QueueVersionTracker();
+        AtomicReference<QueueVersionTracker.QueueRevision> last = new AtomicReference<>();
+
+        tracker.record(1L, entries(1, 2), last::set);
+        long first = last.get().getVersion();
+        assertTrue(last.get().isChanged());
+
+        tracker.record(1L, entries(1, 2), last::set);
+        assertFalse(last.get().isChanged());
+        assertEquals(first, last.get().getVersion());
+
+        tracker.record(1L, entries(2), last::set);
+        assertEquals(first, last.get().getBaseVersion());
+        assertEquals(first + 1, last.get().getVersion());
+        assertTrue(last.get().isDeltaWorthwhile() || last.get().getQueueSize() <= 1);
+
+        assertNull(QueueVersionTracker.diff(entries(1, 1), entries(1)));
+    }
+
+    /**
+     * 按 QUEUE_DELTA 協議在客戶端應用變更
+     */
+    private static List<QueueEntry> apply(List<QueueEntry> previous, List<QueueChange> changes) {
+        Set<Long> removed = changes.stream().filter(c -> c.getOp() == QueueChange.Op.REMOVED)
+                .map(QueueChange::getUserId).collect(Collectors.toSet());
+        Set<Long> moved = changes.stream().filter(c -> c.getOp() == QueueChange.Op.MOVED)
+                .map(QueueChange::getUserId).collect(Collectors.toSet());
+        List<QueueEntry> remaining = previous.stream().filter(e -> !removed.contains(e.getUserId()))
+                .collect(Collectors.toList());
+        Map<Long, QueueEntry> byUserId = remaining.stream()
+                .collect(Collectors.toMap(QueueEntry::getUserId, Function.identity()));
+        int size = remaining.size() + (int) changes.stream().filter(c -> c.getOp() == QueueChange.Op.ADDED).count();
+
+        QueueEntry[] next = new QueueEntry[size];
+        for (QueueChange change : changes) {
+            if (change.getOp() == QueueChange.Op.ADDED) {
+                next[change.getIndex()] = change.getEntry();
+            } else if (change.getOp() == QueueChange.Op.MOVED) {
+                next[change.getIndex()] = byUserId.get(change.getUserId());
+            }
+        }
+        int cursor = 0;
+        List<QueueEntry> rest = remaining.stream().filter(e -> !moved.contains(e.getUserId()))
+                .collect(Collectors.toList());
+        for (int i = 0; i < size; i++) {
+            if (next[i] == null) {
+                next[i] = rest.get(cursor++);
+            }
+        }
+        return Arrays.asList(next);
+    }
+
+    private static List<QueueEntry> randomQueue(Random random) {
+        List<Long> ids = new ArrayList<>();
+        Set<Long> used = new HashSet<>();
+        int size = random.nextInt(12);
+        while (ids.size() < size) {
+            long id = 1 + random.nextInt(16);
+            if (used.add(id)) {
+                ids.add(id);
+            }
+        }
+        return ids.stream().map(id -> entry(id, random.nextInt(8) == 0 ? "late" : "early"))
+                .collect(Collectors.toList());
+    }
+
+    private static List<QueueEntry> entries(long... ids) {
+        List<QueueEntry> entries = new ArrayList<>();
+        for (long id : ids) {
+            entries.add(entry(id, "early"));
+        }
+        return entries;
+    }
+
+    private static QueueEntry entry(long id, String createdAt) {
+        return new QueueEntry(id, "user" + id, "球員" + id, null, createdAt);
+    }
+}
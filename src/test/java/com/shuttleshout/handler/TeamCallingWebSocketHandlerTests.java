@@ -0,0 +1,84 @@
+package com.shuttleshout.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shuttleshout.handler.strategy.MessageStrategyFactory;
+import com.shuttleshout.handler.strategy.WebSocketMessageStrategy;
+import com.shuttleshout.service.MatchService;
+
+/**
+ * 團隊叫號WebSocket處理器測試
+ *
+ * @author ShuttleShout Team
+ */
+class TeamCallingWebSocketHandlerTests {
+
+    private static final Long ROOM_TEAM_ID = 1L;
+
+    private SessionOutboundManager outboundManager;
+    private TeamCommandDispatcher commandDispatcher;
+    private WebSocketMessageStrategy strategy;
+    private WebSocketSession session;
+    private TeamCallingWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        TeamSessionRegistry sessionRegistry = new TeamSessionRegistry();
+        outboundManager = mock(SessionOutboundManager.class);
+        commandDispatcher = mock(TeamCommandDispatcher.class);
+        strategy = mock(WebSocketMessageStrategy.class);
+        MessageStrategyFactory strategyFactory = mock(MessageStrategyFactory.class);
+        when(strategyFactory.getStrategy("AUTO_ASSIGN")).thenReturn(strategy);
+        when(commandDispatcher.dispatch(anyLong(), any(Runnable.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, Runnable.class).run();
+            return true;
+        });
+        handler = new TeamCallingWebSocketHandler(new OutboundMessageEncoder(new ObjectMapper()), sessionRegistry,
+                outboundManager, mock(QueueVersionTracker.class), mock(TeamReplayBuffer.class), commandDispatcher,
+                strategyFactory, mock(MatchService.class), mock(TeamSessionStateManager.class));
+
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        sessionRegistry.join(ROOM_TEAM_ID, session);
+    }
+
+    @Test
+    void rejectsCommandsForAnotherTeam() throws Exception {
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"AUTO_ASSIGN\",\"teamId\":2,\"courtId\":5}"));
+
+        verify(commandDispatcher, never()).dispatch(anyLong(), any(Runnable.class));
+        verify(strategy, never()).handle(any(), any());
+        verify(outboundManager).send(eq(session), any());
+    }
+
+    @Test
+    void runsCommandsAgainstSessionRoom() throws Exception {
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"AUTO_ASSIGN\",\"courtId\":5}"));
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"AUTO_ASSIGN\",\"teamId\":\"1\",\"courtId\":5}"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> data = ArgumentCaptor.forClass(Map.class);
+        verify(strategy, times(2)).handle(eq(session), data.capture());
+        // 策略讀到的 teamId 總是會話所在的房間
+        assertEquals(ROOM_TEAM_ID, data.getAllValues().get(0).get("teamId"));
+        assertEquals(ROOM_TEAM_ID, data.getAllValues().get(1).get("teamId"));
+        verify(commandDispatcher, times(2)).dispatch(eq(ROOM_TEAM_ID), any(Runnable.class));
+    }
+}
@@ -0,0 +1,116 @@
+package com.shuttleshout.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.shuttleshout.config.WebSocketProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * 團隊命令調度負載測試，對比平台線程池與虛擬線程兩種執行模式
+ * 每條命令經 Hikari 連接池在 H2 內存數據庫上執行一個事務，事務內的往返由數據庫端的 SLEEP 模擬網絡延遲，
+ * 與真實命令一樣經過連接池和 JDBC 驅動的同步代碼；虛擬線程在其中被釘住時由 -Djdk.tracePinnedThreads 打印。
+ * 需要在 JDK 21+ 上運行: ./gradlew dispatcherLoadTest
+ *
+ * @author ShuttleShout Team
+ */
+@Tag("load")
+class TeamCommandDispatcherLoadTests {
+
+    private static final int TEAMS = 100;
+    private static final int COMMANDS_PER_TEAM = 10;
+    private static final int JDBC_ROUND_TRIPS = 10;
+    private static final long ROUND_TRIP_MILLIS = 1;
+
+    private static HikariDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void startDatabase() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:dispatcher-load;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        // 連接數不成為瓶頸，兩種模式只在命令線程上有差別
+        dataSource.setMaximumPoolSize(TEAMS);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE ALIAS SLEEP FOR \"java.lang.Thread.sleep(long)\"");
+        jdbcTemplate.execute("CREATE TABLE queues (id BIGINT AUTO_INCREMENT PRIMARY KEY, team_id BIGINT NOT NULL, "
+                + "status VARCHAR(16) NOT NULL)");
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        dataSource.close();
+    }
+
+    @Test
+    void virtualThreadsOutperformPlatformPoolForBlockingCommands() throws Exception {
+        long platformMillis = run(WebSocketProperties.ExecutorMode.PLATFORM);
+        long virtualMillis = run(WebSocketProperties.ExecutorMode.VIRTUAL);
+
+        System.out.printf("團隊命令負載: teams=%d, commands=%d, platform=%dms, virtual=%dms%n",
+                TEAMS, TEAMS * COMMANDS_PER_TEAM, platformMillis, virtualMillis);
+        assertTrue(virtualMillis < platformMillis);
+    }
+
+    private long run(WebSocketProperties.ExecutorMode mode) throws InterruptedException {
+        WebSocketProperties properties = new WebSocketProperties();
+        properties.getCommand().setExecutor(mode);
+        properties.getCommand().setMailboxCapacity(COMMANDS_PER_TEAM);
+        TeamCommandDispatcher dispatcher = new TeamCommandDispatcher(properties);
+        assumeTrue(dispatcher.getExecutorMode() == mode, "當前 JDK 不支持 " + mode + " 執行模式");
+
+        CountDownLatch done = new CountDownLatch(TEAMS * COMMANDS_PER_TEAM);
+        AtomicInteger outOfOrder = new AtomicInteger();
+        int[] lastExecuted = new int[TEAMS];
+        long startedAt = System.nanoTime();
+        try {
+            for (int command = 0; command < COMMANDS_PER_TEAM; command++) {
+                for (int team = 0; team < TEAMS; team++) {
+                    int teamIndex = team;
+                    int sequence = command + 1;
+                    assertTrue(dispatcher.dispatch((long) team, () -> {
+                        executeCommand(teamIndex);
+                        if (lastExecuted[teamIndex] != sequence - 1) {
+                            outOfOrder.incrementAndGet();
+                        }
+                        lastExecuted[teamIndex] = sequence;
+                        done.countDown();
+                    }));
+                }
+            }
+            assertTrue(done.await(2, TimeUnit.MINUTES));
+        } finally {
+            dispatcher.shutdown();
+        }
+        assertEquals(0, outOfOrder.get());
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * 一條命令的數據庫訪問：一個事務內的若干次往返，寫入並更新該團隊的隊列
+     */
+    private static void executeCommand(long teamId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO queues (team_id, status) VALUES (?, 'WAITING')", teamId);
+            for (int i = 0; i < JDBC_ROUND_TRIPS; i++) {
+                jdbcTemplate.execute("CALL SLEEP(" + ROUND_TRIP_MILLIS + ")");
+            }
+            jdbcTemplate.update("UPDATE queues SET status = 'SERVED' WHERE team_id = ? AND status = 'WAITING'", teamId);
+        });
+    }
+}
@@ -0,0 +1,157 @@
+package com.shuttleshout.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.shuttleshout.config.WebSocketProperties;
+
+/**
+ * 團隊命令調度測試
+ *
+ * @author ShuttleShout Team
+ */
+class TeamCommandDispatcherTests {
+
+    /**
+     * testJdk21 任務通過該系統屬性選擇執行模式，測試自己構建配置時同樣遵循
+     */
+    static final String EXECUTOR_PROPERTY = "shuttleshout.websocket.command.executor";
+
+    private TeamCommandDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void runsCommandsOfOneTeamInOrderWithoutOverlap() throws Exception {
+        dispatcher = newDispatcher(4, 10000);
+        List<Integer> executed = new ArrayList<>();
+        int[] running = new int[1];
+        boolean[] overlapped = new boolean[1];
+        CountDownLatch done = new CountDownLatch(500);
+
+        for (int i = 0; i < 500; i++) {
+            int index = i;
+            assertTrue(dispatcher.dispatch(1L, () -> {
+                if (++running[0] > 1) {
+                    overlapped[0] = true;
+                }
+                executed.add(index);
+                running[0]--;
+                done.countDown();
+            }));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertFalse(overlapped[0]);
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, executed.get(i));
+        }
+    }
+
+    @Test
+    void doesNotOverlapCommandsWhileMailboxDrains() throws Exception {
+        int producers = 4;
+        int perProducer = 5000;
+        dispatcher = newDispatcher(4, producers * perProducer);
+        AtomicInteger running = new AtomicInteger();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(producers * perProducer);
+        Runnable command = () -> {
+            if (running.incrementAndGet() > 1) {
+                overlapped.set(true);
+            }
+            Thread.yield();
+            running.decrementAndGet();
+            done.countDown();
+        };
+
+        // 多個線程持續投遞，郵箱反復清空、移除、重建，命令會落在工作線程收尾的窗口內
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    assertTrue(dispatcher.dispatch(1L, command));
+                    if (i % 16 == 0) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(producer);
+            producer.start();
+        }
+        for (Thread producer : threads) {
+            producer.join();
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertFalse(overlapped.get());
+    }
+
+    @Test
+    void runsDifferentTeamsInParallel() throws Exception {
+        dispatcher = newDispatcher(2, 10);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CountDownLatch finished = new CountDownLatch(2);
+        Runnable command = () -> {
+            bothStarted.countDown();
+            try {
+                // 只有兩個團隊同時執行時才會通過
+                if (bothStarted.await(5, TimeUnit.SECONDS)) {
+                    finished.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        dispatcher.dispatch(1L, command);
+        dispatcher.dispatch(2L, command);
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectsCommandsWhenMailboxIsFull() throws Exception {
+        dispatcher = newDispatcher(1, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        dispatcher.dispatch(1L, () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(dispatcher.dispatch(1L, () -> { }));
+        assertTrue(dispatcher.dispatch(1L, () -> { }));
+        assertFalse(dispatcher.dispatch(1L, () -> { }));
+        release.countDown();
+    }
+
+    static TeamCommandDispatcher newDispatcher(int threads, int capacity) {
+        WebSocketProperties properties = new WebSocketProperties();
+        properties.getCommand().setExecutor(WebSocketProperties.ExecutorMode.valueOf(
+                System.getProperty(EXECUTOR_PROPERTY, "platform").toUpperCase()));
+        properties.getCommand().setWorkerThreads(threads);
+        properties.getCommand().setMailboxCapacity(capacity);
+        return new TeamCommandDispatcher(properties);
+    }
+}
@@ -0,0 +1,73 @@
+package com.shuttleshout.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.shuttleshout.config.WebSocketProperties;
+
+/**
+ * 團隊事件重放緩衝測試
+ *
+ * @author ShuttleShout Team
+ */
+class TeamReplayBufferTests {
+
+    private static final Long TEAM_ID = 1L;
+
+    @Test
+    void replaysOnlyMissedFrames() throws Exception {
+        TeamReplayBuffer buffer = newBuffer(8);
+        long first = buffer.publish(TEAM_ID, seq -> frame("A", seq));
+        buffer.publish(TEAM_ID, seq -> frame("B", seq));
+        buffer.publish(TEAM_ID, seq -> frame("C", seq));
+
+        List<String> replayed = new ArrayList<>();
+        AtomicBoolean joined = new AtomicBoolean();
+        int count = buffer.resume(TEAM_ID, first, () -> joined.set(true),
+                frame -> replayed.add(frame.getType()));
+
+        assertTrue(joined.get());
+        assertEquals(2, count);
+        assertEquals(2, replayed.size());
+        assertEquals("B", replayed.get(0));
+        assertEquals("C", replayed.get(1));
+        assertEquals(0, buffer.resume(TEAM_ID, first + 2, () -> { }, frame -> { }));
+    }
+
+    @Test
+    void refusesSequencesThatAgedOutOrAreUnknown() throws Exception {
+        TeamReplayBuffer buffer = newBuffer(2);
+        long first = buffer.publish(TEAM_ID, seq -> frame("A", seq));
+        buffer.publish(TEAM_ID, seq -> frame("B", seq));
+        buffer.publish(TEAM_ID, seq -> frame("C", seq));
+        buffer.publish(TEAM_ID, seq -> frame("D", seq));
+
+        assertEquals(TeamReplayBuffer.NOT_RESUMABLE, buffer.resume(TEAM_ID, first, () -> { }, frame -> { }));
+        assertEquals(2, buffer.resume(TEAM_ID, first + 1, () -> { }, frame -> { }));
+        assertEquals(TeamReplayBuffer.NOT_RESUMABLE, buffer.resume(TEAM_ID, first + 10, () -> { }, frame -> { }));
+        assertEquals(TeamReplayBuffer.NOT_RESUMABLE, buffer.resume(2L, first, () -> { }, frame -> { }));
+        assertEquals(TeamReplayBuffer.NOT_RESUMABLE, buffer.resume(TEAM_ID, null, () -> { }, frame -> { }));
+    }
+
+    @Test
+    void writesSeqIntoSerializedMessage() {
+        assertEquals("{\"seq\":5,\"type\":\"A\"}", OutboundMessageEncoder.withSeq("{\"type\":\"A\"}", 5));
+        assertEquals("{\"seq\":5}", OutboundMessageEncoder.withSeq("{}", 5));
+    }
+
+    private static TeamReplayBuffer newBuffer(int capacity) {
+        WebSocketProperties properties = new WebSocketProperties();
+        properties.getReplay().setCapacity(capacity);
+        return new TeamReplayBuffer(properties);
+    }
+
+    private static OutboundFrame frame(String type, long seq) {
+        return OutboundFrame.of(type, TEAM_ID, "{\"seq\":" + seq + "}");
+    }
+}
@@ -0,0 +1,271 @@
+package com.shuttleshout.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.shuttleshout.common.model.dto.NewGameResetDTO;
+import com.shuttleshout.common.model.dto.QueueDTO;
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.common.model.dto.WaitingQueueEntryDTO;
+import com.shuttleshout.common.model.po.Court;
+import com.shuttleshout.common.model.po.Player;
+import com.shuttleshout.common.model.po.Queue;
+import com.shuttleshout.repository.PlayerRepository;
+import com.shuttleshout.repository.UserRepository;
+import com.shuttleshout.service.CourtService;
+import com.shuttleshout.service.PlayerService;
+import com.shuttleshout.service.QueueService;
+import com.shuttleshout.service.UserTeamService;
+
+/**
+ * 團隊會話狀態測試
+ *
+ * @author ShuttleShout Team
+ */
+class TeamSessionStateManagerTests {
+
+    private static final Long TEAM_ID = 1L;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private CourtService courtService;
+    private QueueService queueService;
+    private UserTeamService userTeamService;
+    private PlayerService playerService;
+    private PlayerRepository playerRepository;
+    private TeamSessionRegistry sessionRegistry;
+    private TeamCommandDispatcher commandDispatcher;
+    private TeamSessionStateManager manager;
+
+    @BeforeEach
+    void setUp() {
+        courtService = mock(CourtService.class);
+        queueService = mock(QueueService.class);
+        userTeamService = mock(UserTeamService.class);
+        playerService = mock(PlayerService.class);
+        playerRepository = mock(PlayerRepository.class);
+        sessionRegistry = new TeamSessionRegistry();
+        commandDispatcher = TeamCommandDispatcherTests.newDispatcher(0, 1000);
+        manager = new TeamSessionStateManager(courtService, queueService, userTeamService,
+                playerService, playerRepository, mock(UserRepository.class), sessionRegistry, commandDispatcher);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        sessionRegistry.join(TEAM_ID, session);
+
+        Court court = Court.builder().id(10L).teamId(TEAM_ID).player1Id(101L).build();
+        when(courtService.getCourtsByTeamId(TEAM_ID)).thenReturn(Collections.singletonList(court));
+        when(userTeamService.getTeamMembers(TEAM_ID)).thenReturn(Arrays.asList(
+                member(101L, "Alice"), member(102L, "Bob"), member(103L, "Carol"), member(104L, "Dave")));
+        // Carol 排隊號碼較小，應排在 Bob 前面
+        when(queueService.getWaitingQueueEntries(TEAM_ID)).thenReturn(Arrays.asList(
+                waiting(1L, 202L, 102L, 2, BASE), waiting(2L, 203L, 103L, 1, BASE.plusMinutes(5))));
+        when(playerRepository.selectListByQuery(any(QueryWrapper.class))).thenReturn(Arrays.asList(
+                player(202L, 102L, "Bob"), player(203L, 103L, "Carol")));
+    }
+
+    @Test
+    void loadsOnceAndServesQueueReadsFromMemory() {
+        TeamSessionState state = manager.get(TEAM_ID);
+        assertSame(state, manager.get(TEAM_ID));
+
+        // 等待隊列：不在場上的成員，有隊列記錄的按等待時間排序，沒有的排在最後
+        assertEquals(Arrays.asList(103L, 102L, 104L), userIds(state.getIdleMembers()));
+        assertEquals(Arrays.asList(103L, 102L), userIds(state.getWaitingEntries()));
+        assertEquals(1, state.countOccupiedCourts());
+
+        verify(courtService, times(1)).getCourtsByTeamId(TEAM_ID);
+        verify(userTeamService, times(1)).getTeamMembers(TEAM_ID);
+        verify(queueService, times(1)).getWaitingQueueEntries(TEAM_ID);
+        verify(playerRepository, times(1)).selectListByQuery(any(QueryWrapper.class));
+        verifyNoMoreInteractions(courtService, userTeamService, queueService, playerRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        commandDispatcher.shutdown();
+    }
+
+    @Test
+    void doesNotCacheTeamsWithoutRoom() {
+        Long otherTeam = 2L;
+        assertNotSame(manager.get(otherTeam), manager.get(otherTeam));
+        verify(courtService, times(2)).getCourtsByTeamId(otherTeam);
+    }
+
+    @Test
+    void evictsBehindQueuedTeamCommands() throws InterruptedException {
+        TeamSessionState state = manager.get(TEAM_ID);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch commandDone = new CountDownLatch(1);
+        TeamSessionState[] seenByCommand = new TeamSessionState[1];
+        commandDispatcher.dispatch(TEAM_ID, () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            seenByCommand[0] = manager.get(TEAM_ID);
+            commandDone.countDown();
+        });
+
+        // 隊列中的命令執行完之前不移除，命令看到的仍是同一份狀態
+        manager.evictForUser(102L);
+        assertSame(state, manager.get(TEAM_ID));
+        release.countDown();
+        commandDone.await(5, TimeUnit.SECONDS);
+        assertSame(state, seenByCommand[0]);
+
+        CountDownLatch evicted = new CountDownLatch(1);
+        commandDispatcher.dispatch(TEAM_ID, evicted::countDown);
+        evicted.await(5, TimeUnit.SECONDS);
+        assertNotSame(state, manager.get(TEAM_ID));
+    }
+
+    @Test
+    void appliesMutationsAfterPersisting() {
+        TeamSessionState state = manager.get(TEAM_ID);
+
+        Court court = manager.getCourt(TEAM_ID, 10L);
+        court.setPlayer2Id(104L);
+        manager.updateCourt(court);
+        verify(courtService).updateCourtPlayers(court);
+        assertEquals(Arrays.asList(103L, 102L), userIds(state.getIdleMembers()));
+
+        QueueDTO served = manager.serve(TEAM_ID, 103L, 10L);
+        verify(queueService).updateQueueStatus(2L, Queue.QueueStatus.SERVED);
+        assertEquals(Queue.QueueStatus.SERVED, served.getStatus());
+        assertNull(state.getOldestWaiting(103L));
+        assertEquals(Collections.singletonList(102L), userIds(state.getWaitingEntries()));
+
+        manager.clearCourtPlayers(court);
+        assertEquals(0, state.countOccupiedCourts());
+    }
+
+    @Test
+    void resolvesPlayersThroughUserLinkWithoutExtraQueries() {
+        TeamSessionState state = manager.get(TEAM_ID);
+        assertEquals(Long.valueOf(102L), state.getUserIdByPlayer(202L));
+        assertEquals(Long.valueOf(203L), state.getPlayerIdByUser(103L));
+
+        // 已有球員記錄的成員重新排隊時不再查詢或創建球員
+        Queue created = new Queue();
+        created.setId(3L);
+        created.setPlayerId(202L);
+        created.setStatus(Queue.QueueStatus.WAITING);
+        when(queueService.createQueue(202L, null, Queue.QueueStatus.WAITING)).thenReturn(created);
+        manager.enqueue(TEAM_ID, 102L, null, Queue.QueueStatus.WAITING);
+        verify(playerService, never()).createPlayerFromUser(any(), any());
+        verify(playerService, never()).linkUser(any(), any());
+    }
+
+    @Test
+    void backfillsUserLinkForLegacyPlayers() {
+        // 舊數據沒有 user_id，按姓名匹配後回填
+        when(playerRepository.selectListByQuery(any(QueryWrapper.class))).thenReturn(Arrays.asList(
+                player(202L, null, "Bob"), player(203L, 103L, "Carol")));
+        when(queueService.getWaitingQueueEntries(TEAM_ID)).thenReturn(Arrays.asList(
+                waiting(1L, 202L, null, 2, BASE), waiting(2L, 203L, 103L, 1, BASE.plusMinutes(5))));
+
+        TeamSessionState state = manager.get(TEAM_ID);
+        verify(playerService).linkUser(202L, 102L);
+        assertEquals(Arrays.asList(103L, 102L), userIds(state.getWaitingEntries()));
+    }
+
+    @Test
+    void startsNewGameWithSingleBulkReset() {
+        TeamSessionState state = manager.get(TEAM_ID);
+        when(queueService.startNewGame(TEAM_ID, state.getMembers())).thenReturn(NewGameResetDTO.builder()
+                .clearedCourtCount(1)
+                .deletedQueueCount(2)
+                .waitingEntries(Arrays.asList(
+                        waiting(5L, 201L, 101L, 1, BASE), waiting(6L, 202L, 102L, 2, BASE),
+                        waiting(7L, 203L, 103L, 3, BASE), waiting(8L, 204L, 104L, 4, BASE)))
+                .build());
+
+        NewGameResetDTO result = manager.startNewGame(TEAM_ID);
+
+        assertEquals(Integer.valueOf(1), result.getClearedCourtCount());
+        assertEquals(0, state.countOccupiedCourts());
+        assertEquals(Arrays.asList(101L, 102L, 103L, 104L), userIds(state.getWaitingEntries()));
+        assertEquals(Long.valueOf(204L), state.getPlayerIdByUser(104L));
+        // 不逐個場地、逐個成員寫入
+        verify(courtService, never()).clearCourtPlayers(any());
+        verify(queueService, never()).createQueue(any(), any(), any());
+        verify(playerService, never()).createPlayerFromUser(any(), any());
+    }
+
+    @Test
+    void syncsWaitingEntriesAfterBulkTransition() {
+        TeamSessionState state = manager.get(TEAM_ID);
+        when(queueService.transitionQueuesByTeamId(TEAM_ID, Queue.QueueStatus.WAITING, Queue.QueueStatus.CANCELLED))
+                .thenReturn(2);
+
+        assertEquals(2, manager.transitionQueues(TEAM_ID, Queue.QueueStatus.WAITING, Queue.QueueStatus.CANCELLED));
+        assertSame(state, manager.get(TEAM_ID));
+        assertEquals(0, state.getWaitingEntries().size());
+
+        // 轉回 WAITING 時按數據庫重新加載
+        when(queueService.transitionQueuesByTeamId(TEAM_ID, Queue.QueueStatus.CANCELLED, Queue.QueueStatus.WAITING))
+                .thenReturn(2);
+        manager.transitionQueues(TEAM_ID, Queue.QueueStatus.CANCELLED, Queue.QueueStatus.WAITING);
+        assertEquals(Arrays.asList(103L, 102L), userIds(manager.get(TEAM_ID).getWaitingEntries()));
+    }
+
+    @Test
+    void keepsMemoryUnchangedWhenPersistingFails() {
+        TeamSessionState state = manager.get(TEAM_ID);
+        doThrow(new IllegalStateException("db down")).when(queueService).deleteWaitingQueuesByTeamId(eq(TEAM_ID));
+
+        assertThrows(IllegalStateException.class, () -> manager.clearWaiting(TEAM_ID));
+        assertEquals(2, state.getWaitingEntries().size());
+
+        Court court = manager.getCourt(TEAM_ID, 10L);
+        court.setPlayer1Id(null);
+        doThrow(new IllegalStateException("db down")).when(courtService).updateCourtPlayers(court);
+        assertThrows(IllegalStateException.class, () -> manager.updateCourt(court));
+        assertEquals(1, state.countOccupiedCourts());
+    }
+
+    private static List<Long> userIds(List<TeamSessionState.WaitingEntry> entries) {
+        return entries.stream().map(entry -> entry.getMember().getUserId()).collect(Collectors.toList());
+    }
+
+    private static UserTeamDTO member(Long userId, String name) {
+        return UserTeamDTO.builder().userId(userId).teamId(TEAM_ID).userName(name).build();
+    }
+
+    private static Player player(Long id, Long userId, String name) {
+        return Player.builder().id(id).userId(userId).name(name).teamId(TEAM_ID).build();
+    }
+
+    private static WaitingQueueEntryDTO waiting(Long id, Long playerId, Long userId, int queueNumber,
+                                                LocalDateTime createdAt) {
+        return WaitingQueueEntryDTO.builder().queueId(id).playerId(playerId).userId(userId)
+                .queueNumber(queueNumber).queueCreatedAt(createdAt).build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.shuttleshout.handler.matchmaking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.shuttleshout.common.exception.ApiException;
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.config.MatchmakingProperties;
+import com.shuttleshout.handler.TeamSessionState;
+
+/**
+ * 撮合引擎測試
+ *
+ * @author ShuttleShout Team
+ */
+class MatchmakingEngineTests {
+
+    private static final Long TEAM_ID = 1L;
+
+    @Test
+    void buildsPoolWithoutPlayersOnCourtAndTakesInPlace() {
+        CandidatePool pool = pool(new HashSet<>(Arrays.asList(2L, 5L)), 1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        assertEquals(5, pool.size());
+
+        List<UserTeamDTO> taken = pool.take(new int[] {3, 0});
+
+        assertEquals(Arrays.asList(6L, 1L), userIds(taken));
+        assertEquals(3, pool.size());
+        assertEquals(3L, pool.userId(0));
+        assertEquals(4L, pool.userId(1));
+        assertEquals(7L, pool.userId(2));
+    }
+
+    @Test
+    void roundRobinRotatesThroughRosterAcrossAssignments() {
+        RoundRobinMatchmakingEngine engine = new RoundRobinMatchmakingEngine();
+
+        // 等待順序與輪換順序無關，輪換按用戶ID
+        CandidatePool first = pool(Collections.emptySet(), 6L, 2L, 5L, 1L, 4L, 3L);
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), userIds(first.take(engine.select(first, 4))));
+
+        CandidatePool second = pool(Collections.emptySet(), 6L, 2L, 5L, 1L, 4L, 3L);
+        assertEquals(Arrays.asList(5L, 6L, 1L, 2L), userIds(second.take(engine.select(second, 4))));
+    }
+
+    @Test
+    void randomSelectsDistinctCandidates() {
+        RandomMatchmakingEngine engine = new RandomMatchmakingEngine();
+        CandidatePool pool = pool(Collections.emptySet(), 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+
+        for (int round = 0; round < 100; round++) {
+            Set<Integer> selected = new HashSet<>();
+            for (int index : engine.select(pool, 4)) {
+                assertTrue(index >= 0 && index < pool.size());
+                selected.add(index);
+            }
+            assertEquals(4, selected.size());
+        }
+        assertEquals(3, engine.select(pool(Collections.emptySet(), 1L, 2L, 3L), 4).length);
+    }
+
+    @Test
+    void resolvesEnginesByTeamAndName() {
+        MatchmakingProperties properties = new MatchmakingProperties();
+        properties.getTeams().put(2L, "round_robin");
+        MatchmakingEngineRegistry registry = new MatchmakingEngineRegistry(Arrays.asList(
+                new WaitingTimeMatchmakingEngine(), new RandomMatchmakingEngine(), new RoundRobinMatchmakingEngine()),
+                properties);
+
+        assertEquals("WAITING_TIME", registry.forTeam(TEAM_ID).getName());
+        assertEquals("ROUND_ROBIN", registry.forTeam(2L).getName());
+        assertEquals("RANDOM", registry.get("random").getName());
+        assertThrows(ApiException.class, () -> registry.get("ELO"));
+
+        properties.getTeams().put(3L, "ELO");
+        assertThrows(IllegalStateException.class, () -> new MatchmakingEngineRegistry(
+                Collections.singletonList(new WaitingTimeMatchmakingEngine()), properties));
+    }
+
+    private static CandidatePool pool(Set<Long> onCourt, Long... waitingUserIds) {
+        List<TeamSessionState.WaitingEntry> waiting = new ArrayList<>();
+        for (Long userId : waitingUserIds) {
+            waiting.add(new TeamSessionState.WaitingEntry(
+                    UserTeamDTO.builder().userId(userId).teamId(TEAM_ID).build(), null));
+        }
+        return CandidatePool.of(TEAM_ID, waiting, onCourt);
+    }
+
+    private static List<Long> userIds(List<UserTeamDTO> members) {
+        List<Long> ids = new ArrayList<>();
+        for (UserTeamDTO member : members) {
+            ids.add(member.getUserId());
+        }
+        return ids;
+    }
+}
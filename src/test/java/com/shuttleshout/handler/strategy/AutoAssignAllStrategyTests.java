@@ -0,0 +1,102 @@
+package com.shuttleshout.handler.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.common.model.po.Court;
+import com.shuttleshout.handler.TeamSessionState;
+import com.shuttleshout.handler.matchmaking.CandidatePool;
+import com.shuttleshout.handler.matchmaking.WaitingTimeMatchmakingEngine;
+
+/**
+ * 批量自動分配策略測試
+ *
+ * @author ShuttleShout Team
+ */
+class AutoAssignAllStrategyTests {
+
+    @Test
+    void fillsEmptyCourtsLikeSequentialAutoAssign() {
+        List<Court> courts = Arrays.asList(
+                Court.builder().id(1L).build(),
+                Court.builder().id(2L).player1Id(3L).player2Id(4L).build(),
+                Court.builder().id(3L).build(),
+                Court.builder().id(4L).build());
+        List<TeamSessionState.WaitingEntry> waiting = new ArrayList<>();
+        for (long userId = 1; userId <= 11; userId++) {
+            waiting.add(new TeamSessionState.WaitingEntry(member(userId), null));
+        }
+        Set<Long> onCourt = new HashSet<>(Arrays.asList(3L, 4L));
+
+        Map<Long, List<UserTeamDTO>> plan = AutoAssignAllStrategy.plan(courts,
+                CandidatePool.of(1L, waiting, onCourt), new WaitingTimeMatchmakingEngine());
+
+        assertEquals(sequential(courts, waiting, onCourt), plan);
+        assertEquals(Arrays.asList(1L, 3L), new ArrayList<>(plan.keySet()));
+        assertEquals(Arrays.asList(1L, 2L, 5L, 6L), userIds(plan.get(1L)));
+        assertEquals(Arrays.asList(7L, 8L, 9L, 10L), userIds(plan.get(3L)));
+    }
+
+    @Test
+    void assignsNothingWhenWaitingQueueCannotFillACourt() {
+        List<TeamSessionState.WaitingEntry> waiting = Arrays.asList(
+                new TeamSessionState.WaitingEntry(member(1L), null),
+                new TeamSessionState.WaitingEntry(member(2L), null));
+
+        assertTrue(AutoAssignAllStrategy.plan(Collections.singletonList(Court.builder().id(1L).build()),
+                CandidatePool.of(1L, waiting, Collections.emptySet()), new WaitingTimeMatchmakingEngine()).isEmpty());
+    }
+
+    /**
+     * 逐個空場地執行 AUTO_ASSIGN 的選擇規則：每次從頭掃描等待隊列，跳過已在場上的成員
+     */
+    private static Map<Long, List<UserTeamDTO>> sequential(List<Court> courts,
+                                                           List<TeamSessionState.WaitingEntry> waiting,
+                                                           Set<Long> onCourt) {
+        Map<Long, List<UserTeamDTO>> result = new LinkedHashMap<>();
+        Set<Long> playing = new HashSet<>(onCourt);
+        for (Court court : courts) {
+            if (TeamSessionState.hasPlayers(court)) {
+                continue;
+            }
+            List<UserTeamDTO> selected = new ArrayList<>();
+            for (TeamSessionState.WaitingEntry entry : waiting) {
+                if (selected.size() < 4 && !playing.contains(entry.getMember().getUserId())) {
+                    selected.add(entry.getMember());
+                }
+            }
+            if (selected.size() < 4) {
+                continue;
+            }
+            for (UserTeamDTO member : selected) {
+                playing.add(member.getUserId());
+            }
+            result.put(court.getId(), selected);
+        }
+        return result;
+    }
+
+    private static List<Long> userIds(List<UserTeamDTO> members) {
+        List<Long> ids = new ArrayList<>();
+        for (UserTeamDTO member : members) {
+            ids.add(member.getUserId());
+        }
+        return ids;
+    }
+
+    private static UserTeamDTO member(Long userId) {
+        return UserTeamDTO.builder().userId(userId).teamId(1L).userName("user" + userId).build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.shuttleshout.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.shuttleshout.common.model.po.RolePO;
+import com.shuttleshout.common.model.po.UserPO;
+import com.shuttleshout.config.PrincipalCacheProperties;
+import com.shuttleshout.repository.UserRepository;
+
+/**
+ * 用戶認證信息加載測試
+ *
+ * @author ShuttleShout Team
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTests {
+
+    private static final Long USER_ID = 7L;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private PrincipalCache principalCache;
+
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(new PrincipalCacheProperties());
+        userDetailsService = new CustomUserDetailsService(userRepository, principalCache);
+    }
+
+    @Test
+    void servesRepeatedAuthenticationsFromPrincipalCache() {
+        when(userRepository.selectOneWithRelationsById(USER_ID)).thenReturn(user("ADMIN"));
+
+        UserDetails first = userDetailsService.loadPrincipalById(String.valueOf(USER_ID));
+        UserDetails second = userDetailsService.loadPrincipalById(String.valueOf(USER_ID));
+
+        assertSame(first, second);
+        assertEquals("ROLE_ADMIN", first.getAuthorities().iterator().next().getAuthority());
+        assertTrue(first.getPassword().isEmpty());
+        verify(userRepository, times(1)).selectOneWithRelationsById(USER_ID);
+    }
+
+    @Test
+    void reloadsRolesAfterEviction() {
+        when(userRepository.selectOneWithRelationsById(USER_ID)).thenReturn(user("ADMIN"), user("PLAYER"));
+        userDetailsService.loadPrincipalById(String.valueOf(USER_ID));
+
+        principalCache.evict(USER_ID);
+        UserDetails reloaded = userDetailsService.loadPrincipalById(String.valueOf(USER_ID));
+
+        assertEquals("ROLE_PLAYER", reloaded.getAuthorities().iterator().next().getAuthority());
+        verify(userRepository, times(2)).selectOneWithRelationsById(USER_ID);
+    }
+
+    private static UserPO user(String roleCode) {
+        RolePO role = new RolePO();
+        role.setCode(roleCode);
+        UserPO user = new UserPO();
+        user.setId(USER_ID);
+        user.setPassword("{bcrypt}hash");
+        user.setIsActive(true);
+        user.setRoles(Collections.singletonList(role));
+        return user;
+    }
+}
@@ -0,0 +1,101 @@
+package com.shuttleshout.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import com.shuttleshout.common.constants.ApplicationConstants;
+import com.shuttleshout.common.util.JwtUtil;
+
+/**
+ * JWT認證過濾器測試
+ *
+ * @author ShuttleShout Team
+ */
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTests {
+
+    private static final String SECRET = "shuttleshout-test-secret-key-that-is-long-enough-for-hs512-signatures-0123456789";
+
+    private static final Long USER_ID = 42L;
+
+    @Mock
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Mock
+    private RolesVersionRegistry rolesVersionRegistry;
+
+    @Mock
+    private TokenRevocationStore tokenRevocationStore;
+
+    private JwtUtil jwtUtil;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 60000L, 16, 60000, true);
+        filter = new JwtAuthenticationFilter(jwtUtil, customUserDetailsService, rolesVersionRegistry,
+                tokenRevocationStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesFromRoleClaimsWithoutLoadingUser() throws Exception {
+        when(rolesVersionRegistry.current(USER_ID)).thenReturn(3L);
+
+        Authentication authentication = authenticate(token(3L));
+
+        assertEquals(String.valueOf(USER_ID), authentication.getName());
+        assertEquals("ROLE_ADMIN", authentication.getAuthorities().iterator().next().getAuthority());
+        verify(customUserDetailsService, never()).loadPrincipalById(anyString());
+    }
+
+    @Test
+    void rejectsTokenWithStaleRolesVersion() throws Exception {
+        // 簽發後角色被修改，版本號已加一
+        when(rolesVersionRegistry.current(USER_ID)).thenReturn(4L);
+
+        assertNull(authenticate(token(3L)));
+        verify(customUserDetailsService, never()).loadPrincipalById(anyString());
+    }
+
+    @Test
+    void rejectsTokenOfDeletedUser() throws Exception {
+        when(rolesVersionRegistry.current(USER_ID)).thenReturn(null);
+
+        assertNull(authenticate(token(3L)));
+    }
+
+    private String token(long rolesVersion) {
+        return jwtUtil.generateToken(User.withUsername(String.valueOf(USER_ID)).password("").roles("ADMIN").build(),
+                rolesVersion);
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader(ApplicationConstants.JWT_TOKEN_HEADER, "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
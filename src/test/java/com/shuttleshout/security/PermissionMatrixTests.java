@@ -0,0 +1,150 @@
+package com.shuttleshout.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.shuttleshout.common.model.po.ResourcePagePO;
+import com.shuttleshout.common.model.po.RolePO;
+import com.shuttleshout.common.model.po.RoleResourcePagePO;
+import com.shuttleshout.repository.ResourcePageRepository;
+import com.shuttleshout.repository.RoleRepository;
+import com.shuttleshout.repository.RoleResourcePageRepository;
+
+/**
+ * 角色頁面權限矩陣測試
+ *
+ * @author ShuttleShout Team
+ */
+@ExtendWith(MockitoExtension.class)
+class PermissionMatrixTests {
+
+    private static final Long ADMIN = 1L;
+    private static final Long MANAGER = 2L;
+    private static final Long PLAYER = 3L;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private ResourcePageRepository resourcePageRepository;
+
+    @Mock
+    private RoleResourcePageRepository roleResourcePageRepository;
+
+    @InjectMocks
+    private PermissionMatrix permissionMatrix;
+
+    @BeforeEach
+    void setUp() {
+        when(roleRepository.selectAll()).thenReturn(Arrays.asList(
+                role(ADMIN, "SYSTEM_ADMIN", "系統管理員"), role(MANAGER, "TEAM_MANAGER", "球隊管理員"),
+                role(PLAYER, "PLAYER", "球員")));
+        when(resourcePageRepository.selectAll()).thenReturn(Arrays.asList(
+                page(10L, "TEAM_MANAGEMENT", 2, true), page(11L, "PERSONNEL_MANAGEMENT", 1, true),
+                page(12L, "LEGACY_REPORT", 3, false)));
+        when(roleResourcePageRepository.selectAll()).thenReturn(Arrays.asList(
+                association(MANAGER, 10L, true, true, false),
+                association(MANAGER, 11L, true, false, false),
+                association(PLAYER, 10L, true, false, false),
+                association(PLAYER, 12L, false, false, false)));
+    }
+
+    @Test
+    void answersPermissionChecksFromSingleSnapshot() {
+        List<Long> manager = Collections.singletonList(MANAGER);
+        List<Long> player = Collections.singletonList(PLAYER);
+
+        assertTrue(permissionMatrix.current().permits(manager, "TEAM_MANAGEMENT", PermissionMatrix.permissionBit("WRITE")));
+        assertFalse(permissionMatrix.current().permits(manager, "TEAM_MANAGEMENT", PermissionMatrix.permissionBit("delete")));
+        assertFalse(permissionMatrix.current().permits(player, "TEAM_MANAGEMENT", PermissionMatrix.permissionBit("write")));
+        assertTrue(permissionMatrix.current().permits(Arrays.asList(PLAYER, MANAGER), "PERSONNEL_MANAGEMENT",
+                PermissionMatrix.permissionBit("read")));
+        assertFalse(permissionMatrix.current().permits(manager, "UNKNOWN_PAGE", PermissionMatrix.permissionBit("read")));
+        assertFalse(permissionMatrix.current().permits(manager, "TEAM_MANAGEMENT", PermissionMatrix.permissionBit("share")));
+        assertTrue(permissionMatrix.current().isAdmin(Arrays.asList(PLAYER, ADMIN)));
+        // 認證信息中的角色代碼換算為角色ID，不存在的代碼忽略
+        assertEquals(Arrays.asList(MANAGER, PLAYER),
+                permissionMatrix.current().roleIdsOf(Arrays.asList("team_manager", "PLAYER", "USER")));
+
+        verify(roleResourcePageRepository, times(1)).selectAll();
+        assertEquals(1L, permissionMatrix.getStats().get("rebuilds"));
+    }
+
+    @Test
+    void listsLinkedPagesInSortOrderWithRoleNames() {
+        PermissionMatrix.Snapshot matrix = permissionMatrix.current();
+
+        // 關聯記錄存在即可見，與權限位和啟用狀態無關
+        List<ResourcePagePO> pages = matrix.pagesOf(Arrays.asList(MANAGER, PLAYER));
+        assertEquals(Arrays.asList("PERSONNEL_MANAGEMENT", "TEAM_MANAGEMENT", "LEGACY_REPORT"), codes(pages));
+        assertEquals(Arrays.asList("球隊管理員", "球員"), pages.get(1).getRoles().stream()
+                .map(RolePO::getName).collect(Collectors.toList()));
+
+        assertEquals(Arrays.asList("PERSONNEL_MANAGEMENT", "TEAM_MANAGEMENT"), codes(matrix.activePages()));
+        assertTrue(matrix.pagesOf(Collections.singletonList(ADMIN)).isEmpty());
+    }
+
+    @Test
+    void rebuildsAfterInvalidation() {
+        assertFalse(permissionMatrix.current().permits(Collections.singletonList(PLAYER), "TEAM_MANAGEMENT",
+                PermissionMatrix.WRITE));
+
+        when(roleResourcePageRepository.selectAll()).thenReturn(Collections.singletonList(
+                association(PLAYER, 10L, true, true, false)));
+        permissionMatrix.invalidate();
+
+        assertTrue(permissionMatrix.current().permits(Collections.singletonList(PLAYER), "TEAM_MANAGEMENT",
+                PermissionMatrix.WRITE));
+        verify(roleResourcePageRepository, times(2)).selectAll();
+        assertEquals(1L, permissionMatrix.getStats().get("invalidations"));
+    }
+
+    private static List<String> codes(List<ResourcePagePO> pages) {
+        return pages.stream().map(ResourcePagePO::getCode).collect(Collectors.toList());
+    }
+
+    private static RolePO role(Long id, String code, String name) {
+        RolePO role = new RolePO();
+        role.setId(id);
+        role.setCode(code);
+        role.setName(name);
+        return role;
+    }
+
+    private static ResourcePagePO page(Long id, String code, int sortOrder, boolean active) {
+        ResourcePagePO page = new ResourcePagePO();
+        page.setId(id);
+        page.setCode(code);
+        page.setName(code);
+        page.setSortOrder(sortOrder);
+        page.setIsActive(active);
+        return page;
+    }
+
+    private static RoleResourcePagePO association(Long roleId, Long pageId, boolean read, boolean write,
+            boolean delete) {
+        RoleResourcePagePO association = new RoleResourcePagePO();
+        association.setRoleId(roleId);
+        association.setResourcePageId(pageId);
+        association.setCanRead(read);
+        association.setCanWrite(write);
+        association.setCanDelete(delete);
+        return association;
+    }
+}
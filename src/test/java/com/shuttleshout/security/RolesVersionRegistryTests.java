@@ -0,0 +1,79 @@
+package com.shuttleshout.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.shuttleshout.common.util.JwtUtil;
+
+/**
+ * 用戶角色版本號測試
+ *
+ * @author ShuttleShout Team
+ */
+@ExtendWith(MockitoExtension.class)
+class RolesVersionRegistryTests {
+
+    private static final String SECRET = "shuttleshout-test-secret-key-that-is-long-enough-for-hs512-signatures-0123456789";
+
+    private static final String SELECT_VERSION = "SELECT roles_version FROM users WHERE id = ?";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cachesVersionUntilBumped() {
+        RolesVersionRegistry registry = new RolesVersionRegistry(jdbcTemplate, jwtUtil(true));
+        when(jdbcTemplate.queryForList(SELECT_VERSION, Long.class, 7L))
+                .thenReturn(Collections.singletonList(3L), Collections.singletonList(4L));
+
+        assertEquals(Long.valueOf(3L), registry.current(7L));
+        assertEquals(Long.valueOf(3L), registry.current(7L));
+        verify(jdbcTemplate, times(1)).queryForList(SELECT_VERSION, Long.class, 7L);
+
+        registry.bump(7L);
+
+        verify(jdbcTemplate).update(anyString(), eq(7L));
+        assertEquals(Long.valueOf(4L), registry.current(7L));
+    }
+
+    @Test
+    void reportsDeletedUserAsMissing() {
+        RolesVersionRegistry registry = new RolesVersionRegistry(jdbcTemplate, jwtUtil(true));
+        when(jdbcTemplate.queryForList(SELECT_VERSION, Long.class, 7L)).thenReturn(Collections.emptyList());
+
+        registry.forget(7L);
+
+        assertNull(registry.current(7L));
+    }
+
+    @Test
+    void leavesRolesVersionColumnAloneWhenRoleClaimsDisabled() {
+        RolesVersionRegistry registry = new RolesVersionRegistry(jdbcTemplate, jwtUtil(false));
+
+        // 未執行遷移 10 的數據庫沒有 roles_version 列，創建用戶、分配角色、修改角色都不能訪問它
+        registry.bump(7L);
+        registry.bumpRole(2L);
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(jdbcTemplate, never()).update(anyString(), any(Object.class));
+    }
+
+    private static JwtUtil jwtUtil(boolean roleClaims) {
+        return new JwtUtil(SECRET, 60000L, 16, 60000, roleClaims);
+    }
+}
@@ -0,0 +1,92 @@
+package com.shuttleshout.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.shuttleshout.config.TokenRevocationProperties;
+
+/**
+ * token 撤銷存儲測試
+ *
+ * @author ShuttleShout Team
+ */
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationStoreTests {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rejectsRevokedTokensAndKeepsThemAcrossRefresh() {
+        TokenRevocationProperties properties = new TokenRevocationProperties();
+        properties.setEnabled(true);
+        TokenRevocationStore store = new TokenRevocationStore(jdbcTemplate, properties);
+        Date expiresAt = new Date(System.currentTimeMillis() + 60000);
+
+        store.revoke("local", 1L, expiresAt);
+        assertTrue(store.isRevoked("local"));
+        assertFalse(store.isRevoked("other"));
+        assertFalse(store.isRevoked(null));
+
+        // 其他實例撤銷的記錄在重新加載後生效，本實例剛撤銷、還未讀到的記錄不丟失
+        Map<String, Object> row = new HashMap<>();
+        row.put("jti", "remote");
+        row.put("expires_at", new Timestamp(expiresAt.getTime()));
+        when(jdbcTemplate.queryForList(anyString(), any(Timestamp.class))).thenReturn(Collections.singletonList(row));
+        when(jdbcTemplate.update(anyString(), any(Timestamp.class))).thenReturn(0);
+        store.refresh();
+
+        assertTrue(store.isRevoked("remote"));
+        assertTrue(store.isRevoked("local"));
+    }
+
+    @Test
+    void skipsRevokedTokensTableWhenDisabled() {
+        TokenRevocationStore store = new TokenRevocationStore(jdbcTemplate, new TokenRevocationProperties());
+        store.start();
+
+        // 未執行遷移 11 的數據庫沒有 revoked_tokens 表，登出不能失敗
+        store.revoke("local", 1L, new Date(System.currentTimeMillis() + 60000));
+
+        assertFalse(store.isRevoked("local"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        String[] keys = new String[10000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = UUID.randomUUID().toString();
+            filter.put(keys[i]);
+        }
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "誤判數: " + falsePositives);
+    }
+}
@@ -0,0 +1,69 @@
+package com.shuttleshout.service.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.shuttleshout.config.ArchiveProperties;
+
+/**
+ * 隊列歸檔測試
+ *
+ * @author ShuttleShout Team
+ */
+class QueueArchiverTests {
+
+    private static final Timestamp CUTOFF = Timestamp.valueOf("2024-01-01 00:00:00");
+
+    private JdbcTemplate jdbcTemplate;
+    private QueueArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setBatchSize(3);
+        archiver = new QueueArchiver(jdbcTemplate, properties, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void resumesFromSavedProgressAndAdvancesIt() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT last_queue_id"), eq(Long.class)))
+                .thenReturn(Collections.singletonList(40L));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM queues"), eq(Long.class), eq(40L), eq(CUTOFF), eq(3)))
+                .thenReturn(Arrays.asList(41L, 43L, 47L));
+        when(jdbcTemplate.update(startsWith("DELETE FROM queues"), any(), any(), any())).thenReturn(3);
+
+        assertEquals(3, archiver.archiveBatch(CUTOFF));
+        verify(jdbcTemplate).update(startsWith("INSERT INTO queues_archive"), eq(41L), eq(43L), eq(47L));
+        verify(jdbcTemplate).update(startsWith("UPDATE queue_archive_progress"), eq(47L), eq(3));
+    }
+
+    @Test
+    void resetsProgressWhenRoundReachesTheEnd() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT last_queue_id"), eq(Long.class)))
+                .thenReturn(Collections.singletonList(47L));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM queues"), eq(Long.class), eq(47L), eq(CUTOFF), eq(3)))
+                .thenReturn(Collections.emptyList());
+
+        assertEquals(0, archiver.archiveBatch(CUTOFF));
+        verify(jdbcTemplate).update(startsWith("UPDATE queue_archive_progress"), eq(0L), eq(0));
+        // 進度行已存在，不需要初始化
+        verify(jdbcTemplate, never()).update(anyString());
+    }
+}
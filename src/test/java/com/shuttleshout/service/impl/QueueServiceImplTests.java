@@ -0,0 +1,91 @@
+package com.shuttleshout.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.shuttleshout.common.model.po.Queue;
+import com.shuttleshout.repository.CourtRepository;
+import com.shuttleshout.repository.PlayerRepository;
+import com.shuttleshout.repository.QueueRepository;
+import com.shuttleshout.service.CourtService;
+import com.shuttleshout.service.PlayerService;
+import com.shuttleshout.service.journal.WriteBehindJournal;
+import com.shuttleshout.service.sequence.QueueNumberAllocator;
+
+/**
+ * 隊列服務測試
+ *
+ * @author ShuttleShout Team
+ */
+@ExtendWith(MockitoExtension.class)
+class QueueServiceImplTests {
+
+    private static final Long TEAM_ID = 1L;
+
+    @Mock
+    private QueueRepository queueRepository;
+
+    @Mock
+    private PlayerRepository playerRepository;
+
+    @Mock
+    private CourtRepository courtRepository;
+
+    @Mock
+    private WriteBehindJournal writeBehindJournal;
+
+    @Mock
+    private QueueNumberAllocator queueNumberAllocator;
+
+    @Mock
+    private CourtService courtService;
+
+    @Mock
+    private PlayerService playerService;
+
+    @InjectMocks
+    private QueueServiceImpl queueService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(queueService, "mapper", queueRepository);
+    }
+
+    @Test
+    void returnsDeletedCountAfterFlushingJournal() {
+        when(queueRepository.deleteWaitingByTeamId(TEAM_ID)).thenReturn(3);
+
+        assertEquals(3, queueService.deleteWaitingQueuesByTeamId(TEAM_ID));
+        // 日誌中尚未寫入的狀態修改先落庫，不會在刪除之後寫回
+        InOrder order = inOrder(writeBehindJournal, queueRepository);
+        order.verify(writeBehindJournal).flush();
+        order.verify(queueRepository).deleteWaitingByTeamId(TEAM_ID);
+    }
+
+    @Test
+    void transitionsTeamQueuesWithSingleStatement() {
+        when(queueRepository.updateStatusByTeamId(eq(TEAM_ID), eq("WAITING"), eq("CANCELLED"),
+                any(LocalDateTime.class))).thenReturn(4);
+
+        assertEquals(4, queueService.transitionQueuesByTeamId(TEAM_ID, Queue.QueueStatus.WAITING,
+                Queue.QueueStatus.CANCELLED));
+        InOrder order = inOrder(writeBehindJournal, queueRepository);
+        order.verify(writeBehindJournal).flush();
+        order.verify(queueRepository).updateStatusByTeamId(eq(TEAM_ID), eq("WAITING"), eq("CANCELLED"),
+                any(LocalDateTime.class));
+    }
+}
@@ -0,0 +1,110 @@
+package com.shuttleshout.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.shuttleshout.common.model.po.ResourcePagePO;
+import com.shuttleshout.common.model.po.RolePO;
+import com.shuttleshout.common.model.po.RoleResourcePagePO;
+import com.shuttleshout.common.model.po.UserRolePO;
+import com.shuttleshout.repository.ResourcePageRepository;
+import com.shuttleshout.repository.RoleRepository;
+import com.shuttleshout.repository.RoleResourcePageRepository;
+import com.shuttleshout.repository.UserRoleRepository;
+import com.shuttleshout.security.PermissionMatrix;
+
+/**
+ * 頁面資源服務測試
+ *
+ * @author ShuttleShout Team
+ */
+@ExtendWith(MockitoExtension.class)
+class ResourcePageServiceImplTests {
+
+    private static final Long USER_ID = 5L;
+    private static final Long MANAGER = 2L;
+
+    @Mock
+    private RoleResourcePageRepository roleResourcePageRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private ResourcePageRepository resourcePageRepository;
+
+    @Mock
+    private UserRoleRepository userRoleRepository;
+
+    private ResourcePageServiceImpl resourcePageService;
+
+    @BeforeEach
+    void setUp() {
+        RolePO manager = new RolePO();
+        manager.setId(MANAGER);
+        manager.setCode("TEAM_MANAGER");
+        ResourcePagePO page = new ResourcePagePO();
+        page.setId(10L);
+        page.setCode("TEAM_MANAGEMENT");
+        page.setIsActive(true);
+        RoleResourcePagePO association = new RoleResourcePagePO();
+        association.setRoleId(MANAGER);
+        association.setResourcePageId(10L);
+        association.setCanRead(true);
+        association.setCanWrite(true);
+        when(roleRepository.selectAll()).thenReturn(Collections.singletonList(manager));
+        when(resourcePageRepository.selectAll()).thenReturn(Collections.singletonList(page));
+        when(roleResourcePageRepository.selectAll()).thenReturn(Collections.singletonList(association));
+
+        PermissionMatrix permissionMatrix = new PermissionMatrix(roleRepository, resourcePageRepository,
+                roleResourcePageRepository);
+        resourcePageService = new ResourcePageServiceImpl(roleResourcePageRepository, roleRepository,
+                userRoleRepository, permissionMatrix);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                String.valueOf(USER_ID), null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_TEAM_MANAGER"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void checksCurrentUserFromAuthoritiesWithoutQueries() {
+        assertTrue(resourcePageService.hasPermission(USER_ID, "TEAM_MANAGEMENT", "write"));
+        assertFalse(resourcePageService.hasPermission(USER_ID, "TEAM_MANAGEMENT", "delete"));
+        assertEquals(1, resourcePageService.getResourcePagesByUserId(USER_ID).size());
+
+        verifyNoInteractions(userRoleRepository);
+    }
+
+    @Test
+    void queriesRolesOfOtherUsers() {
+        UserRolePO userRole = new UserRolePO();
+        userRole.setRoleId(MANAGER);
+        when(userRoleRepository.selectListByQuery(any(QueryWrapper.class))).thenReturn(Arrays.asList(userRole));
+
+        assertTrue(resourcePageService.hasPermission(6L, "TEAM_MANAGEMENT", "read"));
+        verify(userRoleRepository).selectListByQuery(any(QueryWrapper.class));
+    }
+}
@@ -0,0 +1,165 @@
+package com.shuttleshout.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.shuttleshout.common.model.dto.UserTeamDTO;
+import com.shuttleshout.common.model.po.TeamPO;
+import com.shuttleshout.common.model.po.UserPO;
+import com.shuttleshout.common.model.po.UserTeamPO;
+import com.shuttleshout.config.MemberDirectoryProperties;
+import com.shuttleshout.repository.TeamRepository;
+import com.shuttleshout.repository.UserRepository;
+import com.shuttleshout.repository.UserTeamRepository;
+
+/**
+ * 用戶團隊關係服務測試
+ *
+ * @author ShuttleShout Team
+ */
+@ExtendWith(MockitoExtension.class)
+class UserTeamServiceImplTests {
+
+    private static final Long TEAM_ID = 1L;
+
+    @Mock
+    private UserTeamRepository userTeamRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TeamRepository teamRepository;
+
+    @Spy
+    private MemberDirectoryProperties memberDirectoryProperties = new MemberDirectoryProperties();
+
+    @InjectMocks
+    private UserTeamServiceImpl userTeamService;
+
+    @Test
+    void assemblesTeamMembersWithConstantQueryCount() {
+        int memberCount = 50;
+        List<UserTeamPO> memberships = new ArrayList<>();
+        List<UserPO> users = new ArrayList<>();
+        for (long userId = 1; userId <= memberCount; userId++) {
+            memberships.add(UserTeamPO.builder().id(100 + userId).userId(userId).teamId(TEAM_ID)
+                    .isOwner(userId == 1).build());
+            UserPO user = new UserPO();
+            user.setId(userId);
+            user.setUsername("user" + userId);
+            user.setRealName("用戶" + userId);
+            users.add(user);
+        }
+        when(userTeamRepository.selectListByQuery(any(QueryWrapper.class))).thenReturn(memberships);
+        when(userRepository.selectListByIds(anyCollection())).thenReturn(users);
+        when(teamRepository.selectListByIds(anyCollection())).thenReturn(Collections.singletonList(
+                TeamPO.builder().id(TEAM_ID).name("週三羽球").color("bg-blue-500").build()));
+
+        memberDirectoryProperties.setEnabled(false);
+        List<UserTeamDTO> members = userTeamService.getTeamMembers(TEAM_ID);
+
+        assertEquals(memberCount, members.size());
+        UserTeamDTO last = members.get(memberCount - 1);
+        assertEquals(Long.valueOf(memberCount), last.getUserId());
+        assertEquals("user" + memberCount, last.getUserName());
+        assertEquals("週三羽球", last.getTeamName());
+
+        // 成員關係、用戶、團隊各一條查詢，與成員數量無關
+        verify(userTeamRepository, times(1)).selectListByQuery(any(QueryWrapper.class));
+        verify(userRepository, times(1)).selectListByIds(anyCollection());
+        verify(teamRepository, times(1)).selectListByIds(anyCollection());
+        verifyNoMoreInteractions(userTeamRepository, userRepository, teamRepository);
+    }
+
+    @Test
+    void servesRepeatedReadsFromMemberDirectory() {
+        stubTeam(member(11L, 1L, true), member(12L, 2L, false));
+
+        userTeamService.getTeamMembers(TEAM_ID);
+        List<UserTeamDTO> cached = userTeamService.getTeamMembers(TEAM_ID);
+
+        assertEquals(2, cached.size());
+        verify(userTeamRepository, times(1)).selectListByQuery(any(QueryWrapper.class));
+        Map<String, Object> stats = userTeamService.getMemberDirectoryStats();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+    }
+
+    @Test
+    void invalidatesMemberDirectoryOnMembershipAndProfileChanges() {
+        stubTeam(member(11L, 1L, true), member(12L, 2L, false));
+        userTeamService.getTeamMembers(TEAM_ID);
+
+        when(userTeamRepository.selectOneByQuery(any(QueryWrapper.class)))
+                .thenReturn(member(11L, 1L, true), member(12L, 2L, false));
+        userTeamService.removeMember(1L, 2L, TEAM_ID);
+        userTeamService.getTeamMembers(TEAM_ID);
+        verify(userTeamRepository, times(2)).selectListByQuery(any(QueryWrapper.class));
+
+        // 不在團隊中的用戶修改資料不影響該團隊的緩存
+        userTeamService.evictMemberDirectoryForUser(99L);
+        userTeamService.getTeamMembers(TEAM_ID);
+        verify(userTeamRepository, times(2)).selectListByQuery(any(QueryWrapper.class));
+
+        userTeamService.evictMemberDirectoryForUser(1L);
+        userTeamService.getTeamMembers(TEAM_ID);
+        verify(userTeamRepository, times(3)).selectListByQuery(any(QueryWrapper.class));
+
+        // 團隊名稱、顏色修改或團隊刪除
+        userTeamService.evictMemberDirectory(2L);
+        userTeamService.getTeamMembers(TEAM_ID);
+        verify(userTeamRepository, times(3)).selectListByQuery(any(QueryWrapper.class));
+
+        userTeamService.evictMemberDirectory(TEAM_ID);
+        userTeamService.getTeamMembers(TEAM_ID);
+        verify(userTeamRepository, times(4)).selectListByQuery(any(QueryWrapper.class));
+    }
+
+    @Test
+    void skipsLookupsWhenTeamHasNoMembers() {
+        when(userTeamRepository.selectListByQuery(any(QueryWrapper.class))).thenReturn(Collections.emptyList());
+
+        assertTrue(userTeamService.getTeamMembers(TEAM_ID).isEmpty());
+        verifyNoInteractions(userRepository, teamRepository);
+    }
+
+    private void stubTeam(UserTeamPO... memberships) {
+        List<UserPO> users = new ArrayList<>();
+        for (UserTeamPO membership : memberships) {
+            UserPO user = new UserPO();
+            user.setId(membership.getUserId());
+            user.setUsername("user" + membership.getUserId());
+            users.add(user);
+        }
+        when(userTeamRepository.selectListByQuery(any(QueryWrapper.class))).thenReturn(Arrays.asList(memberships));
+        when(userRepository.selectListByIds(anyCollection())).thenReturn(users);
+        when(teamRepository.selectListByIds(anyCollection())).thenReturn(Collections.singletonList(
+                TeamPO.builder().id(TEAM_ID).name("週三羽球").build()));
+    }
+
+    private static UserTeamPO member(Long id, Long userId, boolean owner) {
+        return UserTeamPO.builder().id(id).userId(userId).teamId(TEAM_ID).isOwner(owner).build();
+    }
+}
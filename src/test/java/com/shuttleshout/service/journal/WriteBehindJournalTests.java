@@ -0,0 +1,193 @@
+package com.shuttleshout.service.journal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shuttleshout.common.model.po.Court;
+import com.shuttleshout.common.model.po.Queue;
+import com.shuttleshout.config.JournalProperties;
+
+/**
+ * 寫後日誌測試
+ *
+ * @author ShuttleShout Team
+ */
+class WriteBehindJournalTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private JournalProperties properties;
+    private WriteBehindJournal journal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        properties = new JournalProperties();
+        properties.setPath(tempDir.resolve("mutations.journal").toString());
+        // 測試中手動觸發寫入
+        properties.setFlushInterval(60_000);
+        journal = newJournal();
+        journal.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.shutdown();
+    }
+
+    @Test
+    void coalescesCourtUpdatesIntoOneBatch() throws Exception {
+        journal.append(JournalEntry.courtPlayers(court(10L, 101L), NOW));
+        journal.append(JournalEntry.courtPlayers(court(10L, 102L), NOW.plusSeconds(1)));
+        journal.append(JournalEntry.courtPlayers(court(11L, 103L), NOW));
+        journal.append(JournalEntry.queueStatus(5L, Queue.QueueStatus.SERVED, NOW));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+
+        journal.flush();
+
+        Map<String, List<Object[]>> batches = capturedBatches(jdbcTemplate, 2);
+        List<Object[]> courtArgs = batches.get("team_courts");
+        assertEquals(2, courtArgs.size());
+        // 同一場地只寫入最後一次修改
+        assertEquals(102L, courtArgs.get(0)[0]);
+        assertEquals(10L, courtArgs.get(0)[7]);
+        assertEquals(11L, courtArgs.get(1)[7]);
+
+        List<Object[]> queueArgs = batches.get("queues");
+        assertEquals(1, queueArgs.size());
+        assertEquals(5L, queueArgs.get(0)[6]);
+
+        assertEquals(0, Files.size(tempDir.resolve("mutations.journal")));
+        assertEquals(0, journal.getStats().get("pendingEntries"));
+    }
+
+    @Test
+    void replaysUnflushedEntriesAfterRestart() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("db down"));
+        journal.append(JournalEntry.courtPlayers(court(10L, 101L), NOW));
+        assertThrows(IllegalStateException.class, () -> journal.flush());
+        assertTrue(Files.exists(tempDir.resolve("mutations.journal")));
+
+        // 模擬進程崩潰：不調用 shutdown 直接用新實例重放日誌
+        JdbcTemplate restarted = mock(JdbcTemplate.class);
+        jdbcTemplate = restarted;
+        WriteBehindJournal recovered = newJournal();
+        recovered.start();
+        try {
+            List<Object[]> courtArgs = capturedBatches(restarted, 1).get("team_courts");
+            assertEquals(1, courtArgs.size());
+            assertArrayEquals(new Object[] {101L, null, null, null, null, null},
+                    Arrays.copyOf(courtArgs.get(0), 6));
+            assertEquals(0, Files.size(tempDir.resolve("mutations.journal")));
+        } finally {
+            recovered.shutdown();
+        }
+    }
+
+    @Test
+    void flushesInOwnTransactionWithoutHoldingCallerTransaction() throws Exception {
+        journal.append(JournalEntry.queueStatus(5L, Queue.QueueStatus.CALLED, NOW));
+
+        inTransaction(() -> {
+            journal.flush();
+            // 調用方事務仍未結束時，其他線程的寫入不被阻塞
+            journal.append(JournalEntry.queueStatus(5L, Queue.QueueStatus.SERVED, NOW.plusSeconds(1)));
+            Thread other = new Thread(journal::flush);
+            other.start();
+            try {
+                other.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertFalse(other.isAlive());
+        });
+
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(2)).getTransaction(definitions.capture());
+        for (TransactionDefinition definition : definitions.getAllValues()) {
+            assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getPropagationBehavior());
+        }
+        ArgumentCaptor<List<Object[]>> args = capturedQueueArgs(2);
+        assertEquals(Arrays.asList("CALLED", "SERVED"),
+                Arrays.asList(args.getAllValues().get(0).get(0)[0], args.getAllValues().get(1).get(0)[0]));
+        assertEquals(0, journal.getStats().get("pendingEntries"));
+        assertEquals(0, Files.size(tempDir.resolve("mutations.journal")));
+    }
+
+    private static void inTransaction(Runnable body) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            body.run();
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<List<Object[]>> capturedQueueArgs(int statements) {
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(statements)).batchUpdate(anyString(), args.capture());
+        return args;
+    }
+
+    private WriteBehindJournal newJournal() {
+        return new WriteBehindJournal(jdbcTemplate, new ObjectMapper().findAndRegisterModules(), properties,
+                transactionManager);
+    }
+
+    /**
+     * 表名 -> 該表的批量參數
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, List<Object[]>> capturedBatches(JdbcTemplate template, int statements) {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(template, times(statements)).batchUpdate(sql.capture(), args.capture());
+        Map<String, List<Object[]>> batches = new HashMap<>();
+        for (int i = 0; i < statements; i++) {
+            batches.put(sql.getAllValues().get(i).split(" ")[1], args.getAllValues().get(i));
+        }
+        return batches;
+    }
+
+    private static Court court(Long id, Long player1Id) {
+        return Court.builder().id(id).teamId(1L).player1Id(player1Id).build();
+    }
+}
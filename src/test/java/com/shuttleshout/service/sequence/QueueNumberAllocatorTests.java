@@ -0,0 +1,155 @@
+package com.shuttleshout.service.sequence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 排隊號碼分配器測試
+ *
+ * @author ShuttleShout Team
+ */
+class QueueNumberAllocatorTests {
+
+    @Test
+    void allocatesUniqueIncreasingNumbersUnderConcurrency() throws Exception {
+        CounterTable table = new CounterTable();
+        QueueNumberAllocator allocator = new QueueNumberAllocator(table, mock(PlatformTransactionManager.class));
+        int threads = 8;
+        int perThread = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit((Callable<List<Integer>>) () -> {
+                    List<Integer> numbers = new ArrayList<>(perThread);
+                    for (int n = 0; n < perThread; n++) {
+                        numbers.add(allocator.next(10L, 1L));
+                    }
+                    return numbers;
+                }));
+            }
+            Set<Integer> all = new HashSet<>();
+            for (Future<List<Integer>> future : futures) {
+                List<Integer> numbers = future.get();
+                // 同一線程拿到的號碼遞增
+                List<Integer> sorted = new ArrayList<>(numbers);
+                Collections.sort(sorted);
+                assertEquals(sorted, numbers);
+                all.addAll(numbers);
+            }
+            assertEquals(threads * perThread, all.size());
+            assertEquals(1, (int) Collections.min(all));
+            assertEquals(threads * perThread, (int) Collections.max(all));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 每個號段只訪問一次計數表
+        assertEquals(threads * perThread / QueueNumberAllocator.BLOCK_SIZE, table.reservations.get());
+    }
+
+    @Test
+    void numbersEachScopeSeparatelyAndContinuesFromExistingQueues() {
+        CounterTable table = new CounterTable();
+        table.existingMax = 41;
+        QueueNumberAllocator allocator = new QueueNumberAllocator(table, mock(PlatformTransactionManager.class));
+
+        assertEquals(42, allocator.next(10L, 1L));
+        assertEquals(43, allocator.next(10L, 1L));
+        assertEquals(42, allocator.next(null, 1L));
+        assertEquals(42, allocator.next(20L, 1L));
+        assertEquals(44, allocator.next(10L, 1L));
+        assertTrue(table.rows.containsKey("TEAM:1"));
+    }
+
+    @Test
+    void reservesOtherScopesWhileOneIsBlocked() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CounterTable table = new CounterTable() {
+            @Override
+            public int update(String sql, Object... args) {
+                if (Long.valueOf(10L).equals(args[1])) {
+                    blocked.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.update(sql, args);
+            }
+        };
+        QueueNumberAllocator allocator = new QueueNumberAllocator(table, mock(PlatformTransactionManager.class));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 場地10的計數行還不存在，預留時插入新行並在 update 中阻塞
+            Future<Integer> slow = executor.submit(() -> allocator.next(10L, 1L));
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            assertEquals(1, allocator.next(20L, 1L));
+            release.countDown();
+            assertEquals(1, (int) slow.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 用內存模擬 queue_number_sequences 表
+     */
+    private static class CounterTable extends JdbcTemplate {
+
+        final Map<String, Long> rows = new HashMap<>();
+        final AtomicInteger reservations = new AtomicInteger();
+        Integer existingMax;
+
+        @Override
+        public synchronized int update(String sql, Object... args) {
+            if (sql.startsWith("UPDATE")) {
+                String key = args[1] + ":" + args[2];
+                Long value = rows.get(key);
+                if (value == null) {
+                    return 0;
+                }
+                rows.put(key, value + ((Number) args[0]).longValue());
+                reservations.incrementAndGet();
+                return 1;
+            }
+            rows.put(args[0] + ":" + args[1], ((Number) args[2]).longValue());
+            reservations.incrementAndGet();
+            return 1;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            if (sql.contains("MAX(")) {
+                return (T) existingMax;
+            }
+            return (T) rows.get(args[0] + ":" + args[1]);
+        }
+    }
+}